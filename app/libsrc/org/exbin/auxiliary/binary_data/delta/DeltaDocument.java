@@ -24,6 +24,7 @@ import org.jspecify.annotations.Nullable;
 import org.jspecify.annotations.NullMarked;
 import org.exbin.auxiliary.binary_data.BinaryData;
 import org.exbin.auxiliary.binary_data.EditableBinaryData;
+import org.exbin.auxiliary.binary_data.OutOfBoundsException;
 import org.exbin.auxiliary.binary_data.delta.list.DefaultDoublyLinkedList;
 
 /**
@@ -37,8 +38,10 @@ public class DeltaDocument implements EditableBinaryData {
     protected final DefaultDoublyLinkedList<DataSegment> segments = new DefaultDoublyLinkedList<>();
 
     protected long dataLength = 0;
+    protected long revision = 0;
     protected final DeltaDocumentWindow pointerWindow;
     protected final List<DeltaDocumentChangedListener> changeListeners = new ArrayList<>();
+    protected final List<DeltaDocumentEditListener> editListeners = new ArrayList<>();
 
     protected static final int BUFFER_SIZE = 4096;
 
@@ -205,6 +208,98 @@ public class DeltaDocument implements EditableBinaryData {
         insertSegment(targetPosition, segment);
     }
 
+    /**
+     * Replaces multiple areas in single pass over segments.
+     * <p>
+     * Areas must be sorted and must not overlap. Inserted data contains
+     * concatenated data for all areas. Segments of removed areas are moved
+     * to returned document without copying of data.
+     *
+     * @param positions start positions of areas
+     * @param removedLengths lengths of areas to remove
+     * @param insertedData concatenated data to insert
+     * @param insertedLengths lengths of data to insert for each area
+     * @return document with concatenated removed data
+     */
+    public synchronized DeltaDocument replaceAreas(long[] positions, long[] removedLengths, BinaryData insertedData, long[] insertedLengths) {
+        int count = positions.length;
+        if (removedLengths.length != count || insertedLengths.length != count) {
+            throw new IllegalArgumentException("Areas arrays have different lengths");
+        }
+
+        long position = 0;
+        long insertedTotal = 0;
+        for (int i = 0; i < count; i++) {
+            if (positions[i] < position || removedLengths[i] < 0 || insertedLengths[i] < 0) {
+                throw new IllegalArgumentException("Areas are not sorted or overlap");
+            }
+            position = positions[i] + removedLengths[i];
+            insertedTotal += insertedLengths[i];
+        }
+        if (position > dataLength) {
+            throw new OutOfBoundsException("Replaced area is out of bounds");
+        }
+        if (insertedTotal != insertedData.getDataSize()) {
+            throw new IllegalArgumentException("Inserted data size doesn't match inserted lengths");
+        }
+
+        DeltaDocument removedDocument = repository.createDocument();
+        if (count == 0) {
+            return removedDocument;
+        }
+
+        List<DataSegment> resultSegments = new ArrayList<>();
+        List<DataSegment> removedSegments = new ArrayList<>();
+        List<DataSegment> splitSegments = new ArrayList<>();
+        SegmentsCursor documentCursor = new SegmentsCursor(segments.first(), splitSegments);
+        SegmentsCursor insertedCursor = null;
+        MemoryDataSource insertedSource = null;
+        if (insertedData instanceof DeltaDocument) {
+            insertedCursor = new SegmentsCursor(((DeltaDocument) insertedData).getSegments().first(), null);
+        } else if (insertedTotal > 0) {
+            insertedSource = repository.openMemorySource();
+            insertedSource.insert(0, insertedData);
+        }
+
+        position = 0;
+        long insertedOffset = 0;
+        long removedTotal = 0;
+        for (int i = 0; i < count; i++) {
+            documentCursor.take(positions[i] - position, resultSegments);
+            documentCursor.take(removedLengths[i], removedSegments);
+            long insertedLength = insertedLengths[i];
+            if (insertedLength > 0) {
+                if (insertedCursor != null) {
+                    insertedCursor.take(insertedLength, resultSegments);
+                } else if (insertedSource != null) {
+                    resultSegments.add(repository.createMemorySegment(insertedSource, insertedOffset, insertedLength));
+                }
+            }
+            insertedOffset += insertedLength;
+            removedTotal += removedLengths[i];
+            position = positions[i] + removedLengths[i];
+        }
+        documentCursor.take(dataLength - position, resultSegments);
+
+        for (DataSegment segment : splitSegments) {
+            repository.dropSegment(segment);
+        }
+        segments.clear();
+        segments.addAll(resultSegments);
+        removedDocument.getSegments().addAll(removedSegments);
+        removedDocument.setDataLength(removedTotal);
+        removedDocument.clearCache();
+
+        long firstPosition = positions[0];
+        long lastEnd = positions[count - 1] + removedLengths[count - 1];
+        long sizeDifference = insertedTotal - removedTotal;
+        dataLength += sizeDifference;
+        pointerWindow.reset();
+        notifyEditListeners(firstPosition, lastEnd - firstPosition, lastEnd + sizeDifference - firstPosition);
+        notifyChangeListeners(pointerWindow);
+        return removedDocument;
+    }
+
     @Override
     public synchronized void fillData(long startFrom, long length) {
         fillData(startFrom, length, (byte) 0);
@@ -212,7 +307,7 @@ public class DeltaDocument implements EditableBinaryData {
 
     @Override
     public synchronized void fillData(long startFrom, long length, byte fill) {
-        throw new UnsupportedOperationException("Not supported yet.");
+        pointerWindow.fillData(startFrom, length, fill);
     }
 
     @Override
@@ -222,13 +317,16 @@ public class DeltaDocument implements EditableBinaryData {
 
     @Override
     public synchronized void clear() {
+        long removedLength = dataLength;
         dataLength = 0;
         segments.clear();
         pointerWindow.reset();
+        notifyEditListeners(0, removedLength, 0);
     }
 
     @Override
     public synchronized void dispose() {
+        revision++;
         repository.dropDocument(this);
     }
 
@@ -277,10 +375,20 @@ public class DeltaDocument implements EditableBinaryData {
 
     @Override
     public synchronized void copyToArray(long startFrom, byte[] target, int offset, int length) {
-        // TODO optimization later
-        for (int i = 0; i < length; i++) {
-            target[offset + i] = getByte(startFrom + i);
-        }
+        pointerWindow.copyToArray(startFrom, target, offset, length);
+    }
+
+    /**
+     * Creates read-only snapshot of the current document content.
+     * <p>
+     * Snapshot allows reading from other threads. Reading fails with
+     * {@link java.util.ConcurrentModificationException} if the document was
+     * modified after the snapshot was created.
+     *
+     * @return document snapshot
+     */
+    public synchronized DeltaDocumentSnapshot createSnapshot() {
+        return new DeltaDocumentSnapshot(this);
     }
 
     @Override
@@ -308,6 +416,7 @@ public class DeltaDocument implements EditableBinaryData {
      * @throws java.io.IOException on input/output error
      */
     public synchronized void save() throws IOException {
+        revision++;
         repository.saveDocument(this);
     }
 
@@ -318,6 +427,16 @@ public class DeltaDocument implements EditableBinaryData {
         pointerWindow.reset();
     }
 
+    /**
+     * Returns revision number which is increased on every modification of
+     * the document content or its segments.
+     *
+     * @return revision number
+     */
+    public synchronized long getRevision() {
+        return revision;
+    }
+
     /* package */ void setDataLength(long dataSize) {
         this.dataLength = dataSize;
     }
@@ -362,6 +481,25 @@ public class DeltaDocument implements EditableBinaryData {
         }
     }
 
+    public void addEditListener(DeltaDocumentEditListener listener) {
+        editListeners.add(listener);
+    }
+
+    public void removeEditListener(DeltaDocumentEditListener listener) {
+        editListeners.remove(listener);
+    }
+
+    public void notifyEditListeners(long position, long removedLength, long insertedLength) {
+        if (removedLength == 0 && insertedLength == 0) {
+            return;
+        }
+
+        revision++;
+        for (DeltaDocumentEditListener listener : editListeners) {
+            listener.dataEdited(position, removedLength, insertedLength);
+        }
+    }
+
     public void validatePointerPosition() {
         pointerWindow.validatePointerPosition();
     }
@@ -383,4 +521,60 @@ public class DeltaDocument implements EditableBinaryData {
         validatePointerPosition();
         validateDocumentSize();
     }
+
+    /**
+     * Sequential reader of parts of segments.
+     */
+    private class SegmentsCursor {
+
+        private @Nullable DataSegment segment;
+        private long offset = 0;
+        private boolean split = false;
+        private final @Nullable List<DataSegment> splitSegments;
+
+        /**
+         * Creates cursor.
+         *
+         * @param segment first segment
+         * @param splitSegments list for collecting segments which were split
+         * to parts or null if segments should be always copied
+         */
+        public SegmentsCursor(@Nullable DataSegment segment, @Nullable List<DataSegment> splitSegments) {
+            this.segment = segment;
+            this.splitSegments = splitSegments;
+        }
+
+        /**
+         * Adds segments for given length of data to target list.
+         *
+         * @param length length of data
+         * @param target target list
+         */
+        public void take(long length, List<DataSegment> target) {
+            while (length > 0) {
+                if (segment == null) {
+                    throw new NullPointerException("Unexpected end of segments sequence");
+                }
+
+                long segmentLength = segment.getLength();
+                long partLength = Math.min(segmentLength - offset, length);
+                if (offset == 0 && partLength == segmentLength) {
+                    target.add(splitSegments == null ? repository.copySegment(segment) : segment);
+                } else {
+                    target.add(repository.copySegment(segment, offset, partLength));
+                    split = true;
+                }
+                offset += partLength;
+                length -= partLength;
+                if (offset == segmentLength) {
+                    if (split && splitSegments != null) {
+                        splitSegments.add(segment);
+                    }
+                    segment = segment.getNext();
+                    offset = 0;
+                    split = false;
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.auxiliary.binary_data.delta;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Listener for ranges of delta document data modifications.
+ */
+@NullMarked
+public interface DeltaDocumentEditListener {
+
+    /**
+     * Range of data was replaced.
+     * <p>
+     * Positions following removed range are shifted by difference of lengths.
+     *
+     * @param position start position of modified range
+     * @param removedLength length of removed data
+     * @param insertedLength length of inserted data
+     */
+    void dataEdited(long position, long removedLength, long insertedLength);
+}
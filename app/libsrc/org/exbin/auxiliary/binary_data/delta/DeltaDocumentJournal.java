@@ -0,0 +1,638 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.auxiliary.binary_data.delta;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Append-only journal of delta document edits.
+ * <p>
+ * Journal stores segments list of the document and content of memory sources
+ * it refers to, so that document can be rebuilt on top of its original data
+ * source in time proportional to the size of edits.
+ * <p>
+ * Each flush appends content of new memory sources and modified ranges of
+ * already written memory sources followed by state record with segments list.
+ * Only complete state records are used for restore, so interrupted flush keeps
+ * previous state valid.
+ * <p>
+ * State record also stores length and checksum of the head and tail of the
+ * original data source, so that journal is not applied on modified source.
+ */
+@NullMarked
+public class DeltaDocumentJournal {
+
+    private static final int JOURNAL_MAGIC = 0x424a4e4c;
+    private static final int JOURNAL_VERSION = 3;
+    private static final byte RECORD_BLOCK = 1;
+    private static final byte RECORD_STATE = 2;
+    private static final byte RECORD_PATCH = 3;
+    private static final byte SEGMENT_SOURCE = 0;
+    private static final byte SEGMENT_MEMORY = 1;
+    private static final byte SEGMENT_FILL = 2;
+    private static final int HEADER_SIZE = 8;
+    private static final int BUFFER_SIZE = 65536;
+    /**
+     * Length of the head and of the tail of data source included in checksum.
+     */
+    private static final int SOURCE_SAMPLE_SIZE = 65536;
+    /**
+     * Minimum journal size before compaction is considered.
+     */
+    private static final long COMPACTION_LIMIT = 1024 * 1024;
+    private static final String COMPACTION_FILE_SUFFIX = ".compact";
+
+    private final File journalFile;
+    private final Map<MemoryDataSource, BlockRecord> writtenBlocks = new IdentityHashMap<>();
+    private int nextBlockId = 0;
+    private long liveBlocksSize = 0;
+    /**
+     * Length of the journal up to the end of last complete state record.
+     */
+    private long committedLength = 0;
+
+    public DeltaDocumentJournal(File journalFile) {
+        this.journalFile = journalFile;
+    }
+
+    public File getJournalFile() {
+        return journalFile;
+    }
+
+    /**
+     * Returns true if journal file contains any data.
+     *
+     * @return true if journal exists
+     */
+    public boolean exists() {
+        return journalFile.length() > HEADER_SIZE;
+    }
+
+    /**
+     * Appends current state of the document to the journal.
+     * <p>
+     * Document is locked while its state is written.
+     *
+     * @param document delta document
+     * @param sourceKey identification of the document source, empty string if
+     * document has no source
+     * @throws IOException if input/output error
+     */
+    public synchronized void flush(DeltaDocument document, String sourceKey) throws IOException {
+        synchronized (document) {
+            Map<MemoryDataSource, BlockRecord> usedBlocks = new IdentityHashMap<>();
+            appendState(journalFile, document, sourceKey, usedBlocks);
+            commitBlocks(usedBlocks);
+
+            long journalLength = journalFile.length();
+            if (journalLength > COMPACTION_LIMIT + liveBlocksSize * 2) {
+                compact(document, sourceKey);
+            }
+        }
+    }
+
+    /**
+     * Rewrites journal to contain only the current state of the document.
+     * <p>
+     * New journal is written to temporary file which replaces the journal
+     * only after it was forced to storage, so previous state stays valid if
+     * compaction is interrupted.
+     *
+     * @param document delta document
+     * @param sourceKey identification of the document source
+     * @throws IOException if input/output error
+     */
+    public synchronized void compact(DeltaDocument document, String sourceKey) throws IOException {
+        File compactedFile = new File(journalFile.getPath() + COMPACTION_FILE_SUFFIX);
+        if (compactedFile.exists() && !compactedFile.delete()) {
+            throw new IOException("Unable to delete journal file " + compactedFile.getPath());
+        }
+
+        Map<MemoryDataSource, BlockRecord> previousBlocks = new IdentityHashMap<>(writtenBlocks);
+        int previousNextBlockId = nextBlockId;
+        long previousLiveBlocksSize = liveBlocksSize;
+        long previousCommittedLength = committedLength;
+        writtenBlocks.clear();
+        nextBlockId = 0;
+        liveBlocksSize = 0;
+        committedLength = 0;
+        boolean compacted = false;
+        try {
+            synchronized (document) {
+                Map<MemoryDataSource, BlockRecord> usedBlocks = new IdentityHashMap<>();
+                appendState(compactedFile, document, sourceKey, usedBlocks);
+                if (!compactedFile.renameTo(journalFile)) {
+                    throw new IOException("Unable to replace journal file " + journalFile.getPath());
+                }
+                commitBlocks(usedBlocks);
+            }
+            compacted = true;
+        } finally {
+            if (!compacted) {
+                writtenBlocks.clear();
+                writtenBlocks.putAll(previousBlocks);
+                nextBlockId = previousNextBlockId;
+                liveBlocksSize = previousLiveBlocksSize;
+                committedLength = previousCommittedLength;
+                compactedFile.delete();
+            }
+        }
+    }
+
+    private void appendState(File targetFile, DeltaDocument document, String sourceKey, Map<MemoryDataSource, BlockRecord> usedBlocks) throws IOException {
+        DataSource dataSource = document.getDataSource();
+        long sourceLength = dataSource == null ? 0 : dataSource.getDataLength();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long sourceChecksum = dataSource == null ? 0 : computeSourceChecksum(dataSource, sourceLength, buffer);
+
+        try (RandomAccessFile accessFile = new RandomAccessFile(targetFile, "rw")) {
+            FileChannel channel = accessFile.getChannel();
+            long journalLength = committedLength > 0 ? committedLength : accessFile.length();
+            if (journalLength < HEADER_SIZE) {
+                writtenBlocks.clear();
+                liveBlocksSize = 0;
+                accessFile.setLength(0);
+                accessFile.writeInt(JOURNAL_MAGIC);
+                accessFile.writeInt(JOURNAL_VERSION);
+                journalLength = HEADER_SIZE;
+            }
+            accessFile.setLength(journalLength);
+            accessFile.seek(journalLength);
+
+            for (DataSegment segment : document.getSegments()) {
+                if (!(segment instanceof MemorySegment)) {
+                    continue;
+                }
+
+                MemoryDataSource memorySource = ((MemorySegment) segment).getSource();
+                if (usedBlocks.containsKey(memorySource)) {
+                    continue;
+                }
+
+                BlockRecord block = writtenBlocks.get(memorySource);
+                if (block == null) {
+                    block = writeBlock(accessFile, memorySource, buffer);
+                } else if (block.revision != memorySource.getRevision()) {
+                    writePatch(accessFile, block, memorySource, buffer);
+                }
+                usedBlocks.put(memorySource, block);
+            }
+
+            writeState(accessFile, document, sourceKey, sourceLength, sourceChecksum, usedBlocks);
+            channel.force(false);
+            committedLength = accessFile.getFilePointer();
+        }
+    }
+
+    /**
+     * Marks content of used memory sources as written after state was
+     * committed.
+     */
+    private void commitBlocks(Map<MemoryDataSource, BlockRecord> usedBlocks) {
+        writtenBlocks.clear();
+        writtenBlocks.putAll(usedBlocks);
+        liveBlocksSize = 0;
+        for (Map.Entry<MemoryDataSource, BlockRecord> entry : usedBlocks.entrySet()) {
+            MemoryDataSource memorySource = entry.getKey();
+            entry.getValue().revision = memorySource.getRevision();
+            memorySource.resetModifiedRange();
+            liveBlocksSize += memorySource.getDataSize();
+        }
+    }
+
+    /**
+     * Removes journal file and forgets all written blocks.
+     */
+    public synchronized void clear() {
+        writtenBlocks.clear();
+        liveBlocksSize = 0;
+        nextBlockId = 0;
+        committedLength = 0;
+        if (journalFile.exists() && !journalFile.delete()) {
+            throw new IllegalStateException("Unable to delete journal file " + journalFile.getPath());
+        }
+    }
+
+    /**
+     * Reads last complete state stored in the journal.
+     *
+     * @return journal state or null if journal contains no valid state
+     * @throws IOException if input/output error
+     */
+    @Nullable
+    public synchronized JournalState readState() throws IOException {
+        if (!exists()) {
+            return null;
+        }
+
+        Map<Integer, BlockRecord> blocks = new HashMap<>();
+        JournalState state = null;
+        int maxBlockId = 0;
+        CountingInputStream countingStream = new CountingInputStream(new BufferedInputStream(new FileInputStream(journalFile), BUFFER_SIZE));
+        try (DataInputStream input = new DataInputStream(countingStream)) {
+            if (input.readInt() != JOURNAL_MAGIC || input.readInt() != JOURNAL_VERSION) {
+                return null;
+            }
+
+            try {
+                while (true) {
+                    byte recordType = input.readByte();
+                    if (recordType == RECORD_BLOCK) {
+                        BlockRecord block = new BlockRecord();
+                        block.id = input.readInt();
+                        block.length = input.readLong();
+                        block.offset = countingStream.position;
+                        skipFully(input, block.length);
+                        blocks.put(block.id, block);
+                        if (block.id >= maxBlockId) {
+                            maxBlockId = block.id + 1;
+                        }
+                    } else if (recordType == RECORD_PATCH) {
+                        int blockId = input.readInt();
+                        BlockRecord block = blocks.get(blockId);
+                        if (block == null) {
+                            throw new IOException("Journal refers to missing block " + blockId);
+                        }
+                        PatchRecord patch = new PatchRecord();
+                        patch.dataLength = input.readLong();
+                        patch.position = input.readLong();
+                        patch.length = input.readLong();
+                        patch.offset = countingStream.position;
+                        skipFully(input, patch.length);
+                        block.patches.add(patch);
+                    } else if (recordType == RECORD_STATE) {
+                        JournalState readState = new JournalState();
+                        readState.sourceKey = input.readUTF();
+                        readState.sourceLength = input.readLong();
+                        readState.sourceChecksum = input.readLong();
+                        readState.dataLength = input.readLong();
+                        int segmentsCount = input.readInt();
+                        for (int i = 0; i < segmentsCount; i++) {
+                            SegmentRecord segment = new SegmentRecord();
+                            segment.type = input.readByte();
+                            segment.startPosition = input.readLong();
+                            segment.length = input.readLong();
+                            if (segment.type == SEGMENT_MEMORY) {
+                                int blockId = input.readInt();
+                                segment.block = blocks.get(blockId);
+                                if (segment.block == null) {
+                                    throw new IOException("Journal refers to missing block " + blockId);
+                                }
+                            }
+                            readState.segments.add(segment);
+                        }
+                        readState.journalLength = countingStream.position;
+                        readState.nextBlockId = maxBlockId;
+                        for (BlockRecord block : blocks.values()) {
+                            block.committedPatches = block.patches.size();
+                        }
+                        state = readState;
+                    } else {
+                        break;
+                    }
+                }
+            } catch (EOFException ex) {
+                // Incomplete trailing record is ignored
+            }
+        }
+
+        return state;
+    }
+
+    /**
+     * Rebuilds document from the journal state.
+     * <p>
+     * Data source must be already registered in the repository.
+     *
+     * @param state journal state
+     * @param repository segments repository
+     * @param dataSource original data source or null for document without
+     * source
+     * @return restored delta document
+     * @throws IOException if input/output error or journal does not match
+     * given data source
+     */
+    public synchronized DeltaDocument restore(JournalState state, SegmentsRepository repository, @Nullable DataSource dataSource) throws IOException {
+        long sourceLength = dataSource == null ? 0 : dataSource.getDataLength();
+        if (sourceLength != state.sourceLength) {
+            throw new IOException("Journal does not match data source");
+        }
+        if (dataSource != null && computeSourceChecksum(dataSource, sourceLength, new byte[BUFFER_SIZE]) != state.sourceChecksum) {
+            throw new IOException("Journal does not match content of data source");
+        }
+
+        writtenBlocks.clear();
+        Map<BlockRecord, MemoryDataSource> loadedBlocks = new IdentityHashMap<>();
+        DeltaDocument document = repository.createDocument();
+        if (dataSource != null) {
+            document.setDataSource(dataSource);
+        }
+
+        try (RandomAccessFile accessFile = new RandomAccessFile(journalFile, "r")) {
+            FileChannel channel = accessFile.getChannel();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for (SegmentRecord segmentRecord : state.segments) {
+                DataSegment segment;
+                if (segmentRecord.type == SEGMENT_MEMORY) {
+                    BlockRecord block = segmentRecord.block;
+                    MemoryDataSource memorySource = loadedBlocks.get(block);
+                    if (memorySource == null) {
+                        memorySource = repository.openMemorySource();
+                        loadBlock(channel, block, memorySource, buffer);
+                        loadedBlocks.put(block, memorySource);
+                        block.revision = memorySource.getRevision();
+                        memorySource.resetModifiedRange();
+                        writtenBlocks.put(memorySource, block);
+                    }
+                    segment = repository.createMemorySegment(memorySource, segmentRecord.startPosition, segmentRecord.length);
+                } else if (segmentRecord.type == SEGMENT_FILL) {
+                    segment = new FillSegment((byte) segmentRecord.startPosition, segmentRecord.length);
+                } else {
+                    if (dataSource == null) {
+                        throw new IOException("Journal requires data source");
+                    }
+                    segment = repository.createSourceSegment(dataSource, segmentRecord.startPosition, segmentRecord.length);
+                }
+                document.getSegments().add(segment);
+            }
+        }
+
+        nextBlockId = state.nextBlockId;
+        liveBlocksSize = 0;
+        for (MemoryDataSource memorySource : writtenBlocks.keySet()) {
+            liveBlocksSize += memorySource.getDataSize();
+        }
+        committedLength = state.journalLength;
+        document.setDataLength(state.dataLength);
+        document.clearCache();
+        document.validateDocumentSize();
+        return document;
+    }
+
+    private BlockRecord writeBlock(RandomAccessFile accessFile, MemoryDataSource memorySource, byte[] buffer) throws IOException {
+        BlockRecord block = new BlockRecord();
+        block.id = nextBlockId++;
+        block.length = memorySource.getDataSize();
+        block.revision = memorySource.getRevision();
+        accessFile.writeByte(RECORD_BLOCK);
+        accessFile.writeInt(block.id);
+        accessFile.writeLong(block.length);
+        block.offset = accessFile.getFilePointer();
+        writeData(accessFile, memorySource, 0, block.length, buffer);
+        return block;
+    }
+
+    /**
+     * Writes range of memory source modified since its block was written.
+     * <p>
+     * Patch stores new length of the data and content of the modified range.
+     */
+    private void writePatch(RandomAccessFile accessFile, BlockRecord block, MemoryDataSource memorySource, byte[] buffer) throws IOException {
+        long dataLength = memorySource.getDataSize();
+        long position = Math.min(memorySource.getModifiedStart(), dataLength);
+        long endPosition = Math.min(memorySource.getModifiedEnd(), dataLength);
+        long length = endPosition > position ? endPosition - position : 0;
+        accessFile.writeByte(RECORD_PATCH);
+        accessFile.writeInt(block.id);
+        accessFile.writeLong(dataLength);
+        accessFile.writeLong(position);
+        accessFile.writeLong(length);
+        writeData(accessFile, memorySource, position, length, buffer);
+    }
+
+    private static void writeData(RandomAccessFile accessFile, MemoryDataSource memorySource, long startPosition, long dataLength, byte[] buffer) throws IOException {
+        long position = 0;
+        while (position < dataLength) {
+            long remains = dataLength - position;
+            int length = remains < buffer.length ? (int) remains : buffer.length;
+            memorySource.copyToArray(startPosition + position, buffer, 0, length);
+            accessFile.write(buffer, 0, length);
+            position += length;
+        }
+    }
+
+    private void writeState(RandomAccessFile accessFile, DeltaDocument document, String sourceKey, long sourceLength, long sourceChecksum, Map<MemoryDataSource, BlockRecord> usedBlocks) throws IOException {
+        accessFile.writeByte(RECORD_STATE);
+        accessFile.writeUTF(sourceKey);
+        accessFile.writeLong(sourceLength);
+        accessFile.writeLong(sourceChecksum);
+        accessFile.writeLong(document.getDataSize());
+        accessFile.writeInt(document.getSegments().size());
+        for (DataSegment segment : document.getSegments()) {
+            if (segment instanceof MemorySegment) {
+                accessFile.writeByte(SEGMENT_MEMORY);
+                accessFile.writeLong(segment.getStartPosition());
+                accessFile.writeLong(segment.getLength());
+                accessFile.writeInt(usedBlocks.get(((MemorySegment) segment).getSource()).id);
+            } else if (segment instanceof SourceSegment) {
+                accessFile.writeByte(SEGMENT_SOURCE);
+                accessFile.writeLong(segment.getStartPosition());
+                accessFile.writeLong(segment.getLength());
+            } else if (segment instanceof FillSegment) {
+                accessFile.writeByte(SEGMENT_FILL);
+                accessFile.writeLong(((FillSegment) segment).getFill());
+                accessFile.writeLong(segment.getLength());
+            } else {
+                throw new IllegalStateException("Unsupported segment type " + segment.getClass().getName());
+            }
+        }
+    }
+
+    /**
+     * Computes checksum of the head and of the tail of the data source.
+     */
+    private static long computeSourceChecksum(DataSource dataSource, long sourceLength, byte[] buffer) throws IOException {
+        CRC32 checksum = new CRC32();
+        long headLength = Math.min(sourceLength, SOURCE_SAMPLE_SIZE);
+        updateChecksum(checksum, dataSource, 0, headLength, buffer);
+        long tailPosition = Math.max(headLength, sourceLength - SOURCE_SAMPLE_SIZE);
+        updateChecksum(checksum, dataSource, tailPosition, sourceLength - tailPosition, buffer);
+        return checksum.getValue();
+    }
+
+    private static void updateChecksum(CRC32 checksum, DataSource dataSource, long startPosition, long dataLength, byte[] buffer) throws IOException {
+        long position = 0;
+        while (position < dataLength) {
+            long remains = dataLength - position;
+            int length = remains < buffer.length ? (int) remains : buffer.length;
+            int read = dataSource.read(startPosition + position, buffer, 0, length);
+            if (read <= 0) {
+                throw new IOException("Unable to read data source at position " + (startPosition + position));
+            }
+            checksum.update(buffer, 0, read);
+            position += read;
+        }
+    }
+
+    private static void loadBlock(FileChannel channel, BlockRecord block, MemoryDataSource memorySource, byte[] buffer) throws IOException {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+        long position = 0;
+        while (position < block.length) {
+            long remains = block.length - position;
+            byteBuffer.clear();
+            byteBuffer.limit(remains < buffer.length ? (int) remains : buffer.length);
+            int read = channel.read(byteBuffer, block.offset + position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of journal");
+            }
+            memorySource.insert(position, buffer, 0, read);
+            position += read;
+        }
+
+        for (int i = 0; i < block.committedPatches; i++) {
+            PatchRecord patch = block.patches.get(i);
+            memorySource.setDataSize(patch.dataLength);
+            position = 0;
+            while (position < patch.length) {
+                long remains = patch.length - position;
+                byteBuffer.clear();
+                byteBuffer.limit(remains < buffer.length ? (int) remains : buffer.length);
+                int read = channel.read(byteBuffer, patch.offset + position);
+                if (read < 0) {
+                    throw new EOFException("Unexpected end of journal");
+                }
+                memorySource.replace(patch.position + position, buffer, 0, read);
+                position += read;
+            }
+        }
+    }
+
+    private static void skipFully(DataInputStream input, long length) throws IOException {
+        while (length > 0) {
+            long skipped = input.skip(length);
+            if (skipped <= 0) {
+                if (input.read() < 0) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            length -= skipped;
+        }
+    }
+
+    /**
+     * Input stream tracking number of bytes consumed.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        long position = 0;
+
+        public CountingInputStream(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                position++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long length) throws IOException {
+            long skipped = super.skip(length);
+            position += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * Document state stored in the journal.
+     */
+    @NullMarked
+    public static class JournalState {
+
+        private String sourceKey = "";
+        private long sourceLength;
+        private long sourceChecksum;
+        private long dataLength;
+        private long journalLength;
+        private int nextBlockId;
+        private final List<SegmentRecord> segments = new ArrayList<>();
+
+        public String getSourceKey() {
+            return sourceKey;
+        }
+
+        public long getSourceLength() {
+            return sourceLength;
+        }
+
+        public long getSourceChecksum() {
+            return sourceChecksum;
+        }
+
+        public long getDataLength() {
+            return dataLength;
+        }
+    }
+
+    private static class SegmentRecord {
+
+        byte type;
+        long startPosition;
+        long length;
+        @Nullable
+        BlockRecord block;
+    }
+
+    private static class BlockRecord {
+
+        int id;
+        long offset;
+        long length;
+        long revision;
+        final List<PatchRecord> patches = new ArrayList<>();
+        int committedPatches;
+    }
+
+    private static class PatchRecord {
+
+        long offset;
+        long dataLength;
+        long position;
+        long length;
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.auxiliary.binary_data.delta;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.auxiliary.binary_data.BinaryDataInputStream;
+import org.exbin.auxiliary.binary_data.OutOfBoundsException;
+import org.exbin.auxiliary.binary_data.delta.list.DefaultDoublyLinkedList;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Read-only view of delta document content captured at given time.
+ * <p>
+ * Segment layout is copied into arrays so that position lookup is done by
+ * binary search and no shared pointer is used. Memory and fill segments are
+ * copied with the document locked in parts of limited size, while source
+ * segments are only resolved under the lock and read afterwards using
+ * positional read, so that multiple threads can read file concurrently.
+ * Reading fails with {@link ConcurrentModificationException} if the document
+ * was modified after the snapshot was created.
+ */
+@NullMarked
+public class DeltaDocumentSnapshot implements BinaryData {
+
+    private static final int BUFFER_SIZE = 4096;
+    /**
+     * Maximum length of data processed while document is locked.
+     */
+    private static final int LOCKED_READ_SIZE = 65536;
+
+    private final DeltaDocument document;
+    private final long revision;
+    private final DataSegment[] segments;
+    private final long[] positions;
+    private final long[] startPositions;
+    private final long[] lengths;
+    private final long rangeStart;
+    private final long rangeLength;
+
+    /**
+     * Creates snapshot of the document.
+     * <p>
+     * Document should be locked during the call.
+     *
+     * @param document delta document
+     */
+    public DeltaDocumentSnapshot(DeltaDocument document) {
+        this.document = document;
+        revision = document.getRevision();
+        DefaultDoublyLinkedList<DataSegment> documentSegments = document.getSegments();
+        int segmentsCount = documentSegments.size();
+        segments = new DataSegment[segmentsCount];
+        positions = new long[segmentsCount];
+        startPositions = new long[segmentsCount];
+        lengths = new long[segmentsCount];
+        long position = 0;
+        int index = 0;
+        DataSegment segment = documentSegments.first();
+        while (segment != null) {
+            segments[index] = segment;
+            positions[index] = position;
+            startPositions[index] = segment.getStartPosition();
+            lengths[index] = segment.getLength();
+            position += segment.getLength();
+            index++;
+            segment = segment.getNext();
+        }
+        rangeStart = 0;
+        rangeLength = position;
+    }
+
+    private DeltaDocumentSnapshot(DeltaDocumentSnapshot snapshot, long rangeStart, long rangeLength) {
+        document = snapshot.document;
+        revision = snapshot.revision;
+        segments = snapshot.segments;
+        positions = snapshot.positions;
+        startPositions = snapshot.startPositions;
+        lengths = snapshot.lengths;
+        this.rangeStart = rangeStart;
+        this.rangeLength = rangeLength;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return rangeLength == 0;
+    }
+
+    @Override
+    public long getDataSize() {
+        return rangeLength;
+    }
+
+    @Override
+    public byte getByte(long position) {
+        if (position < 0 || position >= rangeLength) {
+            throw new OutOfBoundsException("Position index out of range");
+        }
+
+        byte[] value = new byte[1];
+        copyToArray(position, value, 0, 1);
+        return value[0];
+    }
+
+    @Override
+    public BinaryData copy() {
+        return this;
+    }
+
+    @Override
+    public BinaryData copy(long startFrom, long length) {
+        if (startFrom < 0 || length < 0 || startFrom + length > rangeLength) {
+            throw new OutOfBoundsException("Copied area is out of bounds");
+        }
+
+        return new DeltaDocumentSnapshot(this, rangeStart + startFrom, length);
+    }
+
+    @Override
+    public void copyToArray(long startFrom, byte[] target, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        if (startFrom < 0 || startFrom + length > rangeLength) {
+            throw new OutOfBoundsException("Copied area is out of bounds");
+        }
+
+        long position = rangeStart + startFrom;
+        while (length > 0) {
+            int partLength = Math.min(length, LOCKED_READ_SIZE);
+            SourceReads sourceReads = new SourceReads();
+            synchronized (document) {
+                checkRevision();
+                copySegmentsData(position, target, offset, partLength, sourceReads);
+            }
+            if (sourceReads.count > 0) {
+                try {
+                    sourceReads.read(target);
+                } catch (RuntimeException ex) {
+                    // Source file might be rewritten by save
+                    checkRevision();
+                    throw ex;
+                }
+                checkRevision();
+            }
+            position += partLength;
+            offset += partLength;
+            length -= partLength;
+        }
+    }
+
+    /**
+     * Returns true if document was not modified after the snapshot was
+     * created.
+     *
+     * @return true if snapshot is valid
+     */
+    public boolean isValid() {
+        return document.getRevision() == revision;
+    }
+
+    @Override
+    public void saveToStream(OutputStream outputStream) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long position = 0;
+        while (position < rangeLength) {
+            int length = (int) Math.min(BUFFER_SIZE, rangeLength - position);
+            copyToArray(position, buffer, 0, length);
+            outputStream.write(buffer, 0, length);
+            position += length;
+        }
+    }
+
+    @Override
+    public InputStream getDataInputStream() {
+        return new BinaryDataInputStream(this);
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    private void checkRevision() {
+        if (document.getRevision() != revision) {
+            throw new ConcurrentModificationException("Document was modified after snapshot was created");
+        }
+    }
+
+    /**
+     * Copies data of memory and fill segments and records reads of source
+     * segments to be performed without lock.
+     */
+    private void copySegmentsData(long position, byte[] target, int offset, int length, SourceReads sourceReads) {
+        int index = findSegmentIndex(position);
+        long segmentOffset = position - positions[index];
+        while (length > 0) {
+            DataSegment segment = segments[index];
+            long segmentRemains = lengths[index] - segmentOffset;
+            int copyLength = segmentRemains < length ? (int) segmentRemains : length;
+            long sourcePosition = startPositions[index] + segmentOffset;
+            if (segment instanceof SourceSegment) {
+                sourceReads.add(((SourceSegment) segment).getSource(), sourcePosition, offset, copyLength);
+            } else if (segment instanceof MemorySegment) {
+                ((MemorySegment) segment).getSource().copyToArray(sourcePosition, target, offset, copyLength);
+            } else if (segment instanceof FillSegment) {
+                Arrays.fill(target, offset, offset + copyLength, ((FillSegment) segment).getFill());
+            } else {
+                throw new IllegalStateException("Unable to read data from segment " + segment.getClass().getName());
+            }
+
+            offset += copyLength;
+            length -= copyLength;
+            index++;
+            segmentOffset = 0;
+        }
+    }
+
+    /**
+     * Returns index of the segment containing given absolute position.
+     *
+     * @param position position in document
+     * @return segment index
+     */
+    private int findSegmentIndex(long position) {
+        int low = 0;
+        int high = segments.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (positions[middle] <= position) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Pending reads of source segments.
+     */
+    private static class SourceReads {
+
+        private DataSource[] sources = new DataSource[4];
+        private long[] sourcePositions = new long[4];
+        private int[] offsets = new int[4];
+        private int[] lengths = new int[4];
+        private int count = 0;
+
+        void add(DataSource source, long sourcePosition, int offset, int length) {
+            if (count == sources.length) {
+                int capacity = count * 2;
+                sources = Arrays.copyOf(sources, capacity);
+                sourcePositions = Arrays.copyOf(sourcePositions, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            sources[count] = source;
+            sourcePositions[count] = sourcePosition;
+            offsets[count] = offset;
+            lengths[count] = length;
+            count++;
+        }
+
+        void read(byte[] target) {
+            try {
+                for (int i = 0; i < count; i++) {
+                    int copied = 0;
+                    while (copied < lengths[i]) {
+                        int read = sources[i].read(sourcePositions[i] + copied, target, offsets[i] + copied, lengths[i] - copied);
+                        if (read <= 0) {
+                            throw new IOException("Unable to read data at position " + (sourcePositions[i] + copied));
+                        }
+                        copied += read;
+                    }
+                }
+            } catch (IOException ex) {
+                throw new RuntimeException("Error while processing data source", ex);
+            }
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.exbin.auxiliary.binary_data.delta;
 
+import java.io.IOException;
+import java.util.Arrays;
 import org.jspecify.annotations.Nullable;
 import org.jspecify.annotations.NullMarked;
 import org.exbin.auxiliary.binary_data.BinaryData;
@@ -54,6 +56,8 @@ public class DeltaDocumentWindow {
         }
         if (targetSegment instanceof SourceSegment) {
             return ((SourceSegment) targetSegment).getByte(targetSegment.getStartPosition() + (position - pointer.position));
+        } else if (targetSegment instanceof FillSegment) {
+            return ((FillSegment) targetSegment).getFill();
         } else {
             return ((MemorySegment) targetSegment).getByte(targetSegment.getStartPosition() + (position - pointer.position));
         }
@@ -62,9 +66,10 @@ public class DeltaDocumentWindow {
     public void setByte(long position, byte value) {
         DefaultDoublyLinkedList<DataSegment> segments = document.getSegments();
         SegmentsRepository repository = document.getRepository();
+        boolean appended = position >= getDataSize();
         focusSegment(position);
 
-        if (pointer.segment instanceof SourceSegment) {
+        if (pointer.segment instanceof SourceSegment || pointer.segment instanceof FillSegment) {
             if (pointer.position != position) {
                 splitSegment(position);
                 focusSegment(position);
@@ -79,7 +84,7 @@ public class DeltaDocumentWindow {
                 segments.addBefore(pointer.segment, segment);
             }
             pointer.position++;
-            SourceSegment documentSegment = ((SourceSegment) pointer.segment);
+            DataSegment documentSegment = pointer.segment;
             if (documentSegment.getLength() == 1) {
                 segments.remove(documentSegment);
                 repository.dropSegment(documentSegment);
@@ -96,9 +101,10 @@ public class DeltaDocumentWindow {
             repository.setMemoryByte((MemorySegment) pointer.segment, position - pointer.position, value);
         }
 
-        if (position >= getDataSize()) {
+        if (appended) {
             document.setDataLength(position + 1);
         }
+        document.notifyEditListeners(position, appended ? 0 : 1, 1);
         document.notifyChangeListeners(this);
     }
 
@@ -145,52 +151,66 @@ public class DeltaDocumentWindow {
             document.setDataLength(targetLength);
             tryMergeArea(startFrom, length);
         }
+        document.notifyEditListeners(startFrom, 0, length);
         document.notifyChangeListeners(this);
     }
 
     public void insert(long startFrom, long length) {
-        DefaultDoublyLinkedList<DataSegment> segments = document.getSegments();
-        SegmentsRepository repository = document.getRepository();
+        insertFill(startFrom, length, (byte) 0);
+    }
+
+    /**
+     * Inserts area of given length filled with constant value.
+     * <p>
+     * Area is represented by fill segment which requires no storage.
+     *
+     * @param startFrom start position
+     * @param length length of area
+     * @param fill fill value
+     */
+    public void insertFill(long startFrom, long length, byte fill) {
         if (length == 0) {
             return;
         }
 
+        insertFillArea(startFrom, length, fill);
+        document.notifyEditListeners(startFrom, 0, length);
+        document.notifyChangeListeners(this);
+    }
+
+    /**
+     * Replaces given area with constant value.
+     * <p>
+     * Segments are replaced in single step, so listeners are notified once.
+     *
+     * @param startFrom start position
+     * @param length length of area
+     * @param fill fill value
+     */
+    public void fillData(long startFrom, long length, byte fill) {
+        if (startFrom < 0 || startFrom + length > document.getDataSize()) {
+            throw new OutOfBoundsException("Filled area is out of bounds");
+        }
+        if (length == 0) {
+            return;
+        }
+
+        removeArea(startFrom, length);
+        insertFillArea(startFrom, length, fill);
+        document.notifyEditListeners(startFrom, length, length);
+        document.notifyChangeListeners(this);
+    }
+
+    private void insertFillArea(long startFrom, long length, byte fill) {
+        SegmentsRepository repository = document.getRepository();
         focusSegment(startFrom);
-        long targetLength = document.getDataSize() + length;
-        if (pointer.segment instanceof MemorySegment) {
-            repository.insertMemoryData((MemorySegment) pointer.segment, startFrom - pointer.position, length);
-            document.setDataLength(targetLength);
-        } else if (pointer.segment != null && pointer.position == startFrom && pointer.segment.getPrev() instanceof MemorySegment
-                && pointer.segment.getPrev().getStartPosition() + pointer.segment.getPrev().getLength() == ((MemorySegment) pointer.segment.getPrev()).getSource().getDataSize()) {
-            MemorySegment prevSegment = (MemorySegment) pointer.segment.getPrev();
-            prevSegment.getSource().insert(prevSegment.getSource().getDataSize(), length);
-            repository.updateSegmentLength(prevSegment, prevSegment.getLength() + length);
-            pointer.position++;
-            document.setDataLength(targetLength);
-        } else if (pointer.segment == null && segments.last() instanceof MemorySegment
-                && segments.last().getStartPosition() + segments.last().getLength() == ((MemorySegment) segments.last()).getSource().getDataSize()) {
-            MemorySegment prevSegment = (MemorySegment) segments.last();
-            prevSegment.getSource().insert(prevSegment.getSource().getDataSize(), length);
-            repository.updateSegmentLength(prevSegment, prevSegment.getLength() + length);
-            pointer.position++;
-            document.setDataLength(targetLength);
+        if (pointer.segment instanceof FillSegment && ((FillSegment) pointer.segment).getFill() == fill) {
+            repository.updateSegmentLength(pointer.segment, pointer.segment.getLength() + length);
+            document.setDataLength(document.getDataSize() + length);
         } else {
-            if (startFrom > pointer.position) {
-                splitSegment(startFrom);
-                focusSegment(startFrom);
-            }
-            MemorySegment insertedSegment = repository.createMemorySegment();
-            repository.insertMemoryData(insertedSegment, 0, length);
-            if (pointer.segment == null) {
-                segments.add(insertedSegment);
-            } else {
-                segments.addBefore(pointer.segment, insertedSegment);
-            }
-            pointer.segment = insertedSegment;
-            document.setDataLength(targetLength);
+            addSegment(startFrom, new FillSegment(fill, length));
             tryMergeArea(startFrom, length);
         }
-        document.notifyChangeListeners(this);
     }
 
     public void insert(long startFrom, byte[] insertedData) {
@@ -221,6 +241,7 @@ public class DeltaDocumentWindow {
             document.setDataLength(targetLength);
             tryMergeArea(startFrom, insertedData.length);
         }
+        document.notifyEditListeners(startFrom, 0, insertedData.length);
         document.notifyChangeListeners(this);
     }
 
@@ -249,6 +270,7 @@ public class DeltaDocumentWindow {
             document.setDataLength(targetLength);
             tryMergeArea(startFrom, insertedData.length);
         }
+        document.notifyEditListeners(startFrom, 0, insertedDataLength);
         document.notifyChangeListeners(this);
     }
 
@@ -307,6 +329,7 @@ public class DeltaDocumentWindow {
             document.setDataLength(targetLength);
             tryMergeArea(startFrom, insertedData.getDataSize());
         }
+        document.notifyEditListeners(startFrom, 0, insertedData.getDataSize());
         document.notifyChangeListeners(this);
     }
 
@@ -371,6 +394,7 @@ public class DeltaDocumentWindow {
             document.setDataLength(targetLength);
             tryMergeArea(startFrom, insertedData.getDataSize());
         }
+        document.notifyEditListeners(startFrom, 0, insertedDataLength);
         document.notifyChangeListeners(this);
     }
 
@@ -381,6 +405,12 @@ public class DeltaDocumentWindow {
      * @param insertedSegment inserted segment
      */
     public void insertSegment(long startFrom, DataSegment insertedSegment) {
+        addSegment(startFrom, insertedSegment);
+        document.notifyEditListeners(startFrom, 0, insertedSegment.getLength());
+        document.notifyChangeListeners(this);
+    }
+
+    private void addSegment(long startFrom, DataSegment insertedSegment) {
         DefaultDoublyLinkedList<DataSegment> segments = document.getSegments();
         long targetLength = document.getDataSize() + insertedSegment.getLength();
         focusSegment(startFrom);
@@ -395,7 +425,6 @@ public class DeltaDocumentWindow {
         }
         pointer.segment = insertedSegment;
         document.setDataLength(targetLength);
-        document.notifyChangeListeners(this);
     }
 
     public void remove(long startFrom, long length) {
@@ -403,36 +432,41 @@ public class DeltaDocumentWindow {
             throw new OutOfBoundsException("Removed area is out of bounds");
         }
 
-        DefaultDoublyLinkedList<DataSegment> segments = document.getSegments();
-        SegmentsRepository repository = document.getRepository();
         if (length > 0) {
-            long targetLength = document.getDataSize() - length;
-            focusSegment(startFrom + length);
-            splitSegment(startFrom + length);
-            focusSegment(startFrom);
-            splitSegment(startFrom);
-            focusSegment(startFrom);
+            removeArea(startFrom, length);
+        }
+        document.notifyEditListeners(startFrom, length, 0);
+        document.notifyChangeListeners(this);
+    }
 
-            // Save position to return to
-            DataSegment prevSegment = (DataSegment) pointer.segment.getPrev();
-            long prevPointerPosition = prevSegment == null ? 0 : pointer.position - prevSegment.getLength();
+    private void removeArea(long startFrom, long length) {
+        DefaultDoublyLinkedList<DataSegment> segments = document.getSegments();
+        SegmentsRepository repository = document.getRepository();
+        long targetLength = document.getDataSize() - length;
+        focusSegment(startFrom + length);
+        splitSegment(startFrom + length);
+        focusSegment(startFrom);
+        splitSegment(startFrom);
+        focusSegment(startFrom);
 
-            // Drop all segments in given range
-            while (length > 0) {
-                length -= pointer.segment.getLength();
-                DataSegment next = segments.nextTo(pointer.segment);
-                repository.dropSegment(pointer.segment);
-                segments.remove(pointer.segment);
-                pointer.segment = next;
-            }
+        // Save position to return to
+        DataSegment prevSegment = (DataSegment) pointer.segment.getPrev();
+        long prevPointerPosition = prevSegment == null ? 0 : pointer.position - prevSegment.getLength();
 
-            // Set pointer position
-            pointer.segment = prevSegment;
-            pointer.position = prevPointerPosition;
-            document.setDataLength(targetLength);
-            tryMergeSegments(startFrom);
+        // Drop all segments in given range
+        while (length > 0) {
+            length -= pointer.segment.getLength();
+            DataSegment next = segments.nextTo(pointer.segment);
+            repository.dropSegment(pointer.segment);
+            segments.remove(pointer.segment);
+            pointer.segment = next;
         }
-        document.notifyChangeListeners(this);
+
+        // Set pointer position
+        pointer.segment = prevSegment;
+        pointer.position = prevPointerPosition;
+        document.setDataLength(targetLength);
+        tryMergeSegments(startFrom);
     }
 
     public void reset() {
@@ -476,12 +510,8 @@ public class DeltaDocumentWindow {
 
                 if (offset == 0 && copyLength == segmentLength) {
                     copy.getSegments().add(repository.copySegment(segment));
-                } else if (segment instanceof MemorySegment) {
-                    MemorySegment memorySegment = (MemorySegment) segment;
-                    copy.getSegments().add(repository.createMemorySegment(memorySegment.getSource(), memorySegment.getStartPosition() + offset, copyLength));
                 } else {
-                    SourceSegment fileSegment = (SourceSegment) segment;
-                    copy.getSegments().add(repository.createSourceSegment(fileSegment.getSource(), fileSegment.getStartPosition() + offset, copyLength));
+                    copy.getSegments().add(repository.copySegment(segment, offset, copyLength));
                 }
                 length -= copyLength;
                 offset = 0;
@@ -496,7 +526,56 @@ public class DeltaDocumentWindow {
     }
 
     public void copyToArray(long startFrom, byte[] target, int offset, int length) {
-        document.copyToArray(startFrom, target, offset, length);
+        if (length == 0) {
+            return;
+        }
+        if (startFrom < 0 || startFrom + length > getDataSize()) {
+            throw new OutOfBoundsException("Copied area is out of bounds");
+        }
+
+        focusSegment(startFrom);
+        DefaultDoublyLinkedList<DataSegment> segments = document.getSegments();
+        DataSegment segment = pointer.segment;
+        long segmentPosition = pointer.position;
+        long segmentOffset = startFrom - segmentPosition;
+        while (length > 0) {
+            if (segment == null) {
+                throwNullSegmentException();
+            }
+
+            long segmentRemains = segment.getLength() - segmentOffset;
+            int copyLength = segmentRemains < length ? (int) segmentRemains : length;
+            long sourcePosition = segment.getStartPosition() + segmentOffset;
+            if (segment instanceof SourceSegment) {
+                DataSource source = ((SourceSegment) segment).getSource();
+                int copied = 0;
+                try {
+                    while (copied < copyLength) {
+                        int read = source.read(sourcePosition + copied, target, offset + copied, copyLength - copied);
+                        if (read <= 0) {
+                            throw new IOException("Unable to read data at position " + (sourcePosition + copied));
+                        }
+                        copied += read;
+                    }
+                } catch (IOException ex) {
+                    throw new RuntimeException("Error while processing data source", ex);
+                }
+            } else if (segment instanceof MemorySegment) {
+                ((MemorySegment) segment).getSource().copyToArray(sourcePosition, target, offset, copyLength);
+            } else if (segment instanceof FillSegment) {
+                Arrays.fill(target, offset, offset + copyLength, ((FillSegment) segment).getFill());
+            } else {
+                throw new IllegalStateException("Unable to read data from segment " + segment.getClass().getName());
+            }
+
+            offset += copyLength;
+            length -= copyLength;
+            if (length > 0) {
+                segmentPosition += segment.getLength();
+                segment = segments.nextTo(segment);
+                segmentOffset = 0;
+            }
+        }
     }
 
     /**
@@ -524,6 +603,11 @@ public class DeltaDocumentWindow {
             MemorySegment newSegment = repository.createMemorySegment(memorySegment.getSource(), memorySegment.getStartPosition() + firstPartSize, memorySegment.getLength() - firstPartSize);
             repository.updateSegmentLength(memorySegment, firstPartSize);
             segments.addAfter(pointerSegment, newSegment);
+        } else if (pointerSegment instanceof FillSegment) {
+            FillSegment fillSegment = (FillSegment) pointerSegment;
+            FillSegment newSegment = new FillSegment(fillSegment.getFill(), fillSegment.getLength() - firstPartSize);
+            fillSegment.setLength(firstPartSize);
+            segments.addAfter(fillSegment, newSegment);
         } else {
             SourceSegment fileSegment = (SourceSegment) pointerSegment;
             SourceSegment newSegment = repository.createSourceSegment(fileSegment.getSource(), fileSegment.getStartPosition() + firstPartSize, fileSegment.getLength() - firstPartSize);
@@ -676,6 +760,14 @@ public class DeltaDocumentWindow {
             // TODO join two single memory segments?
         }
 
+        if (segment instanceof FillSegment && nextSegment instanceof FillSegment) {
+            if (((FillSegment) segment).getFill() == ((FillSegment) nextSegment).getFill()) {
+                ((FillSegment) segment).setLength(segment.getLength() + nextSegment.getLength());
+                segments.remove(nextSegment);
+                return true;
+            }
+        }
+
         return false;
     }
 
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.auxiliary.binary_data.delta;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Data segment of repeated constant byte value.
+ * <p>
+ * Segment requires no storage regardless of its length.
+ */
+@NullMarked
+public class FillSegment extends DataSegment {
+
+    private final byte fill;
+    private long length;
+
+    public FillSegment(byte fill, long length) {
+        this.fill = fill;
+        this.length = length;
+    }
+
+    public byte getFill() {
+        return fill;
+    }
+
+    @Override
+    public long getStartPosition() {
+        return 0;
+    }
+
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    public void setLength(long length) {
+        this.length = length;
+    }
+
+    public byte getByte(long position) {
+        return fill;
+    }
+
+    @Override
+    public DataSegment copy() {
+        return new FillSegment(fill, length);
+    }
+}
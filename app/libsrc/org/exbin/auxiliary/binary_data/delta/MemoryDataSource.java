@@ -29,38 +29,84 @@ import org.exbin.auxiliary.binary_data.EditableBinaryData;
 public class MemoryDataSource implements EditableBinaryData {
 
     private final EditableBinaryData data;
+    private long revision = 0;
+    private long modifiedStart = Long.MAX_VALUE;
+    private long modifiedEnd = 0;
 
     public MemoryDataSource(EditableBinaryData data) {
         this.data = data;
     }
 
+    /**
+     * Returns revision number which is increased on every modification.
+     *
+     * @return revision number
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    /**
+     * Returns start of the range modified since last reset.
+     *
+     * @return start position or Long.MAX_VALUE if not modified
+     */
+    public long getModifiedStart() {
+        return modifiedStart;
+    }
+
+    /**
+     * Returns end of the range modified since last reset.
+     * <p>
+     * Range ends with Long.MAX_VALUE if data after its start was shifted.
+     *
+     * @return end position
+     */
+    public long getModifiedEnd() {
+        return modifiedEnd;
+    }
+
+    /**
+     * Resets range of modified data.
+     */
+    public void resetModifiedRange() {
+        modifiedStart = Long.MAX_VALUE;
+        modifiedEnd = 0;
+    }
+
     @Override
     public void setDataSize(long size) {
+        modified(Math.min(size, data.getDataSize()), Long.MAX_VALUE);
         data.setDataSize(size);
     }
 
     @Override
     public void setByte(long position, byte value) {
+        modified(position, position + 1);
         data.setByte(position, value);
     }
 
     @Override
     public void insert(long startFrom, long length) {
+        modified(startFrom, Long.MAX_VALUE);
         data.insert(startFrom, length);
     }
 
     @Override
     public void insert(long startFrom, byte[] insertedData) {
+        modified(startFrom, Long.MAX_VALUE);
         data.insert(startFrom, insertedData);
     }
 
     @Override
     public void insert(long startFrom, BinaryData insertedData) {
+        modified(startFrom, Long.MAX_VALUE);
         data.insert(startFrom, insertedData);
     }
 
     @Override
     public void remove(long startFrom, long length) {
+        modified(startFrom, Long.MAX_VALUE);
         data.remove(startFrom, length);
     }
 
@@ -96,66 +142,79 @@ public class MemoryDataSource implements EditableBinaryData {
 
     @Override
     public void insertUninitialized(long startFrom, long length) {
+        modified(startFrom, Long.MAX_VALUE);
         data.insertUninitialized(startFrom, length);
     }
 
     @Override
     public void insert(long startFrom, byte[] insertedData, int insertedDataOffset, int insertedDataLength) {
+        modified(startFrom, Long.MAX_VALUE);
         data.insert(startFrom, insertedData, insertedDataOffset, insertedDataLength);
     }
 
     @Override
     public void insert(long startFrom, BinaryData insertedData, long insertedDataOffset, long insertedDataLength) {
+        modified(startFrom, Long.MAX_VALUE);
         data.insert(startFrom, insertedData, insertedDataOffset, insertedDataLength);
     }
 
     @Override
     public long insert(long startFrom, InputStream inputStream, long maximumDataSize) throws IOException {
+        modified(startFrom, Long.MAX_VALUE);
         return data.insert(startFrom, inputStream, maximumDataSize);
     }
 
     @Override
     public void replace(long targetPosition, BinaryData replacingData) {
+        modified(targetPosition, targetPosition + replacingData.getDataSize());
         data.replace(targetPosition, replacingData);
     }
 
     @Override
     public void replace(long targetPosition, BinaryData replacingData, long startFrom, long length) {
+        modified(targetPosition, targetPosition + length);
         data.replace(targetPosition, replacingData, startFrom, length);
     }
 
     @Override
     public void replace(long targetPosition, byte[] replacingData) {
+        modified(targetPosition, targetPosition + replacingData.length);
         data.replace(targetPosition, replacingData);
     }
 
     @Override
     public void replace(long targetPosition, byte[] replacingData, int replacingDataOffset, int length) {
+        modified(targetPosition, targetPosition + length);
         data.replace(targetPosition, replacingData, replacingDataOffset, length);
     }
 
     @Override
     public void fillData(long startFrom, long length) {
+        modified(startFrom, startFrom + length);
         data.fillData(startFrom, length);
     }
 
     @Override
     public void fillData(long startFrom, long length, byte fill) {
+        modified(startFrom, startFrom + length);
         data.fillData(startFrom, length, fill);
     }
 
     @Override
     public void clear() {
+        modified(0, Long.MAX_VALUE);
         data.clear();
     }
 
     @Override
     public void loadFromStream(InputStream inputStream) throws IOException {
+        modified(0, Long.MAX_VALUE);
         data.loadFromStream(inputStream);
     }
 
     @Override
     public OutputStream getDataOutputStream() {
+        modified(0, Long.MAX_VALUE);
         return data.getDataOutputStream();
     }
 
@@ -173,4 +232,14 @@ public class MemoryDataSource implements EditableBinaryData {
     public void dispose() {
         data.dispose();
     }
+
+    private void modified(long startPosition, long endPosition) {
+        revision++;
+        if (startPosition < modifiedStart) {
+            modifiedStart = startPosition;
+        }
+        if (endPosition > modifiedEnd) {
+            modifiedEnd = endPosition;
+        }
+    }
 }
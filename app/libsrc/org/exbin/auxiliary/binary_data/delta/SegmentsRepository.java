@@ -17,6 +17,7 @@ package org.exbin.auxiliary.binary_data.delta;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -43,6 +44,10 @@ public class SegmentsRepository {
      * Limit for save processing in bytes.
      */
     private static final int PROCESSING_LIMIT = 4096;
+    /**
+     * Buffer reused for writing of all saved segments.
+     */
+    private final byte[] saveBuffer = new byte[PROCESSING_LIMIT];
     private final MemorySegmentCreator memorySegmentCreator;
 
     public SegmentsRepository(MemorySegmentCreator memorySegmentCreator) {
@@ -366,17 +371,27 @@ public class SegmentsRepository {
 
     private void saveSegment(DataSource dataSource, long targetPosition, DataSegment segment, long segmentOffset, long segmentLimit) {
         try {
-            if (segment instanceof MemorySegment) {
+            if (segment instanceof FillSegment) {
+                byte fill = ((FillSegment) segment).getFill();
+                long sectionLength = segmentLimit;
+                int bufferSize = sectionLength < PROCESSING_LIMIT ? (int) sectionLength : PROCESSING_LIMIT;
+                Arrays.fill(saveBuffer, 0, bufferSize, fill);
+                while (sectionLength > 0) {
+                    int length = sectionLength < bufferSize ? (int) sectionLength : bufferSize;
+                    dataSource.write(targetPosition, saveBuffer, 0, length);
+                    targetPosition += length;
+                    sectionLength -= length;
+                }
+            } else if (segment instanceof MemorySegment) {
                 MemorySegment memorySegment = (MemorySegment) segment;
                 MemoryDataSource source = memorySegment.getSource();
 
                 long sectionPosition = memorySegment.getStartPosition() + segmentOffset;
                 long sectionLength = segmentLimit;
-                byte[] buffer = new byte[PROCESSING_LIMIT];
                 while (sectionLength > 0) {
                     int length = sectionLength < PROCESSING_LIMIT ? (int) sectionLength : PROCESSING_LIMIT;
-                    source.copyToArray(sectionPosition, buffer, 0, length);
-                    dataSource.write(targetPosition, buffer, 0, length);
+                    source.copyToArray(sectionPosition, saveBuffer, 0, length);
+                    dataSource.write(targetPosition, saveBuffer, 0, length);
                     targetPosition += length;
                     sectionPosition += length;
                     sectionLength -= length;
@@ -391,25 +406,23 @@ public class SegmentsRepository {
 
                 if (source == dataSource && targetPosition > sectionPosition && sectionPosition + sectionLength >= targetPosition) {
                     // Saved segment overlaps itself, reverse writing is needed
-                    byte[] buffer = new byte[PROCESSING_LIMIT];
                     while (sectionLength > 0) {
                         int length = sectionLength < PROCESSING_LIMIT ? (int) sectionLength : PROCESSING_LIMIT;
                         int toProcess = length;
                         while (toProcess > 0) {
-                            int read = source.read(sectionPosition + sectionLength - toProcess, buffer, length - toProcess, toProcess);
+                            int read = source.read(sectionPosition + sectionLength - toProcess, saveBuffer, length - toProcess, toProcess);
                             toProcess -= read;
                         }
-                        dataSource.write(targetPosition + sectionLength - length, buffer, 0, length);
+                        dataSource.write(targetPosition + sectionLength - length, saveBuffer, 0, length);
 
                         sectionLength -= length;
                         sectionProcessed += length;
                     }
                 } else {
-                    byte[] buffer = new byte[PROCESSING_LIMIT];
                     while (sectionLength > 0) {
                         int length = sectionLength < PROCESSING_LIMIT ? (int) sectionLength : PROCESSING_LIMIT;
-                        length = source.read(sectionPosition + sectionProcessed, buffer, 0, length);
-                        dataSource.write(targetPosition + sectionProcessed, buffer, 0, length);
+                        length = source.read(sectionPosition + sectionProcessed, saveBuffer, 0, length);
+                        dataSource.write(targetPosition + sectionProcessed, saveBuffer, 0, length);
                         sectionLength -= length;
                         sectionProcessed += length;
                     }
@@ -553,7 +566,9 @@ public class SegmentsRepository {
     }
 
     public void updateSegment(DataSegment segment, long position, long length) {
-        if (segment instanceof MemorySegment) {
+        if (segment instanceof FillSegment) {
+            ((FillSegment) segment).setLength(length);
+        } else if (segment instanceof MemorySegment) {
             DataSegmentsMap segmentsMap = memorySources.get(((MemorySegment) segment).getSource());
             segmentsMap.updateSegment(segment, position, length);
         } else {
@@ -563,7 +578,9 @@ public class SegmentsRepository {
     }
 
     public void updateSegmentLength(DataSegment segment, long length) {
-        if (segment instanceof MemorySegment) {
+        if (segment instanceof FillSegment) {
+            ((FillSegment) segment).setLength(length);
+        } else if (segment instanceof MemorySegment) {
             DataSegmentsMap segmentsMap = memorySources.get(((MemorySegment) segment).getSource());
             segmentsMap.updateSegmentLength(segment, length);
         } else {
@@ -722,6 +739,7 @@ public class SegmentsRepository {
         DataSegmentsMap segmentsMap = memorySources.get(source);
         segmentsMap.remove(memorySegment);
         memorySegment.setSource(newMemorySource);
+        memorySegment.setStartPosition(0);
         DataSegmentsMap newSegmentsMap = memorySources.get(newMemorySource);
         newSegmentsMap.add(memorySegment);
     }
@@ -758,7 +776,9 @@ public class SegmentsRepository {
      * @return copy of segment
      */
     public DataSegment copySegment(DataSegment segment) {
-        if (segment instanceof MemorySegment) {
+        if (segment instanceof FillSegment) {
+            return segment.copy();
+        } else if (segment instanceof MemorySegment) {
             MemorySegment memorySegment = (MemorySegment) segment;
             return createMemorySegment(memorySegment.getSource(), memorySegment.getStartPosition(), memorySegment.getLength());
         } else {
@@ -776,7 +796,9 @@ public class SegmentsRepository {
      * @return copy of segment
      */
     public DataSegment copySegment(DataSegment segment, long offset, long length) {
-        if (segment instanceof MemorySegment) {
+        if (segment instanceof FillSegment) {
+            return new FillSegment(((FillSegment) segment).getFill(), length);
+        } else if (segment instanceof MemorySegment) {
             MemorySegment memorySegment = (MemorySegment) segment;
             return createMemorySegment(memorySegment.getSource(), memorySegment.getStartPosition() + offset, length);
         } else {
@@ -19,6 +19,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import org.jspecify.annotations.NullMarked;
@@ -81,10 +82,13 @@ public class FileDataSource implements DataSource {
         accessFile.writeByte(value);
     }
 
+    /**
+     * Reads data using positional read which doesn't change file pointer, so
+     * it can be called from multiple threads concurrently.
+     */
     @Override
     public int read(long position, byte[] buffer, int offset, int length) throws IOException {
-        accessFile.seek(position);
-        return accessFile.read(buffer, offset, length);
+        return accessFile.getChannel().read(ByteBuffer.wrap(buffer, offset, length), position);
     }
 
     @Override
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.exbin.auxiliary.binary_data.EditableBinaryData;
+import org.exbin.auxiliary.binary_data.android_jna.JnaBufferEditableData;
+import org.exbin.bined.EditMode;
+import org.exbin.bined.android.basic.CodeArea;
+import org.exbin.bined.android.basic.CodeAreaComponentTest;
+import org.exbin.bined.capability.EditModeCapable;
+import org.exbin.bined.editor.android.R;
+import org.exbin.bined.operation.android.CodeAreaUndoRedo;
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Tests for BinarySearchServiceImpl class.
+ */
+@NullMarked
+public class BinarySearchServiceImplTest extends CodeAreaComponentTest {
+
+    private static final byte[] PATTERN = {'a', 'b', 'c', 'd'};
+
+    public BinarySearchServiceImplTest() {
+    }
+
+    @Test
+    public void testReplaceAllOverMatchesLimit() {
+        // Data large enough to be searched in parallel ranges with matches over the limit of single batch
+        int matchesCount = BinarySearchService.FoundMatches.MAX_MATCHES_COUNT + 250_000;
+        byte[] content = new byte[matchesCount * PATTERN.length];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = PATTERN[i % PATTERN.length];
+        }
+        EditableBinaryData data = new JnaBufferEditableData();
+        data.insert(0, content);
+
+        BinarySearchServiceImpl[] searchService = new BinarySearchServiceImpl[1];
+        rule.getScenario().onActivity(activity -> {
+            CodeArea codeArea = activity.findViewById(R.id.codeArea);
+            ((EditModeCapable) codeArea).setEditMode(EditMode.EXPANDING);
+            codeArea.setContentData(data);
+            searchService[0] = new BinarySearchServiceImpl(codeArea, new CodeAreaUndoRedo(codeArea));
+        });
+
+        SearchCondition condition = new SearchCondition();
+        condition.setSearchMode(SearchCondition.SearchMode.TEXT);
+        condition.setSearchText("abcd");
+        SearchParameters searchParameters = new SearchParameters();
+        searchParameters.setMatchCase(true);
+        searchParameters.setCondition(condition);
+        SearchCondition replaceCondition = new SearchCondition();
+        replaceCondition.setSearchMode(SearchCondition.SearchMode.TEXT);
+        replaceCondition.setSearchText("x");
+        ReplaceParameters replaceParameters = new ReplaceParameters();
+        replaceParameters.setCondition(replaceCondition);
+
+        searchService[0].performReplaceAll(searchParameters, replaceParameters, new BinarySearchService.SearchStatusListener() {
+            @Override
+            public void setStatus(BinarySearchService.FoundMatches foundMatches, SearchParameters.MatchMode matchMode) {
+            }
+
+            @Override
+            public void setProgress(long processedBytes, long totalBytes, int matchesCount) {
+            }
+
+            @Override
+            public void clearStatus() {
+            }
+        }, new BinarySearchService.CancellationToken());
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        rule.getScenario().onActivity(activity -> {
+            Assert.assertEquals(matchesCount, data.getDataSize());
+            byte[] result = new byte[matchesCount];
+            data.copyToArray(0, result, 0, matchesCount);
+            for (byte value : result) {
+                Assert.assertEquals('x', value);
+            }
+            searchService[0].dispose();
+        });
+    }
+}
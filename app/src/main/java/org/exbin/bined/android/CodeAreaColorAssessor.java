@@ -52,6 +52,16 @@ public interface CodeAreaColorAssessor extends CodeAreaPaintAssessor {
     @Nullable
     Integer getPositionBackgroundColor(long rowDataPosition, int byteOnRow, int charOnRow, CodeAreaSection section, boolean inSelection);
 
+    /**
+     * Fills text and background colors of characters of the row.
+     * <p>
+     * Colors are resolved the same way as for single position, characters
+     * without assigned color are set to {@link CodeAreaRowColors#NO_COLOR}.
+     *
+     * @param rowColors row colors
+     */
+    void fillRowColors(CodeAreaRowColors rowColors);
+
     /**
      * Returns parent color assessor if present.
      *
@@ -31,6 +31,8 @@ import android.widget.RelativeLayout;
 
 import org.exbin.auxiliary.binary_data.BinaryData;
 import org.exbin.auxiliary.binary_data.EmptyBinaryData;
+import org.exbin.auxiliary.binary_data.delta.DeltaDocument;
+import org.exbin.auxiliary.binary_data.delta.DeltaDocumentEditListener;
 import org.exbin.bined.CodeAreaControl;
 import org.exbin.bined.DataChangedListener;
 import org.exbin.bined.android.basic.DefaultCodeAreaCommandHandler;
@@ -50,6 +52,8 @@ import org.jspecify.annotations.NullMarked;
 @NullMarked
 public abstract class CodeAreaCore extends ViewGroup implements CodeAreaControl {
 
+    private static final int MAX_PENDING_EDITS = 32;
+
     protected BinaryData contentData = EmptyBinaryData.getInstance();
 
     protected final PrimaryView primaryView;
@@ -58,6 +62,15 @@ public abstract class CodeAreaCore extends ViewGroup implements CodeAreaControl
 
     protected final List<DataChangedListener> dataChangedListeners = new ArrayList<>();
 
+    /**
+     * Edits of content data reported since last data changed notification
+     * as triplets of position, removed length and inserted length.
+     */
+    private final List<long[]> pendingEdits = new ArrayList<>();
+    private boolean pendingEditsKnown = false;
+    private boolean pendingEditsOverflow = false;
+    private final DeltaDocumentEditListener contentEditListener = this::contentDataEdited;
+
     protected float touchPositionX;
     protected float touchPositionY;
 
@@ -162,8 +175,22 @@ public abstract class CodeAreaCore extends ViewGroup implements CodeAreaControl
     }
 
     public void setContentData(@Nullable BinaryData contentData) {
+        if (this.contentData instanceof DeltaDocument) {
+            ((DeltaDocument) this.contentData).removeEditListener(contentEditListener);
+        }
         this.contentData = contentData == null ? EmptyBinaryData.getInstance() : contentData;
+        synchronized (pendingEdits) {
+            pendingEdits.clear();
+            pendingEditsKnown = false;
+            pendingEditsOverflow = false;
+        }
         notifyDataChanged();
+        if (this.contentData instanceof DeltaDocument) {
+            ((DeltaDocument) this.contentData).addEditListener(contentEditListener);
+            synchronized (pendingEdits) {
+                pendingEditsKnown = true;
+            }
+        }
         repaint();
     }
 
@@ -176,8 +203,71 @@ public abstract class CodeAreaCore extends ViewGroup implements CodeAreaControl
      * Notifies component, that the internal data was changed.
      */
     public void notifyDataChanged() {
+        List<long[]> edits = null;
+        synchronized (pendingEdits) {
+            if (pendingEditsKnown && !pendingEditsOverflow) {
+                edits = new ArrayList<>(pendingEdits);
+            }
+            pendingEdits.clear();
+            pendingEditsOverflow = false;
+        }
+
         for (DataChangedListener listener : dataChangedListeners) {
-            listener.dataChanged();
+            if (edits != null && listener instanceof DataRangeChangedListener) {
+                for (long[] edit : edits) {
+                    ((DataRangeChangedListener) listener).dataChanged(edit[0], edit[1], edit[2]);
+                }
+            } else {
+                listener.dataChanged();
+            }
+        }
+    }
+
+    /**
+     * Notifies component, that given range of the internal data was changed.
+     *
+     * @param position start position of modified range
+     * @param removedLength length of removed data
+     * @param insertedLength length of inserted data
+     */
+    public void notifyDataChanged(long position, long removedLength, long insertedLength) {
+        for (DataChangedListener listener : dataChangedListeners) {
+            if (listener instanceof DataRangeChangedListener) {
+                ((DataRangeChangedListener) listener).dataChanged(position, removedLength, insertedLength);
+            } else {
+                listener.dataChanged();
+            }
+        }
+    }
+
+    /**
+     * Records edit of content data reported by delta document.
+     * <p>
+     * Remove followed by other edit at the same position is merged into single
+     * edit. When too many edits are pending, whole data is reported as changed
+     * on next notification.
+     */
+    private void contentDataEdited(long position, long removedLength, long insertedLength) {
+        synchronized (pendingEdits) {
+            if (pendingEditsOverflow) {
+                return;
+            }
+
+            int count = pendingEdits.size();
+            if (count > 0) {
+                long[] lastEdit = pendingEdits.get(count - 1);
+                if (lastEdit[0] == position && lastEdit[2] == 0) {
+                    lastEdit[1] += removedLength;
+                    lastEdit[2] = insertedLength;
+                    return;
+                }
+            }
+            if (count == MAX_PENDING_EDITS) {
+                pendingEdits.clear();
+                pendingEditsOverflow = true;
+                return;
+            }
+            pendingEdits.add(new long[]{position, removedLength, insertedLength});
         }
     }
 
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.android;
+
+import java.util.Arrays;
+
+import org.exbin.bined.CodeAreaSection;
+import org.exbin.bined.basic.BasicCodeAreaSection;
+import org.exbin.bined.basic.CodeAreaViewMode;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Colors of characters of single row filled by color assessors.
+ * <p>
+ * Arrays are indexed by character on row, only characters in range from
+ * first to last character are used.
+ */
+@NullMarked
+public class CodeAreaRowColors {
+
+    /**
+     * Value for character without assigned color.
+     */
+    public static final int NO_COLOR = 0x00FFFFFF;
+
+    private long rowDataPosition;
+    private CodeAreaViewMode viewMode = CodeAreaViewMode.DUAL;
+    private int previewCharPos;
+    private int fromChar;
+    private int toChar;
+    private int[] bytesOnRow = new int[0];
+    private boolean[] inSelection = new boolean[0];
+    private int[] textColors = new int[0];
+    private int[] backgroundColors = new int[0];
+
+    /**
+     * Ensures arrays capacity for given number of characters per row.
+     *
+     * @param charactersPerRow characters per row
+     */
+    public void ensureCharacters(int charactersPerRow) {
+        if (textColors.length != charactersPerRow) {
+            bytesOnRow = new int[charactersPerRow];
+            inSelection = new boolean[charactersPerRow];
+            textColors = new int[charactersPerRow];
+            backgroundColors = new int[charactersPerRow];
+        }
+    }
+
+    /**
+     * Sets row to fill colors for.
+     * <p>
+     * Bytes on row and selection flags of characters in range are expected
+     * to be filled by caller.
+     *
+     * @param rowDataPosition row data position
+     * @param viewMode view mode
+     * @param previewCharPos first character of preview section
+     * @param fromChar first character
+     * @param toChar end of characters (exclusive)
+     */
+    public void setRow(long rowDataPosition, CodeAreaViewMode viewMode, int previewCharPos, int fromChar, int toChar) {
+        this.rowDataPosition = rowDataPosition;
+        this.viewMode = viewMode;
+        this.previewCharPos = previewCharPos;
+        this.fromChar = fromChar;
+        this.toChar = toChar;
+    }
+
+    /**
+     * Sets the same row as given row colors with own color arrays.
+     *
+     * @param rowColors source row colors
+     */
+    public void assignRow(CodeAreaRowColors rowColors) {
+        if (textColors.length != rowColors.textColors.length) {
+            textColors = new int[rowColors.textColors.length];
+            backgroundColors = new int[rowColors.backgroundColors.length];
+        }
+        bytesOnRow = rowColors.bytesOnRow;
+        inSelection = rowColors.inSelection;
+        setRow(rowColors.rowDataPosition, rowColors.viewMode, rowColors.previewCharPos, rowColors.fromChar, rowColors.toChar);
+    }
+
+    /**
+     * Sets text and background colors of all characters in range to no color.
+     */
+    public void clearColors() {
+        Arrays.fill(textColors, fromChar, toChar, NO_COLOR);
+        Arrays.fill(backgroundColors, fromChar, toChar, NO_COLOR);
+    }
+
+    public long getRowDataPosition() {
+        return rowDataPosition;
+    }
+
+    public int getFromChar() {
+        return fromChar;
+    }
+
+    public int getToChar() {
+        return toChar;
+    }
+
+    public CodeAreaSection getSection(int charOnRow) {
+        return charOnRow >= previewCharPos && viewMode != CodeAreaViewMode.CODE_MATRIX ? BasicCodeAreaSection.TEXT_PREVIEW : BasicCodeAreaSection.CODE_MATRIX;
+    }
+
+    public int[] getBytesOnRow() {
+        return bytesOnRow;
+    }
+
+    public boolean[] getInSelection() {
+        return inSelection;
+    }
+
+    public int[] getTextColors() {
+        return textColors;
+    }
+
+    public int[] getBackgroundColors() {
+        return backgroundColors;
+    }
+
+    /**
+     * Converts optional color to row color value.
+     *
+     * @param color color or null
+     * @return color value or NO_COLOR
+     */
+    public static int toRowColor(@Nullable Integer color) {
+        return color == null ? NO_COLOR : color;
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.android.basic;
+
+import android.os.SystemClock;
+
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.auxiliary.binary_data.delta.DeltaDocument;
+import org.exbin.auxiliary.binary_data.delta.DeltaDocumentEditListener;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Background loader of row data.
+ * <p>
+ * Data of delta document are read on background thread in blocks of rows
+ * around visible rows, so that painting doesn't wait for reading from
+ * document source. Block is read with the document locked, because data
+ * sources are modified by edits. Count of rows read ahead in scrolling
+ * direction depends on scrolling velocity. Other types of data are kept in
+ * memory and are read by painter directly.
+ */
+@NullMarked
+public class BasicCodeAreaRowDataPrefetcher {
+
+    public static final int BLOCK_ROWS = 64;
+    public static final int MAX_BLOCKS = 48;
+    /**
+     * Rows scrolled during this time at current velocity are read ahead.
+     */
+    private static final int LOOKAHEAD_MILLIS = 500;
+
+    protected final ThreadPoolExecutor loaderExecutor;
+    private final DeltaDocumentEditListener documentEditListener = this::dataEdited;
+    private final LoadListener loadListener;
+    private final Map<Long, Block> blocks = new LinkedHashMap<Long, Block>(MAX_BLOCKS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Block> eldest) {
+            return size() > MAX_BLOCKS;
+        }
+    };
+    private final Set<Long> queuedBlocks = new HashSet<>();
+
+    private @Nullable DeltaDocument document;
+    private int bytesPerRow;
+    private int rowDataLength;
+    /**
+     * Incremented with each modification of data, so that blocks read from
+     * previous data are dropped.
+     */
+    private int generation;
+    private long wantedFirstBlock = 0;
+    private long wantedLastBlock = -1;
+
+    private long lastFirstRow = -1;
+    private long lastPrefetchTime;
+    /**
+     * Smoothed scrolling velocity in rows per millisecond.
+     */
+    private double velocity;
+
+    public BasicCodeAreaRowDataPrefetcher(LoadListener loadListener) {
+        this.loadListener = loadListener;
+        loaderExecutor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "RowDataThread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        loaderExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Sets data and rows layout, cached blocks are dropped if changed.
+     *
+     * @param data binary data
+     * @param bytesPerRow bytes per row
+     * @param rowDataLength length of data of single row
+     */
+    public void setLayout(BinaryData data, int bytesPerRow, int rowDataLength) {
+        DeltaDocument newDocument = data instanceof DeltaDocument ? (DeltaDocument) data : null;
+        DeltaDocument oldDocument;
+        synchronized (this) {
+            oldDocument = document;
+            if (newDocument == oldDocument && this.bytesPerRow == bytesPerRow && this.rowDataLength == rowDataLength) {
+                return;
+            }
+
+            document = newDocument;
+            this.bytesPerRow = bytesPerRow;
+            this.rowDataLength = rowDataLength;
+            invalidate();
+        }
+
+        // Listeners are changed outside of the lock, edit listener is called with document locked
+        if (oldDocument != newDocument) {
+            if (oldDocument != null) {
+                oldDocument.removeEditListener(documentEditListener);
+            }
+            if (newDocument != null) {
+                newDocument.addEditListener(documentEditListener);
+            }
+        }
+    }
+
+    /**
+     * Returns true if data are loaded on background.
+     *
+     * @return true if enabled
+     */
+    public synchronized boolean isEnabled() {
+        return document != null;
+    }
+
+    /**
+     * Drops all cached blocks.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        blocks.clear();
+        lastFirstRow = -1;
+    }
+
+    /**
+     * Releases data and all cached blocks.
+     */
+    public void release() {
+        DeltaDocument oldDocument;
+        synchronized (this) {
+            oldDocument = document;
+            document = null;
+            invalidate();
+        }
+        if (oldDocument != null) {
+            oldDocument.removeEditListener(documentEditListener);
+        }
+    }
+
+    /**
+     * Requests loading of blocks for visible rows and rows around them.
+     *
+     * @param firstRow first visible row
+     * @param lastRow last visible row
+     * @param rowsCount count of rows of data
+     */
+    public synchronized void prefetch(long firstRow, long lastRow, long rowsCount) {
+        if (document == null || bytesPerRow == 0 || rowsCount == 0) {
+            return;
+        }
+
+        long now = SystemClock.uptimeMillis();
+        long elapsed = now - lastPrefetchTime;
+        if (lastFirstRow < 0 || elapsed >= 1000) {
+            velocity = 0;
+            lastFirstRow = firstRow;
+            lastPrefetchTime = now;
+        } else if (elapsed > 0) {
+            velocity = (velocity + (double) (firstRow - lastFirstRow) / elapsed) / 2;
+            lastFirstRow = firstRow;
+            lastPrefetchTime = now;
+        }
+
+        long visibleRows = lastRow - firstRow + 1;
+        long maxAheadRows = Math.max(visibleRows, (long) (MAX_BLOCKS / 2) * BLOCK_ROWS - 2 * visibleRows);
+        long aheadRows = visibleRows + Math.min((long) (Math.abs(velocity) * LOOKAHEAD_MILLIS), maxAheadRows);
+        boolean backward = velocity < 0;
+        long firstWantedRow = Math.max(0, firstRow - (backward ? aheadRows : visibleRows));
+        long lastWantedRow = Math.min(rowsCount - 1, lastRow + (backward ? visibleRows : aheadRows));
+        wantedFirstBlock = firstWantedRow / BLOCK_ROWS;
+        wantedLastBlock = lastWantedRow / BLOCK_ROWS;
+
+        long firstVisibleBlock = Math.max(firstRow / BLOCK_ROWS, wantedFirstBlock);
+        long lastVisibleBlock = Math.min(lastRow / BLOCK_ROWS, wantedLastBlock);
+        for (long block = firstVisibleBlock; block <= lastVisibleBlock; block++) {
+            requestBlock(block);
+        }
+        if (backward) {
+            for (long block = firstVisibleBlock - 1; block >= wantedFirstBlock; block--) {
+                requestBlock(block);
+            }
+            for (long block = lastVisibleBlock + 1; block <= wantedLastBlock; block++) {
+                requestBlock(block);
+            }
+        } else {
+            for (long block = lastVisibleBlock + 1; block <= wantedLastBlock; block++) {
+                requestBlock(block);
+            }
+            for (long block = firstVisibleBlock - 1; block >= wantedFirstBlock; block--) {
+                requestBlock(block);
+            }
+        }
+    }
+
+    /**
+     * Copies data of given row if already loaded.
+     *
+     * @param rowPosition row position
+     * @param target target array
+     * @return true if data were copied
+     */
+    public synchronized boolean copyRowData(long rowPosition, byte[] target) {
+        Block block = blocks.get(rowPosition / BLOCK_ROWS);
+        if (block == null) {
+            return false;
+        }
+
+        int offset = (int) (rowPosition % BLOCK_ROWS) * bytesPerRow;
+        int length = Math.min(target.length, block.length - offset);
+        if (length > 0) {
+            System.arraycopy(block.data, offset, target, 0, length);
+        }
+        return true;
+    }
+
+    private void requestBlock(long block) {
+        if (blocks.containsKey(block) || !queuedBlocks.add(block)) {
+            return;
+        }
+
+        DeltaDocument taskDocument = document;
+        loaderExecutor.execute(() -> loadBlock(block, taskDocument));
+    }
+
+    private void loadBlock(long block, DeltaDocument taskDocument) {
+        byte[] data = null;
+        int taskGeneration;
+        int length;
+        synchronized (taskDocument) {
+            int blockLength;
+            long blockPosition;
+            synchronized (this) {
+                if (document != taskDocument || block < wantedFirstBlock || block > wantedLastBlock) {
+                    queuedBlocks.remove(block);
+                    return;
+                }
+
+                taskGeneration = generation;
+                blockPosition = block * BLOCK_ROWS * bytesPerRow;
+                blockLength = (BLOCK_ROWS - 1) * bytesPerRow + rowDataLength;
+            }
+
+            length = (int) Math.min(blockLength, taskDocument.getDataSize() - blockPosition);
+            try {
+                if (length > 0) {
+                    data = new byte[blockLength];
+                    taskDocument.copyToArray(blockPosition, data, 0, length);
+                }
+            } catch (Exception ex) {
+                Logger.getLogger(BasicCodeAreaRowDataPrefetcher.class.getName()).log(Level.FINE, null, ex);
+                data = null;
+            }
+        }
+
+        if (storeBlock(block, taskGeneration, data, length)) {
+            loadListener.rowDataLoaded();
+        }
+    }
+
+    private synchronized boolean storeBlock(long block, int taskGeneration, byte @Nullable [] data, int length) {
+        queuedBlocks.remove(block);
+        if (data == null || taskGeneration != generation) {
+            // Block will be requested again by next prefetch
+            return false;
+        }
+
+        blocks.put(block, new Block(data, length));
+        return true;
+    }
+
+    private synchronized void dataEdited(long position, long removedLength, long insertedLength) {
+        generation++;
+        if (bytesPerRow == 0) {
+            return;
+        }
+
+        // Row data include bytes of characters overlapping to the next row
+        long firstBlock = Math.max(0, position - (rowDataLength - bytesPerRow)) / bytesPerRow / BLOCK_ROWS;
+        long lastBlock = removedLength == insertedLength ? (position + removedLength - 1) / bytesPerRow / BLOCK_ROWS : Long.MAX_VALUE;
+        Iterator<Long> iterator = blocks.keySet().iterator();
+        while (iterator.hasNext()) {
+            long block = iterator.next();
+            if (block >= firstBlock && block <= lastBlock) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class Block {
+
+        final byte[] data;
+        final int length;
+
+        Block(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Listener for loaded row data.
+     */
+    public interface LoadListener {
+
+        /**
+         * Data of some rows were loaded.
+         * <p>
+         * Called from background thread.
+         */
+        void rowDataLoaded();
+    }
+}
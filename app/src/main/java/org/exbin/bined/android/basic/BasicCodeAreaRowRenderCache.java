@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.android.basic;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Cache of rendered rows of code area.
+ * <p>
+ * Each row keeps copy of its data for current data generation and bitmap
+ * with rendered row together with characters and colors it was rendered
+ * from, so that unchanged rows are drawn as single bitmap when scrolling.
+ * Rows are stored in slots by row position modulo capacity, rows visible at
+ * the same time never share slot.
+ */
+@NullMarked
+public class BasicCodeAreaRowRenderCache {
+
+    private @Nullable Entry[] entries = new Entry[0];
+    private long dataGeneration = 0;
+    private long renderGeneration = 0;
+
+    /**
+     * Ensures capacity for given number of rows, clears cache if capacity
+     * changes.
+     *
+     * @param rowsCount number of rows
+     */
+    public void ensureCapacity(int rowsCount) {
+        if (entries.length != rowsCount) {
+            clear();
+            entries = new Entry[rowsCount];
+        }
+    }
+
+    /**
+     * Returns cache entry for given row.
+     *
+     * @param rowPosition row position
+     * @return cache entry
+     */
+    public Entry getEntry(long rowPosition) {
+        int slot = (int) (rowPosition % entries.length);
+        Entry entry = entries[slot];
+        if (entry == null) {
+            entry = new Entry();
+            entries[slot] = entry;
+        }
+        return entry;
+    }
+
+    /**
+     * Invalidates cached data and rendered bitmaps of all rows.
+     */
+    public void invalidate() {
+        dataGeneration++;
+        renderGeneration++;
+    }
+
+    /**
+     * Invalidates cached data of all rows.
+     */
+    public void invalidateData() {
+        dataGeneration++;
+    }
+
+    /**
+     * Invalidates cached data of rows in given range.
+     *
+     * @param firstRow first row position
+     * @param lastRow last row position (inclusive)
+     */
+    public void invalidateRows(long firstRow, long lastRow) {
+        for (Entry entry : entries) {
+            if (entry != null && entry.dataRowPosition >= firstRow && entry.dataRowPosition <= lastRow) {
+                entry.dataEntryGeneration = -1;
+            }
+        }
+    }
+
+    /**
+     * Invalidates rendered bitmaps of all rows.
+     */
+    public void invalidateRender() {
+        renderGeneration++;
+    }
+
+    /**
+     * Releases all cached bitmaps.
+     */
+    public void clear() {
+        for (Entry entry : entries) {
+            if (entry != null && entry.bitmap != null) {
+                entry.bitmap.recycle();
+                entry.bitmap = null;
+                entry.canvas = null;
+            }
+        }
+        entries = new Entry[0];
+    }
+
+    /**
+     * Cached row.
+     */
+    public class Entry {
+
+        private long dataRowPosition = -1;
+        private long dataEntryGeneration = -1;
+        private byte[] rowData = new byte[0];
+
+        private long renderRowPosition = -1;
+        private long renderEntryGeneration = -1;
+        private int renderOffsetX;
+        private int renderFrom;
+        private int renderTo;
+        private char[] rowCharacters = new char[0];
+        private int[] textColors = new int[0];
+        private int[] backgroundColors = new int[0];
+        private @Nullable Bitmap bitmap;
+        private @Nullable Canvas canvas;
+
+        private Entry() {
+        }
+
+        /**
+         * Returns true if row data are cached for current data generation.
+         *
+         * @param rowPosition row position
+         * @return true if cached
+         */
+        public boolean hasRowData(long rowPosition) {
+            return dataRowPosition == rowPosition && dataEntryGeneration == dataGeneration;
+        }
+
+        public void loadRowData(byte[] target) {
+            System.arraycopy(rowData, 0, target, 0, Math.min(rowData.length, target.length));
+        }
+
+        public void storeRowData(long rowPosition, byte[] source) {
+            if (rowData.length != source.length) {
+                rowData = new byte[source.length];
+            }
+            System.arraycopy(source, 0, rowData, 0, source.length);
+            dataRowPosition = rowPosition;
+            dataEntryGeneration = dataGeneration;
+        }
+
+        /**
+         * Returns true if row bitmap was rendered from the same characters
+         * and colors in given range of characters.
+         *
+         * @param rowPosition row position
+         * @param offsetX horizontal offset of row
+         * @param characters row characters
+         * @param textColors text colors
+         * @param backgroundColors background colors
+         * @param from first character
+         * @param to end of characters (exclusive)
+         * @return true if bitmap can be reused
+         */
+        public boolean isRendered(long rowPosition, int offsetX, char[] characters, int[] textColors, int[] backgroundColors, int from, int to) {
+            if (bitmap == null || renderRowPosition != rowPosition || renderEntryGeneration != renderGeneration
+                    || renderOffsetX != offsetX || renderFrom != from || renderTo != to) {
+                return false;
+            }
+
+            for (int i = from; i < to; i++) {
+                if (rowCharacters[i] != characters[i] || this.textColors[i] != textColors[i] || this.backgroundColors[i] != backgroundColors[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns cleared canvas of row bitmap of given size.
+         *
+         * @param width bitmap width
+         * @param height bitmap height
+         * @return canvas
+         */
+        public Canvas startRender(int width, int height) {
+            Canvas renderCanvas = canvas;
+            if (bitmap == null || renderCanvas == null || bitmap.getWidth() != width || bitmap.getHeight() != height) {
+                if (bitmap != null) {
+                    bitmap.recycle();
+                }
+                bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+                renderCanvas = new Canvas(bitmap);
+                canvas = renderCanvas;
+            } else {
+                bitmap.eraseColor(Color.TRANSPARENT);
+            }
+            renderEntryGeneration = -1;
+            return renderCanvas;
+        }
+
+        public void finishRender(long rowPosition, int offsetX, char[] characters, int[] textColors, int[] backgroundColors, int from, int to) {
+            if (rowCharacters.length != characters.length) {
+                rowCharacters = new char[characters.length];
+            }
+            if (this.textColors.length != textColors.length) {
+                this.textColors = new int[textColors.length];
+                this.backgroundColors = new int[backgroundColors.length];
+            }
+            System.arraycopy(characters, from, rowCharacters, from, to - from);
+            System.arraycopy(textColors, from, this.textColors, from, to - from);
+            System.arraycopy(backgroundColors, from, this.backgroundColors, from, to - from);
+            renderRowPosition = rowPosition;
+            renderEntryGeneration = renderGeneration;
+            renderOffsetX = offsetX;
+            renderFrom = from;
+            renderTo = to;
+        }
+
+        public Bitmap getBitmap() {
+            if (bitmap == null) {
+                throw new IllegalStateException("Row was not rendered");
+            }
+            return bitmap;
+        }
+    }
+}
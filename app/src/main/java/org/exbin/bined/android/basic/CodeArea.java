@@ -519,6 +519,14 @@ public class CodeArea extends CodeAreaCore implements DefaultCodeArea, CodeAreaA
         updateLayout();
     }
 
+    @Override
+    public void notifyDataChanged(long position, long removedLength, long insertedLength) {
+        super.notifyDataChanged(position, removedLength, insertedLength);
+        if (removedLength != insertedLength) {
+            updateLayout();
+        }
+    }
+
     @Override
     public SelectionRange getSelection() {
         return selection.getRange();
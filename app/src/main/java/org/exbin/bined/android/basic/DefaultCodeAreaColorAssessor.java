@@ -23,6 +23,7 @@ import org.exbin.bined.basic.BasicCodeAreaSection;
 import org.exbin.bined.color.CodeAreaBasicColors;
 import org.exbin.bined.android.CodeAreaPaintState;
 import org.exbin.bined.android.CodeAreaColorAssessor;
+import org.exbin.bined.android.CodeAreaRowColors;
 import org.exbin.bined.android.basic.color.CodeAreaColorsProfile;
 
 /**
@@ -97,6 +98,30 @@ public class DefaultCodeAreaColorAssessor implements CodeAreaColorAssessor {
         return null;
     }
 
+    @Override
+    public void fillRowColors(CodeAreaRowColors rowColors) {
+        if (parentColorAssessor != null) {
+            parentColorAssessor.fillRowColors(rowColors);
+        } else {
+            rowColors.clearColors();
+        }
+
+        boolean[] inSelection = rowColors.getInSelection();
+        int[] textColors = rowColors.getTextColors();
+        int[] backgroundColors = rowColors.getBackgroundColors();
+        int toChar = rowColors.getToChar();
+        for (int charOnRow = rowColors.getFromChar(); charOnRow < toChar; charOnRow++) {
+            if (inSelection[charOnRow]) {
+                CodeAreaSection section = rowColors.getSection(charOnRow);
+                boolean activeSelection = section == activeSection;
+                textColors[charOnRow] = CodeAreaRowColors.toRowColor(activeSelection ? selectionColor : selectionMirrorColor);
+                if (section != BasicCodeAreaSection.CODE_MATRIX || charOnRow != codeLastCharPos) {
+                    backgroundColors[charOnRow] = CodeAreaRowColors.toRowColor(activeSelection ? selectionBackground : selectionMirrorBackground);
+                }
+            }
+        }
+    }
+
     @Override
     public Optional<CodeAreaColorAssessor> getParentColorAssessor() {
         return Optional.ofNullable(parentColorAssessor);
@@ -45,6 +45,8 @@ import org.exbin.bined.android.CodeAreaColorAssessor;
 import org.exbin.bined.android.CodeAreaCore;
 import org.exbin.bined.android.CodeAreaPaintState;
 import org.exbin.bined.android.CodeAreaPainter;
+import org.exbin.bined.android.CodeAreaRowColors;
+import org.exbin.bined.android.DataRangeChangedListener;
 import org.exbin.bined.android.Font;
 import org.exbin.bined.android.basic.color.BasicCodeAreaColorsProfile;
 import org.exbin.bined.android.basic.color.BasicColorsCapableCodeAreaPainter;
@@ -134,6 +136,19 @@ public class DefaultCodeAreaPainter implements CodeAreaPainter, BasicColorsCapab
 
     protected @Nullable RowDataCache rowDataCache = null;
     protected @Nullable CursorDataCache cursorDataCache = null;
+    protected final BasicCodeAreaRowRenderCache rowRenderCache = new BasicCodeAreaRowRenderCache();
+    protected final CodeAreaRowColors rowColors = new CodeAreaRowColors();
+    protected final BasicCodeAreaRowDataPrefetcher rowDataPrefetcher = new BasicCodeAreaRowDataPrefetcher(this::rowDataLoaded);
+    /**
+     * Range of edited rows which are read directly on next paint.
+     */
+    protected long directLoadFirstRow = Long.MAX_VALUE;
+    protected long directLoadLastRow = -1;
+    protected int renderBytesPerRow;
+    protected int renderCharactersPerRow;
+    protected @Nullable CodeAreaViewMode renderViewMode;
+    protected @Nullable CodeType renderCodeType;
+    protected @Nullable BasicBackgroundPaintMode renderBackgroundPaintMode;
 
     public DefaultCodeAreaPainter(final CodeAreaCore codeArea) {
         this.codeArea = codeArea;
@@ -176,7 +191,17 @@ public class DefaultCodeAreaPainter implements CodeAreaPainter, BasicColorsCapab
         scrollPanel.addView(dataView);
 
         codeAreaMouseListener = new DefaultCodeAreaMouseListener(codeArea, scrollPanel);
-        codeAreaDataChangeListener = this::dataChanged;
+        codeAreaDataChangeListener = new DataRangeChangedListener() {
+            @Override
+            public void dataChanged() {
+                DefaultCodeAreaPainter.this.dataChanged();
+            }
+
+            @Override
+            public void dataChanged(long position, long removedLength, long insertedLength) {
+                DefaultCodeAreaPainter.this.dataChanged(position, removedLength, insertedLength);
+            }
+        };
     }
 
     @Override
@@ -198,6 +223,8 @@ public class DefaultCodeAreaPainter implements CodeAreaPainter, BasicColorsCapab
         dataView.setOnLongClickListener(null);
 //        dataView.setOnContextClickListener(null);
         codeArea.removeDataChangedListener(codeAreaDataChangeListener);
+        rowRenderCache.clear();
+        rowDataPrefetcher.release();
     }
 
     @Override
@@ -265,6 +292,18 @@ public class DefaultCodeAreaPainter implements CodeAreaPainter, BasicColorsCapab
         }
 
         updateScrollBars();
+        int bytesPerRow = structure.getBytesPerRow();
+        CodeAreaViewMode viewMode = structure.getViewMode();
+        CodeType codeType = structure.getCodeType();
+        if (renderBytesPerRow != bytesPerRow || renderCharactersPerRow != charactersPerRow || renderViewMode != viewMode
+                || renderCodeType != codeType || renderBackgroundPaintMode != backgroundPaintMode) {
+            renderBytesPerRow = bytesPerRow;
+            renderCharactersPerRow = charactersPerRow;
+            renderViewMode = viewMode;
+            renderCodeType = codeType;
+            renderBackgroundPaintMode = backgroundPaintMode;
+            rowRenderCache.invalidate();
+        }
         layoutChanged = false;
     }
 
@@ -330,6 +369,9 @@ public class DefaultCodeAreaPainter implements CodeAreaPainter, BasicColorsCapab
         rowDataCache.rowData = new byte[structure.getBytesPerRow() + metrics.getMaxBytesPerChar() - 1];
         rowDataCache.rowPositionCode = new char[rowPositionLength];
         rowDataCache.rowCharacters = new char[structure.getCharactersPerRow()];
+        rowColors.ensureCharacters(structure.getCharactersPerRow());
+        rowDataCache.textColors = rowColors.getTextColors();
+        rowDataCache.backgroundColors = rowColors.getBackgroundColors();
     }
 
     public void fontChanged() {
@@ -349,6 +391,7 @@ public class DefaultCodeAreaPainter implements CodeAreaPainter, BasicColorsCapab
 
         recomputeDimensions();
         recomputeCharPositions();
+        rowRenderCache.invalidate();
         initialized = true;
     }
 
@@ -399,6 +442,7 @@ public class DefaultCodeAreaPainter implements CodeAreaPainter, BasicColorsCapab
         if (resetColors) {
             resetColors = false;
             colorsProfile.reinitialize();
+            rowRenderCache.invalidateRender();
         }
     }
 
@@ -674,40 +718,81 @@ public class DefaultCodeAreaPainter implements CodeAreaPainter, BasicColorsCapab
         int rowHeight = metrics.getRowHeight();
         int dataViewX = dimensions.getScrollPanelX();
         int dataViewY = dimensions.getScrollPanelY();
+        int dataViewWidth = dimensions.getDataViewWidth();
         int rowsPerRect = dimensions.getRowsPerRect();
+        int skipToChar = visibility.getSkipToChar();
+        int skipRestFromChar = visibility.getSkipRestFromChar();
         long dataSize = codeArea.getDataSize();
         CodeAreaScrollPosition scrollPosition = scrolling.getScrollPosition();
-        long dataPosition = scrollPosition.getRowPosition() * bytesPerRow;
+        long rowPosition = scrollPosition.getRowPosition();
+        long dataPosition = rowPosition * bytesPerRow;
         int rowPositionX = dataViewX - scrollPosition.getCharPosition() * characterWidth - scrollPosition.getCharOffset();
         int rowPositionY = dataViewY - scrollPosition.getRowOffset();
+        int renderX = dataViewOffsetX + dataViewX;
         paint.setColor(colorsProfile.getTextColor());
+        if (dataViewWidth <= 0 || rowHeight <= 0) {
+            return;
+        }
+
+        rowRenderCache.ensureCapacity(rowsPerRect + 2);
+        rowDataPrefetcher.setLayout(codeArea.getContentData(), bytesPerRow, rowDataCache.rowData.length);
+        boolean prefetchEnabled = rowDataPrefetcher.isEnabled();
+        if (prefetchEnabled) {
+            rowDataPrefetcher.prefetch(rowPosition, rowPosition + rowsPerRect, structure.getRowsPerDocument());
+        }
         for (int row = 0; row <= rowsPerRect; row++) {
             if (dataPosition > dataSize) {
                 break;
             }
-            prepareRowData(dataPosition);
-            paintRowBackground(g, dataPosition, rowPositionX, rowPositionY);
-            paintRowText(g, dataPosition, rowPositionX, rowPositionY);
+            BasicCodeAreaRowRenderCache.Entry entry = rowRenderCache.getEntry(rowPosition);
+            if (entry.hasRowData(rowPosition)) {
+                entry.loadRowData(rowDataCache.rowData);
+                prepareRowCharacters(dataPosition);
+                prepareRowColors(dataPosition);
+            } else if (!prefetchEnabled || dataPosition >= dataSize || (rowPosition >= directLoadFirstRow && rowPosition <= directLoadLastRow)) {
+                prepareRowData(dataPosition);
+                entry.storeRowData(rowPosition, rowDataCache.rowData);
+                prepareRowColors(dataPosition);
+            } else if (rowDataPrefetcher.copyRowData(rowPosition, rowDataCache.rowData)) {
+                prepareRowCharacters(dataPosition);
+                entry.storeRowData(rowPosition, rowDataCache.rowData);
+                prepareRowColors(dataPosition);
+            } else {
+                // Row is painted when data are loaded
+                preparePlaceholderRow();
+            }
+
+            int renderY = dataViewOffsetY + rowPositionY;
+            if (!entry.isRendered(rowPosition, rowPositionX - dataViewX, rowDataCache.rowCharacters, rowDataCache.textColors, rowDataCache.backgroundColors, skipToChar, skipRestFromChar)) {
+                // Background sequence overlaps next row by one pixel
+                Canvas rowCanvas = entry.startRender(dataViewWidth, rowHeight + 1);
+                rowCanvas.save();
+                rowCanvas.translate(-renderX, -renderY);
+                paintRowBackground(rowCanvas, dataPosition, rowPositionX, rowPositionY);
+                paintRowText(rowCanvas, dataPosition, rowPositionX, rowPositionY);
+                rowCanvas.restore();
+                entry.finishRender(rowPosition, rowPositionX - dataViewX, rowDataCache.rowCharacters, rowDataCache.textColors, rowDataCache.backgroundColors, skipToChar, skipRestFromChar);
+            }
+            g.drawBitmap(entry.getBitmap(), renderX, renderY, null);
 
             rowPositionY += rowHeight;
             dataPosition += bytesPerRow;
+            rowPosition++;
         }
+        directLoadFirstRow = Long.MAX_VALUE;
+        directLoadLastRow = -1;
     }
 
     protected void prepareRowData(long dataPosition) {
         int maxBytesPerChar = metrics.getMaxBytesPerChar();
-        CodeAreaViewMode viewMode = structure.getViewMode();
         int bytesPerRow = structure.getBytesPerRow();
         long dataSize = structure.getDataSize();
-        int previewCharPos = visibility.getPreviewCharPos();
-        CodeType codeType = structure.getCodeType();
-        int rowBytesLimit = bytesPerRow;
-        int rowStart = 0;
         if (dataPosition < dataSize) {
             int rowDataSize = bytesPerRow + maxBytesPerChar - 1;
             if (dataPosition + rowDataSize > dataSize) {
                 rowDataSize = (int) (dataSize - dataPosition);
             }
+            int rowStart = 0;
             if (dataPosition < 0) {
                 rowStart = (int) -dataPosition;
             }
@@ -716,6 +801,28 @@ public class DefaultCodeAreaPainter implements CodeAreaPainter, BasicColorsCapab
                 throw new IllegalStateException("Missing data on nonzero data size");
             }
             data.copyToArray(dataPosition + rowStart, rowDataCache.rowData, rowStart, rowDataSize - rowStart);
+        }
+
+        prepareRowCharacters(dataPosition);
+    }
+
+    /**
+     * Fills row characters from already loaded row data.
+     *
+     * @param dataPosition row data position
+     */
+    protected void prepareRowCharacters(long dataPosition) {
+        CodeAreaViewMode viewMode = structure.getViewMode();
+        int bytesPerRow = structure.getBytesPerRow();
+        long dataSize = structure.getDataSize();
+        int previewCharPos = visibility.getPreviewCharPos();
+        CodeType codeType = structure.getCodeType();
+        int rowBytesLimit = bytesPerRow;
+        int rowStart = 0;
+        if (dataPosition < dataSize) {
+            if (dataPosition < 0) {
+                rowStart = (int) -dataPosition;
+            }
             if (dataPosition + rowBytesLimit > dataSize) {
                 rowBytesLimit = (int) (dataSize - dataPosition);
             }
@@ -761,8 +868,58 @@ public class DefaultCodeAreaPainter implements CodeAreaPainter, BasicColorsCapab
         }
     }
 
+    /**
+     * Fills row characters and colors for row which data are not loaded yet.
+     */
+    protected void preparePlaceholderRow() {
+        Arrays.fill(rowDataCache.rowCharacters, ' ');
+        Arrays.fill(rowDataCache.textColors, colorsProfile.getTextColor());
+        Arrays.fill(rowDataCache.backgroundColors, Color.TRANSPARENT);
+    }
+
+    /**
+     * Fills text and background colors of visible row characters.
+     * <p>
+     * Missing text color is replaced with default text color and missing
+     * background color with transparent color.
+     *
+     * @param rowDataPosition row data position
+     */
+    protected void prepareRowColors(long rowDataPosition) {
+        CodeAreaViewMode viewMode = structure.getViewMode();
+        int previewCharPos = visibility.getPreviewCharPos();
+        int skipToChar = visibility.getSkipToChar();
+        int skipRestFromChar = visibility.getSkipRestFromChar();
+        int textColor = colorsProfile.getTextColor();
+        CodeAreaSelection selectionHandler = ((SelectionCapable) codeArea).getSelectionHandler();
+
+        rowColors.setRow(rowDataPosition, viewMode, previewCharPos, skipToChar, skipRestFromChar);
+        int[] bytesOnRow = rowColors.getBytesOnRow();
+        boolean[] inSelection = rowColors.getInSelection();
+        for (int charOnRow = skipToChar; charOnRow < skipRestFromChar; charOnRow++) {
+            int byteOnRow = charOnRow >= previewCharPos && viewMode != CodeAreaViewMode.CODE_MATRIX ? charOnRow - previewCharPos : structure.computePositionByte(charOnRow);
+            bytesOnRow[charOnRow] = byteOnRow;
+            inSelection[charOnRow] = selectionHandler.isInSelection(rowDataPosition + byteOnRow);
+        }
+
+        colorAssessor.fillRowColors(rowColors);
+
+        int[] textColors = rowColors.getTextColors();
+        int[] backgroundColors = rowColors.getBackgroundColors();
+        for (int charOnRow = skipToChar; charOnRow < skipRestFromChar; charOnRow++) {
+            if (textColors[charOnRow] == CodeAreaRowColors.NO_COLOR) {
+                textColors[charOnRow] = textColor;
+            }
+            if (backgroundColors[charOnRow] == CodeAreaRowColors.NO_COLOR) {
+                backgroundColors[charOnRow] = Color.TRANSPARENT;
+            }
+        }
+    }
+
     /**
      * Paints row background.
+     * <p>
+     * Uses colors prepared by {@link #prepareRowColors(long)}.
      *
      * @param g               graphics
      * @param rowDataPosition row data position
@@ -770,57 +927,33 @@ public class DefaultCodeAreaPainter implements CodeAreaPainter, BasicColorsCapab
      * @param rowPositionY    row position Y
      */
     public void paintRowBackground(Canvas g, long rowDataPosition, int rowPositionX, int rowPositionY) {
-        int previewCharPos = visibility.getPreviewCharPos();
-        CodeAreaViewMode viewMode = structure.getViewMode();
         int charactersPerRow = structure.getCharactersPerRow();
         int skipToChar = visibility.getSkipToChar();
         int skipRestFromChar = visibility.getSkipRestFromChar();
         int rowHeight = metrics.getRowHeight();
-        CodeAreaSelection selectionHandler = ((SelectionCapable) codeArea).getSelectionHandler();
+        int[] backgroundColors = rowDataCache.backgroundColors;
 
         int positionY = rowPositionY + rowHeight;
 
         int renderOffset = skipToChar;
-        Integer renderColor = null;
+        int renderColor = Color.TRANSPARENT;
         for (int charOnRow = skipToChar; charOnRow < skipRestFromChar; charOnRow++) {
-            CodeAreaSection section;
-            int byteOnRow;
-            if (charOnRow >= previewCharPos && viewMode != CodeAreaViewMode.CODE_MATRIX) {
-                byteOnRow = charOnRow - previewCharPos;
-                section = BasicCodeAreaSection.TEXT_PREVIEW;
-            } else {
-                byteOnRow = structure.computePositionByte(charOnRow);
-                section = BasicCodeAreaSection.CODE_MATRIX;
-            }
-            boolean sequenceBreak = false;
-
-            boolean inSelection = selectionHandler.isInSelection(rowDataPosition + byteOnRow);
-            Integer color = colorAssessor.getPositionBackgroundColor(rowDataPosition, byteOnRow, charOnRow, section, inSelection);
-            if (!CodeAreaAndroidUtils.areSameColors(color, renderColor)) {
-                sequenceBreak = true;
-            }
-            if (sequenceBreak) {
-                if (renderOffset < charOnRow) {
-                    if (renderColor != null) {
-                        renderBackgroundSequence(g, renderOffset, charOnRow, rowPositionX, positionY);
-                    }
+            int color = backgroundColors[charOnRow];
+            if (color != renderColor) {
+                if (renderColor != Color.TRANSPARENT && renderOffset < charOnRow) {
+                    renderBackgroundSequence(g, renderOffset, charOnRow, rowPositionX, positionY);
                 }
 
-                if (!CodeAreaAndroidUtils.areSameColors(color, renderColor)) {
-                    renderColor = color;
-                    if (color != null) {
-                        paint.setColor(color);
-                    }
+                renderColor = color;
+                if (color != Color.TRANSPARENT) {
+                    paint.setColor(color);
                 }
-
                 renderOffset = charOnRow;
             }
         }
 
-        if (renderOffset < charactersPerRow) {
-            if (renderColor != null) {
-                renderBackgroundSequence(g, renderOffset, charactersPerRow, rowPositionX, positionY);
-            }
+        if (renderColor != Color.TRANSPARENT && renderOffset < charactersPerRow) {
+            renderBackgroundSequence(g, renderOffset, charactersPerRow, rowPositionX, positionY);
         }
     }
 
@@ -901,6 +1034,8 @@ public class DefaultCodeAreaPainter implements CodeAreaPainter, BasicColorsCapab
 
     /**
      * Paints row text.
+     * <p>
+     * Uses colors prepared by {@link #prepareRowColors(long)}.
      *
      * @param g               graphics
      * @param rowDataPosition row data position
@@ -908,72 +1043,30 @@ public class DefaultCodeAreaPainter implements CodeAreaPainter, BasicColorsCapab
      * @param rowPositionY    row position Y
      */
     public void paintRowText(Canvas g, long rowDataPosition, int rowPositionX, int rowPositionY) {
-        int previewCharPos = visibility.getPreviewCharPos();
         int charactersPerRow = structure.getCharactersPerRow();
         int rowHeight = metrics.getRowHeight();
         int characterWidth = metrics.getCharacterWidth();
         int subFontSpace = metrics.getSubFontSpace();
-        CodeAreaSelection selectionHandler = ((SelectionCapable) codeArea).getSelectionHandler();
+        int[] textColors = rowDataCache.textColors;
 
         int positionY = rowPositionY + rowHeight - subFontSpace;
 
-        Integer lastColor = null;
-        Integer renderColor = null;
-
         int skipToChar = visibility.getSkipToChar();
         int skipRestFromChar = visibility.getSkipRestFromChar();
         int renderOffset = skipToChar;
-        for (int charOnRow = skipToChar; charOnRow < skipRestFromChar; charOnRow++) {
-            CodeAreaSection section;
-            int byteOnRow;
-            if (charOnRow >= previewCharPos) {
-                byteOnRow = charOnRow - previewCharPos;
-                section = BasicCodeAreaSection.TEXT_PREVIEW;
-            } else {
-                byteOnRow = structure.computePositionByte(charOnRow);
-                section = BasicCodeAreaSection.CODE_MATRIX;
-            }
-
-            boolean inSelection = selectionHandler.isInSelection(rowDataPosition + byteOnRow);
-            Integer color = colorAssessor.getPositionTextColor(rowDataPosition, byteOnRow, charOnRow, section, inSelection);
-            if (color == null) {
-                color = colorsProfile.getTextColor();
-            }
-
-            boolean sequenceBreak = false;
-            if (!CodeAreaAndroidUtils.areSameColors(color, renderColor)) {
-                if (renderColor == null) {
-                    renderColor = color;
-                }
-
-                sequenceBreak = true;
-            }
-
-            if (sequenceBreak) {
-                if (!CodeAreaAndroidUtils.areSameColors(lastColor, renderColor)) {
-                    paint.setColor(renderColor);
-                    lastColor = renderColor;
-                }
-
-                if (charOnRow > renderOffset) {
-                    drawCenteredChars(g, rowDataCache.rowCharacters, renderOffset, charOnRow - renderOffset, characterWidth, dataViewOffsetX + rowPositionX + renderOffset * characterWidth, dataViewOffsetY + positionY);
-                }
-
+        int renderColor = skipToChar < skipRestFromChar ? textColors[skipToChar] : colorsProfile.getTextColor();
+        paint.setColor(renderColor);
+        for (int charOnRow = skipToChar + 1; charOnRow < skipRestFromChar; charOnRow++) {
+            int color = textColors[charOnRow];
+            if (color != renderColor) {
+                drawCenteredChars(g, rowDataCache.rowCharacters, renderOffset, charOnRow - renderOffset, characterWidth, dataViewOffsetX + rowPositionX + renderOffset * characterWidth, dataViewOffsetY + positionY);
                 renderColor = color;
-                if (!CodeAreaAndroidUtils.areSameColors(lastColor, renderColor)) {
-                    paint.setColor(renderColor);
-                    lastColor = renderColor;
-                }
-
+                paint.setColor(color);
                 renderOffset = charOnRow;
             }
         }
 
         if (renderOffset < charactersPerRow) {
-            if (!CodeAreaAndroidUtils.areSameColors(lastColor, renderColor)) {
-                paint.setColor(renderColor);
-            }
-
             drawCenteredChars(g, rowDataCache.rowCharacters, renderOffset, charactersPerRow - renderOffset, characterWidth, dataViewOffsetX + rowPositionX + renderOffset * characterWidth, dataViewOffsetY + positionY);
         }
     }
@@ -1544,7 +1637,48 @@ public class DefaultCodeAreaPainter implements CodeAreaPainter, BasicColorsCapab
         updateScrollBars();
     }
 
+    /**
+     * Repaints rows when their data were loaded on background.
+     */
+    protected void rowDataLoaded() {
+        dataView.postInvalidate();
+    }
+
     protected void dataChanged() {
+        rowRenderCache.invalidateData();
+        rowDataPrefetcher.invalidate();
+        validateCaret();
+        validateSelection();
+        recomputeLayout();
+    }
+
+    /**
+     * Invalidates only rows affected by change of given range of data.
+     *
+     * @param position start position of modified range
+     * @param removedLength length of removed data
+     * @param insertedLength length of inserted data
+     */
+    protected void dataChanged(long position, long removedLength, long insertedLength) {
+        int bytesPerRow = structure.getBytesPerRow();
+        if (bytesPerRow <= 0) {
+            dataChanged();
+            return;
+        }
+
+        // Row data includes bytes of characters overlapping to the next row
+        long firstRow = Math.max(0, position - (metrics.getMaxBytesPerChar() - 1)) / bytesPerRow;
+        // Edited rows are read directly to avoid showing them as placeholders
+        directLoadFirstRow = Math.min(directLoadFirstRow, firstRow);
+        if (removedLength == insertedLength) {
+            long lastRow = (position + removedLength - 1) / bytesPerRow;
+            directLoadLastRow = Math.max(directLoadLastRow, lastRow);
+            rowRenderCache.invalidateRows(firstRow, lastRow);
+            return;
+        }
+
+        directLoadLastRow = Long.MAX_VALUE;
+        rowRenderCache.invalidateRows(firstRow, Long.MAX_VALUE);
         validateCaret();
         validateSelection();
         recomputeLayout();
@@ -1560,6 +1694,10 @@ public class DefaultCodeAreaPainter implements CodeAreaPainter, BasicColorsCapab
         return structure.getBytesPerRow();
     }
 
+    public int getRowsPerPage() {
+        return dimensions.getRowsPerPage();
+    }
+
     @Override
     public CodeAreaSection getActiveSection() {
         return ((CaretCapable) codeArea).getActiveSection();
@@ -1638,6 +1776,8 @@ public class DefaultCodeAreaPainter implements CodeAreaPainter, BasicColorsCapab
         byte[] rowData;
         char[] rowPositionCode;
         char[] rowCharacters;
+        int[] textColors;
+        int[] backgroundColors;
     }
 
     protected static class CursorDataCache {
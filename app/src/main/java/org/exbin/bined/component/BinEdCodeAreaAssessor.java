@@ -27,6 +27,7 @@ import org.exbin.bined.highlight.android.SearchCodeAreaColorAssessor;
 import org.exbin.bined.android.CodeAreaCharAssessor;
 import org.exbin.bined.android.CodeAreaColorAssessor;
 import org.exbin.bined.android.CodeAreaPaintState;
+import org.exbin.bined.android.CodeAreaRowColors;
 
 /**
  * Color assessor for binary editor with registrable modifiers.
@@ -40,6 +41,8 @@ public class BinEdCodeAreaAssessor implements CodeAreaColorAssessor, CodeAreaCha
     protected final @Nullable CodeAreaColorAssessor parentColorAssessor;
     protected final @Nullable CodeAreaCharAssessor parentCharAssessor;
 
+    private final CodeAreaRowColors modifierRowColors = new CodeAreaRowColors();
+
     public BinEdCodeAreaAssessor(@Nullable CodeAreaColorAssessor parentColorAssessor, @Nullable CodeAreaCharAssessor parentCharAssessor) {
         NonAsciiCodeAreaColorAssessor nonAsciiCodeAreaColorAssessor = new NonAsciiCodeAreaColorAssessor(parentColorAssessor);
         NonprintablesCodeAreaAssessor nonprintablesCodeAreaAssessor = new NonprintablesCodeAreaAssessor(nonAsciiCodeAreaColorAssessor, parentCharAssessor);
@@ -131,6 +134,46 @@ public class BinEdCodeAreaAssessor implements CodeAreaColorAssessor, CodeAreaCha
         return null;
     }
 
+    @Override
+    public void fillRowColors(CodeAreaRowColors rowColors) {
+        if (parentColorAssessor != null) {
+            parentColorAssessor.fillRowColors(rowColors);
+        } else {
+            rowColors.clearColors();
+        }
+
+        // Modifiers are applied in reverse order so that the first one takes precedence
+        for (int i = colorModifiers.size() - 1; i >= 0; i--) {
+            applyColorModifier(colorModifiers.get(i), rowColors, false);
+        }
+        for (int i = priorityColorModifiers.size() - 1; i >= 0; i--) {
+            applyColorModifier(priorityColorModifiers.get(i), rowColors, true);
+        }
+    }
+
+    private void applyColorModifier(CodeAreaColorAssessor colorModifier, CodeAreaRowColors rowColors, boolean inSelectionAllowed) {
+        modifierRowColors.assignRow(rowColors);
+        colorModifier.fillRowColors(modifierRowColors);
+        boolean[] inSelection = rowColors.getInSelection();
+        int[] textColors = rowColors.getTextColors();
+        int[] backgroundColors = rowColors.getBackgroundColors();
+        int[] modifierTextColors = modifierRowColors.getTextColors();
+        int[] modifierBackgroundColors = modifierRowColors.getBackgroundColors();
+        int toChar = rowColors.getToChar();
+        for (int charOnRow = rowColors.getFromChar(); charOnRow < toChar; charOnRow++) {
+            if (!inSelectionAllowed && inSelection[charOnRow]) {
+                continue;
+            }
+
+            if (modifierTextColors[charOnRow] != CodeAreaRowColors.NO_COLOR) {
+                textColors[charOnRow] = modifierTextColors[charOnRow];
+            }
+            if (modifierBackgroundColors[charOnRow] != CodeAreaRowColors.NO_COLOR) {
+                backgroundColors[charOnRow] = modifierBackgroundColors[charOnRow];
+            }
+        }
+    }
+
     @Override
     public char getPreviewCharacter(long rowDataPosition, int byteOnRow, int charOnRow, CodeAreaSection section) {
         return parentCharAssessor != null ? parentCharAssessor.getPreviewCharacter(rowDataPosition, byteOnRow, charOnRow, section) : ' ';
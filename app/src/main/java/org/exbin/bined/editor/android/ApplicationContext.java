@@ -20,11 +20,15 @@ import android.app.Application;
 
 import org.exbin.auxiliary.binary_data.android_jna.JnaBuffer;
 import org.exbin.auxiliary.binary_data.android_jna.JnaBufferEditableData;
+import org.exbin.auxiliary.binary_data.delta.DeltaDocumentJournal;
 import org.exbin.auxiliary.binary_data.delta.SegmentsRepository;
 import org.exbin.bined.android.basic.CodeArea;
 import org.exbin.bined.editor.android.preference.BinaryEditorPreferences;
 import org.exbin.bined.editor.android.preference.PreferencesWrapper;
 import org.exbin.bined.editor.android.search.SearchParameters;
+
+import java.io.File;
+
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
@@ -34,6 +38,8 @@ import org.jspecify.annotations.Nullable;
 @NullMarked
 public class ApplicationContext extends Application {
 
+    private static final String JOURNAL_FILE_NAME = "delta_document.journal";
+
     private @Nullable BinaryEditorPreferences appPreferences;
     private final SegmentsRepository segmentsRepository = new SegmentsRepository(() -> new JnaBufferEditableData());
 
@@ -63,6 +69,7 @@ public class ApplicationContext extends Application {
         fileHandler = new BinEdFileHandler(codeArea);
         fileHandler.setSegmentsRepository(segmentsRepository);
         fileHandler.setNewData(appPreferences.getEditorPreferences().getFileHandlingMode());
+        fileHandler.setJournal(new DeltaDocumentJournal(new File(getFilesDir(), JOURNAL_FILE_NAME)));
         return fileHandler;
     }
 
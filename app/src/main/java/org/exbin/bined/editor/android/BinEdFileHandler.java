@@ -21,6 +21,7 @@ import android.net.Uri;
 import org.exbin.auxiliary.binary_data.BinaryData;
 import org.exbin.auxiliary.binary_data.EditableBinaryData;
 import org.exbin.auxiliary.binary_data.delta.DeltaDocument;
+import org.exbin.auxiliary.binary_data.delta.DeltaDocumentJournal;
 import org.exbin.auxiliary.binary_data.delta.SegmentsRepository;
 import org.exbin.auxiliary.binary_data.android_jna.JnaBufferEditableData;
 import org.exbin.auxiliary.binary_data.android_jna.paged.JnaBufferPagedData;
@@ -40,6 +41,8 @@ import org.exbin.bined.component.FileProcessingMode;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -53,6 +56,12 @@ import org.jspecify.annotations.NullMarked;
 public class BinEdFileHandler {
 
     private SegmentsRepository segmentsRepository;
+    private @Nullable DeltaDocumentJournal journal = null;
+    private final ExecutorService journalExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "JournalThread");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private CodeArea codeArea;
     private CodeAreaUndoRedo undoRedo;
@@ -97,6 +106,7 @@ public class BinEdFileHandler {
 
         undoRedo.clear();
         currentFileUri = null;
+        clearJournal();
 
         documentOriginalSize = 0;
     }
@@ -129,6 +139,7 @@ public class BinEdFileHandler {
             currentFileUri = fileUri;
             pickerInitialUri = fileUri;
             fileSync();
+            clearJournal();
         } catch (IOException ex) {
             Logger.getLogger(BinEdFileHandler.class.getName()).log(Level.SEVERE, null, ex);
         }
@@ -152,6 +163,7 @@ public class BinEdFileHandler {
                 segmentsRepository.saveDocument(document);
 
                 fileSync();
+                clearJournal();
                 currentFileUri = fileUri;
                 pickerInitialUri = fileUri;
             } else {
@@ -171,6 +183,116 @@ public class BinEdFileHandler {
         }
     }
 
+    /**
+     * Writes modifications of delta document to the journal.
+     * <p>
+     * Journal is cleared if there are no modifications. Journal is written on
+     * background thread in the order of requests.
+     */
+    public void flushJournal() {
+        if (journal == null) {
+            return;
+        }
+
+        BinaryData contentData = codeArea.getContentData();
+        if (!(contentData instanceof DeltaDocument) || !isModified()) {
+            clearJournal();
+            return;
+        }
+
+        DeltaDocumentJournal flushedJournal = journal;
+        DeltaDocument document = (DeltaDocument) contentData;
+        String sourceKey = currentFileUri == null ? "" : currentFileUri.toString();
+        journalExecutor.execute(() -> {
+            try {
+                flushedJournal.flush(document, sourceKey);
+            } catch (IOException | RuntimeException ex) {
+                Logger.getLogger(BinEdFileHandler.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        });
+    }
+
+    /**
+     * Restores delta document from the journal if available.
+     * <p>
+     * Journal is read on background thread and restored document is set to
+     * the code area on UI thread, unless other content was loaded meanwhile.
+     *
+     * @param contentResolver content resolver
+     * @param restoredListener listener called on UI thread when document was
+     * restored
+     */
+    public void restoreJournal(ContentResolver contentResolver, Runnable restoredListener) {
+        if (journal == null) {
+            return;
+        }
+
+        DeltaDocumentJournal restoredJournal = journal;
+        BinaryData initialData = codeArea.getContentData();
+        journalExecutor.execute(() -> {
+            if (!restoredJournal.exists()) {
+                return;
+            }
+
+            try {
+                DeltaDocumentJournal.JournalState state = restoredJournal.readState();
+                if (state == null) {
+                    restoredJournal.clear();
+                    return;
+                }
+
+                String sourceKey = state.getSourceKey();
+                Uri fileUri = sourceKey.isEmpty() ? null : Uri.parse(sourceKey);
+                ContentDataSource dataSource = null;
+                if (fileUri != null) {
+                    dataSource = new ContentDataSource(contentResolver, fileUri);
+                    segmentsRepository.addDataSource(dataSource);
+                }
+                DeltaDocument document = restoredJournal.restore(state, segmentsRepository, dataSource);
+                long originalSize = dataSource == null ? 0 : dataSource.getDataLength();
+                codeArea.post(() -> {
+                    BinaryData oldData = codeArea.getContentData();
+                    if (oldData != initialData) {
+                        // Other content was opened before journal was restored
+                        document.dispose();
+                        return;
+                    }
+
+                    codeArea.setContentData(document);
+                    oldData.dispose();
+
+                    undoRedo.clear();
+                    currentFileUri = fileUri;
+                    pickerInitialUri = fileUri;
+                    documentOriginalSize = originalSize;
+                    // Restored edits are not saved
+                    undoRedo.setSyncPosition(-1);
+                    restoredListener.run();
+                });
+            } catch (IOException | RuntimeException ex) {
+                Logger.getLogger(BinEdFileHandler.class.getName()).log(Level.SEVERE, null, ex);
+                try {
+                    restoredJournal.clear();
+                } catch (IllegalStateException clearEx) {
+                    Logger.getLogger(BinEdFileHandler.class.getName()).log(Level.WARNING, null, clearEx);
+                }
+            }
+        });
+    }
+
+    private void clearJournal() {
+        if (journal != null) {
+            DeltaDocumentJournal clearedJournal = journal;
+            journalExecutor.execute(() -> {
+                try {
+                    clearedJournal.clear();
+                } catch (IllegalStateException ex) {
+                    Logger.getLogger(BinEdFileHandler.class.getName()).log(Level.WARNING, null, ex);
+                }
+            });
+        }
+    }
+
     private void fileSync() {
         documentOriginalSize = getCodeArea().getDataSize();
         undoRedo.setSyncPosition();
@@ -200,6 +322,10 @@ public class BinEdFileHandler {
         this.segmentsRepository = segmentsRepository;
     }
 
+    public void setJournal(@Nullable DeltaDocumentJournal journal) {
+        this.journal = journal;
+    }
+
     @Nullable
     public Uri getCurrentFileUri() {
         return currentFileUri;
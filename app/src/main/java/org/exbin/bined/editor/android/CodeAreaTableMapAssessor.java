@@ -33,6 +33,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CoderMalfunctionError;
 import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -60,10 +61,22 @@ public class CodeAreaTableMapAssessor implements CodeAreaCharAssessor {
     private ByteBuffer byteBuffer;
     private CharBuffer charBuffer = null;
 
+    private boolean asciiCompatible;
+    private ByteBuffer rowBuffer;
+    private long decodedRowPosition = -1;
+    private char[] decodedRow = new char[0];
+
     protected boolean useTable = false;
-    protected final Map<Integer, Character> characterTable = new HashMap<>();
+    /**
+     * Characters for one or two byte codes indexed by code, NO_CHARACTER if
+     * code is not defined.
+     */
+    protected int[] characterTable = new int[0];
     protected final Map<Character, Integer> keyPressTable = new HashMap<>();
 
+    protected static final int NO_CHARACTER = -1;
+    private static final int MAX_TABLE_CODE = 0xffff;
+
     public CodeAreaTableMapAssessor() {
         parentAssessor = null;
     }
@@ -86,8 +99,14 @@ public class CodeAreaTableMapAssessor implements CodeAreaCharAssessor {
             decoder.onMalformedInput(CodingErrorAction.REPLACE);
             byteBuffer = ByteBuffer.allocate(maxBytesPerChar);
             this.charset = painterCharset;
+            asciiCompatible = isAsciiCompatible();
         }
         rowData = codeAreaPainterState.getRowData();
+        if (rowBuffer == null || rowBuffer.array() != rowData) {
+            rowBuffer = ByteBuffer.wrap(rowData);
+            decodedRow = new char[rowData.length];
+        }
+        decodedRowPosition = -1;
     }
 
     @Override
@@ -97,46 +116,28 @@ public class CodeAreaTableMapAssessor implements CodeAreaCharAssessor {
         }
 
         if (maxBytesPerChar > 1) {
-            decoder.reset();
-
-            if (rowDataPosition + maxBytesPerChar > dataSize) {
-                byteBuffer.clear();
-                byteBuffer.put(rowData, byteOnRow, (int) (dataSize - rowDataPosition));
-            } else {
-                byteBuffer.rewind();
-                byteBuffer.put(rowData, byteOnRow, maxBytesPerChar);
-            }
-
             if (useTable) {
-                byteBuffer.rewind();
-                int value0 = byteBuffer.get(0) & 0xff;
-                int value1 = ((byteBuffer.get(1) & 0xff) << 8) + value0;
-                Character character = characterTable.get(value1);
-                if (character != null) {
-                    return character;
+                int value0 = rowData[byteOnRow] & 0xff;
+                int value1 = ((rowData[byteOnRow + 1] & 0xff) << 8) + value0;
+                int character = getTableCharacter(value1);
+                if (character == NO_CHARACTER) {
+                    character = getTableCharacter(value0);
                 }
-                character = characterTable.get(value0);
-                if (character != null) {
-                    return character;
+                if (character != NO_CHARACTER) {
+                    return (char) character;
                 }
             }
 
-            byteBuffer.rewind();
-            charBuffer.clear();
-            try {
-                decoder.decode(byteBuffer, charBuffer, true);
-                if (charBuffer.position() > 0) {
-                    charBuffer.rewind();
-                    return charBuffer.get();
-                }
-            } catch (CoderMalfunctionError | BufferUnderflowException ex) {
-                // ignore
+            if (rowDataPosition != decodedRowPosition) {
+                decodeRow(rowDataPosition);
             }
+
+            return decodedRow[byteOnRow];
         } else {
             if (useTable) {
-                Character character = characterTable.get(rowData[byteOnRow] & 0xff);
-                if (character != null) {
-                    return character;
+                int character = getTableCharacter(rowData[byteOnRow] & 0xff);
+                if (character != NO_CHARACTER) {
+                    return (char) character;
                 }
             }
 
@@ -146,8 +147,6 @@ public class CodeAreaTableMapAssessor implements CodeAreaCharAssessor {
 
             return charMapping[rowData[byteOnRow] & 0xff];
         }
-
-        return ' ';
     }
 
     @Override
@@ -162,16 +161,14 @@ public class CodeAreaTableMapAssessor implements CodeAreaCharAssessor {
             byteBuffer.put(cursorData, 0, cursorDataLength);
 
             if (useTable) {
-                byteBuffer.rewind();
                 int value0 = byteBuffer.get(0) & 0xff;
                 int value1 = ((byteBuffer.get(1) & 0xff) << 8) + value0;
-                Character character = characterTable.get(value1);
-                if (character != null) {
-                    return character;
+                int character = getTableCharacter(value1);
+                if (character == NO_CHARACTER) {
+                    character = getTableCharacter(value0);
                 }
-                character = characterTable.get(value0);
-                if (character != null) {
-                    return character;
+                if (character != NO_CHARACTER) {
+                    return (char) character;
                 }
             }
 
@@ -188,9 +185,9 @@ public class CodeAreaTableMapAssessor implements CodeAreaCharAssessor {
             }
         } else {
             if (useTable) {
-                Character character = characterTable.get(cursorData[0] & 0xff);
-                if (character != null) {
-                    return character;
+                int character = getTableCharacter(cursorData[0] & 0xff);
+                if (character != NO_CHARACTER) {
+                    return (char) character;
                 }
             }
 
@@ -218,7 +215,7 @@ public class CodeAreaTableMapAssessor implements CodeAreaCharAssessor {
     }
 
     public void openFile(ContentResolver contentResolver, Uri fileUri) {
-        characterTable.clear();
+        characterTable = new int[0];
         keyPressTable.clear();
         try {
             try (InputStream inputStream = contentResolver.openInputStream(fileUri); BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"))) {
@@ -232,7 +229,7 @@ public class CodeAreaTableMapAssessor implements CodeAreaCharAssessor {
                         continue;
                     }
 
-                    Integer code = 0;
+                    int code = 0;
                     for (int i = 0; i < valuePos - 1; i++) {
                         code = code << 4;
                         char codeChar = line.charAt(i);
@@ -248,7 +245,7 @@ public class CodeAreaTableMapAssessor implements CodeAreaCharAssessor {
                     }
 
                     if (line.length() > valuePos) {
-                        characterTable.put(code, line.charAt(valuePos));
+                        setTableCharacter(code, line.charAt(valuePos));
                         if (line.length() == valuePos + 1) {
                             keyPressTable.put(line.charAt(valuePos), code);
                         }
@@ -262,8 +259,110 @@ public class CodeAreaTableMapAssessor implements CodeAreaCharAssessor {
         useTable = true;
     }
 
-    public Map<Integer, Character> getCharacterTable() {
-        return characterTable;
+    /**
+     * Returns character for given code from the table.
+     *
+     * @param code one or two byte code
+     * @return character or NO_CHARACTER if not defined
+     */
+    public int getTableCharacter(int code) {
+        return code < characterTable.length ? characterTable[code] : NO_CHARACTER;
+    }
+
+    private void setTableCharacter(int code, char character) {
+        if (code < 0 || code > MAX_TABLE_CODE) {
+            // Longer codes are never looked up
+            return;
+        }
+
+        if (code >= characterTable.length) {
+            int previousLength = characterTable.length;
+            characterTable = Arrays.copyOf(characterTable, code < 0x100 ? 0x100 : MAX_TABLE_CODE + 1);
+            Arrays.fill(characterTable, previousLength, characterTable.length, NO_CHARACTER);
+        }
+        characterTable[code] = character;
+    }
+
+    /**
+     * Decodes characters of the current row data.
+     * <p>
+     * Characters are decoded sequentially from the start of the row, bytes
+     * following first byte of multi-byte character are shown as replacement
+     * character. ASCII bytes are mapped directly for ASCII compatible
+     * charsets.
+     *
+     * @param rowDataPosition row data position
+     */
+    private void decodeRow(long rowDataPosition) {
+        decodedRowPosition = rowDataPosition;
+        int length = rowData.length;
+        if (rowDataPosition + length > dataSize) {
+            length = (int) Math.max(0, dataSize - rowDataPosition);
+        }
+        Arrays.fill(decodedRow, length, decodedRow.length, ' ');
+
+        char replacement = decoder.replacement().charAt(0);
+        int position = 0;
+        while (position < length) {
+            byte value = rowData[position];
+            if (asciiCompatible && value >= 0) {
+                decodedRow[position] = (char) value;
+                position++;
+                continue;
+            }
+
+            char character = ' ';
+            int consumed = 1;
+            rowBuffer.limit(Math.min(position + maxBytesPerChar, length));
+            rowBuffer.position(position);
+            charBuffer.clear();
+            charBuffer.limit(1);
+            decoder.reset();
+            try {
+                decoder.decode(rowBuffer, charBuffer, true);
+                if (charBuffer.position() == 0 && rowBuffer.position() == position) {
+                    // Surrogate pair doesn't fit single character
+                    charBuffer.limit(2);
+                    decoder.decode(rowBuffer, charBuffer, true);
+                }
+                if (charBuffer.position() > 0) {
+                    character = charBuffer.get(0);
+                }
+                consumed = Math.max(1, rowBuffer.position() - position);
+            } catch (CoderMalfunctionError | BufferUnderflowException ex) {
+                // ignore
+            }
+
+            decodedRow[position] = character;
+            for (int i = 1; i < consumed && position + i < length; i++) {
+                decodedRow[position + i] = replacement;
+            }
+            position += consumed;
+        }
+    }
+
+    /**
+     * Returns true if all ASCII bytes are decoded to the same characters.
+     */
+    private boolean isAsciiCompatible() {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        CharBuffer chars = CharBuffer.allocate(2);
+        for (int i = 0; i < 0x80; i++) {
+            buffer.clear();
+            buffer.put((byte) i);
+            buffer.flip();
+            chars.clear();
+            decoder.reset();
+            try {
+                decoder.decode(buffer, chars, true);
+            } catch (CoderMalfunctionError | BufferUnderflowException ex) {
+                return false;
+            }
+            if (chars.position() != 1 || chars.get(0) != (char) i) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Nullable
@@ -35,7 +35,7 @@ public class DeltaDataPageWindow {
     public static final int PAGE_SIZE = 1024;
 
     private final ContentDataSource data;
-    private FileChannel fileChannel;
+    private volatile FileChannel fileChannel;
     private final DataPage[] dataPages = new DataPage[]{new DataPage(), new DataPage()};
     private int activeDataPage = 1;
 
@@ -74,7 +74,7 @@ public class DeltaDataPageWindow {
         }
     }
 
-    public byte getByte(long position) {
+    public synchronized byte getByte(long position) {
         long targetPageIndex = position / PAGE_SIZE;
         int index = -1;
         long pageIndex1 = dataPages[0].pageIndex;
@@ -96,6 +96,19 @@ public class DeltaDataPageWindow {
     }
 
     public int read(long position, byte[] buffer, int offset, int length) throws IOException {
+        if (length >= PAGE_SIZE) {
+            // Bulk reads bypass page cache
+            int red = fileChannel.read(ByteBuffer.wrap(buffer, offset, length), position);
+            if (red == -1) {
+                throw new IOException("Unexpected read error ");
+            }
+            return red;
+        }
+
+        return readFromPage(position, buffer, offset, length);
+    }
+
+    private synchronized int readFromPage(long position, byte[] buffer, int offset, int length) {
         long targetPageIndex = position / PAGE_SIZE;
         int index = -1;
         long pageIndex1 = dataPages[0].pageIndex;
@@ -126,7 +139,7 @@ public class DeltaDataPageWindow {
     /**
      * Clears window cache.
      */
-    public void clearCache() {
+    public synchronized void clearCache() {
         fileChannel = data.getInputStream().getChannel();
 
         dataPages[0].pageIndex = -1;
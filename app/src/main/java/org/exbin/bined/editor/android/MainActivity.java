@@ -86,6 +86,7 @@ import org.exbin.bined.android.capability.ColorAssessorPainterCapable;
 import org.exbin.bined.basic.BasicCodeAreaSection;
 import org.exbin.bined.basic.CodeAreaViewMode;
 import org.exbin.bined.editor.android.gui.AboutDialog;
+import org.exbin.bined.editor.android.gui.DataStatisticsDialog;
 import org.exbin.bined.editor.android.gui.EditSelectionDialog;
 import org.exbin.bined.editor.android.gui.GoToPositionDialog;
 import org.exbin.bined.editor.android.inspector.BasicValuesInspector;
@@ -93,6 +94,7 @@ import org.exbin.bined.editor.android.inspector.BasicValuesPositionColorModifier
 import org.exbin.bined.editor.android.options.DataInspectorMode;
 import org.exbin.bined.editor.android.options.KeysPanelMode;
 import org.exbin.bined.editor.android.options.Theme;
+import org.exbin.bined.editor.android.overview.OverviewMapView;
 import org.exbin.bined.editor.android.preference.BinaryEditorPreferences;
 import org.exbin.bined.editor.android.preference.EditorPreferences;
 import org.exbin.bined.editor.android.preference.EncodingPreference;
@@ -103,6 +105,7 @@ import org.exbin.bined.editor.android.search.BinarySearchService;
 import org.exbin.bined.editor.android.search.BinarySearchServiceImpl;
 import org.exbin.bined.editor.android.search.SearchDialog;
 import org.exbin.bined.editor.android.search.SearchParameters;
+import org.exbin.bined.editor.android.statistics.DataStatisticsCalculator;
 import org.exbin.bined.highlight.android.NonAsciiCodeAreaColorAssessor;
 import org.exbin.bined.highlight.android.NonprintablesCodeAreaAssessor;
 import org.exbin.bined.highlight.android.SearchCodeAreaColorAssessor;
@@ -155,6 +158,7 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
     private Toolbar toolbar;
     private View keyPanel;
     private View basicValuesInspectorView;
+    private OverviewMapView overviewMapView;
     private @Nullable Menu menu;
     private final BinaryStatusHandler binaryStatus = new BinaryStatusHandler(this);
     private BinarySearch binarySearch;
@@ -172,7 +176,16 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
         public void setStatus(BinarySearchService.FoundMatches foundMatches, SearchParameters.MatchMode matchMode) {
             runOnUiThread(() -> {
                 showSearchStatusPanel();
-                updateSearchStatusPanel(foundMatches.getMatchPosition(), foundMatches.getMatchesCount());
+                updateSearchStatusPanel(foundMatches.getMatchPosition(), foundMatches.getMatchesCount(), foundMatches.isLimitReached());
+                overviewMapView.invalidate();
+            });
+        }
+
+        @Override
+        public void setProgress(long processedBytes, long totalBytes, int matchesCount) {
+            runOnUiThread(() -> {
+                showSearchStatusPanel();
+                updateSearchProgress(processedBytes, totalBytes, matchesCount);
             });
         }
 
@@ -180,6 +193,7 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
         public void clearStatus() {
             runOnUiThread(() -> {
                 hideSearchStatusPanel();
+                overviewMapView.invalidate();
             });
         }
     };
@@ -196,9 +210,7 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
         updateCurrentDocumentSize();
         ApplicationContext application = (ApplicationContext) getApplication();
         if (application.isSearchActive()) {
-            binarySearch.cancelSearch();
-            binarySearch.clearSearch();
-            hideSearchStatusPanel();
+            binarySearch.dataChanged();
         }
     };
     private final SelectionChangedListener codeAreaSelectionChangedListener = () -> {
@@ -273,6 +285,7 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
         LayoutInflater inflater = getLayoutInflater();
         searchStatusPanel = inflater.inflate(R.layout.search_panel, null);
         basicValuesInspectorView = findViewById(R.id.basic_values_inspector);
+        overviewMapView = findViewById(R.id.overviewMap);
         setSupportActionBar(toolbar);
 
         // For now steal code area and keep it in application context
@@ -281,6 +294,10 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
         if (fileHandler == null) {
             codeArea = findViewById(R.id.codeArea);
             fileHandler = application.createFileHandler(codeArea);
+            if (savedInstanceState != null) {
+                // Process was killed, restore unsaved edits
+                fileHandler.restoreJournal(getContentResolver(), this::updateStatus);
+            }
         } else {
             codeArea = fileHandler.getCodeArea();
             ViewGroup parentView = (ViewGroup) codeArea.getParent();
@@ -301,7 +318,7 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
         codeArea.resetColors();
 
         binarySearch = new BinarySearch();
-        binarySearch.setBinarySearchService(new BinarySearchServiceImpl(codeArea));
+        binarySearch.setBinarySearchService(new BinarySearchServiceImpl(codeArea, fileHandler.getUndoRedo()));
 
         registerForContextMenu(codeArea);
 
@@ -321,11 +338,13 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
         codeAreaAssessor.addColorModifier(basicValuesPositionColorModifier);
         basicValuesInspector.registerFocusPainter(basicValuesPositionColorModifier);
 
+        overviewMapView.attach(codeArea);
+
         basicValuesInspectorView.setNextFocusUpId(R.id.toolbar);
         if (application.isSearchActive()) {
             showSearchStatusPanel();
             SearchCodeAreaColorAssessor searchAssessor = CodeAreaAndroidUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
-            updateSearchStatusPanel(searchAssessor.getCurrentMatchIndex(), searchAssessor.getMatches().size());
+            updateSearchStatusPanel(searchAssessor);
         }
 
         applySettings();
@@ -489,7 +508,18 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
         }
     }
 
-    private void updateSearchStatusPanel(int matchPosition, int matchesCount) {
+    private void updateSearchProgress(long processedBytes, long totalBytes, int matchesCount) {
+        TextView searchStatus = searchStatusPanel.findViewById(R.id.searchStatus);
+        int percent = totalBytes > 0 ? (int) (processedBytes * 100 / totalBytes) : 0;
+        searchStatus.setText(String.format(getResources().getString(R.string.search_progress), percent, matchesCount));
+    }
+
+    private void updateSearchStatusPanel(SearchCodeAreaColorAssessor searchAssessor) {
+        int matchesCount = searchAssessor.getMatches().size();
+        updateSearchStatusPanel(searchAssessor.getCurrentMatchIndex(), matchesCount, matchesCount >= BinarySearchService.FoundMatches.MAX_MATCHES_COUNT);
+    }
+
+    private void updateSearchStatusPanel(int matchPosition, int matchesCount, boolean limitReached) {
         TextView searchStatus = searchStatusPanel.findViewById(R.id.searchStatus);
         Button prevButton = searchStatusPanel.findViewById(R.id.previousMatchButton);
         prevButton.setEnabled(matchPosition > 0 && matchesCount > 0);
@@ -497,7 +527,9 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
         nextButton.setEnabled(matchPosition < matchesCount - 1 && matchesCount > 0);
 
         Resources resources = getResources();
-        if (matchesCount == 1) {
+        if (limitReached) {
+            searchStatus.setText(String.format(resources.getString(R.string.search_match_limit), matchPosition + 1, matchesCount));
+        } else if (matchesCount == 1) {
             searchStatus.setText(resources.getString(R.string.search_match_single));
         } else if (matchesCount > 0) {
             searchStatus.setText(String.format(resources.getString(R.string.search_match_found), matchPosition + 1, matchesCount));
@@ -506,6 +538,12 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
         }
     }
 
+    @Override
+    protected void onPause() {
+        fileHandler.flushJournal();
+        super.onPause();
+    }
+
     @Override
     protected void onDestroy() {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
@@ -519,6 +557,8 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
         fileHandler.getUndoRedo().removeChangeListener(codeAreaChangeListener);
         BinEdCodeAreaAssessor codeAreaAssessor = fileHandler.getCodeAreaAssessor();
         codeAreaAssessor.removeColorModifier(basicValuesPositionColorModifier);
+        binarySearch.dispose();
+        overviewMapView.dispose();
 
         super.onDestroy();
     }
@@ -596,6 +636,7 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
             mainHorizontalLayout.requestLayout();
             dataInspectorShown = showDataInspector;
         }
+        overviewMapView.setVisibility(editorPreferences.isShowOverviewMap() ? View.VISIBLE : View.GONE);
 
         boolean isDarkMode = (getResources().getConfiguration().uiMode & Configuration.UI_MODE_NIGHT_YES) > 0;
         basicValuesPositionColorModifier.setDarkMode(isDarkMode);
@@ -949,6 +990,12 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
             }
             appPreferences.getCodeAreaPreferences().setShowNonprintables(!checked);
             return true;
+        } else if (id == R.id.overview_map) {
+            boolean checked = item.isChecked();
+            item.setChecked(!checked);
+            overviewMapView.setVisibility(checked ? View.GONE : View.VISIBLE);
+            appPreferences.getEditorPreferences().setShowOverviewMap(!checked);
+            return true;
         } else if (id == R.id.code_colorization) {
             boolean checked = item.isChecked();
             item.setChecked(!checked);
@@ -1012,6 +1059,9 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
         } else if (id == R.id.edit_selection) {
             editSelection(codeArea);
             return true;
+        } else if (id == R.id.data_statistics) {
+            showDataStatistics(codeArea);
+            return true;
         }
 
         return super.onOptionsItemSelected(item);
@@ -1249,6 +1299,7 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
     private void updateViewActionsState() {
         menu.findItem(R.id.code_colorization).setChecked(appPreferences.getCodeAreaPreferences().isCodeColorization());
         menu.findItem(R.id.non_printable_characters).setChecked(appPreferences.getCodeAreaPreferences().isShowNonprintables());
+        menu.findItem(R.id.overview_map).setChecked(appPreferences.getEditorPreferences().isShowOverviewMap());
         int bytesPerRow = appPreferences.getCodeAreaPreferences().getMaxBytesPerRow();
         switch (bytesPerRow) {
             case 0: {
@@ -1488,7 +1539,7 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
     public void buttonActionPreviousMatch(View view) {
         SearchCodeAreaColorAssessor searchAssessor = CodeAreaAndroidUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
         searchAssessor.setCurrentMatchIndex(searchAssessor.getCurrentMatchIndex() - 1);
-        updateSearchStatusPanel(searchAssessor.getCurrentMatchIndex(), searchAssessor.getMatches().size());
+        updateSearchStatusPanel(searchAssessor);
         SearchMatch currentMatch = searchAssessor.getCurrentMatch();
         if (currentMatch != null) {
             codeArea.revealPosition(currentMatch.getPosition(), 0, codeArea.getActiveSection());
@@ -1499,7 +1550,7 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
     public void buttonActionNextMatch(View view) {
         SearchCodeAreaColorAssessor searchAssessor = CodeAreaAndroidUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
         searchAssessor.setCurrentMatchIndex(searchAssessor.getCurrentMatchIndex() + 1);
-        updateSearchStatusPanel(searchAssessor.getCurrentMatchIndex(), searchAssessor.getMatches().size());
+        updateSearchStatusPanel(searchAssessor);
         SearchMatch currentMatch = searchAssessor.getCurrentMatch();
         if (currentMatch != null) {
             codeArea.revealPosition(searchAssessor.getCurrentMatch().getPosition(), 0, codeArea.getActiveSection());
@@ -1557,6 +1608,23 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
         editSelectionDialog.show(getSupportFragmentManager(), "editSelectionDialog");
     }
 
+    public void showDataStatistics(View view) {
+        long rangeStart = 0;
+        long rangeLength = codeArea.getDataSize();
+        SelectionRange selectionRange = codeArea.getSelection();
+        if (!selectionRange.isEmpty()) {
+            rangeStart = selectionRange.getFirst();
+            rangeLength = selectionRange.getLength();
+        }
+
+        DataStatisticsDialog dataStatisticsDialog = new DataStatisticsDialog();
+        DataStatisticsCalculator calculator = new DataStatisticsCalculator(codeArea.getContentData(), rangeStart, rangeLength);
+        // Data are modified on UI thread
+        calculator.setDataReadExecutor(this::runOnUiThread);
+        dataStatisticsDialog.setCalculator(calculator);
+        dataStatisticsDialog.show(getSupportFragmentManager(), "dataStatisticsDialog");
+    }
+
     @Nullable
     public BinarySearch getBinarySearch() {
         return binarySearch;
@@ -1582,6 +1650,11 @@ public class MainActivity extends AppCompatActivity implements FileDialog.OnFile
         return codeArea;
     }
 
+    @Nullable
+    public BasicValuesInspector getBasicValuesInspector() {
+        return basicValuesInspector;
+    }
+
     private void requestWriteExternalStoragePermission() {
         final String[] permissions = new String[]{
                 Manifest.permission.READ_EXTERNAL_STORAGE
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.gui;
+
+import android.app.AlertDialog;
+import android.app.Dialog;
+import android.content.DialogInterface;
+import android.content.res.Resources;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatDialogFragment;
+import androidx.fragment.app.FragmentActivity;
+
+import org.exbin.bined.editor.android.R;
+import org.exbin.bined.editor.android.statistics.DataStatistics;
+import org.exbin.bined.editor.android.statistics.DataStatisticsCalculator;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Data statistics dialog.
+ */
+@NullMarked
+public class DataStatisticsDialog extends AppCompatDialogFragment {
+
+    protected static final int MOST_FREQUENT_VALUES_LIMIT = 8;
+    protected static final int HIGH_ENTROPY_RANGES_LIMIT = 16;
+    /**
+     * Quantized entropy level of 7.5 bits per byte typical for compressed or encrypted data.
+     */
+    protected static final int HIGH_ENTROPY_LEVEL = 239;
+
+    protected @Nullable DataStatisticsCalculator calculator;
+    protected View statisticsView;
+
+    public void setCalculator(DataStatisticsCalculator calculator) {
+        this.calculator = calculator;
+    }
+
+    @Override
+    public Dialog onCreateDialog(@Nullable Bundle savedInstanceState) {
+        FragmentActivity activity = getActivity();
+        AlertDialog.Builder builder = new AlertDialog.Builder(activity);
+        builder.setTitle(getResources().getString(R.string.data_statistics));
+        // Get the layout inflater
+        LayoutInflater inflater = activity.getLayoutInflater();
+        // Inflate and set the layout for the dialog
+        // Pass null as the parent view because it's going in the
+        // dialog layout
+        statisticsView = inflater.inflate(R.layout.data_statistics_view, null);
+        builder.setView(statisticsView);
+        builder.setPositiveButton(getResources().getString(R.string.button_close), (dialog, which) -> {
+        });
+
+        DataStatisticsCalculator statisticsCalculator = calculator;
+        if (statisticsCalculator != null && savedInstanceState == null) {
+            startComputation(activity, statisticsCalculator);
+        }
+        return builder.create();
+    }
+
+    @Override
+    public void onDismiss(DialogInterface dialog) {
+        super.onDismiss(dialog);
+        if (calculator != null) {
+            calculator.cancel();
+        }
+    }
+
+    private void startComputation(FragmentActivity activity, DataStatisticsCalculator statisticsCalculator) {
+        statisticsCalculator.setProgressListener((processed, total) -> {
+            int percentage = total == 0 ? 100 : (int) (processed * 100 / total);
+            activity.runOnUiThread(() -> {
+                if (isAdded() && !statisticsCalculator.isCancelled()) {
+                    updateProgress(percentage);
+                }
+            });
+        });
+        Thread statisticsThread = new Thread(() -> {
+            DataStatistics statistics = statisticsCalculator.compute();
+            if (statistics != null) {
+                activity.runOnUiThread(() -> {
+                    if (isAdded() && !statisticsCalculator.isCancelled()) {
+                        showStatistics(statistics);
+                    }
+                });
+            }
+        }, "StatisticsThread");
+        statisticsThread.setDaemon(true);
+        statisticsThread.start();
+    }
+
+    private void updateProgress(int percentage) {
+        ProgressBar progressBar = statisticsView.findViewById(R.id.statisticsProgressBar);
+        progressBar.setProgress(percentage);
+        TextView textView = statisticsView.findViewById(R.id.statisticsTextView);
+        textView.setText(getResources().getString(R.string.data_statistics_progress, percentage));
+    }
+
+    private void showStatistics(DataStatistics statistics) {
+        ProgressBar progressBar = statisticsView.findViewById(R.id.statisticsProgressBar);
+        progressBar.setVisibility(View.GONE);
+        EntropyMapView entropyMapView = statisticsView.findViewById(R.id.entropyMapView);
+        entropyMapView.setStatistics(statistics);
+
+        Resources resources = getResources();
+        StringBuilder builder = new StringBuilder();
+        long length = statistics.getRangeLength();
+        builder.append(resources.getString(R.string.data_statistics_size, length)).append("\n");
+        builder.append(resources.getString(R.string.data_statistics_entropy, statistics.getEntropy())).append("\n");
+        builder.append(resources.getString(R.string.data_statistics_distinct_values, statistics.getDistinctValuesCount())).append("\n");
+        builder.append(resources.getString(R.string.data_statistics_most_frequent)).append("\n");
+        for (int value : statistics.getMostFrequentValues(MOST_FREQUENT_VALUES_LIMIT)) {
+            long count = statistics.getValueCount(value);
+            if (count == 0) {
+                break;
+            }
+            builder.append(String.format("  0x%02X: %d (%.2f%%)", value, count, count * 100.0 / length)).append("\n");
+        }
+
+        int blocksCount = statistics.getBlocksCount();
+        builder.append(resources.getString(R.string.data_statistics_high_entropy_blocks, statistics.getBlocksCountAbove(HIGH_ENTROPY_LEVEL), blocksCount, statistics.getBlockSize())).append("\n");
+        builder.append(resources.getString(R.string.data_statistics_high_entropy_ranges)).append("\n");
+        long rangeEnd = statistics.getRangeStart() + length;
+        int rangesCount = 0;
+        int block = 0;
+        while (block < blocksCount && rangesCount < HIGH_ENTROPY_RANGES_LIMIT) {
+            if (statistics.getBlockEntropyLevel(block) < HIGH_ENTROPY_LEVEL) {
+                block++;
+                continue;
+            }
+
+            int firstBlock = block;
+            while (block < blocksCount && statistics.getBlockEntropyLevel(block) >= HIGH_ENTROPY_LEVEL) {
+                block++;
+            }
+            long startPosition = statistics.getBlockPosition(firstBlock);
+            long endPosition = block < blocksCount ? statistics.getBlockPosition(block) : rangeEnd;
+            builder.append(String.format("  0x%X - 0x%X", startPosition, endPosition - 1)).append("\n");
+            rangesCount++;
+        }
+
+        TextView textView = statisticsView.findViewById(R.id.statisticsTextView);
+        textView.setText(builder.toString());
+    }
+}
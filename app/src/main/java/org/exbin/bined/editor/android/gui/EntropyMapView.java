@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.gui;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.AttributeSet;
+import android.view.View;
+
+import org.exbin.bined.editor.android.statistics.DataStatistics;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Strip view showing entropy of data blocks.
+ * <p>
+ * Each column shows the highest entropy of blocks mapped to it, so that short
+ * encrypted or compressed regions remain visible in large data.
+ */
+@NullMarked
+public class EntropyMapView extends View {
+
+    private final Paint paint = new Paint();
+    @Nullable
+    private DataStatistics statistics = null;
+
+    public EntropyMapView(Context context) {
+        super(context);
+    }
+
+    public EntropyMapView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public EntropyMapView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    public void setStatistics(@Nullable DataStatistics statistics) {
+        this.statistics = statistics;
+        invalidate();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        int width = getWidth();
+        int height = getHeight();
+        if (statistics == null || width == 0) {
+            return;
+        }
+
+        int blocksCount = statistics.getBlocksCount();
+        if (blocksCount == 0) {
+            return;
+        }
+
+        int columns = Math.min(width, blocksCount);
+        float columnWidth = (float) width / columns;
+        int block = 0;
+        for (int column = 0; column < columns; column++) {
+            int columnEnd = (int) ((long) (column + 1) * blocksCount / columns);
+            int level = 0;
+            while (block < columnEnd) {
+                level = Math.max(level, statistics.getBlockEntropyLevel(block));
+                block++;
+            }
+            paint.setColor(getLevelColor(level));
+            canvas.drawRect(column * columnWidth, 0, (column + 1) * columnWidth, height, paint);
+        }
+    }
+
+    /**
+     * Returns color from blue for low entropy to red for high entropy.
+     */
+    private static int getLevelColor(int level) {
+        float[] hsv = {240f - level * 240f / 255, 1f, 0.4f + level * 0.6f / 255};
+        return Color.HSVToColor(hsv);
+    }
+}
@@ -510,7 +510,7 @@ public class BasicValuesInspector {
         return codeArea.isEditable();
     }
 
-    private ByteOrder getByteOrder() {
+    public ByteOrder getByteOrder() {
         return ((RadioButton) view.findViewById(R.id.radioButtonLittleEndian)).isChecked() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
     }
 
@@ -22,6 +22,7 @@ import org.jspecify.annotations.NullMarked;
 import org.exbin.bined.CodeAreaSection;
 import org.exbin.bined.android.CodeAreaColorAssessor;
 import org.exbin.bined.android.CodeAreaPaintState;
+import org.exbin.bined.android.CodeAreaRowColors;
 
 import java.util.Optional;
 
@@ -69,6 +70,25 @@ public class BasicValuesPositionColorModifier implements CodeAreaColorAssessor {
         return null;
     }
 
+    @Override
+    public void fillRowColors(CodeAreaRowColors rowColors) {
+        rowColors.clearColors();
+        if (position < 0) {
+            return;
+        }
+
+        long rowDataPosition = rowColors.getRowDataPosition();
+        int[] bytesOnRow = rowColors.getBytesOnRow();
+        int[] backgroundColors = rowColors.getBackgroundColors();
+        int toChar = rowColors.getToChar();
+        for (int charOnRow = rowColors.getFromChar(); charOnRow < toChar; charOnRow++) {
+            long dataPosition = rowDataPosition + bytesOnRow[charOnRow];
+            if (dataPosition >= position && dataPosition < position + length) {
+                backgroundColors[charOnRow] = color;
+            }
+        }
+    }
+
     @Override
     public void startPaint(CodeAreaPaintState codeAreaPaintState) {
         color = darkMode ? 0xFF444400 : Color.YELLOW;
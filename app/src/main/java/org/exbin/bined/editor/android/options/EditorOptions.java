@@ -37,6 +37,8 @@ public interface EditorOptions {
 
     DataInspectorMode getDataInspectorMode();
 
+    boolean isShowOverviewMap();
+
     void setFileHandlingMode(FileProcessingMode fileProcessingMode);
 
     void setKeysPanelMode(KeysPanelMode keysPanelMode);
@@ -46,4 +48,6 @@ public interface EditorOptions {
     void setTabKeyHandlingMode(TabKeyHandlingMode tabKeyHandlingMode);
 
     void setDataInspectorMode(DataInspectorMode dataInspectorMode);
+
+    void setShowOverviewMap(boolean showOverviewMap);
 }
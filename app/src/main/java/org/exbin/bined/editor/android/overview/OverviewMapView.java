@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.overview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.exbin.bined.DataChangedListener;
+import org.exbin.bined.ScrollingListener;
+import org.exbin.bined.android.CodeAreaAndroidUtils;
+import org.exbin.bined.android.basic.CodeArea;
+import org.exbin.bined.android.basic.DefaultCodeAreaPainter;
+import org.exbin.bined.android.capability.ColorAssessorPainterCapable;
+import org.exbin.bined.basic.CodeAreaScrollPosition;
+import org.exbin.bined.highlight.android.SearchCodeAreaColorAssessor;
+import org.exbin.bined.highlight.android.SearchMatches;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Vertical overview map of whole data usable as scrollbar.
+ * <p>
+ * Each row shows summaries of blocks mapped to it in three stripes: entropy,
+ * zero bytes and ASCII characters. Rows with search matches are marked on the
+ * right edge and visible area of code area is highlighted. Rendered bitmap is
+ * reused until summaries, data or size change.
+ */
+@NullMarked
+public class OverviewMapView extends View {
+
+    private static final int UNKNOWN_COLOR = Color.DKGRAY;
+    private static final int MATCH_COLOR = Color.rgb(255, 160, 0);
+    private static final int VIEWPORT_COLOR = Color.argb(96, 255, 255, 255);
+
+    private final OverviewSummaryCache summaryCache = new OverviewSummaryCache();
+    private final Paint paint = new Paint();
+    private final ScrollingListener scrollingListener = this::invalidate;
+    private final DataChangedListener dataChangedListener = () -> {
+        summaryCache.dataChanged();
+        invalidateMap();
+    };
+    private @Nullable CodeArea codeArea;
+    private @Nullable Bitmap mapBitmap;
+    private int[] mapPixels = new int[0];
+    private byte[] rowSummaries = new byte[0];
+    private boolean[] rowsKnown = new boolean[0];
+    private volatile boolean mapValid = false;
+
+    public OverviewMapView(Context context) {
+        super(context);
+        init();
+    }
+
+    public OverviewMapView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    public OverviewMapView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init();
+    }
+
+    private void init() {
+        summaryCache.setUpdateListener(() -> {
+            mapValid = false;
+            postInvalidate();
+        });
+        // Data are modified on UI thread
+        Handler handler = new Handler(Looper.getMainLooper());
+        summaryCache.setDataReadExecutor(handler::post);
+    }
+
+    public void attach(CodeArea codeArea) {
+        detach();
+        this.codeArea = codeArea;
+        codeArea.addScrollingListener(scrollingListener);
+        codeArea.addDataChangedListener(dataChangedListener);
+        invalidateMap();
+    }
+
+    public void detach() {
+        if (codeArea != null) {
+            codeArea.removeScrollingListener(scrollingListener);
+            codeArea.removeDataChangedListener(dataChangedListener);
+            codeArea = null;
+        }
+    }
+
+    public void dispose() {
+        detach();
+        summaryCache.dispose();
+    }
+
+    /**
+     * Requests redraw of map content.
+     */
+    public void invalidateMap() {
+        mapValid = false;
+        invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+        mapBitmap = null;
+        mapValid = false;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        int width = getWidth();
+        int height = getHeight();
+        if (codeArea == null || width == 0 || height == 0) {
+            return;
+        }
+
+        if (codeArea.getContentData() != summaryCache.getData()) {
+            summaryCache.setData(codeArea.getContentData());
+            mapValid = false;
+        }
+        long dataSize = summaryCache.getDataSize();
+        if (dataSize == 0) {
+            return;
+        }
+
+        if (mapBitmap == null) {
+            mapBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mapPixels = new int[width * height];
+            rowSummaries = new byte[height * OverviewSummaryCache.SUMMARIES_COUNT];
+            rowsKnown = new boolean[height];
+        }
+        if (!mapValid) {
+            mapValid = true;
+            renderMap(mapBitmap, width, height);
+        }
+        canvas.drawBitmap(mapBitmap, 0, 0, null);
+
+        paintMatches(canvas, width, height, dataSize);
+        paintViewport(canvas, width, height, dataSize);
+    }
+
+    private void renderMap(Bitmap bitmap, int width, int height) {
+        summaryCache.aggregateRows(height, rowSummaries, rowsKnown);
+        int stripeWidth = Math.max(1, width / 3);
+        for (int row = 0; row < height; row++) {
+            int rowOffset = row * width;
+            if (!rowsKnown[row]) {
+                for (int x = 0; x < width; x++) {
+                    mapPixels[rowOffset + x] = UNKNOWN_COLOR;
+                }
+                continue;
+            }
+
+            int summaryOffset = row * OverviewSummaryCache.SUMMARIES_COUNT;
+            int entropyColor = getEntropyColor(rowSummaries[summaryOffset + OverviewSummaryCache.SUMMARY_ENTROPY] & 0xFF);
+            int zeros = 255 - (rowSummaries[summaryOffset + OverviewSummaryCache.SUMMARY_ZEROS] & 0xFF);
+            int zerosColor = Color.rgb(zeros, zeros, zeros);
+            int ascii = rowSummaries[summaryOffset + OverviewSummaryCache.SUMMARY_ASCII] & 0xFF;
+            int asciiColor = Color.rgb(0, 48 + ascii * 207 / 255, 0);
+            for (int x = 0; x < width; x++) {
+                mapPixels[rowOffset + x] = x < stripeWidth ? entropyColor : x < stripeWidth * 2 ? zerosColor : asciiColor;
+            }
+        }
+        bitmap.setPixels(mapPixels, 0, width, 0, 0, width, height);
+    }
+
+    private void paintMatches(Canvas canvas, int width, int height, long dataSize) {
+        SearchCodeAreaColorAssessor searchAssessor = CodeAreaAndroidUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
+        if (searchAssessor == null) {
+            return;
+        }
+        SearchMatches matches = searchAssessor.getMatches();
+        if (matches.isEmpty()) {
+            return;
+        }
+
+        paint.setColor(MATCH_COLOR);
+        int markerLeft = width - Math.max(2, width / 4);
+        int index = 0;
+        int matchesCount = matches.size();
+        for (int row = 0; row < height && index < matchesCount; row++) {
+            long rowEnd = (long) ((double) (row + 1) * dataSize / height);
+            index = matches.findFirstStartingFrom((long) ((double) row * dataSize / height));
+            if (index < matchesCount && matches.getPosition(index) < rowEnd) {
+                canvas.drawRect(markerLeft, row, width, row + 1, paint);
+            }
+        }
+    }
+
+    private void paintViewport(Canvas canvas, int width, int height, long dataSize) {
+        DefaultCodeAreaPainter painter = (DefaultCodeAreaPainter) codeArea.getPainter();
+        int bytesPerRow = painter.getBytesPerRow();
+        if (bytesPerRow == 0) {
+            return;
+        }
+
+        long startPosition = codeArea.getScrollPosition().getRowPosition() * bytesPerRow;
+        long endPosition = startPosition + (long) painter.getRowsPerPage() * bytesPerRow;
+        float top = (float) ((double) startPosition * height / dataSize);
+        float bottom = Math.max(top + 2, (float) ((double) endPosition * height / dataSize));
+        paint.setColor(VIEWPORT_COLOR);
+        canvas.drawRect(0, top, width, Math.min(bottom, height), paint);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        int action = event.getActionMasked();
+        if (codeArea == null || (action != MotionEvent.ACTION_DOWN && action != MotionEvent.ACTION_MOVE)) {
+            return super.onTouchEvent(event);
+        }
+
+        DefaultCodeAreaPainter painter = (DefaultCodeAreaPainter) codeArea.getPainter();
+        int bytesPerRow = painter.getBytesPerRow();
+        long dataSize = codeArea.getDataSize();
+        if (bytesPerRow == 0 || dataSize == 0 || getHeight() == 0) {
+            return true;
+        }
+
+        double ratio = Math.max(0, Math.min(1, event.getY() / getHeight()));
+        long targetRow = (long) (ratio * dataSize) / bytesPerRow - painter.getRowsPerPage() / 2;
+        long maxRow = Math.max(0, (dataSize / bytesPerRow) + 1 - painter.getRowsPerPage());
+        CodeAreaScrollPosition scrollPosition = new CodeAreaScrollPosition();
+        scrollPosition.setScrollPosition(codeArea.getScrollPosition());
+        scrollPosition.setRowPosition(Math.max(0, Math.min(targetRow, maxRow)));
+        scrollPosition.setRowOffset(0);
+        codeArea.setScrollPosition(scrollPosition);
+        return true;
+    }
+
+    /**
+     * Returns color from blue for low entropy to red for high entropy.
+     */
+    private static int getEntropyColor(int level) {
+        float[] hsv = {240f - level * 240f / 255, 1f, 0.4f + level * 0.6f / 255};
+        return Color.HSVToColor(hsv);
+    }
+}
@@ -0,0 +1,449 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.overview;
+
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.auxiliary.binary_data.EmptyBinaryData;
+import org.exbin.auxiliary.binary_data.delta.DeltaDocument;
+import org.exbin.auxiliary.binary_data.delta.DeltaDocumentEditListener;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Cache of downsampled block summaries for data overview.
+ * <p>
+ * Data are split into at most {@link #MAX_BLOCKS_COUNT} blocks and blocks are
+ * grouped into tiles, which are computed lazily on background thread when
+ * requested. Summary of each block is computed from sample at its start and
+ * consists of entropy, zero bytes ratio and ASCII characters ratio quantized
+ * to single byte. Edits of delta document invalidate only affected tiles;
+ * tiles shifted by edit keep showing previous values until recomputed.
+ * <p>
+ * Delta document is read using snapshot with the document locked. Other data
+ * don't support access from multiple threads, so samples of tile are copied
+ * using data read executor, which should run on thread modifying the data.
+ */
+@NullMarked
+public class OverviewSummaryCache {
+
+    public static final int MIN_BLOCK_SIZE = 4096;
+    public static final int MAX_BLOCKS_COUNT = 65536;
+    public static final int TILE_BLOCKS = 256;
+    public static final int SAMPLE_SIZE = 4096;
+
+    public static final int SUMMARY_ENTROPY = 0;
+    public static final int SUMMARY_ZEROS = 1;
+    public static final int SUMMARY_ASCII = 2;
+    public static final int SUMMARIES_COUNT = 3;
+
+    protected final ExecutorService summaryExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "OverviewThread");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final DeltaDocumentEditListener documentEditListener = this::dataEdited;
+    private final double[] valueLogTable = createValueLogTable(SAMPLE_SIZE);
+    /**
+     * Buffer for samples of computed tile.
+     */
+    private final byte[] tileSamples = new byte[TILE_BLOCKS * SAMPLE_SIZE];
+
+    private BinaryData data = EmptyBinaryData.getInstance();
+    private @Nullable DeltaDocument observedDocument;
+    private @Nullable UpdateListener updateListener;
+    private @Nullable Executor dataReadExecutor;
+    private long dataSize;
+    private int blockSize = MIN_BLOCK_SIZE;
+    private int blocksCount;
+    /**
+     * Summaries of blocks, values of block are stored consecutively.
+     */
+    private byte[] summaries = new byte[0];
+    /**
+     * Tile has values which can be shown.
+     */
+    private boolean[] tilesComputed = new boolean[0];
+    /**
+     * Tile values match current data.
+     */
+    private boolean[] tilesValid = new boolean[0];
+    private boolean[] tilesQueued = new boolean[0];
+    /**
+     * Incremented with each modification of data, so that results computed
+     * for previous data are dropped.
+     */
+    private int generation;
+
+    public OverviewSummaryCache() {
+    }
+
+    public void setUpdateListener(@Nullable UpdateListener updateListener) {
+        this.updateListener = updateListener;
+    }
+
+    /**
+     * Sets executor used for copying samples of data other than delta
+     * document.
+     * <p>
+     * Tiles of such data are not computed if executor is not set.
+     *
+     * @param dataReadExecutor data read executor
+     */
+    public void setDataReadExecutor(@Nullable Executor dataReadExecutor) {
+        this.dataReadExecutor = dataReadExecutor;
+    }
+
+    public synchronized BinaryData getData() {
+        return data;
+    }
+
+    /**
+     * Sets data to summarize, all cached values are dropped.
+     *
+     * @param data binary data
+     */
+    public synchronized void setData(BinaryData data) {
+        if (observedDocument != null) {
+            observedDocument.removeEditListener(documentEditListener);
+            observedDocument = null;
+        }
+        this.data = data;
+        if (data instanceof DeltaDocument) {
+            observedDocument = (DeltaDocument) data;
+            observedDocument.addEditListener(documentEditListener);
+        }
+        reset();
+    }
+
+    /**
+     * Processes data change without known range.
+     * <p>
+     * Changes of observed delta document are processed using its edit ranges.
+     */
+    public synchronized void dataChanged() {
+        if (observedDocument != null && dataSize == data.getDataSize()) {
+            return;
+        }
+
+        if (!updateLayout()) {
+            Arrays.fill(tilesValid, false);
+        }
+        generation++;
+    }
+
+    public synchronized long getDataSize() {
+        return dataSize;
+    }
+
+    public synchronized int getBlockSize() {
+        return blockSize;
+    }
+
+    public synchronized int getBlocksCount() {
+        return blocksCount;
+    }
+
+    /**
+     * Aggregates summaries of blocks for given count of rows of the overview.
+     * <p>
+     * Row values are maximum of entropy and zeros ratio and average of ASCII
+     * ratio of blocks covered by row. Missing tiles are scheduled for
+     * computation and rows without computed values are reported as unknown.
+     *
+     * @param rowsCount count of rows
+     * @param rowSummaries target array for summaries, values of row are stored consecutively
+     * @param rowsKnown target array for flags of rows with known values
+     */
+    public synchronized void aggregateRows(int rowsCount, byte[] rowSummaries, boolean[] rowsKnown) {
+        for (int row = 0; row < rowsCount; row++) {
+            int firstBlock = (int) ((long) row * blocksCount / rowsCount);
+            int endBlock = Math.max(firstBlock + 1, (int) ((long) (row + 1) * blocksCount / rowsCount));
+            if (firstBlock >= blocksCount) {
+                rowsKnown[row] = false;
+                continue;
+            }
+
+            int entropy = 0;
+            int zeros = 0;
+            int asciiSum = 0;
+            int knownBlocks = 0;
+            for (int block = firstBlock; block < endBlock; block++) {
+                int tile = block / TILE_BLOCKS;
+                if (!tilesValid[tile]) {
+                    requestTile(tile);
+                }
+                if (!tilesComputed[tile]) {
+                    continue;
+                }
+
+                int offset = block * SUMMARIES_COUNT;
+                entropy = Math.max(entropy, summaries[offset + SUMMARY_ENTROPY] & 0xFF);
+                zeros = Math.max(zeros, summaries[offset + SUMMARY_ZEROS] & 0xFF);
+                asciiSum += summaries[offset + SUMMARY_ASCII] & 0xFF;
+                knownBlocks++;
+            }
+
+            int rowOffset = row * SUMMARIES_COUNT;
+            rowsKnown[row] = knownBlocks > 0;
+            rowSummaries[rowOffset + SUMMARY_ENTROPY] = (byte) entropy;
+            rowSummaries[rowOffset + SUMMARY_ZEROS] = (byte) zeros;
+            rowSummaries[rowOffset + SUMMARY_ASCII] = (byte) (knownBlocks > 0 ? asciiSum / knownBlocks : 0);
+        }
+    }
+
+    public void dispose() {
+        setData(EmptyBinaryData.getInstance());
+        summaryExecutor.shutdownNow();
+    }
+
+    private void reset() {
+        generation++;
+        dataSize = data.getDataSize();
+        blockSize = computeBlockSize(dataSize);
+        blocksCount = (int) ((dataSize + blockSize - 1) / blockSize);
+        int tilesCount = (blocksCount + TILE_BLOCKS - 1) / TILE_BLOCKS;
+        summaries = new byte[tilesCount * TILE_BLOCKS * SUMMARIES_COUNT];
+        tilesComputed = new boolean[tilesCount];
+        tilesValid = new boolean[tilesCount];
+        tilesQueued = new boolean[tilesCount];
+    }
+
+    /**
+     * Updates blocks layout to current data size.
+     *
+     * @return true if layout was reset
+     */
+    private boolean updateLayout() {
+        long newDataSize = data.getDataSize();
+        if (computeBlockSize(newDataSize) != blockSize) {
+            reset();
+            return true;
+        }
+
+        dataSize = newDataSize;
+        blocksCount = (int) ((dataSize + blockSize - 1) / blockSize);
+        resizeTiles((blocksCount + TILE_BLOCKS - 1) / TILE_BLOCKS);
+        return false;
+    }
+
+    private void resizeTiles(int tilesCount) {
+        if (tilesCount != tilesValid.length) {
+            summaries = Arrays.copyOf(summaries, tilesCount * TILE_BLOCKS * SUMMARIES_COUNT);
+            tilesComputed = Arrays.copyOf(tilesComputed, tilesCount);
+            tilesValid = Arrays.copyOf(tilesValid, tilesCount);
+            tilesQueued = Arrays.copyOf(tilesQueued, tilesCount);
+        }
+    }
+
+    private synchronized void dataEdited(long position, long removedLength, long insertedLength) {
+        generation++;
+        int oldBlocksCount = blocksCount;
+        int oldTilesCount = tilesValid.length;
+        if (updateLayout()) {
+            return;
+        }
+
+        int firstTile = (int) (position / blockSize / TILE_BLOCKS);
+        if (removedLength == insertedLength) {
+            int lastTile = (int) ((position + Math.max(insertedLength, 1) - 1) / blockSize / TILE_BLOCKS);
+            for (int tile = firstTile; tile <= lastTile && tile < tilesValid.length; tile++) {
+                tilesValid[tile] = false;
+            }
+            return;
+        }
+
+        // Move values of following blocks by whole blocks, they are shown until recomputed
+        int tilesCount = tilesValid.length;
+        resizeTiles(Math.max(oldTilesCount, tilesCount));
+        int shift = (int) ((insertedLength - removedLength) / blockSize);
+        int sourceBlock = (int) Math.min((position + removedLength) / blockSize + 1, oldBlocksCount);
+        int targetBlock = Math.max(sourceBlock + shift, (int) (position / blockSize) + 1);
+        int movedBlocks = Math.min(oldBlocksCount - sourceBlock, blocksCount - targetBlock);
+        if (movedBlocks > 0 && sourceBlock != targetBlock) {
+            System.arraycopy(summaries, sourceBlock * SUMMARIES_COUNT, summaries, targetBlock * SUMMARIES_COUNT, movedBlocks * SUMMARIES_COUNT);
+        }
+        resizeTiles(tilesCount);
+        for (int tile = firstTile; tile < tilesValid.length; tile++) {
+            tilesValid[tile] = false;
+        }
+    }
+
+    private void requestTile(int tile) {
+        if (tilesQueued[tile]) {
+            return;
+        }
+
+        tilesQueued[tile] = true;
+        int tileGeneration = generation;
+        BinaryData tileData = data;
+        int firstBlock = tile * TILE_BLOCKS;
+        int tileBlocks = Math.min(TILE_BLOCKS, blocksCount - firstBlock);
+        long tileDataSize = dataSize;
+        int tileBlockSize = blockSize;
+        summaryExecutor.execute(() -> {
+            byte[] tileSummaries = null;
+            try {
+                if (isCurrent(tileGeneration)) {
+                    tileSummaries = computeTile(tileData, tileGeneration, tileDataSize, tileBlockSize, firstBlock, tileBlocks);
+                }
+            } catch (Exception ex) {
+                // Data changed during computation
+                Logger.getLogger(OverviewSummaryCache.class.getName()).log(Level.FINE, null, ex);
+            }
+            if (storeTile(tile, tileGeneration, tileSummaries)) {
+                UpdateListener listener = updateListener;
+                if (listener != null) {
+                    listener.summaryUpdated();
+                }
+            }
+        });
+    }
+
+    private synchronized boolean isCurrent(int tileGeneration) {
+        return tileGeneration == generation;
+    }
+
+    private synchronized boolean storeTile(int tile, int tileGeneration, byte @Nullable [] tileSummaries) {
+        if (tile < tilesQueued.length) {
+            tilesQueued[tile] = false;
+        }
+        if (tileSummaries == null || tileGeneration != generation) {
+            // Tile will be requested again by next aggregation
+            return tileGeneration != generation;
+        }
+
+        System.arraycopy(tileSummaries, 0, summaries, tile * TILE_BLOCKS * SUMMARIES_COUNT, tileSummaries.length);
+        tilesComputed[tile] = true;
+        tilesValid[tile] = true;
+        return true;
+    }
+
+    private byte @Nullable [] computeTile(BinaryData tileData, int tileGeneration, long tileDataSize, int tileBlockSize, int firstBlock, int tileBlocks) throws InterruptedException, ExecutionException {
+        int sampleSize = Math.min(SAMPLE_SIZE, tileBlockSize);
+        byte[] samples = tileSamples;
+        if (tileData instanceof DeltaDocument) {
+            readSamples(((DeltaDocument) tileData).createSnapshot(), tileDataSize, tileBlockSize, firstBlock, tileBlocks, samples);
+        } else {
+            Executor executor = dataReadExecutor;
+            if (executor == null) {
+                return null;
+            }
+
+            FutureTask<Boolean> readTask = new FutureTask<>(() -> {
+                // Data are read on thread which modifies them, generation is current if not modified
+                if (!isCurrent(tileGeneration)) {
+                    return false;
+                }
+                readSamples(tileData, tileDataSize, tileBlockSize, firstBlock, tileBlocks, samples);
+                return true;
+            });
+            executor.execute(readTask);
+            if (!readTask.get()) {
+                return null;
+            }
+        }
+
+        byte[] tileSummaries = new byte[tileBlocks * SUMMARIES_COUNT];
+        int[] counts = new int[256];
+        for (int block = 0; block < tileBlocks; block++) {
+            long blockPosition = (long) (firstBlock + block) * tileBlockSize;
+            int sampleLength = (int) Math.min(sampleSize, tileDataSize - blockPosition);
+            if (sampleLength <= 0) {
+                break;
+            }
+
+            int sampleOffset = block * sampleSize;
+            int ascii = 0;
+            for (int i = sampleOffset; i < sampleOffset + sampleLength; i++) {
+                int value = samples[i] & 0xFF;
+                counts[value]++;
+                if ((value >= 0x20 && value < 0x7F) || value == '\t' || value == '\n' || value == '\r') {
+                    ascii++;
+                }
+            }
+            int zeros = counts[0];
+            double sum = 0;
+            for (int value = 0; value < counts.length; value++) {
+                int count = counts[value];
+                if (count > 0) {
+                    sum += valueLogTable[count];
+                    counts[value] = 0;
+                }
+            }
+            double entropy = Math.max(0, valueLogTable[sampleLength] / sampleLength - sum / sampleLength);
+
+            int offset = block * SUMMARIES_COUNT;
+            tileSummaries[offset + SUMMARY_ENTROPY] = (byte) Math.min(255, Math.round(entropy * 255 / 8));
+            tileSummaries[offset + SUMMARY_ZEROS] = (byte) (zeros * 255 / sampleLength);
+            tileSummaries[offset + SUMMARY_ASCII] = (byte) (ascii * 255 / sampleLength);
+        }
+        return tileSummaries;
+    }
+
+    private static void readSamples(BinaryData source, long tileDataSize, int tileBlockSize, int firstBlock, int tileBlocks, byte[] samples) {
+        int sampleSize = Math.min(SAMPLE_SIZE, tileBlockSize);
+        for (int block = 0; block < tileBlocks; block++) {
+            long blockPosition = (long) (firstBlock + block) * tileBlockSize;
+            int sampleLength = (int) Math.min(sampleSize, tileDataSize - blockPosition);
+            if (sampleLength <= 0) {
+                break;
+            }
+            source.copyToArray(blockPosition, samples, block * sampleSize, sampleLength);
+        }
+    }
+
+    private static int computeBlockSize(long dataSize) {
+        int size = MIN_BLOCK_SIZE;
+        while ((dataSize + size - 1) / size > MAX_BLOCKS_COUNT) {
+            size *= 2;
+        }
+        return size;
+    }
+
+    /**
+     * Creates table of n * log2(n) values for counts up to given maximum.
+     */
+    private static double[] createValueLogTable(int maxCount) {
+        double[] table = new double[maxCount + 1];
+        for (int count = 1; count <= maxCount; count++) {
+            table[count] = count * Math.log(count) / Math.log(2);
+        }
+        return table;
+    }
+
+    /**
+     * Listener for summary updates.
+     */
+    public interface UpdateListener {
+
+        /**
+         * Summaries of some tiles were updated.
+         * <p>
+         * Called from background thread.
+         */
+        void summaryUpdated();
+    }
+}
@@ -38,6 +38,7 @@ public class EditorPreferences implements EditorOptions {
     public static final String PREFERENCES_ENTER_KEY_HANDLING_MODE = "enterKeyHandlingMode";
     public static final String PREFERENCES_TAB_KEY_HANDLING_MODE = "tabKeyHandlingMode";
     public static final String PREFERENCES_DATA_INSPECTOR_MODE = "dataInspectorMode";
+    public static final String PREFERENCES_SHOW_OVERVIEW_MAP = "showOverviewMap";
 
     private final OptionsStorage optionsStorage;
 
@@ -123,4 +124,14 @@ public class EditorPreferences implements EditorOptions {
         }
     }
 
+    @Override
+    public boolean isShowOverviewMap() {
+        return optionsStorage.getBoolean(PREFERENCES_SHOW_OVERVIEW_MAP, true);
+    }
+
+    @Override
+    public void setShowOverviewMap(boolean showOverviewMap) {
+        optionsStorage.putBoolean(PREFERENCES_SHOW_OVERVIEW_MAP, showOverviewMap);
+    }
+
 }
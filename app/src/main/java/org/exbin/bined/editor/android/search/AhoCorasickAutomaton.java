@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Aho-Corasick automaton for matching of multiple byte patterns.
+ * <p>
+ * Failure links are resolved into full transition table during construction,
+ * so each byte of the data is processed by single table lookup.
+ */
+@NullMarked
+public class AhoCorasickAutomaton {
+
+    private static final int[] NO_OUTPUTS = new int[0];
+
+    private final int[] transitions;
+    private final int[][] outputs;
+    private final int[] patternLengths;
+    private final int[] patternTags;
+
+    /**
+     * Creates automaton for given patterns.
+     *
+     * @param patterns non-empty byte patterns
+     * @param patternTags tags reported for each pattern
+     */
+    public AhoCorasickAutomaton(List<byte[]> patterns, int[] patternTags) {
+        if (patterns.size() != patternTags.length) {
+            throw new IllegalArgumentException("Tags count doesn't match patterns count");
+        }
+
+        int patternsCount = patterns.size();
+        this.patternTags = patternTags;
+        patternLengths = new int[patternsCount];
+
+        // Build trie
+        List<int[]> trie = new ArrayList<>();
+        List<int[]> stateOutputs = new ArrayList<>();
+        trie.add(createNode());
+        stateOutputs.add(NO_OUTPUTS);
+        for (int patternIndex = 0; patternIndex < patternsCount; patternIndex++) {
+            byte[] pattern = patterns.get(patternIndex);
+            if (pattern.length == 0) {
+                throw new IllegalArgumentException("Pattern is empty");
+            }
+            patternLengths[patternIndex] = pattern.length;
+            int state = 0;
+            for (byte value : pattern) {
+                int[] node = trie.get(state);
+                int next = node[value & 0xff];
+                if (next < 0) {
+                    next = trie.size();
+                    node[value & 0xff] = next;
+                    trie.add(createNode());
+                    stateOutputs.add(NO_OUTPUTS);
+                }
+                state = next;
+            }
+            stateOutputs.set(state, appendOutput(stateOutputs.get(state), patternIndex));
+        }
+
+        // Resolve failure links in breadth first order
+        int statesCount = trie.size();
+        transitions = new int[statesCount * 256];
+        outputs = new int[statesCount][];
+        int[] failure = new int[statesCount];
+        int[] queue = new int[statesCount];
+        int queueStart = 0;
+        int queueEnd = 0;
+        outputs[0] = stateOutputs.get(0);
+        int[] root = trie.get(0);
+        for (int value = 0; value < 256; value++) {
+            int next = root[value];
+            if (next < 0) {
+                transitions[value] = 0;
+            } else {
+                transitions[value] = next;
+                failure[next] = 0;
+                queue[queueEnd++] = next;
+            }
+        }
+        while (queueStart < queueEnd) {
+            int state = queue[queueStart++];
+            int fallback = failure[state];
+            outputs[state] = mergeOutputs(stateOutputs.get(state), outputs[fallback]);
+            int[] node = trie.get(state);
+            int stateOffset = state * 256;
+            int fallbackOffset = fallback * 256;
+            for (int value = 0; value < 256; value++) {
+                int next = node[value];
+                if (next < 0) {
+                    transitions[stateOffset + value] = transitions[fallbackOffset + value];
+                } else {
+                    transitions[stateOffset + value] = next;
+                    failure[next] = transitions[fallbackOffset + value];
+                    queue[queueEnd++] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns state after processing given byte.
+     *
+     * @param state current state
+     * @param value byte value
+     * @return next state
+     */
+    public int nextState(int state, byte value) {
+        return transitions[state * 256 + (value & 0xff)];
+    }
+
+    /**
+     * Returns indexes of patterns ending in given state.
+     *
+     * @param state state
+     * @return pattern indexes, must not be modified
+     */
+    public int[] getOutputs(int state) {
+        return outputs[state];
+    }
+
+    public int getPatternLength(int patternIndex) {
+        return patternLengths[patternIndex];
+    }
+
+    public int getPatternTag(int patternIndex) {
+        return patternTags[patternIndex];
+    }
+
+    public int getStatesCount() {
+        return outputs.length;
+    }
+
+    private static int[] createNode() {
+        int[] node = new int[256];
+        Arrays.fill(node, -1);
+        return node;
+    }
+
+    private static int[] appendOutput(int[] stateOutputs, int patternIndex) {
+        int[] result = Arrays.copyOf(stateOutputs, stateOutputs.length + 1);
+        result[stateOutputs.length] = patternIndex;
+        return result;
+    }
+
+    private static int[] mergeOutputs(int[] stateOutputs, int[] fallbackOutputs) {
+        if (fallbackOutputs.length == 0) {
+            return stateOutputs;
+        }
+        if (stateOutputs.length == 0) {
+            return fallbackOutputs;
+        }
+
+        int[] result = Arrays.copyOf(stateOutputs, stateOutputs.length + fallbackOutputs.length);
+        System.arraycopy(fallbackOutputs, 0, result, stateOutputs.length, fallbackOutputs.length);
+        return result;
+    }
+}
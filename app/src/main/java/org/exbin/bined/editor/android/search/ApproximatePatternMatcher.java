@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.util.Arrays;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Matcher of byte pattern allowing limited count of differences.
+ * <p>
+ * Uses bit-parallel Shift-Or automaton extended for substitutions
+ * (Wu-Manber), which keeps one state vector per allowed count of differing
+ * bytes. Patterns longer than 64 bytes use multiple words per state vector.
+ * When differences are counted in bits, automaton with the same count of
+ * differing bytes is used as filter, because each differing byte has at least
+ * one differing bit, and candidates are verified using bit count.
+ */
+@NullMarked
+public class ApproximatePatternMatcher implements BytePatternMatcher {
+
+    private static final int WORD_BITS = 64;
+
+    private final byte[] pattern;
+    private final int maxMismatches;
+    private final boolean countBits;
+    private final int automatonMismatches;
+    private final int wordsCount;
+    private final long matchBit;
+    private final long[][] masks;
+    private final long[][] reverseMasks;
+
+    /**
+     * Creates new matcher.
+     *
+     * @param pattern pattern values
+     * @param maxMismatches maximum count of differences
+     * @param countBits true to count differing bits, false to count differing bytes
+     */
+    public ApproximatePatternMatcher(byte[] pattern, int maxMismatches, boolean countBits) {
+        if (pattern.length == 0) {
+            throw new IllegalArgumentException("Pattern is empty");
+        }
+        if (maxMismatches < 0) {
+            throw new IllegalArgumentException("Count of differences must be non-negative");
+        }
+
+        int patternLength = pattern.length;
+        this.pattern = Arrays.copyOf(pattern, patternLength);
+        this.maxMismatches = maxMismatches;
+        this.countBits = countBits;
+        automatonMismatches = Math.min(maxMismatches, patternLength);
+        wordsCount = (patternLength + WORD_BITS - 1) / WORD_BITS;
+        matchBit = 1L << ((patternLength - 1) % WORD_BITS);
+        masks = createMasks(pattern, false);
+        reverseMasks = createMasks(pattern, true);
+    }
+
+    /**
+     * Creates masks of pattern positions for each byte value, bit is cleared
+     * when value is equal to pattern byte at position.
+     */
+    private long[][] createMasks(byte[] pattern, boolean reverse) {
+        long[][] valueMasks = new long[256][wordsCount];
+        for (long[] valueMask : valueMasks) {
+            Arrays.fill(valueMask, -1L);
+        }
+        int patternLength = pattern.length;
+        for (int i = 0; i < patternLength; i++) {
+            int value = pattern[reverse ? patternLength - 1 - i : i] & 0xff;
+            valueMasks[value][i / WORD_BITS] &= ~(1L << (i % WORD_BITS));
+        }
+        return valueMasks;
+    }
+
+    @Override
+    public int getPatternLength() {
+        return pattern.length;
+    }
+
+    public int getMaxMismatches() {
+        return maxMismatches;
+    }
+
+    @Override
+    public int findFirst(byte[] block, int from, int to) {
+        if (to - from < pattern.length) {
+            return -1;
+        }
+
+        if (wordsCount == 1) {
+            long[] states = createSingleWordStates();
+            for (int position = from; position < to; position++) {
+                if (stepSingleWord(states, masks[block[position] & 0xff][0])) {
+                    int start = position - pattern.length + 1;
+                    if (verify(block, start)) {
+                        return start;
+                    }
+                }
+            }
+        } else {
+            long[][] states = createStates();
+            for (int position = from; position < to; position++) {
+                if (step(states, masks[block[position] & 0xff])) {
+                    int start = position - pattern.length + 1;
+                    if (verify(block, start)) {
+                        return start;
+                    }
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int findLast(byte[] block, int from, int to) {
+        if (to - from < pattern.length) {
+            return -1;
+        }
+
+        if (wordsCount == 1) {
+            long[] states = createSingleWordStates();
+            for (int position = to - 1; position >= from; position--) {
+                if (stepSingleWord(states, reverseMasks[block[position] & 0xff][0]) && verify(block, position)) {
+                    return position;
+                }
+            }
+        } else {
+            long[][] states = createStates();
+            for (int position = to - 1; position >= from; position--) {
+                if (step(states, reverseMasks[block[position] & 0xff]) && verify(block, position)) {
+                    return position;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    private long[] createSingleWordStates() {
+        long[] states = new long[automatonMismatches + 1];
+        Arrays.fill(states, -1L);
+        return states;
+    }
+
+    private long[][] createStates() {
+        long[][] states = new long[automatonMismatches + 1][wordsCount];
+        for (long[] state : states) {
+            Arrays.fill(state, -1L);
+        }
+        return states;
+    }
+
+    /**
+     * Processes single byte, state with d differences is computed from
+     * previous states with d and d - 1 differences.
+     *
+     * @return true if whole pattern matches with allowed differences
+     */
+    private boolean stepSingleWord(long[] states, long valueMask) {
+        for (int mismatches = automatonMismatches; mismatches > 0; mismatches--) {
+            states[mismatches] = ((states[mismatches] << 1) | valueMask) & (states[mismatches - 1] << 1);
+        }
+        states[0] = (states[0] << 1) | valueMask;
+        return (states[automatonMismatches] & matchBit) == 0;
+    }
+
+    private boolean step(long[][] states, long[] valueMask) {
+        for (int mismatches = automatonMismatches; mismatches >= 0; mismatches--) {
+            long[] state = states[mismatches];
+            long @Nullable [] previousState = mismatches > 0 ? states[mismatches - 1] : null;
+            long carry = 0;
+            long previousCarry = 0;
+            for (int word = 0; word < wordsCount; word++) {
+                long value = state[word];
+                long nextValue = (value << 1) | carry | valueMask[word];
+                carry = value >>> 63;
+                if (previousState != null) {
+                    long previousValue = previousState[word];
+                    nextValue &= (previousValue << 1) | previousCarry;
+                    previousCarry = previousValue >>> 63;
+                }
+                state[word] = nextValue;
+            }
+        }
+        return (states[automatonMismatches][wordsCount - 1] & matchBit) == 0;
+    }
+
+    private boolean verify(byte[] block, int start) {
+        if (!countBits) {
+            return true;
+        }
+
+        int differences = 0;
+        for (int i = 0; i < pattern.length; i++) {
+            differences += Integer.bitCount((block[start + i] ^ pattern[i]) & 0xff);
+            if (differences > maxMismatches) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -15,6 +15,11 @@
  */
 package org.exbin.bined.editor.android.search;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
 import org.jspecify.annotations.Nullable;
 import org.jspecify.annotations.NullMarked;
 
@@ -26,8 +31,12 @@ public class BinarySearch {
 
     protected static final int DEFAULT_DELAY = 500;
 
-    protected @Nullable InvokeSearchThread invokeSearchThread;
-    protected @Nullable SearchThread searchThread;
+    /**
+     * Single worker thread, requests are performed in order of invocation.
+     */
+    protected final ScheduledExecutorService searchExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "SearchThread"));
+    protected @Nullable ScheduledFuture<?> pendingSearch;
+    protected BinarySearchService.@Nullable CancellationToken searchCancellationToken;
 
     protected SearchOperation currentSearchOperation = SearchOperation.FIND;
     protected SearchParameters.SearchDirection currentSearchDirection = SearchParameters.SearchDirection.FORWARD;
@@ -74,18 +83,32 @@ public class BinarySearch {
         invokeSearch(searchOperation, searchParameters, replaceParameters, 0);
     }
 
-    private void invokeSearch(SearchOperation searchOperation, SearchParameters searchParameters, @Nullable ReplaceParameters replaceParameters, final int delay) {
-        if (invokeSearchThread != null) {
-            invokeSearchThread.interrupt();
-        }
-        invokeSearchThread = new InvokeSearchThread();
-        invokeSearchThread.delay = delay;
+    /**
+     * Schedules search request.
+     * <p>
+     * Request supersedes previous request, which is dropped if it is still
+     * waiting or cancelled if it is already running.
+     */
+    private synchronized void invokeSearch(SearchOperation searchOperation, SearchParameters searchParameters, @Nullable ReplaceParameters replaceParameters, final int delay) {
+        cancelSearch();
         currentSearchOperation = searchOperation;
         currentSearchParameters.setFromParameters(searchParameters);
         if (replaceParameters != null) {
             currentReplaceParameters.setFromParameters(replaceParameters);
         }
-        invokeSearchThread.start();
+
+        // Request works with its own copy of parameters including condition
+        SearchParameters requestSearchParameters = new SearchParameters();
+        requestSearchParameters.setFromParameters(currentSearchParameters);
+        ReplaceParameters requestReplaceParameters = new ReplaceParameters();
+        requestReplaceParameters.setFromParameters(currentReplaceParameters);
+        BinarySearchService.CancellationToken cancellationToken = new BinarySearchService.CancellationToken();
+        searchCancellationToken = cancellationToken;
+        pendingSearch = searchExecutor.schedule(() -> {
+            if (!cancellationToken.isCancelled()) {
+                performSearch(searchOperation, requestSearchParameters, requestReplaceParameters, cancellationToken);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
     }
 
     // TODO Move to search panel
@@ -100,12 +123,19 @@ public class BinarySearch {
         invokeSearch(SearchOperation.FIND_AGAIN, currentSearchParameters, currentReplaceParameters, 0);
     }
 
-    public void cancelSearch() {
-        if (invokeSearchThread != null) {
-            invokeSearchThread.interrupt();
+    public void performReplaceAll(SearchParameters searchParameters, ReplaceParameters replaceParameters, BinarySearchService.SearchStatusListener searchStatusListener) {
+        this.searchStatusListener = searchStatusListener;
+        invokeSearch(SearchOperation.REPLACE_ALL, searchParameters, replaceParameters, 0);
+    }
+
+    public synchronized void cancelSearch() {
+        if (pendingSearch != null) {
+            pendingSearch.cancel(false);
+            pendingSearch = null;
         }
-        if (searchThread != null) {
-            searchThread.interrupt();
+        if (searchCancellationToken != null) {
+            searchCancellationToken.cancel();
+            searchCancellationToken = null;
         }
     }
 
@@ -118,55 +148,48 @@ public class BinarySearch {
         }
     }
 
+    /**
+     * Updates search after data modification.
+     * <p>
+     * Only ranges affected by edits are searched again when possible.
+     */
     public void dataChanged() {
-        binarySearchService.clearMatches();
-        invokeSearch(currentSearchOperation, DEFAULT_DELAY);
+        invokeSearch(SearchOperation.RESCAN, DEFAULT_DELAY);
     }
 
-    private class InvokeSearchThread extends Thread {
-
-        private int delay = DEFAULT_DELAY;
-
-        public InvokeSearchThread() {
-            super("InvokeSearchThread");
-        }
-
-        @Override
-        public void run() {
-            try {
-                Thread.sleep(delay);
-                if (searchThread != null) {
-                    searchThread.interrupt();
-                }
-                searchThread = new SearchThread();
-                searchThread.start();
-            } catch (InterruptedException ex) {
-                // don't search
-            }
+    /**
+     * Cancels search and stops search thread.
+     */
+    public void dispose() {
+        cancelSearch();
+        searchExecutor.shutdown();
+        if (binarySearchService != null) {
+            binarySearchService.dispose();
         }
     }
 
-    private class SearchThread extends Thread {
-
-        public SearchThread() {
-            super("SearchThread");
-        }
-
-        @Override
-        public void run() {
-            switch (currentSearchOperation) {
-                case FIND:
-                    binarySearchService.performFind(currentSearchParameters, searchStatusListener);
-                    break;
-                case FIND_AGAIN:
-                    binarySearchService.performFindAgain(searchStatusListener);
-                    break;
-                case REPLACE:
-                    binarySearchService.performReplace(currentSearchParameters, currentReplaceParameters);
-                    break;
-                default:
-                    throw new UnsupportedOperationException("Not supported yet.");
-            }
+    private void performSearch(SearchOperation searchOperation, SearchParameters searchParameters, ReplaceParameters replaceParameters, BinarySearchService.CancellationToken cancellationToken) {
+        switch (searchOperation) {
+            case FIND:
+                binarySearchService.performFind(searchParameters, searchStatusListener, cancellationToken);
+                break;
+            case FIND_AGAIN:
+                binarySearchService.performFindAgain(searchStatusListener, cancellationToken);
+                break;
+            case REPLACE:
+                binarySearchService.performReplace(searchParameters, replaceParameters);
+                break;
+            case REPLACE_ALL:
+                binarySearchService.performReplaceAll(searchParameters, replaceParameters, searchStatusListener, cancellationToken);
+                break;
+            case RESCAN:
+                if (!binarySearchService.performRescan(searchStatusListener, cancellationToken) && !cancellationToken.isCancelled()) {
+                    binarySearchService.clearMatches();
+                    binarySearchService.performFind(searchParameters, searchStatusListener, cancellationToken);
+                }
+                break;
+            default:
+                throw new UnsupportedOperationException("Not supported yet.");
         }
     }
 
@@ -179,6 +202,7 @@ public class BinarySearch {
         FIND,
         FIND_AGAIN,
         REPLACE,
-        REPLACE_ALL
+        REPLACE_ALL,
+        RESCAN
     }
 }
@@ -23,30 +23,91 @@ import org.jspecify.annotations.NullMarked;
 @NullMarked
 public interface BinarySearchService {
 
-    void performFind(SearchParameters dialogSearchParameters, SearchStatusListener searchStatusListener);
+    void performFind(SearchParameters dialogSearchParameters, SearchStatusListener searchStatusListener, CancellationToken cancellationToken);
 
     void setMatchPosition(int matchPosition);
 
-    void performFindAgain(SearchStatusListener searchStatusListener);
+    void performFindAgain(SearchStatusListener searchStatusListener, CancellationToken cancellationToken);
 
     void performReplace(SearchParameters searchParameters, ReplaceParameters replaceParameters);
 
+    /**
+     * Replaces all matches as single undoable command.
+     *
+     * @param searchParameters search parameters
+     * @param replaceParameters replace parameters
+     * @param searchStatusListener search status listener
+     * @param cancellationToken cancellation token
+     */
+    void performReplaceAll(SearchParameters searchParameters, ReplaceParameters replaceParameters, SearchStatusListener searchStatusListener, CancellationToken cancellationToken);
+
+    /**
+     * Searches again in ranges affected by data modifications since the last
+     * search and updates found matches.
+     *
+     * @param searchStatusListener search status listener
+     * @param cancellationToken cancellation token
+     * @return false if matches cannot be updated and full search is needed
+     */
+    boolean performRescan(SearchStatusListener searchStatusListener, CancellationToken cancellationToken);
+
     SearchParameters getLastSearchParameters();
 
     void clearMatches();
 
+    /**
+     * Stops observing modifications of the data.
+     */
+    void dispose();
+
     @NullMarked
     public interface SearchStatusListener {
 
         void setStatus(FoundMatches foundMatches, SearchParameters.MatchMode matchMode);
 
+        /**
+         * Reports progress of running search.
+         *
+         * @param processedBytes count of already processed bytes
+         * @param totalBytes total count of bytes to process
+         * @param matchesCount count of matches found so far
+         */
+        void setProgress(long processedBytes, long totalBytes, int matchesCount);
+
         void clearStatus();
     }
 
+    /**
+     * Token for cancellation of single search request.
+     */
+    public static class CancellationToken {
+
+        private volatile boolean cancelled;
+
+        public CancellationToken() {
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
     public static class FoundMatches {
 
+        /**
+         * Maximum number of collected matches, limits memory used by match
+         * store. Search stops when the limit is reached and reports it by
+         * {@link #isLimitReached()}.
+         */
+        public static final int MAX_MATCHES_COUNT = 2_000_000;
+
         private int matchesCount;
         private int matchPosition;
+        private boolean limitReached;
 
         public FoundMatches() {
             matchesCount = 0;
@@ -70,6 +131,20 @@ public interface BinarySearchService {
             return matchPosition;
         }
 
+        /**
+         * Returns true if search stopped at the limit of matches count and
+         * further matches were not collected.
+         *
+         * @return true if limit was reached
+         */
+        public boolean isLimitReached() {
+            return limitReached;
+        }
+
+        public void setLimitReached(boolean limitReached) {
+            this.limitReached = limitReached;
+        }
+
         public void setMatchesCount(int matchesCount) {
             this.matchesCount = matchesCount;
         }
@@ -17,21 +17,42 @@ package org.exbin.bined.editor.android.search;
 
 import org.exbin.auxiliary.binary_data.BinaryData;
 import org.exbin.auxiliary.binary_data.EditableBinaryData;
+import org.exbin.auxiliary.binary_data.android_jna.paged.JnaBufferPagedData;
+import org.exbin.auxiliary.binary_data.delta.DeltaDocument;
+import org.exbin.auxiliary.binary_data.delta.DeltaDocumentEditListener;
 import org.exbin.bined.CharsetStreamTranslator;
 import org.exbin.bined.CodeAreaUtils;
+import org.exbin.bined.DataChangedListener;
 import org.exbin.bined.android.CodeAreaAndroidUtils;
 import org.exbin.bined.android.basic.CodeArea;
 import org.exbin.bined.android.capability.ColorAssessorPainterCapable;
 import org.exbin.bined.highlight.android.SearchCodeAreaColorAssessor;
 import org.exbin.bined.highlight.android.SearchMatch;
+import org.exbin.bined.highlight.android.SearchMatches;
+import org.exbin.bined.operation.android.command.ReplaceDataCommand;
+import org.exbin.bined.operation.command.BinaryDataUndoRedo;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
+import org.jspecify.annotations.Nullable;
 import org.jspecify.annotations.NullMarked;
 
 /**
@@ -40,21 +61,34 @@ import org.jspecify.annotations.NullMarked;
 @NullMarked
 public class BinarySearchServiceImpl implements BinarySearchService {
 
-    private static final int MAX_MATCHES_COUNT = 100;
+    private static final int PARALLEL_RANGE_MIN_SIZE = 4 * SearchDataScanner.DEFAULT_BLOCK_SIZE;
+    private static final int PROGRESS_REPORT_INTERVAL = 200;
+    private static @Nullable ExecutorService searchExecutor;
+
     private final CodeArea codeArea;
+    private final BinaryDataUndoRedo undoRedo;
     private final SearchParameters lastSearchParameters = new SearchParameters();
+    private final DeltaDocumentEditListener documentEditListener = this::dataEdited;
+    private final DataChangedListener dataChangedListener = this::dataChanged;
+    private @Nullable DeltaDocument observedDocument;
+    private volatile int maxMatchLength = 1;
+    private boolean matchesTracked;
+    private int editsCount;
+    private long rescanStart;
+    private long rescanEnd;
 
-    public BinarySearchServiceImpl(CodeArea codeArea) {
+    public BinarySearchServiceImpl(CodeArea codeArea, BinaryDataUndoRedo undoRedo) {
         this.codeArea = codeArea;
+        this.undoRedo = undoRedo;
+        codeArea.addDataChangedListener(dataChangedListener);
     }
 
     @Override
-    public void performFind(SearchParameters searchParameters, SearchStatusListener searchStatusListener) {
-        SearchCodeAreaColorAssessor searchAssessor = CodeAreaAndroidUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
+    public void performFind(SearchParameters searchParameters, SearchStatusListener searchStatusListener, CancellationToken cancellationToken) {
         SearchCondition condition = searchParameters.getCondition();
         searchStatusListener.clearStatus();
         if (condition.isEmpty()) {
-            searchAssessor.clearMatches();
+            clearMatches();
             codeArea.repaint();
             return;
         }
@@ -79,10 +113,20 @@ public class BinarySearchServiceImpl implements BinarySearchService {
                             searchDataSize = condition.getSearchText().length();
                             break;
                         }
-                        case BINARY: {
+                        case BINARY:
+                        case MASKED: {
                             searchDataSize = condition.getBinaryData().getDataSize();
                             break;
                         }
+                        case MULTIPLE_PATTERNS:
+                        case REGEX: {
+                            searchDataSize = 1;
+                            break;
+                        }
+                        case NUMERIC: {
+                            searchDataSize = condition.getNumericCondition().getNumericType().getLength();
+                            break;
+                        }
                         default:
                             throw CodeAreaUtils.getInvalidTypeException(condition.getSearchMode());
                     }
@@ -94,98 +138,699 @@ public class BinarySearchServiceImpl implements BinarySearchService {
                 throw CodeAreaUtils.getInvalidTypeException(searchParameters.getSearchDirection());
         }
         searchParameters.setStartPosition(position);
+        performSearch(searchParameters, searchStatusListener, cancellationToken);
+    }
+
+    /**
+     * Performs search from start position of given parameters.
+     */
+    private void performSearch(SearchParameters searchParameters, SearchStatusListener searchStatusListener, CancellationToken cancellationToken) {
+        BinaryData data = codeArea.getContentData();
+        int searchEditsCount = observeData(data);
+        long position = searchParameters.getStartPosition();
+        long dataSize = data.getDataSize();
+        long candidatesStart;
+        long candidatesEnd;
+        if (searchParameters.getSearchDirection() == SearchParameters.SearchDirection.FORWARD) {
+            candidatesStart = Math.max(position, 0);
+            candidatesEnd = dataSize;
+        } else {
+            candidatesStart = 0;
+            candidatesEnd = Math.min(position + 1, dataSize);
+        }
+
+        SearchMatches foundMatches = findMatches(data, searchParameters, candidatesStart, candidatesEnd, new SearchProgress(searchStatusListener, cancellationToken, true));
+        if (foundMatches == null || cancellationToken.isCancelled()) {
+            return;
+        }
+
+        applyFoundMatches(searchParameters, searchStatusListener, foundMatches, searchEditsCount, cancellationToken);
+    }
 
+    /**
+     * Finds matches starting in given range of candidate positions.
+     *
+     * @return found matches or null if search was cancelled
+     */
+    @Nullable
+    private SearchMatches findMatches(BinaryData data, SearchParameters searchParameters, long candidatesStart, long candidatesEnd, SearchProgress progress) {
+        SearchCondition condition = searchParameters.getCondition();
         switch (condition.getSearchMode()) {
-            case TEXT: {
-                searchForText(searchParameters, searchStatusListener);
-                break;
-            }
-            case BINARY: {
-                searchForBinaryData(searchParameters, searchStatusListener);
-                break;
-            }
+            case TEXT:
+                return findTextMatches(data, searchParameters, candidatesStart, candidatesEnd, progress);
+            case BINARY:
+                return findBinaryDataMatches(data, searchParameters, candidatesStart, candidatesEnd, progress);
+            case MULTIPLE_PATTERNS:
+                return findMultiplePatternsMatches(data, searchParameters, candidatesStart, candidatesEnd, progress);
+            case MASKED:
+                return findMaskedDataMatches(data, searchParameters, candidatesStart, candidatesEnd, progress);
+            case REGEX:
+                return findRegexMatches(data, searchParameters, candidatesStart, candidatesEnd, progress);
+            case NUMERIC:
+                return findNumericMatches(data, searchParameters, candidatesStart, candidatesEnd, progress);
             default:
                 throw CodeAreaUtils.getInvalidTypeException(condition.getSearchMode());
         }
     }
 
     /**
-     * Performs search by binary data.
+     * Finds matches of binary data.
      */
-    private void searchForBinaryData(SearchParameters searchParameters, SearchStatusListener searchStatusListener) {
-        SearchCodeAreaColorAssessor searchAssessor = CodeAreaAndroidUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
+    @Nullable
+    private SearchMatches findBinaryDataMatches(BinaryData data, SearchParameters searchParameters, long candidatesStart, long candidatesEnd, SearchProgress progress) {
         SearchCondition condition = searchParameters.getCondition();
-        long position = searchParameters.getStartPosition();
+        BinaryData searchData = condition.getBinaryData();
+        int searchDataSize = (int) searchData.getDataSize();
+        byte[] pattern = new byte[searchDataSize];
+        searchData.copyToArray(0, pattern, 0, searchDataSize);
+        return findBytePatternMatches(data, searchParameters, candidatesStart, candidatesEnd, createPatternMatcher(pattern, searchParameters), progress);
+    }
 
+    /**
+     * Finds matches of binary data with mask.
+     */
+    @Nullable
+    private SearchMatches findMaskedDataMatches(BinaryData data, SearchParameters searchParameters, long candidatesStart, long candidatesEnd, SearchProgress progress) {
+        SearchCondition condition = searchParameters.getCondition();
         BinaryData searchData = condition.getBinaryData();
-        long searchDataSize = searchData.getDataSize();
-        BinaryData data = codeArea.getContentData();
+        BinaryData searchMask = condition.getBinaryMask();
+        int searchDataSize = (int) searchData.getDataSize();
+        byte[] pattern = new byte[searchDataSize];
+        searchData.copyToArray(0, pattern, 0, searchDataSize);
+        byte[] mask = new byte[searchDataSize];
+        if (searchMask == null) {
+            Arrays.fill(mask, (byte) 0xff);
+        } else {
+            searchMask.copyToArray(0, mask, 0, Math.min(searchDataSize, (int) searchMask.getDataSize()));
+        }
+        return findBytePatternMatches(data, searchParameters, candidatesStart, candidatesEnd, new MaskedPatternMatcher(pattern, mask), progress);
+    }
 
-        List<SearchMatch> foundMatches = new ArrayList<>();
+    /**
+     * Finds matches of byte pattern.
+     */
+    @Nullable
+    private SearchMatches findBytePatternMatches(BinaryData data, SearchParameters searchParameters, long candidatesStart, long candidatesEnd, BytePatternMatcher matcher, SearchProgress progress) {
+        int searchDataSize = matcher.getPatternLength();
+        maxMatchLength = searchDataSize;
+        return searchRanges(data, candidatesStart, candidatesEnd, searchDataSize - 1, searchParameters, progress, (scanner, rangeEnd, rangeMatches, matchesLimit, rangeProgress) -> {
+            switch (searchParameters.getSearchDirection()) {
+                case FORWARD: {
+                    if (!scanner.loadForward(scanner.getRangeStart())) {
+                        return true;
+                    }
+                    do {
+                        if (!rangeProgress.proceed(scanner, rangeMatches.size())) {
+                            return false;
+                        }
 
-        long dataSize = data.getDataSize();
-        while (position >= 0 && position <= dataSize - searchDataSize) {
-            int matchLength = 0;
-            while (matchLength < searchDataSize) {
-                if (data.getByte(position + matchLength) != searchData.getByte(matchLength)) {
-                    break;
+                        byte[] block = scanner.getBuffer();
+                        long blockPosition = scanner.getBlockPosition();
+                        int blockLength = scanner.getBlockLength();
+                        int matchPosition = matcher.findFirst(block, 0, blockLength);
+                        while (matchPosition >= 0) {
+                            rangeMatches.add(blockPosition + matchPosition, searchDataSize);
+                            if (rangeMatches.size() == matchesLimit) {
+                                return true;
+                            }
+                            matchPosition = matcher.findFirst(block, matchPosition + 1, blockLength);
+                        }
+                    } while (scanner.nextBlock());
+                    return true;
+                }
+                case BACKWARD: {
+                    if (!scanner.loadBackward(scanner.getRangeEnd())) {
+                        return true;
+                    }
+                    do {
+                        if (!rangeProgress.proceed(scanner, rangeMatches.size())) {
+                            return false;
+                        }
+
+                        byte[] block = scanner.getBuffer();
+                        long blockPosition = scanner.getBlockPosition();
+                        int blockLength = scanner.getBlockLength();
+                        int matchPosition = matcher.findLast(block, 0, blockLength);
+                        while (matchPosition >= 0) {
+                            rangeMatches.add(blockPosition + matchPosition, searchDataSize);
+                            if (rangeMatches.size() == matchesLimit) {
+                                return true;
+                            }
+                            matchPosition = matcher.findLast(block, 0, matchPosition + searchDataSize - 1);
+                        }
+                    } while (scanner.previousBlock());
+                    return true;
+                }
+                default:
+                    throw CodeAreaUtils.getInvalidTypeException(searchParameters.getSearchDirection());
+            }
+        });
+    }
+
+    /**
+     * Finds matches of numeric values.
+     */
+    @Nullable
+    private SearchMatches findNumericMatches(BinaryData data, SearchParameters searchParameters, long candidatesStart, long candidatesEnd, SearchProgress progress) {
+        NumericCondition numericCondition = searchParameters.getCondition().getNumericCondition();
+        NumericValueMatcher matcher = new NumericValueMatcher(numericCondition);
+        ByteOrder byteOrder = numericCondition.getByteOrder();
+        int valueLength = matcher.getValueLength();
+        maxMatchLength = valueLength;
+        return searchRanges(data, candidatesStart, candidatesEnd, valueLength - 1, searchParameters, progress, (scanner, rangeEnd, rangeMatches, matchesLimit, rangeProgress) -> {
+            switch (searchParameters.getSearchDirection()) {
+                case FORWARD: {
+                    if (!scanner.loadForward(scanner.getRangeStart())) {
+                        return true;
+                    }
+                    do {
+                        if (!rangeProgress.proceed(scanner, rangeMatches.size())) {
+                            return false;
+                        }
+
+                        ByteBuffer buffer = ByteBuffer.wrap(scanner.getBuffer()).order(byteOrder);
+                        long blockPosition = scanner.getBlockPosition();
+                        int blockLength = scanner.getBlockLength();
+                        int matchPosition = matcher.findFirst(buffer, blockPosition, 0, blockLength);
+                        while (matchPosition >= 0) {
+                            rangeMatches.add(blockPosition + matchPosition, valueLength);
+                            if (rangeMatches.size() == matchesLimit) {
+                                return true;
+                            }
+                            matchPosition = matcher.findFirst(buffer, blockPosition, matchPosition + 1, blockLength);
+                        }
+                    } while (scanner.nextBlock());
+                    return true;
                 }
-                matchLength++;
+                case BACKWARD: {
+                    if (!scanner.loadBackward(scanner.getRangeEnd())) {
+                        return true;
+                    }
+                    do {
+                        if (!rangeProgress.proceed(scanner, rangeMatches.size())) {
+                            return false;
+                        }
+
+                        ByteBuffer buffer = ByteBuffer.wrap(scanner.getBuffer()).order(byteOrder);
+                        long blockPosition = scanner.getBlockPosition();
+                        int blockLength = scanner.getBlockLength();
+                        int matchPosition = matcher.findLast(buffer, blockPosition, 0, blockLength);
+                        while (matchPosition >= 0) {
+                            rangeMatches.add(blockPosition + matchPosition, valueLength);
+                            if (rangeMatches.size() == matchesLimit) {
+                                return true;
+                            }
+                            matchPosition = matcher.findLast(buffer, blockPosition, 0, matchPosition + valueLength - 1);
+                        }
+                    } while (scanner.previousBlock());
+                    return true;
+                }
+                default:
+                    throw CodeAreaUtils.getInvalidTypeException(searchParameters.getSearchDirection());
+            }
+        });
+    }
+
+    /**
+     * Finds matches of multiple text and binary patterns.
+     */
+    @Nullable
+    private SearchMatches findMultiplePatternsMatches(BinaryData data, SearchParameters searchParameters, long candidatesStart, long candidatesEnd, SearchProgress progress) {
+        SearchCondition condition = searchParameters.getCondition();
+        MultiPatternMatcher matcher = MultiPatternMatcher.create(condition.getPatterns(), searchParameters.isMatchCase(), codeArea.getCharset());
+        int overlap = matcher.getMaxPatternLength() - 1;
+        maxMatchLength = overlap + 1;
+
+        return searchRanges(data, candidatesStart, candidatesEnd, overlap, searchParameters, progress, (scanner, rangeEnd, rangeMatches, matchesLimit, rangeProgress) -> {
+            boolean forward = searchParameters.getSearchDirection() == SearchParameters.SearchDirection.FORWARD;
+            if (forward ? !scanner.loadForward(scanner.getRangeStart()) : !scanner.loadBackward(scanner.getRangeEnd())) {
+                return true;
+            }
+            do {
+                if (!rangeProgress.proceed(scanner, rangeMatches.size())) {
+                    return false;
+                }
+
+                byte[] block = scanner.getBuffer();
+                long blockPosition = scanner.getBlockPosition();
+                int blockLength = scanner.getBlockLength();
+                int startsEnd = scanner.isLastBlock() ? blockLength : blockLength - overlap;
+                if (blockPosition + startsEnd > rangeEnd) {
+                    startsEnd = (int) (rangeEnd - blockPosition);
+                }
+                if (forward) {
+                    int limit = matchesLimit - rangeMatches.size();
+                    FirstMatchesCollector collector = new FirstMatchesCollector(blockPosition, limit, matcher.getMaxPatternLength());
+                    matcher.findMatches(block, 0, blockLength, startsEnd, collector);
+                    rangeMatches.addAll(collector.getMatches());
+                    if (rangeMatches.size() == matchesLimit) {
+                        return true;
+                    }
+                } else {
+                    int limit = matchesLimit - rangeMatches.size();
+                    LastMatchesCollector collector = new LastMatchesCollector(blockPosition, limit);
+                    matcher.findMatches(block, 0, blockLength, startsEnd, collector);
+                    SearchMatches blockMatches = collector.getMatches();
+                    blockMatches.reverse();
+                    rangeMatches.addAll(blockMatches);
+                    if (rangeMatches.size() == matchesLimit) {
+                        return true;
+                    }
+                }
+            } while (forward ? scanner.nextBlock() : scanner.previousBlock());
+            return true;
+        });
+    }
+
+    /**
+     * Finds matches of regular expression.
+     */
+    @Nullable
+    private SearchMatches findRegexMatches(BinaryData data, SearchParameters searchParameters, long candidatesStart, long candidatesEnd, SearchProgress progress) {
+        SearchCondition condition = searchParameters.getCondition();
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(condition.getSearchText(), searchParameters.isMatchCase() ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        } catch (PatternSyntaxException ex) {
+            return new SearchMatches();
+        }
+        Charset charset = codeArea.getCharset();
+        int overlap = RegexMatcher.MAX_MATCH_LENGTH;
+        maxMatchLength = overlap + 1;
+
+        return searchRanges(data, candidatesStart, candidatesEnd, overlap, searchParameters, progress, (scanner, rangeEnd, rangeMatches, matchesLimit, rangeProgress) -> {
+            boolean forward = searchParameters.getSearchDirection() == SearchParameters.SearchDirection.FORWARD;
+            if (forward ? !scanner.loadForward(scanner.getRangeStart()) : !scanner.loadBackward(scanner.getRangeEnd())) {
+                return true;
             }
+            RegexMatcher matcher = new RegexMatcher(pattern, charset);
+            do {
+                if (!rangeProgress.proceed(scanner, rangeMatches.size())) {
+                    return false;
+                }
 
-            if (matchLength == searchDataSize) {
-                SearchMatch match = new SearchMatch();
-                match.setPosition(position);
-                match.setLength(searchDataSize);
-                if (searchParameters.getSearchDirection() == SearchParameters.SearchDirection.BACKWARD) {
-                    foundMatches.add(0, match);
+                byte[] block = scanner.getBuffer();
+                long blockPosition = scanner.getBlockPosition();
+                int blockLength = scanner.getBlockLength();
+                int startsEnd = scanner.isLastBlock() ? blockLength : blockLength - overlap;
+                if (blockPosition + startsEnd > rangeEnd) {
+                    startsEnd = (int) (rangeEnd - blockPosition);
+                }
+                if (forward) {
+                    matcher.findMatches(block, blockLength, scanner.getPrecedingByte(), startsEnd, (matchPosition, length, patternTag) -> {
+                        rangeMatches.add(blockPosition + matchPosition, length, patternTag);
+                        return rangeMatches.size() < matchesLimit;
+                    });
+                    if (rangeMatches.size() == matchesLimit) {
+                        return true;
+                    }
                 } else {
-                    foundMatches.add(match);
+                    int limit = matchesLimit - rangeMatches.size();
+                    LastMatchesCollector collector = new LastMatchesCollector(blockPosition, limit);
+                    matcher.findMatches(block, blockLength, scanner.getPrecedingByte(), startsEnd, collector);
+                    SearchMatches blockMatches = collector.getMatches();
+                    blockMatches.reverse();
+                    rangeMatches.addAll(blockMatches);
+                    if (rangeMatches.size() == matchesLimit) {
+                        return true;
+                    }
+                }
+            } while (forward ? scanner.nextBlock() : scanner.previousBlock());
+            return true;
+        });
+    }
+
+    /**
+     * Searches for matches starting in given range of candidate positions.
+     * <p>
+     * Large ranges are split into parts processed concurrently, each with its
+     * own scanner. Parts are extended by overlap so that matches crossing the
+     * boundary are found in the part where they start. Results are merged in
+     * order of the position.
+     *
+     * @param data searched data
+     * @param candidatesStart first candidate position
+     * @param candidatesEnd end of candidate positions (exclusive)
+     * @param overlap maximum length of match minus one
+     * @param searchParameters search parameters
+     * @param progress search progress
+     * @param rangeSearch search in single range
+     * @return found matches or null if search was cancelled or data were
+     * modified during search
+     */
+    @Nullable
+    private SearchMatches searchRanges(BinaryData data, long candidatesStart, long candidatesEnd, int overlap, SearchParameters searchParameters, SearchProgress progress, RangeSearch rangeSearch) {
+        SearchMatches foundMatches = new SearchMatches();
+        long candidatesLength = candidatesEnd - candidatesStart;
+        if (candidatesLength <= 0) {
+            return foundMatches;
+        }
+
+        if (data instanceof DeltaDocument) {
+            // Snapshot avoids shared document pointer, modification is reported by exception
+            data = ((DeltaDocument) data).createSnapshot();
+        }
+        boolean forward = searchParameters.getSearchDirection() == SearchParameters.SearchDirection.FORWARD;
+        int matchesLimit = searchParameters.getMatchMode() == SearchParameters.MatchMode.SINGLE ? 1 : FoundMatches.MAX_MATCHES_COUNT;
+        long dataSize = data.getDataSize();
+        int rangesCount = (int) Math.min(Runtime.getRuntime().availableProcessors(), candidatesLength / PARALLEL_RANGE_MIN_SIZE);
+        if (rangesCount <= 1) {
+            progress.start(1, candidatesLength);
+            SearchDataScanner scanner = new SearchDataScanner(data, candidatesStart, Math.min(candidatesEnd + overlap, dataSize), overlap);
+            try {
+                if (!rangeSearch.search(scanner, candidatesEnd, foundMatches, matchesLimit, new RangeProgress(progress, 0, forward))) {
+                    return null;
                 }
+            } catch (ConcurrentModificationException ex) {
+                // Search is invoked again after modification
+                return null;
+            }
+            if (!forward) {
+                foundMatches.reverse();
+            }
+            return foundMatches;
+        }
+
+        progress.start(rangesCount, candidatesLength);
+        long rangeLength = (candidatesLength + rangesCount - 1) / rangesCount;
+        List<Future<SearchMatches>> rangeResults = new ArrayList<>();
+        ExecutorService executor = getSearchExecutor();
+        for (int index = 0; index < rangesCount; index++) {
+            // Ranges are submitted in order of search direction
+            int rangeIndex = forward ? index : rangesCount - 1 - index;
+            long rangeStart = candidatesStart + rangeIndex * rangeLength;
+            long rangeEnd = Math.min(rangeStart + rangeLength, candidatesEnd);
+            SearchDataScanner scanner = new SearchDataScanner(data, rangeStart, Math.min(rangeEnd + overlap, dataSize), overlap);
+            RangeProgress rangeProgress = new RangeProgress(progress, index, forward);
+            rangeResults.add(executor.submit(() -> {
+                SearchMatches rangeMatches = new SearchMatches();
+                rangeSearch.search(scanner, rangeEnd, rangeMatches, matchesLimit, rangeProgress);
+                return rangeMatches;
+            }));
+        }
 
-                if (foundMatches.size() == MAX_MATCHES_COUNT || searchParameters.getMatchMode() == SearchParameters.MatchMode.SINGLE) {
+        try {
+            // Matches of backward search are merged in descending order
+            for (int index = 0; index < rangesCount; index++) {
+                SearchMatches rangeMatches = rangeResults.get(index).get();
+                if (progress.isRequestCancelled()) {
+                    return null;
+                }
+                foundMatches.addAll(rangeMatches);
+                if (foundMatches.size() >= matchesLimit) {
                     break;
                 }
+                if (progress.isPublishingPartialMatches() && index < rangesCount - 1 && !foundMatches.isEmpty()) {
+                    publishPartialMatches(foundMatches, forward, progress);
+                }
             }
+        } catch (InterruptedException ex) {
+            return null;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof ConcurrentModificationException) {
+                // Search is invoked again after modification
+                return null;
+            }
+            throw new RuntimeException("Error while searching data", ex.getCause());
+        } finally {
+            // Workers are stopped by flag, interrupting would close file channels
+            progress.cancel();
+            for (Future<SearchMatches> rangeResult : rangeResults) {
+                rangeResult.cancel(false);
+            }
+        }
 
-            position++;
+        if (foundMatches.size() > matchesLimit) {
+            foundMatches.removeRange(matchesLimit, foundMatches.size());
+        }
+        if (!forward) {
+            foundMatches.reverse();
+        }
+        return foundMatches;
+    }
+
+    /**
+     * Passes matches of already completed ranges to highlighting.
+     * <p>
+     * Matches are read by painting, so they are replaced on UI thread.
+     */
+    private void publishPartialMatches(SearchMatches foundMatches, boolean forward, SearchProgress progress) {
+        SearchMatches partialMatches = new SearchMatches();
+        partialMatches.addAll(foundMatches);
+        if (!forward) {
+            partialMatches.reverse();
         }
+        codeArea.post(() -> {
+            synchronized (this) {
+                if (progress.isRequestCancelled()) {
+                    return;
+                }
+                matchesTracked = false;
+            }
+            SearchCodeAreaColorAssessor searchAssessor = CodeAreaAndroidUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
+            searchAssessor.setMatches(partialMatches);
+            codeArea.repaint();
+        });
+    }
+
+    /**
+     * Passes found matches to highlighting and reveals the first match.
+     * <p>
+     * Matches are read by painting, so they are replaced on UI thread.
+     */
+    private void applyFoundMatches(SearchParameters searchParameters, SearchStatusListener searchStatusListener, SearchMatches foundMatches, int searchEditsCount, CancellationToken cancellationToken) {
+        SearchParameters appliedParameters = new SearchParameters();
+        appliedParameters.setFromParameters(searchParameters);
+        codeArea.post(() -> {
+            SearchCodeAreaColorAssessor searchAssessor = CodeAreaAndroidUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
+            synchronized (this) {
+                if (cancellationToken.isCancelled()) {
+                    return;
+                }
+
+                searchAssessor.setMatches(foundMatches);
+                if (!foundMatches.isEmpty()) {
+                    if (appliedParameters.getSearchDirection() == SearchParameters.SearchDirection.BACKWARD) {
+                        searchAssessor.setCurrentMatchIndex(foundMatches.size() - 1);
+                    } else {
+                        searchAssessor.setCurrentMatchIndex(0);
+                    }
+                }
+                lastSearchParameters.setFromParameters(appliedParameters);
+                // Matches can be updated by edits only if they are complete and still match the data
+                matchesTracked = observedDocument != null && searchEditsCount == editsCount
+                        && appliedParameters.getMatchMode() == SearchParameters.MatchMode.MULTIPLE && foundMatches.size() < FoundMatches.MAX_MATCHES_COUNT;
+                rescanStart = 0;
+                rescanEnd = 0;
+            }
+            if (!foundMatches.isEmpty()) {
+                codeArea.revealPosition(foundMatches.getPosition(searchAssessor.getCurrentMatchIndex()), 0, codeArea.getActiveSection());
+            }
+            searchStatusListener.setStatus(createFoundMatches(foundMatches.size(), foundMatches.isEmpty() ? -1 : searchAssessor.getCurrentMatchIndex()), appliedParameters.getMatchMode());
+            codeArea.repaint();
+        });
+    }
+
+    @Override
+    public boolean performRescan(SearchStatusListener searchStatusListener, CancellationToken cancellationToken) {
+        BinaryData data = codeArea.getContentData();
+        long dataSize = data.getDataSize();
+        SearchParameters rescanParameters = new SearchParameters();
+        long candidatesStart;
+        long candidatesEnd;
+        int rescanEditsCount;
+        synchronized (this) {
+            if (!matchesTracked || observedDocument != data) {
+                return false;
+            }
+            if (rescanEnd <= rescanStart) {
+                return true;
+            }
 
-        searchAssessor.setMatches(foundMatches);
-        if (!foundMatches.isEmpty()) {
-            if (searchParameters.getSearchDirection() == SearchParameters.SearchDirection.BACKWARD) {
-                searchAssessor.setCurrentMatchIndex(foundMatches.size() - 1);
+            rescanParameters.setFromParameters(lastSearchParameters);
+            long startPosition = lastSearchParameters.getStartPosition();
+            if (lastSearchParameters.getSearchDirection() == SearchParameters.SearchDirection.FORWARD) {
+                candidatesStart = Math.max(rescanStart, startPosition);
+                candidatesEnd = Math.min(rescanEnd, dataSize);
             } else {
-                searchAssessor.setCurrentMatchIndex(0);
+                candidatesStart = rescanStart;
+                candidatesEnd = Math.min(rescanEnd, Math.min(startPosition + 1, dataSize));
             }
-            SearchMatch firstMatch = Objects.requireNonNull(searchAssessor.getCurrentMatch());
-            codeArea.revealPosition(firstMatch.getPosition(), 0, codeArea.getActiveSection());
+            rescanEditsCount = editsCount;
         }
-        lastSearchParameters.setFromParameters(searchParameters);
-        searchStatusListener.setStatus(new FoundMatches(foundMatches.size(), foundMatches.isEmpty() ? -1 : searchAssessor.getCurrentMatchIndex()), searchParameters.getMatchMode());
-        codeArea.repaint();
+
+        SearchMatches rangeMatches;
+        if (candidatesStart < candidatesEnd) {
+            rescanParameters.setSearchDirection(SearchParameters.SearchDirection.FORWARD);
+            rangeMatches = findMatches(data, rescanParameters, candidatesStart, candidatesEnd, new SearchProgress(searchStatusListener, cancellationToken, false));
+            if (rangeMatches == null) {
+                return true;
+            }
+        } else {
+            rangeMatches = new SearchMatches();
+        }
+
+        // Matches are read by painting, so they are updated on UI thread
+        SearchMatches foundRangeMatches = rangeMatches;
+        codeArea.post(() -> {
+            SearchCodeAreaColorAssessor searchAssessor = CodeAreaAndroidUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
+            FoundMatches foundMatches;
+            synchronized (this) {
+                if (cancellationToken.isCancelled() || !matchesTracked || rescanEditsCount != editsCount) {
+                    // Data was modified meanwhile, pending range is searched on next change
+                    return;
+                }
+
+                SearchMatches matches = searchAssessor.getMatches();
+                int currentMatchIndex = searchAssessor.getCurrentMatchIndex();
+                int fromIndex = matches.findFirstStartingFrom(rescanStart);
+                int toIndex = matches.findFirstStartingFrom(rescanEnd);
+                matches.replaceRange(fromIndex, toIndex, foundRangeMatches);
+                if (currentMatchIndex >= toIndex) {
+                    currentMatchIndex += foundRangeMatches.size() - (toIndex - fromIndex);
+                } else if (currentMatchIndex >= fromIndex) {
+                    currentMatchIndex = Math.min(fromIndex, matches.size() - 1);
+                }
+                searchAssessor.setMatches(matches);
+                searchAssessor.setCurrentMatchIndex(currentMatchIndex);
+                matchesTracked = matches.size() < FoundMatches.MAX_MATCHES_COUNT;
+                rescanStart = 0;
+                rescanEnd = 0;
+                foundMatches = createFoundMatches(matches.size(), matches.isEmpty() ? -1 : currentMatchIndex);
+            }
+            searchStatusListener.setStatus(foundMatches, lastSearchParameters.getMatchMode());
+            codeArea.repaint();
+        });
+        return true;
     }
 
     /**
-     * Performs search by text/characters.
+     * Starts observing modifications of given data.
+     *
+     * @return current count of observed edits
      */
-    private void searchForText(SearchParameters searchParameters, SearchStatusListener searchStatusListener) {
+    private synchronized int observeData(BinaryData data) {
+        if (data != observedDocument) {
+            if (observedDocument != null) {
+                observedDocument.removeEditListener(documentEditListener);
+                observedDocument = null;
+            }
+            if (data instanceof DeltaDocument) {
+                observedDocument = (DeltaDocument) data;
+                observedDocument.addEditListener(documentEditListener);
+            }
+            matchesTracked = false;
+        }
+        return editsCount;
+    }
+
+    /**
+     * Updates matches after modification of the data.
+     * <p>
+     * Following matches are shifted, matches which can be affected by the
+     * modification are removed and their range is marked for search again.
+     */
+    private synchronized void dataEdited(long position, long removedLength, long insertedLength) {
+        editsCount++;
+        if (!matchesTracked) {
+            return;
+        }
+
         SearchCodeAreaColorAssessor searchAssessor = CodeAreaAndroidUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
-        SearchCondition condition = searchParameters.getCondition();
+        SearchMatches matches = searchAssessor.getMatches();
+        int currentMatchIndex = searchAssessor.getCurrentMatchIndex();
+        // Match can depend on preceding and following data up to its maximum length
+        long affectedStart = Math.max(position - maxMatchLength, 0);
+        int fromIndex = matches.findFirstStartingFrom(affectedStart);
+        int toIndex = matches.findFirstStartingFrom(position + removedLength + 1);
+        matches.removeRange(fromIndex, toIndex);
+        matches.shiftPositions(fromIndex, insertedLength - removedLength);
+        if (currentMatchIndex >= toIndex) {
+            currentMatchIndex -= toIndex - fromIndex;
+        } else if (currentMatchIndex >= fromIndex) {
+            currentMatchIndex = Math.min(fromIndex, matches.size() - 1);
+        }
+        searchAssessor.setMatches(matches);
+        searchAssessor.setCurrentMatchIndex(currentMatchIndex);
 
-        long position = searchParameters.getStartPosition();
-        String findText;
-        if (searchParameters.isMatchCase()) {
-            findText = condition.getSearchText();
+        lastSearchParameters.setStartPosition(shiftPosition(lastSearchParameters.getStartPosition(), position, removedLength, insertedLength));
+        long affectedEnd = position + insertedLength + 1;
+        if (rescanEnd > rescanStart) {
+            rescanStart = Math.min(shiftPosition(rescanStart, position, removedLength, insertedLength), affectedStart);
+            rescanEnd = Math.max(shiftPosition(rescanEnd, position, removedLength, insertedLength), affectedEnd);
         } else {
-            findText = condition.getSearchText().toLowerCase();
+            rescanStart = affectedStart;
+            rescanEnd = affectedEnd;
         }
-        long searchDataSize = findText.length();
-        BinaryData data = codeArea.getContentData();
+    }
+
+    /**
+     * Counts edits of data which does not report its modifications.
+     * <p>
+     * Edits of delta document are counted by its edit listener.
+     */
+    private synchronized void dataChanged() {
+        if (observedDocument == null) {
+            editsCount++;
+        }
+    }
 
-        List<SearchMatch> foundMatches = new ArrayList<>();
+    /**
+     * Creates status of found matches, reporting if the search stopped at the
+     * limit of matches count.
+     */
+    private static FoundMatches createFoundMatches(int matchesCount, int matchPosition) {
+        FoundMatches foundMatches = new FoundMatches(matchesCount, matchPosition);
+        foundMatches.setLimitReached(matchesCount >= FoundMatches.MAX_MATCHES_COUNT);
+        return foundMatches;
+    }
 
-        Charset charset = codeArea.getCharset();
+    private static long shiftPosition(long target, long position, long removedLength, long insertedLength) {
+        if (target >= position + removedLength) {
+            return target + insertedLength - removedLength;
+        }
+        return Math.min(target, position);
+    }
+
+    private static synchronized ExecutorService getSearchExecutor() {
+        if (searchExecutor == null) {
+            searchExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "SearchWorkerThread");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return searchExecutor;
+    }
+
+    private static BytePatternMatcher createPatternMatcher(byte[] pattern, SearchParameters searchParameters) {
+        int maxMismatches = searchParameters.getMaxMismatches();
+        if (maxMismatches > 0) {
+            return new ApproximatePatternMatcher(pattern, maxMismatches, searchParameters.getMismatchUnit() == SearchParameters.MismatchUnit.BIT);
+        }
+        if (pattern.length == 1) {
+            return new SingleBytePatternMatcher(pattern[0]);
+        }
+
+        return new HorspoolPatternMatcher(pattern);
+    }
+
+    /**
+     * Returns true if allowed differences are supported for text search.
+     * <p>
+     * Differences are counted only when text is matched as exact sequence of
+     * encoded bytes, case insensitive and decoding matchers ignore them.
+     *
+     * @param findText searched text
+     * @param matchCase true for case sensitive matching
+     * @param charset charset
+     * @return true if differences are supported
+     */
+    public static boolean isTextMismatchesSupported(String findText, boolean matchCase, Charset charset) {
+        return matchCase && EncodedTextMatcher.create(findText, true, charset) != null;
+    }
+
+    private static TextMatcher createDecodingTextMatcher(String findText, boolean matchCase, Charset charset) {
         int maxBytesPerChar;
         try {
             CharsetEncoder encoder = charset.newEncoder();
@@ -193,96 +838,101 @@ public class BinarySearchServiceImpl implements BinarySearchService {
         } catch (UnsupportedOperationException ex) {
             maxBytesPerChar = CharsetStreamTranslator.DEFAULT_MAX_BYTES_PER_CHAR;
         }
-        byte[] charData = new byte[maxBytesPerChar];
-        long dataSize = data.getDataSize();
-        long lastPosition = position;
-        while (position >= 0 && position <= dataSize - searchDataSize) {
-            int matchCharLength = 0;
-            int matchLength = 0;
-            while (matchCharLength < searchDataSize) {
-                if (Thread.interrupted()) {
-                    return;
-                }
+        return new DecodingTextMatcher(findText, matchCase, charset, maxBytesPerChar);
+    }
 
-                long searchPosition = position + matchLength;
-                int bytesToUse = maxBytesPerChar;
-                if (searchPosition + bytesToUse > dataSize) {
-                    bytesToUse = (int) (dataSize - searchPosition);
-                }
+    /**
+     * Finds matches of text/characters.
+     */
+    @Nullable
+    private SearchMatches findTextMatches(BinaryData data, SearchParameters searchParameters, long candidatesStart, long candidatesEnd, SearchProgress progress) {
+        SearchCondition condition = searchParameters.getCondition();
 
-                if (searchPosition == lastPosition + 1) {
-                    System.arraycopy(charData, 1, charData, 0, maxBytesPerChar - 1);
-                    charData[bytesToUse - 1] = searchPosition + bytesToUse - 1 < dataSize ? data.getByte(searchPosition + bytesToUse - 1) : 0;
-                } else if (searchPosition == lastPosition - 1) {
-                    System.arraycopy(charData, 0, charData, 1, maxBytesPerChar - 1);
-                    charData[0] = data.getByte(searchPosition);
-                } else {
-                    data.copyToArray(searchPosition, charData, 0, bytesToUse);
-                }
-                if (bytesToUse < maxBytesPerChar) {
-                    Arrays.fill(charData, bytesToUse, maxBytesPerChar, (byte) 0);
-                }
-                lastPosition = searchPosition;
-                char singleChar = new String(charData, charset).charAt(0);
+        String findText;
+        if (searchParameters.isMatchCase()) {
+            findText = condition.getSearchText();
+        } else {
+            findText = condition.getSearchText().toLowerCase();
+        }
 
-                if (searchParameters.isMatchCase()) {
-                    if (singleChar != findText.charAt(matchCharLength)) {
-                        break;
-                    }
-                } else if (Character.toLowerCase(singleChar) != findText.charAt(matchCharLength)) {
-                    break;
-                }
-                int characterLength = String.valueOf(singleChar).getBytes(charset).length;
-                matchCharLength++;
-                matchLength += characterLength;
+        Charset charset = codeArea.getCharset();
+        EncodedTextMatcher encodedMatcher = EncodedTextMatcher.create(findText, searchParameters.isMatchCase(), charset);
+        if (encodedMatcher != null) {
+            byte[] pattern = encodedMatcher.getPattern();
+            if (pattern != null) {
+                return findBytePatternMatches(data, searchParameters, candidatesStart, candidatesEnd, createPatternMatcher(pattern, searchParameters), progress);
             }
-
-            if (matchCharLength == findText.length()) {
-                SearchMatch match = new SearchMatch();
-                match.setPosition(position);
-                match.setLength(matchLength);
-                if (searchParameters.getSearchDirection() == SearchParameters.SearchDirection.BACKWARD) {
-                    foundMatches.add(0, match);
-                } else {
-                    foundMatches.add(match);
-                }
-
-                if (foundMatches.size() == MAX_MATCHES_COUNT || searchParameters.getMatchMode() == SearchParameters.MatchMode.SINGLE) {
-                    break;
-                }
+            FoldingPatternMatcher foldingMatcher = encodedMatcher.createFoldingMatcher();
+            if (foldingMatcher != null) {
+                return findBytePatternMatches(data, searchParameters, candidatesStart, candidatesEnd, foldingMatcher, progress);
             }
+        }
+        TextMatcher matcher = encodedMatcher != null ? encodedMatcher : createDecodingTextMatcher(findText, searchParameters.isMatchCase(), charset);
+        int overlap = matcher.getMaxMatchLength() - 1;
+        maxMatchLength = overlap + 1;
 
+        return searchRanges(data, candidatesStart, candidatesEnd, overlap, searchParameters, progress, (scanner, rangeEnd, rangeMatches, matchesLimit, rangeProgress) -> {
             switch (searchParameters.getSearchDirection()) {
                 case FORWARD: {
-                    position++;
-                    break;
+                    if (!scanner.loadForward(scanner.getRangeStart())) {
+                        return true;
+                    }
+                    do {
+                        if (!rangeProgress.proceed(scanner, rangeMatches.size())) {
+                            return false;
+                        }
+
+                        byte[] block = scanner.getBuffer();
+                        long blockPosition = scanner.getBlockPosition();
+                        int blockLength = scanner.getBlockLength();
+                        int blockCandidatesEnd = scanner.isLastBlock() ? blockLength : blockLength - overlap;
+                        if (blockPosition + blockCandidatesEnd > rangeEnd) {
+                            blockCandidatesEnd = (int) (rangeEnd - blockPosition);
+                        }
+                        for (int candidate = 0; candidate < blockCandidatesEnd; candidate++) {
+                            int matchLength = matcher.matchAt(block, candidate, blockLength);
+                            if (matchLength >= 0) {
+                                rangeMatches.add(blockPosition + candidate, matchLength);
+                                if (rangeMatches.size() == matchesLimit) {
+                                    return true;
+                                }
+                            }
+                        }
+                    } while (scanner.nextBlock());
+                    return true;
                 }
                 case BACKWARD: {
-                    position--;
-                    break;
+                    if (!scanner.loadBackward(scanner.getRangeEnd())) {
+                        return true;
+                    }
+                    do {
+                        if (!rangeProgress.proceed(scanner, rangeMatches.size())) {
+                            return false;
+                        }
+
+                        byte[] block = scanner.getBuffer();
+                        long blockPosition = scanner.getBlockPosition();
+                        int blockLength = scanner.getBlockLength();
+                        int blockCandidatesEnd = scanner.isLastBlock() ? blockLength : blockLength - overlap;
+                        if (blockPosition + blockCandidatesEnd > rangeEnd) {
+                            blockCandidatesEnd = (int) (rangeEnd - blockPosition);
+                        }
+                        for (int candidate = blockCandidatesEnd - 1; candidate >= 0; candidate--) {
+                            int matchLength = matcher.matchAt(block, candidate, blockLength);
+                            if (matchLength >= 0) {
+                                rangeMatches.add(blockPosition + candidate, matchLength);
+                                if (rangeMatches.size() == matchesLimit) {
+                                    return true;
+                                }
+                            }
+                        }
+                    } while (scanner.previousBlock());
+                    return true;
                 }
                 default:
                     throw CodeAreaUtils.getInvalidTypeException(searchParameters.getSearchDirection());
             }
-        }
-
-        if (Thread.interrupted()) {
-            return;
-        }
-
-        searchAssessor.setMatches(foundMatches);
-        if (!foundMatches.isEmpty()) {
-            if (searchParameters.getSearchDirection() == SearchParameters.SearchDirection.BACKWARD) {
-                searchAssessor.setCurrentMatchIndex(foundMatches.size() - 1);
-            } else {
-                searchAssessor.setCurrentMatchIndex(0);
-            }
-            SearchMatch firstMatch = searchAssessor.getCurrentMatch();
-            codeArea.revealPosition(firstMatch.getPosition(), 0, codeArea.getActiveSection());
-        }
-        lastSearchParameters.setFromParameters(searchParameters);
-        searchStatusListener.setStatus(new FoundMatches(foundMatches.size(), foundMatches.isEmpty() ? -1 : searchAssessor.getCurrentMatchIndex()), searchParameters.getMatchMode());
-        codeArea.repaint();
+        });
     }
 
     public void setMatchPosition(int matchPosition) {
@@ -294,9 +944,9 @@ public class BinarySearchServiceImpl implements BinarySearchService {
     }
 
     @Override
-    public void performFindAgain(SearchStatusListener searchStatusListener) {
+    public void performFindAgain(SearchStatusListener searchStatusListener, CancellationToken cancellationToken) {
         SearchCodeAreaColorAssessor searchAssessor = CodeAreaAndroidUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
-        List<SearchMatch> foundMatches = searchAssessor.getMatches();
+        SearchMatches foundMatches = searchAssessor.getMatches();
         int matchesCount = foundMatches.size();
         if (matchesCount > 0) {
             switch (lastSearchParameters.getMatchMode()) {
@@ -304,34 +954,21 @@ public class BinarySearchServiceImpl implements BinarySearchService {
                     if (matchesCount > 1) {
                         int currentMatchIndex = searchAssessor.getCurrentMatchIndex();
                         setMatchPosition(currentMatchIndex < matchesCount - 1 ? currentMatchIndex + 1 : 0);
-                        searchStatusListener.setStatus(new FoundMatches(foundMatches.size(), searchAssessor.getCurrentMatchIndex()), lastSearchParameters.getMatchMode());
+                        searchStatusListener.setStatus(createFoundMatches(foundMatches.size(), searchAssessor.getCurrentMatchIndex()), lastSearchParameters.getMatchMode());
                     }
 
                     break;
                 case SINGLE:
                     switch (lastSearchParameters.getSearchDirection()) {
                         case FORWARD:
-                            lastSearchParameters.setStartPosition(foundMatches.get(0).getPosition() + 1);
+                            lastSearchParameters.setStartPosition(foundMatches.getPosition(0) + 1);
                             break;
                         case BACKWARD:
-                            SearchMatch match = foundMatches.get(0);
-                            lastSearchParameters.setStartPosition(match.getPosition() - 1);
+                            lastSearchParameters.setStartPosition(foundMatches.getPosition(0) - 1);
                             break;
                     }
 
-                    SearchCondition condition = lastSearchParameters.getCondition();
-                    switch (condition.getSearchMode()) {
-                        case TEXT: {
-                            searchForText(lastSearchParameters, searchStatusListener);
-                            break;
-                        }
-                        case BINARY: {
-                            searchForBinaryData(lastSearchParameters, searchStatusListener);
-                            break;
-                        }
-                        default:
-                            throw CodeAreaUtils.getInvalidTypeException(condition.getSearchMode());
-                    }
+                    performSearch(lastSearchParameters, searchStatusListener, cancellationToken);
                     break;
             }
         }
@@ -343,6 +980,7 @@ public class BinarySearchServiceImpl implements BinarySearchService {
         SearchCodeAreaColorAssessor searchAssessor = CodeAreaAndroidUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
         SearchMatch currentMatch = searchAssessor.getCurrentMatch();
         if (currentMatch != null) {
+            searchAssessor.getMatches().remove(searchAssessor.getCurrentMatchIndex());
             EditableBinaryData editableData = ((EditableBinaryData) codeArea.getContentData());
             editableData.remove(currentMatch.getPosition(), currentMatch.getLength());
             if (replaceCondition.getSearchMode() == SearchCondition.SearchMode.BINARY) {
@@ -350,11 +988,109 @@ public class BinarySearchServiceImpl implements BinarySearchService {
             } else {
                 editableData.insert(currentMatch.getPosition(), replaceCondition.getSearchText().getBytes(codeArea.getCharset()));
             }
-            searchAssessor.getMatches().remove(currentMatch);
             codeArea.repaint();
         }
     }
 
+    @Override
+    public void performReplaceAll(SearchParameters searchParameters, ReplaceParameters replaceParameters, SearchStatusListener searchStatusListener, CancellationToken cancellationToken) {
+        searchStatusListener.clearStatus();
+        if (searchParameters.getCondition().isEmpty()) {
+            return;
+        }
+
+        BinaryData data = codeArea.getContentData();
+        int searchEditsCount = observeData(data);
+        long dataSize = data.getDataSize();
+        SearchParameters replaceAllParameters = new SearchParameters();
+        replaceAllParameters.setFromParameters(searchParameters);
+        replaceAllParameters.setSearchDirection(SearchParameters.SearchDirection.FORWARD);
+        replaceAllParameters.setMatchMode(SearchParameters.MatchMode.MULTIPLE);
+
+        SearchCondition replaceCondition = replaceParameters.getCondition();
+        byte[] replacement;
+        if (replaceCondition.getSearchMode() == SearchCondition.SearchMode.BINARY) {
+            BinaryData replacementData = replaceCondition.getBinaryData();
+            replacement = new byte[(int) replacementData.getDataSize()];
+            replacementData.copyToArray(0, replacement, 0, replacement.length);
+        } else {
+            replacement = replaceCondition.getSearchText().getBytes(codeArea.getCharset());
+        }
+
+        // Overlapping matches are skipped, data is replaced from the first match
+        long[] positions = new long[0];
+        long[] removedLengths = new long[0];
+        long[] insertedLengths = new long[0];
+        EditableBinaryData insertedData = new JnaBufferPagedData();
+        int count = 0;
+        long previousEnd = 0;
+        while (true) {
+            // Matches are collected in batches limited by the size of match store, progress is stopped after each batch
+            SearchMatches foundMatches = findMatches(data, replaceAllParameters, previousEnd, dataSize, new SearchProgress(searchStatusListener, cancellationToken, false));
+            if (foundMatches == null || cancellationToken.isCancelled()) {
+                insertedData.dispose();
+                return;
+            }
+
+            int matchesCount = foundMatches.size();
+            if (count + matchesCount > positions.length) {
+                int capacity = Math.max(count + matchesCount, positions.length * 2);
+                positions = Arrays.copyOf(positions, capacity);
+                removedLengths = Arrays.copyOf(removedLengths, capacity);
+                insertedLengths = Arrays.copyOf(insertedLengths, capacity);
+            }
+            for (int i = 0; i < matchesCount; i++) {
+                long position = foundMatches.getPosition(i);
+                if (position < previousEnd) {
+                    continue;
+                }
+
+                positions[count] = position;
+                removedLengths[count] = foundMatches.getLength(i);
+                insertedLengths[count] = replacement.length;
+                insertedData.insert(insertedData.getDataSize(), replacement);
+                // Empty match still moves start of the next batch
+                previousEnd = position + Math.max(removedLengths[count], 1);
+                count++;
+            }
+
+            if (matchesCount < FoundMatches.MAX_MATCHES_COUNT || previousEnd >= dataSize) {
+                break;
+            }
+        }
+        if (count == 0) {
+            insertedData.dispose();
+            return;
+        }
+
+        ReplaceDataCommand command = new ReplaceDataCommand(codeArea, Arrays.copyOf(positions, count), Arrays.copyOf(removedLengths, count), insertedData, Arrays.copyOf(insertedLengths, count));
+        codeArea.post(() -> {
+            int currentEditsCount;
+            synchronized (this) {
+                currentEditsCount = editsCount;
+            }
+            if (codeArea.getContentData() != data || data.getDataSize() != dataSize || currentEditsCount != searchEditsCount) {
+                // Data was modified meanwhile
+                command.dispose();
+                return;
+            }
+
+            clearMatches();
+            undoRedo.execute(command);
+            codeArea.repaint();
+        });
+    }
+
+    @Override
+    public synchronized void dispose() {
+        codeArea.removeDataChangedListener(dataChangedListener);
+        if (observedDocument != null) {
+            observedDocument.removeEditListener(documentEditListener);
+            observedDocument = null;
+        }
+        matchesTracked = false;
+    }
+
     @Override
     public SearchParameters getLastSearchParameters() {
         return lastSearchParameters;
@@ -362,7 +1098,222 @@ public class BinarySearchServiceImpl implements BinarySearchService {
 
     @Override
     public void clearMatches() {
-        SearchCodeAreaColorAssessor searchAssessor = CodeAreaAndroidUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
-        searchAssessor.clearMatches();
+        synchronized (this) {
+            matchesTracked = false;
+        }
+        // Matches are read by painting, so they are cleared on UI thread
+        codeArea.post(() -> {
+            SearchCodeAreaColorAssessor searchAssessor = CodeAreaAndroidUtils.findColorAssessor((ColorAssessorPainterCapable) codeArea.getPainter(), SearchCodeAreaColorAssessor.class);
+            searchAssessor.clearMatches();
+            codeArea.repaint();
+        });
+    }
+
+    /**
+     * Collector of matches with lowest positions from matches reported in
+     * order of their end positions.
+     */
+    private static class FirstMatchesCollector implements MultiPatternMatcher.MatchListener {
+
+        private final long blockPosition;
+        private final int limit;
+        private final int maxPatternLength;
+        private final SearchMatches matches = new SearchMatches();
+        private long boundary = Long.MAX_VALUE;
+
+        public FirstMatchesCollector(long blockPosition, int limit, int maxPatternLength) {
+            this.blockPosition = blockPosition;
+            this.limit = limit;
+            this.maxPatternLength = maxPatternLength;
+        }
+
+        @Override
+        public boolean matchFound(int position, int length, int patternTag) {
+            long matchPosition = blockPosition + position;
+            if (matchPosition + length - maxPatternLength > boundary) {
+                // All remaining matches start after already collected matches
+                return false;
+            }
+
+            matches.add(matchPosition, length, patternTag);
+            if (matches.size() >= limit * 2) {
+                trim();
+            }
+            return true;
+        }
+
+        private void trim() {
+            matches.sort();
+            if (matches.size() > limit) {
+                matches.removeRange(limit, matches.size());
+            }
+            if (matches.size() == limit) {
+                boundary = matches.getPosition(limit - 1);
+            }
+        }
+
+        public SearchMatches getMatches() {
+            trim();
+            return matches;
+        }
+    }
+
+    /**
+     * Collector of matches with highest positions.
+     */
+    private static class LastMatchesCollector implements MultiPatternMatcher.MatchListener {
+
+        private final long blockPosition;
+        private final int limit;
+        private final SearchMatches matches = new SearchMatches();
+
+        public LastMatchesCollector(long blockPosition, int limit) {
+            this.blockPosition = blockPosition;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean matchFound(int position, int length, int patternTag) {
+            matches.add(blockPosition + position, length, patternTag);
+            if (matches.size() >= limit * 2) {
+                trim();
+            }
+            return true;
+        }
+
+        private void trim() {
+            matches.sort();
+            if (matches.size() > limit) {
+                matches.removeRange(0, matches.size() - limit);
+            }
+        }
+
+        public SearchMatches getMatches() {
+            trim();
+            return matches;
+        }
     }
+
+    /**
+     * Progress of the search shared by searches in ranges.
+     */
+    private static class SearchProgress {
+
+        private final SearchStatusListener searchStatusListener;
+        private final CancellationToken cancellationToken;
+        private final boolean publishPartialMatches;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final AtomicLong lastReportTime = new AtomicLong(System.currentTimeMillis());
+        private AtomicLongArray processedBytes = new AtomicLongArray(1);
+        private AtomicIntegerArray matchesCounts = new AtomicIntegerArray(1);
+        private long totalBytes;
+
+        public SearchProgress(SearchStatusListener searchStatusListener, CancellationToken cancellationToken, boolean publishPartialMatches) {
+            this.searchStatusListener = searchStatusListener;
+            this.cancellationToken = cancellationToken;
+            this.publishPartialMatches = publishPartialMatches;
+        }
+
+        public void start(int rangesCount, long totalBytes) {
+            processedBytes = new AtomicLongArray(rangesCount);
+            matchesCounts = new AtomicIntegerArray(rangesCount);
+            this.totalBytes = totalBytes;
+        }
+
+        /**
+         * Records progress of the range and reports overall progress if
+         * reporting interval elapsed.
+         *
+         * @param rangeIndex range index
+         * @param rangeProcessedBytes count of processed bytes in range
+         * @param rangeMatchesCount count of matches found in range
+         * @return false if search was cancelled
+         */
+        public boolean update(int rangeIndex, long rangeProcessedBytes, int rangeMatchesCount) {
+            if (cancelled.get() || cancellationToken.isCancelled()) {
+                return false;
+            }
+
+            processedBytes.set(rangeIndex, rangeProcessedBytes);
+            matchesCounts.set(rangeIndex, rangeMatchesCount);
+            long time = System.currentTimeMillis();
+            long reportTime = lastReportTime.get();
+            if (time - reportTime >= PROGRESS_REPORT_INTERVAL && lastReportTime.compareAndSet(reportTime, time)) {
+                long processed = 0;
+                int matchesCount = 0;
+                for (int i = 0; i < processedBytes.length(); i++) {
+                    processed += processedBytes.get(i);
+                    matchesCount += matchesCounts.get(i);
+                }
+                searchStatusListener.setProgress(Math.min(processed, totalBytes), totalBytes, matchesCount);
+            }
+            return true;
+        }
+
+        public boolean isPublishingPartialMatches() {
+            return publishPartialMatches;
+        }
+
+        public void cancel() {
+            cancelled.set(true);
+        }
+
+        public boolean isRequestCancelled() {
+            return cancellationToken.isCancelled();
+        }
+    }
+
+    /**
+     * Progress of the search in single range.
+     */
+    private static class RangeProgress {
+
+        private final SearchProgress progress;
+        private final int rangeIndex;
+        private final boolean forward;
+
+        public RangeProgress(SearchProgress progress, int rangeIndex, boolean forward) {
+            this.progress = progress;
+            this.rangeIndex = rangeIndex;
+            this.forward = forward;
+        }
+
+        /**
+         * Reports progress before processing of the current block of the
+         * scanner.
+         *
+         * @param scanner data scanner
+         * @param matchesCount count of matches found in range
+         * @return false if search should stop
+         */
+        public boolean proceed(SearchDataScanner scanner, int matchesCount) {
+            long processed;
+            if (forward) {
+                processed = scanner.getBlockPosition() - scanner.getRangeStart();
+            } else {
+                processed = scanner.getRangeEnd() - scanner.getBlockPosition() - scanner.getBlockLength();
+            }
+            return progress.update(rangeIndex, processed, matchesCount);
+        }
+    }
+
+    /**
+     * Search for matches in single range of data.
+     */
+    private interface RangeSearch {
+
+        /**
+         * Searches for matches using given scanner.
+         *
+         * @param scanner data scanner limited to the range
+         * @param rangeEnd end of candidate positions (exclusive)
+         * @param rangeMatches store for found matches in order of search
+         * direction
+         * @param matchesLimit maximum number of matches
+         * @param rangeProgress progress of the range search
+         * @return false if search was interrupted
+         */
+        boolean search(SearchDataScanner scanner, long rangeEnd, SearchMatches rangeMatches, int matchesLimit, RangeProgress rangeProgress);
+    }
+
 }
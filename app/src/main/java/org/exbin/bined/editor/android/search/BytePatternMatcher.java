@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Matcher of fixed length byte pattern over block of data.
+ * <p>
+ * Implementations are immutable after construction and can be shared between
+ * threads.
+ */
+@NullMarked
+public interface BytePatternMatcher {
+
+    /**
+     * Returns length of the matched pattern in bytes.
+     *
+     * @return pattern length
+     */
+    int getPatternLength();
+
+    /**
+     * Returns position of the first match which starts at or after given
+     * position and ends before the end of the range.
+     *
+     * @param block data block
+     * @param from start of the range
+     * @param to end of the range (exclusive)
+     * @return position of the match or -1 if not found
+     */
+    int findFirst(byte[] block, int from, int to);
+
+    /**
+     * Returns position of the last match which starts at or after given
+     * position and ends before the end of the range.
+     *
+     * @param block data block
+     * @param from start of the range
+     * @param to end of the range (exclusive)
+     * @return position of the match or -1 if not found
+     */
+    int findLast(byte[] block, int from, int to);
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.nio.charset.Charset;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Matcher of text which decodes data character by character.
+ * <p>
+ * Works for any charset, but requires decoding at every candidate position.
+ * Used for stateful charsets, which cannot be matched by encoded bytes.
+ */
+@NullMarked
+public class DecodingTextMatcher implements TextMatcher {
+
+    private final String findText;
+    private final boolean matchCase;
+    private final Charset charset;
+    private final int maxBytesPerChar;
+
+    /**
+     * Creates new matcher.
+     *
+     * @param findText searched text, expected in lower case if case is
+     * ignored
+     * @param matchCase true for case sensitive matching
+     * @param charset charset
+     * @param maxBytesPerChar maximum number of bytes per character
+     */
+    public DecodingTextMatcher(String findText, boolean matchCase, Charset charset, int maxBytesPerChar) {
+        this.findText = findText;
+        this.matchCase = matchCase;
+        this.charset = charset;
+        this.maxBytesPerChar = maxBytesPerChar;
+    }
+
+    @Override
+    public int getMaxMatchLength() {
+        return findText.length() * maxBytesPerChar;
+    }
+
+    @Override
+    public int matchAt(byte[] block, int position, int blockLength) {
+        int textLength = findText.length();
+        int matchCharLength = 0;
+        int matchLength = 0;
+        while (matchCharLength < textLength) {
+            int searchPosition = position + matchLength;
+            int bytesToUse = Math.min(maxBytesPerChar, blockLength - searchPosition);
+            if (bytesToUse <= 0) {
+                return -1;
+            }
+
+            char singleChar = new String(block, searchPosition, bytesToUse, charset).charAt(0);
+            if (matchCase) {
+                if (singleChar != findText.charAt(matchCharLength)) {
+                    return -1;
+                }
+            } else if (Character.toLowerCase(singleChar) != findText.charAt(matchCharLength)) {
+                return -1;
+            }
+
+            int characterLength = String.valueOf(singleChar).getBytes(charset).length;
+            matchCharLength++;
+            matchLength += characterLength;
+        }
+
+        return matchLength;
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jspecify.annotations.Nullable;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Matcher of text using pre-encoded byte sequences.
+ * <p>
+ * Each character of the text is encoded once for its upper and title case
+ * variants, so no decoding is needed during the search. Applicable only to charsets where
+ * encoding of the text is concatenation of encodings of its characters.
+ */
+@NullMarked
+public class EncodedTextMatcher implements TextMatcher {
+
+    private final byte[][][] alternatives;
+    private final boolean[] firstBytes = new boolean[256];
+    private final int maxMatchLength;
+
+    private EncodedTextMatcher(byte[][][] alternatives) {
+        this.alternatives = alternatives;
+        int matchLength = 0;
+        for (byte[][] charAlternatives : alternatives) {
+            int maxCharLength = 0;
+            for (byte[] alternative : charAlternatives) {
+                maxCharLength = Math.max(maxCharLength, alternative.length);
+            }
+            matchLength += maxCharLength;
+        }
+        maxMatchLength = matchLength;
+        for (byte[] alternative : alternatives[0]) {
+            firstBytes[alternative[0] & 0xFF] = true;
+        }
+    }
+
+    /**
+     * Creates matcher for given text if charset allows matching by encoded
+     * bytes.
+     *
+     * @param findText searched text, expected in lower case if case is
+     * ignored
+     * @param matchCase true for case sensitive matching
+     * @param charset charset
+     * @return matcher or null if decoding is needed for given charset
+     */
+    @Nullable
+    public static EncodedTextMatcher create(String findText, boolean matchCase, Charset charset) {
+        if (findText.isEmpty() || !charset.canEncode()) {
+            return null;
+        }
+
+        CharsetEncoder encoder = charset.newEncoder();
+        byte[] encodedText = encode(encoder, findText);
+        if (encodedText == null || !new String(encodedText, charset).equals(findText)) {
+            return null;
+        }
+
+        int textLength = findText.length();
+        byte[][][] alternatives = new byte[textLength][][];
+        int offset = 0;
+        for (int i = 0; i < textLength; i++) {
+            char textChar = findText.charAt(i);
+            byte[] encodedChar = encodeCharacter(encoder, charset, textChar);
+            if (encodedChar == null || offset + encodedChar.length > encodedText.length
+                    || !Arrays.equals(encodedChar, Arrays.copyOfRange(encodedText, offset, offset + encodedChar.length))) {
+                // Encoding depends on context
+                return null;
+            }
+            offset += encodedChar.length;
+
+            List<byte[]> charAlternatives = new ArrayList<>();
+            charAlternatives.add(encodedChar);
+            if (!matchCase) {
+                // Simple case mapping of the character
+                for (char variant : new char[]{Character.toUpperCase(textChar), Character.toTitleCase(textChar)}) {
+                    if (variant == textChar || !encoder.canEncode(variant)) {
+                        continue;
+                    }
+                    byte[] encodedVariant = encodeCharacter(encoder, charset, variant);
+                    if (encodedVariant != null && !containsAlternative(charAlternatives, encodedVariant)) {
+                        charAlternatives.add(encodedVariant);
+                    }
+                }
+            }
+            alternatives[i] = charAlternatives.toArray(new byte[0][]);
+        }
+        if (offset != encodedText.length) {
+            return null;
+        }
+
+        return new EncodedTextMatcher(alternatives);
+    }
+
+    /**
+     * Returns single byte pattern if there are no case variants.
+     *
+     * @return byte pattern or null
+     */
+    public byte @Nullable [] getPattern() {
+        byte[] pattern = new byte[maxMatchLength];
+        int offset = 0;
+        for (byte[][] charAlternatives : alternatives) {
+            if (charAlternatives.length != 1) {
+                return null;
+            }
+            System.arraycopy(charAlternatives[0], 0, pattern, offset, charAlternatives[0].length);
+            offset += charAlternatives[0].length;
+        }
+        return pattern;
+    }
+
+    /**
+     * Returns number of characters of the text.
+     *
+     * @return characters count
+     */
+    public int getCharactersCount() {
+        return alternatives.length;
+    }
+
+    /**
+     * Returns encoded variants of the character, the first one is the
+     * character itself.
+     *
+     * @param charIndex character index
+     * @return encoded variants, must not be modified
+     */
+    public byte[][] getCharacterAlternatives(int charIndex) {
+        return alternatives[charIndex];
+    }
+
+    /**
+     * Creates matcher using byte folding table if all case variants are
+     * encoded as single bytes which don't overlap.
+     *
+     * @return folding matcher or null
+     */
+    @Nullable
+    public FoldingPatternMatcher createFoldingMatcher() {
+        byte[] folding = new byte[256];
+        boolean[] folded = new boolean[256];
+        for (int i = 0; i < 256; i++) {
+            folding[i] = (byte) i;
+        }
+        byte[] pattern = new byte[alternatives.length];
+        for (int i = 0; i < alternatives.length; i++) {
+            byte[][] charAlternatives = alternatives[i];
+            byte canonical = charAlternatives[0][0];
+            pattern[i] = canonical;
+            for (byte[] alternative : charAlternatives) {
+                if (alternative.length != 1) {
+                    return null;
+                }
+                int value = alternative[0] & 0xFF;
+                if (folded[value] && folding[value] != canonical) {
+                    return null;
+                }
+                folding[value] = canonical;
+                folded[value] = true;
+            }
+        }
+
+        return new FoldingPatternMatcher(pattern, folding);
+    }
+
+    @Override
+    public int getMaxMatchLength() {
+        return maxMatchLength;
+    }
+
+    @Override
+    public int matchAt(byte[] block, int position, int blockLength) {
+        if (!firstBytes[block[position] & 0xFF]) {
+            return -1;
+        }
+
+        int matchPosition = position;
+        for (byte[][] charAlternatives : alternatives) {
+            int charLength = -1;
+            for (byte[] alternative : charAlternatives) {
+                if (matchesAt(block, matchPosition, blockLength, alternative)) {
+                    charLength = alternative.length;
+                    break;
+                }
+            }
+            if (charLength < 0) {
+                return -1;
+            }
+            matchPosition += charLength;
+        }
+
+        return matchPosition - position;
+    }
+
+    private static boolean matchesAt(byte[] block, int position, int blockLength, byte[] sequence) {
+        if (position + sequence.length > blockLength) {
+            return false;
+        }
+
+        for (int i = 0; i < sequence.length; i++) {
+            if (block[position + i] != sequence[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsAlternative(List<byte[]> charAlternatives, byte[] sequence) {
+        for (byte[] alternative : charAlternatives) {
+            if (Arrays.equals(alternative, sequence)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Encodes single character checking that the encoding doesn't depend on
+     * the context.
+     *
+     * @param encoder charset encoder
+     * @param charset charset
+     * @param value character
+     * @return encoded character or null if not possible
+     */
+    private static byte @Nullable [] encodeCharacter(CharsetEncoder encoder, Charset charset, char value) {
+        if (Character.isSurrogate(value)) {
+            return null;
+        }
+
+        byte[] encoded = encode(encoder, String.valueOf(value));
+        byte[] encodedPair = encode(encoder, new String(new char[]{value, value}));
+        if (encoded == null || encoded.length == 0 || encodedPair == null || encodedPair.length != encoded.length * 2) {
+            return null;
+        }
+        for (int i = 0; i < encoded.length; i++) {
+            if (encodedPair[i] != encoded[i] || encodedPair[encoded.length + i] != encoded[i]) {
+                return null;
+            }
+        }
+        if (!new String(encoded, charset).equals(String.valueOf(value))) {
+            return null;
+        }
+
+        return encoded;
+    }
+
+    private static byte @Nullable [] encode(CharsetEncoder encoder, String text) {
+        try {
+            ByteBuffer buffer = encoder.encode(CharBuffer.wrap(text));
+            byte[] result = new byte[buffer.remaining()];
+            buffer.get(result);
+            return result;
+        } catch (CharacterCodingException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.util.Arrays;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Boyer-Moore-Horspool matcher of byte pattern with byte folding table.
+ * <p>
+ * Each byte of the data is mapped through 256-entry table to canonical value
+ * of its equivalence class, which allows case insensitive matching of single
+ * byte encoded text with the same speed as exact matching.
+ */
+@NullMarked
+public class FoldingPatternMatcher implements BytePatternMatcher {
+
+    private final byte[] pattern;
+    private final byte[] folding;
+    private final int[] shift = new int[256];
+    private final int[] reverseShift = new int[256];
+
+    /**
+     * Creates new matcher.
+     *
+     * @param pattern pattern of canonical values
+     * @param folding table mapping byte values to canonical values
+     */
+    public FoldingPatternMatcher(byte[] pattern, byte[] folding) {
+        if (pattern.length == 0) {
+            throw new IllegalArgumentException("Pattern is empty");
+        }
+        if (folding.length != 256) {
+            throw new IllegalArgumentException("Invalid folding table");
+        }
+
+        this.pattern = pattern;
+        this.folding = folding;
+        int patternLength = pattern.length;
+        Arrays.fill(shift, patternLength);
+        for (int i = 0; i < patternLength - 1; i++) {
+            shift[pattern[i] & 0xff] = patternLength - 1 - i;
+        }
+        Arrays.fill(reverseShift, patternLength);
+        for (int i = patternLength - 1; i > 0; i--) {
+            reverseShift[pattern[i] & 0xff] = i;
+        }
+    }
+
+    @Override
+    public int getPatternLength() {
+        return pattern.length;
+    }
+
+    @Override
+    public int findFirst(byte[] block, int from, int to) {
+        int last = pattern.length - 1;
+        byte lastByte = pattern[last];
+        int limit = to - pattern.length;
+        int position = from;
+        while (position <= limit) {
+            byte value = folding[block[position + last] & 0xff];
+            if (value == lastByte && matchesAt(block, position, 0, last)) {
+                return position;
+            }
+            position += shift[value & 0xff];
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int findLast(byte[] block, int from, int to) {
+        byte firstByte = pattern[0];
+        int position = to - pattern.length;
+        while (position >= from) {
+            byte value = folding[block[position] & 0xff];
+            if (value == firstByte && matchesAt(block, position + 1, 1, pattern.length - 1)) {
+                return position;
+            }
+            position -= reverseShift[value & 0xff];
+        }
+
+        return -1;
+    }
+
+    private boolean matchesAt(byte[] block, int position, int patternOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (folding[block[position + i] & 0xff] != pattern[patternOffset + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.util.Arrays;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Boyer-Moore-Horspool matcher of byte pattern.
+ * <p>
+ * Uses bad character skip table for forward search and mirrored table for
+ * backward search, so that on average only fraction of the bytes is
+ * inspected.
+ */
+@NullMarked
+public class HorspoolPatternMatcher implements BytePatternMatcher {
+
+    private final byte[] pattern;
+    private final int[] shift = new int[256];
+    private final int[] reverseShift = new int[256];
+
+    public HorspoolPatternMatcher(byte[] pattern) {
+        if (pattern.length < 2) {
+            throw new IllegalArgumentException("Pattern is too short");
+        }
+
+        this.pattern = pattern;
+        int patternLength = pattern.length;
+        Arrays.fill(shift, patternLength);
+        for (int i = 0; i < patternLength - 1; i++) {
+            shift[pattern[i] & 0xff] = patternLength - 1 - i;
+        }
+        Arrays.fill(reverseShift, patternLength);
+        for (int i = patternLength - 1; i > 0; i--) {
+            reverseShift[pattern[i] & 0xff] = i;
+        }
+    }
+
+    @Override
+    public int getPatternLength() {
+        return pattern.length;
+    }
+
+    @Override
+    public int findFirst(byte[] block, int from, int to) {
+        int last = pattern.length - 1;
+        byte lastByte = pattern[last];
+        int limit = to - pattern.length;
+        int position = from;
+        while (position <= limit) {
+            byte value = block[position + last];
+            if (value == lastByte && matchesAt(block, position, 0, last)) {
+                return position;
+            }
+            position += shift[value & 0xff];
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int findLast(byte[] block, int from, int to) {
+        byte firstByte = pattern[0];
+        int position = to - pattern.length;
+        while (position >= from) {
+            byte value = block[position];
+            if (value == firstByte && matchesAt(block, position + 1, 1, pattern.length - 1)) {
+                return position;
+            }
+            position -= reverseShift[value & 0xff];
+        }
+
+        return -1;
+    }
+
+    private boolean matchesAt(byte[] block, int position, int patternOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (block[position + i] != pattern[patternOffset + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Horspool matcher of byte pattern with per bit mask.
+ * <p>
+ * Skip table is built from the longest run of bytes which are not fully
+ * masked out, with the byte at the end of the run used as anchor. Candidate
+ * positions are verified eight bytes at a time using masked long comparison.
+ */
+@NullMarked
+public class MaskedPatternMatcher implements BytePatternMatcher {
+
+    private static final int WORD_SIZE = 8;
+
+    private final byte[] values;
+    private final byte[] masks;
+    private final long[] valueWords;
+    private final long[] maskWords;
+    private final int runStart;
+    private final int runEnd;
+    private final int[] shift = new int[256];
+    private final int[] reverseShift = new int[256];
+
+    /**
+     * Creates new matcher.
+     *
+     * @param pattern pattern values
+     * @param mask mask of bits which have to match, 0 bits are wildcards
+     */
+    public MaskedPatternMatcher(byte[] pattern, byte[] mask) {
+        if (pattern.length == 0) {
+            throw new IllegalArgumentException("Pattern is empty");
+        }
+        if (mask.length != pattern.length) {
+            throw new IllegalArgumentException("Mask length differs from pattern length");
+        }
+
+        int patternLength = pattern.length;
+        masks = Arrays.copyOf(mask, patternLength);
+        values = new byte[patternLength];
+        for (int i = 0; i < patternLength; i++) {
+            values[i] = (byte) (pattern[i] & mask[i]);
+        }
+
+        int wordsCount = patternLength / WORD_SIZE;
+        valueWords = new long[wordsCount];
+        maskWords = new long[wordsCount];
+        for (int word = 0; word < wordsCount; word++) {
+            for (int i = 0; i < WORD_SIZE; i++) {
+                int offset = word * WORD_SIZE + i;
+                valueWords[word] = (valueWords[word] << 8) | (values[offset] & 0xff);
+                maskWords[word] = (maskWords[word] << 8) | (masks[offset] & 0xff);
+            }
+        }
+
+        // Find the longest run of bytes with at least one fixed bit
+        int bestStart = patternLength - 1;
+        int bestEnd = patternLength - 1;
+        int bestLength = 0;
+        int currentStart = 0;
+        for (int i = 0; i < patternLength; i++) {
+            if (masks[i] == 0) {
+                currentStart = i + 1;
+            } else if (i - currentStart + 1 >= bestLength) {
+                bestLength = i - currentStart + 1;
+                bestStart = currentStart;
+                bestEnd = i;
+            }
+        }
+        runStart = bestStart;
+        runEnd = bestEnd;
+
+        int runLength = runEnd - runStart + 1;
+        Arrays.fill(shift, runLength);
+        for (int i = runStart; i < runEnd; i++) {
+            setShift(shift, i, runEnd - i);
+        }
+        Arrays.fill(reverseShift, runLength);
+        for (int i = runEnd; i > runStart; i--) {
+            setShift(reverseShift, i, i - runStart);
+        }
+    }
+
+    private void setShift(int[] table, int patternOffset, int value) {
+        int mask = masks[patternOffset] & 0xff;
+        int fixedValue = values[patternOffset] & 0xff;
+        if (mask == 0xff) {
+            table[fixedValue] = value;
+            return;
+        }
+
+        for (int i = 0; i < 256; i++) {
+            if ((i & mask) == fixedValue) {
+                table[i] = value;
+            }
+        }
+    }
+
+    @Override
+    public int getPatternLength() {
+        return values.length;
+    }
+
+    @Override
+    public int findFirst(byte[] block, int from, int to) {
+        ByteBuffer buffer = ByteBuffer.wrap(block);
+        int anchorMask = masks[runEnd] & 0xff;
+        int anchorValue = values[runEnd] & 0xff;
+        int limit = to - values.length;
+        int position = from;
+        while (position <= limit) {
+            int value = block[position + runEnd] & 0xff;
+            if ((value & anchorMask) == anchorValue && matchesAt(buffer, block, position)) {
+                return position;
+            }
+            position += shift[value];
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int findLast(byte[] block, int from, int to) {
+        ByteBuffer buffer = ByteBuffer.wrap(block);
+        int anchorMask = masks[runStart] & 0xff;
+        int anchorValue = values[runStart] & 0xff;
+        int position = to - values.length;
+        while (position >= from) {
+            int value = block[position + runStart] & 0xff;
+            if ((value & anchorMask) == anchorValue && matchesAt(buffer, block, position)) {
+                return position;
+            }
+            position -= reverseShift[value];
+        }
+
+        return -1;
+    }
+
+    private boolean matchesAt(ByteBuffer buffer, byte[] block, int position) {
+        for (int word = 0; word < valueWords.length; word++) {
+            if ((buffer.getLong(position + word * WORD_SIZE) & maskWords[word]) != valueWords[word]) {
+                return false;
+            }
+        }
+
+        for (int i = valueWords.length * WORD_SIZE; i < values.length; i++) {
+            if ((block[position + i] & masks[i]) != values[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
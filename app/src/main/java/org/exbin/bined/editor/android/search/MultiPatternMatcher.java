@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.jspecify.annotations.Nullable;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Matcher of multiple text and binary patterns in single pass.
+ * <p>
+ * Binary patterns and exact text patterns are matched by one Aho-Corasick
+ * automaton. Case insensitive text patterns are matched by second automaton
+ * processing bytes mapped through folding table, which merges bytes of case
+ * variants at the same offset. As merged classes can be wider than the case
+ * variants, matches of the second automaton are verified. Text patterns with
+ * too many case variants of different lengths are matched directly at each
+ * position.
+ */
+@NullMarked
+public class MultiPatternMatcher {
+
+    /**
+     * Maximum number of expanded variants of single pattern, text with more
+     * variants is matched directly.
+     */
+    public static final int MAX_PATTERN_VARIANTS = 256;
+
+    private final @Nullable AhoCorasickAutomaton exactAutomaton;
+    private final @Nullable AhoCorasickAutomaton foldedAutomaton;
+    private final TextMatcher[] foldedVerifiers;
+    private final byte[] folding;
+    private final EncodedTextMatcher[] directTexts;
+    private final int[] directTags;
+    private final int[] directMinLengths;
+    private final int maxPatternLength;
+
+    private MultiPatternMatcher(@Nullable AhoCorasickAutomaton exactAutomaton, @Nullable AhoCorasickAutomaton foldedAutomaton, TextMatcher[] foldedVerifiers, byte[] folding, EncodedTextMatcher[] directTexts, int[] directTags, int maxPatternLength) {
+        this.exactAutomaton = exactAutomaton;
+        this.foldedAutomaton = foldedAutomaton;
+        this.foldedVerifiers = foldedVerifiers;
+        this.folding = folding;
+        this.directTexts = directTexts;
+        this.directTags = directTags;
+        this.maxPatternLength = maxPatternLength;
+        directMinLengths = new int[directTexts.length];
+        for (int i = 0; i < directTexts.length; i++) {
+            directMinLengths[i] = getMinMatchLength(directTexts[i]);
+        }
+    }
+
+    /**
+     * Compiles patterns into matcher.
+     *
+     * @param patterns text or binary patterns, index of pattern is used as tag
+     * @param matchCase true for case sensitive matching of text patterns
+     * @param charset charset for text patterns
+     * @return matcher
+     */
+    public static MultiPatternMatcher create(List<SearchCondition> patterns, boolean matchCase, Charset charset) {
+        List<byte[]> exactPatterns = new ArrayList<>();
+        List<Integer> exactTags = new ArrayList<>();
+        List<EncodedTextMatcher> foldedTexts = new ArrayList<>();
+        List<Integer> foldedTags = new ArrayList<>();
+        List<EncodedTextMatcher> directTexts = new ArrayList<>();
+        List<Integer> directTags = new ArrayList<>();
+        int[] classes = new int[256];
+        for (int i = 0; i < 256; i++) {
+            classes[i] = i;
+        }
+        int maxPatternLength = 0;
+
+        for (int patternIndex = 0; patternIndex < patterns.size(); patternIndex++) {
+            SearchCondition pattern = patterns.get(patternIndex);
+            if (pattern.isEmpty()) {
+                continue;
+            }
+
+            switch (pattern.getSearchMode()) {
+                case BINARY: {
+                    BinaryData binaryData = pattern.getBinaryData();
+                    byte[] data = new byte[(int) binaryData.getDataSize()];
+                    binaryData.copyToArray(0, data, 0, data.length);
+                    exactPatterns.add(data);
+                    exactTags.add(patternIndex);
+                    maxPatternLength = Math.max(maxPatternLength, data.length);
+                    break;
+                }
+                case TEXT: {
+                    String findText = matchCase ? pattern.getSearchText() : pattern.getSearchText().toLowerCase();
+                    EncodedTextMatcher textMatcher = EncodedTextMatcher.create(findText, matchCase, charset);
+                    if (textMatcher == null) {
+                        // Stateful charset, match plain encoding only
+                        byte[] data = findText.getBytes(charset);
+                        exactPatterns.add(data);
+                        exactTags.add(patternIndex);
+                        maxPatternLength = Math.max(maxPatternLength, data.length);
+                        break;
+                    }
+
+                    maxPatternLength = Math.max(maxPatternLength, textMatcher.getMaxMatchLength());
+                    byte[] data = textMatcher.getPattern();
+                    if (data != null) {
+                        exactPatterns.add(data);
+                        exactTags.add(patternIndex);
+                    } else if (hasUniformVariants(textMatcher)) {
+                        mergeVariantClasses(textMatcher, classes);
+                        foldedTexts.add(textMatcher);
+                        foldedTags.add(patternIndex);
+                    } else {
+                        List<byte[]> variants = expandVariants(textMatcher);
+                        if (variants == null) {
+                            directTexts.add(textMatcher);
+                            directTags.add(patternIndex);
+                            break;
+                        }
+                        for (byte[] variant : variants) {
+                            exactPatterns.add(variant);
+                            exactTags.add(patternIndex);
+                        }
+                    }
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unsupported pattern mode " + pattern.getSearchMode());
+            }
+        }
+
+        byte[] folding = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            folding[i] = (byte) findClass(classes, i);
+        }
+        List<byte[]> foldedPatterns = new ArrayList<>();
+        for (EncodedTextMatcher textMatcher : foldedTexts) {
+            foldedPatterns.add(getFoldedPattern(textMatcher, folding));
+        }
+
+        return new MultiPatternMatcher(
+                exactPatterns.isEmpty() ? null : new AhoCorasickAutomaton(exactPatterns, toArray(exactTags)),
+                foldedPatterns.isEmpty() ? null : new AhoCorasickAutomaton(foldedPatterns, toArray(foldedTags)),
+                foldedTexts.toArray(new TextMatcher[0]), folding,
+                directTexts.toArray(new EncodedTextMatcher[0]), toArray(directTags), maxPatternLength);
+    }
+
+    public int getMaxPatternLength() {
+        return maxPatternLength;
+    }
+
+    /**
+     * Reports matches which are fully inside of given range of the block in
+     * order of their end positions.
+     *
+     * @param block data block
+     * @param from start of the range
+     * @param to end of the range (exclusive)
+     * @param startsEnd only matches starting before this position are
+     * reported
+     * @param listener match listener
+     * @return false if search was stopped by listener
+     */
+    public boolean findMatches(byte[] block, int from, int to, int startsEnd, MatchListener listener) {
+        AhoCorasickAutomaton exact = exactAutomaton;
+        AhoCorasickAutomaton folded = foldedAutomaton;
+        int exactState = 0;
+        int foldedState = 0;
+        for (int position = from; position < to; position++) {
+            byte value = block[position];
+            if (exact != null) {
+                exactState = exact.nextState(exactState, value);
+                int[] outputs = exact.getOutputs(exactState);
+                for (int patternIndex : outputs) {
+                    int length = exact.getPatternLength(patternIndex);
+                    int start = position - length + 1;
+                    if (start < startsEnd && !listener.matchFound(start, length, exact.getPatternTag(patternIndex))) {
+                        return false;
+                    }
+                }
+            }
+            if (folded != null) {
+                foldedState = folded.nextState(foldedState, folding[value & 0xff]);
+                int[] outputs = folded.getOutputs(foldedState);
+                for (int patternIndex : outputs) {
+                    int length = folded.getPatternLength(patternIndex);
+                    int start = position - length + 1;
+                    if (start < startsEnd && foldedVerifiers[patternIndex].matchAt(block, start, to) == length
+                            && !listener.matchFound(start, length, folded.getPatternTag(patternIndex))) {
+                        return false;
+                    }
+                }
+            }
+            for (int i = 0; i < directTexts.length; i++) {
+                // Match is reported at its end position to keep order of reported matches
+                EncodedTextMatcher textMatcher = directTexts[i];
+                int maxLength = Math.min(textMatcher.getMaxMatchLength(), position - from + 1);
+                for (int length = directMinLengths[i]; length <= maxLength; length++) {
+                    int start = position - length + 1;
+                    if (start < startsEnd && textMatcher.matchAt(block, start, to) == length
+                            && !listener.matchFound(start, length, directTags[i])) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns true if all variants of each character have the same length.
+     */
+    private static boolean hasUniformVariants(EncodedTextMatcher textMatcher) {
+        int charactersCount = textMatcher.getCharactersCount();
+        for (int i = 0; i < charactersCount; i++) {
+            byte[][] charAlternatives = textMatcher.getCharacterAlternatives(i);
+            for (byte[] alternative : charAlternatives) {
+                if (alternative.length != charAlternatives[0].length) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merges classes of bytes at the same offset of character variants.
+     */
+    private static void mergeVariantClasses(EncodedTextMatcher textMatcher, int[] classes) {
+        int charactersCount = textMatcher.getCharactersCount();
+        for (int i = 0; i < charactersCount; i++) {
+            byte[][] charAlternatives = textMatcher.getCharacterAlternatives(i);
+            byte[] primary = charAlternatives[0];
+            for (int j = 1; j < charAlternatives.length; j++) {
+                for (int offset = 0; offset < primary.length; offset++) {
+                    int primaryClass = findClass(classes, primary[offset] & 0xff);
+                    int alternativeClass = findClass(classes, charAlternatives[j][offset] & 0xff);
+                    if (primaryClass != alternativeClass) {
+                        classes[Math.max(primaryClass, alternativeClass)] = Math.min(primaryClass, alternativeClass);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int getMinMatchLength(EncodedTextMatcher textMatcher) {
+        int minLength = 0;
+        int charactersCount = textMatcher.getCharactersCount();
+        for (int i = 0; i < charactersCount; i++) {
+            int charMinLength = Integer.MAX_VALUE;
+            for (byte[] alternative : textMatcher.getCharacterAlternatives(i)) {
+                charMinLength = Math.min(charMinLength, alternative.length);
+            }
+            minLength += charMinLength;
+        }
+        return minLength;
+    }
+
+    private static int findClass(int[] classes, int value) {
+        while (classes[value] != value) {
+            classes[value] = classes[classes[value]];
+            value = classes[value];
+        }
+        return value;
+    }
+
+    private static byte[] getFoldedPattern(EncodedTextMatcher textMatcher, byte[] folding) {
+        byte[] pattern = new byte[textMatcher.getMaxMatchLength()];
+        int offset = 0;
+        int charactersCount = textMatcher.getCharactersCount();
+        for (int i = 0; i < charactersCount; i++) {
+            byte[] primary = textMatcher.getCharacterAlternatives(i)[0];
+            for (byte value : primary) {
+                pattern[offset++] = folding[value & 0xff];
+            }
+        }
+        return pattern;
+    }
+
+    /**
+     * Expands case variants of the text into separate patterns.
+     *
+     * @return patterns or null if number of variants exceeds the limit
+     */
+    @Nullable
+    private static List<byte[]> expandVariants(EncodedTextMatcher textMatcher) {
+        List<byte[]> variants = new ArrayList<>();
+        variants.add(new byte[0]);
+        int charactersCount = textMatcher.getCharactersCount();
+        for (int i = 0; i < charactersCount; i++) {
+            byte[][] charAlternatives = textMatcher.getCharacterAlternatives(i);
+            if (variants.size() * charAlternatives.length > MAX_PATTERN_VARIANTS) {
+                return null;
+            }
+            List<byte[]> expanded = new ArrayList<>(variants.size() * charAlternatives.length);
+            for (byte[] variant : variants) {
+                for (int j = 0; j < charAlternatives.length; j++) {
+                    byte[] alternative = charAlternatives[j];
+                    byte[] next = new byte[variant.length + alternative.length];
+                    System.arraycopy(variant, 0, next, 0, variant.length);
+                    System.arraycopy(alternative, 0, next, variant.length, alternative.length);
+                    expanded.add(next);
+                }
+            }
+            variants = expanded;
+        }
+        return variants;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Listener for found matches.
+     */
+    public interface MatchListener {
+
+        /**
+         * Reports found match.
+         *
+         * @param position position of the match in block
+         * @param length length of the match
+         * @param patternTag tag of the matched pattern
+         * @return false to stop the search
+         */
+        boolean matchFound(int position, int length, int patternTag);
+    }
+}
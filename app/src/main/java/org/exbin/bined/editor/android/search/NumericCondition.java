@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Condition for search of numeric values.
+ * <p>
+ * Value is matched exactly when maximum is empty, otherwise values within
+ * inclusive range from minimum to maximum are matched.
+ */
+@NullMarked
+public class NumericCondition {
+
+    private NumericType numericType = NumericType.INT32;
+    private ByteOrder byteOrder = ByteOrder.LITTLE_ENDIAN;
+    private boolean aligned = false;
+    private String minimum = "";
+    private String maximum = "";
+
+    public NumericCondition() {
+    }
+
+    /**
+     * This is copy constructor.
+     *
+     * @param source source condition
+     */
+    public NumericCondition(NumericCondition source) {
+        numericType = source.getNumericType();
+        byteOrder = source.getByteOrder();
+        aligned = source.isAligned();
+        minimum = source.getMinimum();
+        maximum = source.getMaximum();
+    }
+
+    public NumericType getNumericType() {
+        return numericType;
+    }
+
+    public void setNumericType(NumericType numericType) {
+        this.numericType = numericType;
+    }
+
+    public ByteOrder getByteOrder() {
+        return byteOrder;
+    }
+
+    public void setByteOrder(ByteOrder byteOrder) {
+        this.byteOrder = byteOrder;
+    }
+
+    /**
+     * Returns whether only values at positions which are multiple of value
+     * length are matched.
+     *
+     * @return true if aligned
+     */
+    public boolean isAligned() {
+        return aligned;
+    }
+
+    public void setAligned(boolean aligned) {
+        this.aligned = aligned;
+    }
+
+    public String getMinimum() {
+        return minimum;
+    }
+
+    public void setMinimum(String minimum) {
+        this.minimum = minimum;
+    }
+
+    public String getMaximum() {
+        return maximum;
+    }
+
+    public void setMaximum(String maximum) {
+        this.maximum = maximum;
+    }
+
+    public boolean isRange() {
+        return !maximum.isEmpty();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(numericType, byteOrder, aligned, minimum, maximum);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final NumericCondition other = (NumericCondition) obj;
+        return numericType == other.numericType && byteOrder.equals(other.byteOrder) && aligned == other.aligned
+                && minimum.equals(other.minimum) && maximum.equals(other.maximum);
+    }
+
+    public enum NumericType {
+        INT8(1, true, false),
+        UINT8(1, false, false),
+        INT16(2, true, false),
+        UINT16(2, false, false),
+        INT32(4, true, false),
+        UINT32(4, false, false),
+        INT64(8, true, false),
+        UINT64(8, false, false),
+        FLOAT32(4, true, true),
+        FLOAT64(8, true, true);
+
+        private final int length;
+        private final boolean signed;
+        private final boolean floatingPoint;
+
+        NumericType(int length, boolean signed, boolean floatingPoint) {
+            this.length = length;
+            this.signed = signed;
+            this.floatingPoint = floatingPoint;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public boolean isSigned() {
+            return signed;
+        }
+
+        public boolean isFloatingPoint() {
+            return floatingPoint;
+        }
+    }
+}
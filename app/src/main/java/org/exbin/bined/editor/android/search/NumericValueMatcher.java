@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+import org.exbin.bined.CodeAreaUtils;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Matcher of numeric values over block of data.
+ * <p>
+ * Values are read as whole words using typed access of byte buffer with byte
+ * order of the condition. Integer values are compared as longs with unsigned
+ * 64-bit values shifted by sign bit, floating point values are compared as
+ * doubles.
+ */
+@NullMarked
+public class NumericValueMatcher {
+
+    private final NumericCondition.NumericType numericType;
+    private final int valueLength;
+    private final boolean aligned;
+    private final long minimum;
+    private final long maximum;
+    private final double minimumDouble;
+    private final double maximumDouble;
+
+    /**
+     * Creates matcher for given condition.
+     *
+     * @param condition numeric condition
+     * @throws NumberFormatException if value is not valid for the type
+     */
+    public NumericValueMatcher(NumericCondition condition) {
+        numericType = condition.getNumericType();
+        valueLength = numericType.getLength();
+        aligned = condition.isAligned();
+        String minimumText = condition.getMinimum().trim();
+        String maximumText = condition.isRange() ? condition.getMaximum().trim() : minimumText;
+        if (numericType.isFloatingPoint()) {
+            minimumDouble = parseDouble(minimumText);
+            maximumDouble = parseDouble(maximumText);
+            if (minimumDouble > maximumDouble) {
+                throw new NumberFormatException("Minimum is greater than maximum");
+            }
+            minimum = 0;
+            maximum = 0;
+        } else {
+            minimum = parseLong(minimumText);
+            maximum = parseLong(maximumText);
+            if (minimum > maximum) {
+                throw new NumberFormatException("Minimum is greater than maximum");
+            }
+            minimumDouble = 0;
+            maximumDouble = 0;
+        }
+    }
+
+    /**
+     * Returns length of the value in bytes.
+     *
+     * @return value length
+     */
+    public int getValueLength() {
+        return valueLength;
+    }
+
+    /**
+     * Returns position of the first value which starts at or after given
+     * position and ends before the end of the range.
+     *
+     * @param buffer data buffer with byte order of the condition
+     * @param blockPosition position of the buffer in data
+     * @param from start of the range
+     * @param to end of the range (exclusive)
+     * @return position of the match or -1 if not found
+     */
+    public int findFirst(ByteBuffer buffer, long blockPosition, int from, int to) {
+        int step = 1;
+        int position = from;
+        if (aligned) {
+            step = valueLength;
+            position += (int) (-(blockPosition + from) & (valueLength - 1));
+        }
+        int last = to - valueLength;
+        if (numericType.isFloatingPoint()) {
+            for (; position <= last; position += step) {
+                double value = readDouble(buffer, position);
+                if (value >= minimumDouble && value <= maximumDouble) {
+                    return position;
+                }
+            }
+        } else {
+            for (; position <= last; position += step) {
+                long value = readLong(buffer, position);
+                if (value >= minimum && value <= maximum) {
+                    return position;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns position of the last value which starts at or after given
+     * position and ends before the end of the range.
+     *
+     * @param buffer data buffer with byte order of the condition
+     * @param blockPosition position of the buffer in data
+     * @param from start of the range
+     * @param to end of the range (exclusive)
+     * @return position of the match or -1 if not found
+     */
+    public int findLast(ByteBuffer buffer, long blockPosition, int from, int to) {
+        int step = 1;
+        int position = to - valueLength;
+        if (aligned) {
+            step = valueLength;
+            position -= (int) ((blockPosition + position) & (valueLength - 1));
+        }
+        if (numericType.isFloatingPoint()) {
+            for (; position >= from; position -= step) {
+                double value = readDouble(buffer, position);
+                if (value >= minimumDouble && value <= maximumDouble) {
+                    return position;
+                }
+            }
+        } else {
+            for (; position >= from; position -= step) {
+                long value = readLong(buffer, position);
+                if (value >= minimum && value <= maximum) {
+                    return position;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private long readLong(ByteBuffer buffer, int position) {
+        switch (numericType) {
+            case INT8:
+                return buffer.get(position);
+            case UINT8:
+                return buffer.get(position) & 0xff;
+            case INT16:
+                return buffer.getShort(position);
+            case UINT16:
+                return buffer.getChar(position);
+            case INT32:
+                return buffer.getInt(position);
+            case UINT32:
+                return buffer.getInt(position) & 0xffffffffL;
+            case INT64:
+                return buffer.getLong(position);
+            case UINT64:
+                return buffer.getLong(position) ^ Long.MIN_VALUE;
+            default:
+                throw CodeAreaUtils.getInvalidTypeException(numericType);
+        }
+    }
+
+    private double readDouble(ByteBuffer buffer, int position) {
+        switch (numericType) {
+            case FLOAT32:
+                return buffer.getFloat(position);
+            case FLOAT64:
+                return buffer.getDouble(position);
+            default:
+                throw CodeAreaUtils.getInvalidTypeException(numericType);
+        }
+    }
+
+    private long parseLong(String text) {
+        BigInteger value = parseInteger(text);
+        int bits = valueLength * 8;
+        BigInteger lowest;
+        BigInteger highest;
+        if (numericType.isSigned()) {
+            lowest = BigInteger.ONE.shiftLeft(bits - 1).negate();
+            highest = BigInteger.ONE.shiftLeft(bits - 1).subtract(BigInteger.ONE);
+        } else {
+            lowest = BigInteger.ZERO;
+            highest = BigInteger.ONE.shiftLeft(bits).subtract(BigInteger.ONE);
+        }
+        if (value.compareTo(lowest) < 0 || value.compareTo(highest) > 0) {
+            throw new NumberFormatException("Value out of range: " + text);
+        }
+
+        return numericType == NumericCondition.NumericType.UINT64 ? value.longValue() ^ Long.MIN_VALUE : value.longValue();
+    }
+
+    private double parseDouble(String text) {
+        double value = Double.parseDouble(text);
+        if (Double.isNaN(value)) {
+            throw new NumberFormatException("Value is not a number: " + text);
+        }
+
+        return numericType == NumericCondition.NumericType.FLOAT32 ? (float) value : value;
+    }
+
+    private static BigInteger parseInteger(String text) {
+        boolean negative = text.startsWith("-");
+        String digits = negative || text.startsWith("+") ? text.substring(1) : text;
+        int radix = 10;
+        if (digits.startsWith("0x") || digits.startsWith("0X")) {
+            digits = digits.substring(2);
+            radix = 16;
+        }
+        if (digits.isEmpty() || digits.startsWith("-") || digits.startsWith("+")) {
+            throw new NumberFormatException("Invalid value: " + text);
+        }
+        BigInteger value = new BigInteger(digits, radix);
+        return negative ? value.negate() : value;
+    }
+}
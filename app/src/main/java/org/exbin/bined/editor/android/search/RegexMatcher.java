@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Matcher of regular expression over block of data.
+ * <p>
+ * Block is presented to the regular expression engine as character
+ * sequence, either as direct view mapping each byte to single character for
+ * single byte charsets or as block decoded by charset decoder together with
+ * table of byte offsets of characters. Only single block is decoded at a time
+ * and matches are mapped back to byte offsets.
+ * <p>
+ * Instances keep buffers for decoding and should not be shared between
+ * threads.
+ */
+@NullMarked
+public class RegexMatcher {
+
+    /**
+     * Maximum length of the match in bytes which is guaranteed to be found
+     * across the block boundary.
+     */
+    public static final int MAX_MATCH_LENGTH = 64 * 1024;
+
+    private final Pattern pattern;
+    private final CharsetDecoder decoder;
+    private final char[] byteChars;
+    private final boolean singleByte;
+    private char[] chars = new char[0];
+    private int[] offsets = new int[0];
+
+    public RegexMatcher(Pattern pattern, Charset charset) {
+        this.pattern = pattern;
+        decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        byteChars = new char[256];
+        singleByte = isSingleByteCharset(charset) && initByteChars();
+    }
+
+    /**
+     * Finds matches starting in the block.
+     *
+     * @param block data block
+     * @param blockLength length of the block
+     * @param precedingByte byte preceding the block or -1 if block is at the
+     * beginning of the data
+     * @param startsEnd only matches starting before this position are
+     * reported
+     * @param listener match listener, pattern tag is always 0
+     * @return false if search was stopped by listener
+     */
+    public boolean findMatches(byte[] block, int blockLength, int precedingByte, int startsEnd, MultiPatternMatcher.MatchListener listener) {
+        int contextLength = precedingByte < 0 ? 0 : 1;
+        CharSequence sequence;
+        int sequenceLength;
+        if (singleByte) {
+            sequenceLength = blockLength + contextLength;
+            sequence = new ByteCharSequence(block, precedingByte, sequenceLength);
+        } else {
+            sequenceLength = decode(block, blockLength, precedingByte);
+            sequence = CharBuffer.wrap(chars, 0, sequenceLength);
+        }
+
+        Matcher matcher = pattern.matcher(sequence);
+        matcher.useTransparentBounds(true);
+        matcher.useAnchoringBounds(false);
+        matcher.region(contextLength, sequenceLength);
+        while (matcher.find()) {
+            int start = matcher.start();
+            int end = matcher.end();
+            int position = singleByte ? start - contextLength : offsets[start];
+            if (position >= startsEnd) {
+                break;
+            }
+            if (start == end) {
+                continue;
+            }
+
+            int length = (singleByte ? end - contextLength : offsets[end]) - position;
+            if (!listener.matchFound(position, length, 0)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Decodes block to characters and records byte offset of each character.
+     *
+     * @return number of decoded characters including context character
+     */
+    private int decode(byte[] block, int blockLength, int precedingByte) {
+        int capacity = (int) (blockLength * Math.max(1f, decoder.maxCharsPerByte())) + 2;
+        if (chars.length < capacity) {
+            chars = new char[capacity];
+            offsets = new int[capacity + 1];
+        }
+
+        int charsCount = 0;
+        if (precedingByte >= 0) {
+            // Preceding byte is only context for anchors and lookbehind
+            chars[0] = (char) precedingByte;
+            offsets[0] = 0;
+            charsCount = 1;
+        }
+
+        decoder.reset();
+        ByteBuffer input = ByteBuffer.wrap(block, 0, blockLength);
+        CharBuffer output = CharBuffer.wrap(chars);
+        while (input.hasRemaining()) {
+            int offset = input.position();
+            output.position(charsCount);
+            output.limit(charsCount + 1);
+            CoderResult result = decoder.decode(input, output, false);
+            if (output.position() == charsCount && result.isOverflow()) {
+                // Surrogate pair requires space for two characters
+                output.limit(charsCount + 2);
+                decoder.decode(input, output, false);
+            }
+            if (output.position() == charsCount && input.position() == offset) {
+                // Incomplete character at the end of the block
+                break;
+            }
+            while (charsCount < output.position()) {
+                offsets[charsCount++] = offset;
+            }
+        }
+        offsets[charsCount] = input.position();
+        return charsCount;
+    }
+
+    private boolean initByteChars() {
+        byte[] value = new byte[1];
+        for (int i = 0; i < 256; i++) {
+            value[0] = (byte) i;
+            try {
+                CharBuffer decoded = decoder.reset().decode(ByteBuffer.wrap(value));
+                if (decoded.remaining() != 1) {
+                    return false;
+                }
+                byteChars[i] = decoded.get();
+            } catch (CharacterCodingException ex) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSingleByteCharset(Charset charset) {
+        try {
+            CharsetEncoder encoder = charset.newEncoder();
+            return encoder.maxBytesPerChar() == 1;
+        } catch (UnsupportedOperationException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Character sequence view of block of data for single byte charsets.
+     */
+    private class ByteCharSequence implements CharSequence {
+
+        private final byte[] block;
+        private final int precedingByte;
+        private final int length;
+
+        public ByteCharSequence(byte[] block, int precedingByte, int length) {
+            this.block = block;
+            this.precedingByte = precedingByte;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (precedingByte < 0) {
+                return byteChars[block[index] & 0xff];
+            }
+            return index == 0 ? byteChars[precedingByte] : byteChars[block[index - 1] & 0xff];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            StringBuilder builder = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                builder.append(charAt(i));
+            }
+            return builder.toString();
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length).toString();
+        }
+    }
+}
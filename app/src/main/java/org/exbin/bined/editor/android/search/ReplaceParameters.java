@@ -38,8 +38,13 @@ public class ReplaceParameters {
         this.condition = condition;
     }
 
+    /**
+     * Copies values of given parameters, condition is copied as well.
+     *
+     * @param replaceParameters source parameters
+     */
     public void setFromParameters(ReplaceParameters replaceParameters) {
-        condition = replaceParameters.getCondition();
+        condition = new SearchCondition(replaceParameters.getCondition());
     }
 
     public boolean isPerformReplace() {
@@ -20,6 +20,8 @@ import org.exbin.auxiliary.binary_data.EditableBinaryData;
 import org.exbin.auxiliary.binary_data.android_jna.JnaBufferEditableData;
 import org.exbin.bined.CodeAreaUtils;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import org.jspecify.annotations.Nullable;
@@ -34,6 +36,9 @@ public class SearchCondition {
     private SearchMode searchMode = SearchMode.TEXT;
     private @Nullable String searchText = "";
     private @Nullable EditableBinaryData binaryData;
+    private @Nullable EditableBinaryData binaryMask;
+    private final List<SearchCondition> patterns = new ArrayList<>();
+    private NumericCondition numericCondition = new NumericCondition();
 
     public SearchCondition() {
     }
@@ -50,6 +55,14 @@ public class SearchCondition {
         if (source.getBinaryData() != null) {
             binaryData.insert(0, source.getBinaryData());
         }
+        if (source.getBinaryMask() != null) {
+            binaryMask = new JnaBufferEditableData();
+            binaryMask.insert(0, source.getBinaryMask());
+        }
+        for (SearchCondition pattern : source.getPatterns()) {
+            patterns.add(new SearchCondition(pattern));
+        }
+        numericCondition = new NumericCondition(source.getNumericCondition());
     }
 
     public SearchMode getSearchMode() {
@@ -77,14 +90,69 @@ public class SearchCondition {
         this.binaryData = binaryData;
     }
 
+    /**
+     * Returns mask of bits of binary data which have to match for masked
+     * search, zero bits are wildcards.
+     *
+     * @return binary mask
+     */
+    @Nullable
+    public BinaryData getBinaryMask() {
+        return binaryMask;
+    }
+
+    public void setBinaryMask(EditableBinaryData binaryMask) {
+        this.binaryMask = binaryMask;
+    }
+
+    /**
+     * Returns list of text or binary patterns for multiple patterns search.
+     *
+     * @return list of patterns
+     */
+    public List<SearchCondition> getPatterns() {
+        return patterns;
+    }
+
+    public void setPatterns(List<SearchCondition> patterns) {
+        this.patterns.clear();
+        this.patterns.addAll(patterns);
+    }
+
+    /**
+     * Returns condition for numeric value search.
+     *
+     * @return numeric condition
+     */
+    public NumericCondition getNumericCondition() {
+        return numericCondition;
+    }
+
+    public void setNumericCondition(NumericCondition numericCondition) {
+        this.numericCondition = numericCondition;
+    }
+
     public boolean isEmpty() {
         switch (searchMode) {
-            case TEXT: {
+            case TEXT:
+            case REGEX: {
                 return searchText == null || searchText.isEmpty();
             }
-            case BINARY: {
+            case BINARY:
+            case MASKED: {
                 return binaryData == null || binaryData.isEmpty();
             }
+            case MULTIPLE_PATTERNS: {
+                for (SearchCondition pattern : patterns) {
+                    if (!pattern.isEmpty()) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            case NUMERIC: {
+                return numericCondition.getMinimum().trim().isEmpty();
+            }
             default:
                 throw CodeAreaUtils.getInvalidTypeException(searchMode);
         }
@@ -111,8 +179,14 @@ public class SearchCondition {
         if (this.searchMode != other.searchMode) {
             return false;
         }
-        if (searchMode == SearchMode.TEXT) {
+        if (searchMode == SearchMode.TEXT || searchMode == SearchMode.REGEX) {
             return Objects.equals(this.searchText, other.searchText);
+        } else if (searchMode == SearchMode.MULTIPLE_PATTERNS) {
+            return Objects.equals(this.patterns, other.patterns);
+        } else if (searchMode == SearchMode.MASKED) {
+            return Objects.equals(this.binaryData, other.binaryData) && Objects.equals(this.binaryMask, other.binaryMask);
+        } else if (searchMode == SearchMode.NUMERIC) {
+            return Objects.equals(this.numericCondition, other.numericCondition);
         } else {
             return Objects.equals(this.binaryData, other.binaryData);
         }
@@ -123,9 +197,15 @@ public class SearchCondition {
         if (binaryData != null) {
             binaryData.clear();
         }
+        if (binaryMask != null) {
+            binaryMask.clear();
+        }
+        patterns.clear();
+        numericCondition.setMinimum("");
+        numericCondition.setMaximum("");
     }
 
     public enum SearchMode {
-        TEXT, BINARY
+        TEXT, BINARY, MULTIPLE_PATTERNS, MASKED, REGEX, NUMERIC
     }
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import org.exbin.auxiliary.binary_data.BinaryData;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Block buffered scanning window over binary data.
+ * <p>
+ * Data are fetched in large blocks using bulk copy and consecutive blocks
+ * share overlap of given length, so that matches crossing block boundary are
+ * fully available in one of the blocks. Scanning can be limited to range of
+ * the data.
+ */
+@NullMarked
+public class SearchDataScanner {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    private final BinaryData data;
+    private final long rangeStart;
+    private final long rangeEnd;
+    private final int overlap;
+    private final byte[] buffer;
+    private long blockPosition = 0;
+    private int blockLength = 0;
+
+    public SearchDataScanner(BinaryData data, int overlap) {
+        this(data, 0, data.getDataSize(), overlap);
+    }
+
+    public SearchDataScanner(BinaryData data, long rangeStart, long rangeEnd, int overlap) {
+        this(data, rangeStart, rangeEnd, DEFAULT_BLOCK_SIZE, overlap);
+    }
+
+    public SearchDataScanner(BinaryData data, long rangeStart, long rangeEnd, int blockSize, int overlap) {
+        if (overlap < 0) {
+            throw new IllegalArgumentException("Overlap must be non-negative");
+        }
+        if (rangeStart < 0 || rangeEnd < rangeStart || rangeEnd > data.getDataSize()) {
+            throw new IllegalArgumentException("Invalid scanning range");
+        }
+
+        this.data = data;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.overlap = overlap;
+        blockPosition = rangeStart;
+        buffer = new byte[(int) Math.max(Math.min(blockSize, rangeEnd - rangeStart), overlap * 2 + 1)];
+    }
+
+    /**
+     * Loads block starting at given position for scanning in forward
+     * direction.
+     *
+     * @param position start position
+     * @return true if any data were loaded
+     */
+    public boolean loadForward(long position) {
+        if (position < rangeStart) {
+            position = rangeStart;
+        }
+        if (position >= rangeEnd) {
+            blockPosition = rangeEnd;
+            blockLength = 0;
+            return false;
+        }
+
+        blockPosition = position;
+        blockLength = (int) Math.min(buffer.length, rangeEnd - position);
+        data.copyToArray(blockPosition, buffer, 0, blockLength);
+        return true;
+    }
+
+    /**
+     * Loads block ending at given position for scanning in backward
+     * direction.
+     *
+     * @param endPosition end position (exclusive)
+     * @return true if any data were loaded
+     */
+    public boolean loadBackward(long endPosition) {
+        if (endPosition > rangeEnd) {
+            endPosition = rangeEnd;
+        }
+        if (endPosition <= rangeStart) {
+            blockPosition = rangeStart;
+            blockLength = 0;
+            return false;
+        }
+
+        blockPosition = Math.max(rangeStart, endPosition - buffer.length);
+        blockLength = (int) (endPosition - blockPosition);
+        data.copyToArray(blockPosition, buffer, 0, blockLength);
+        return true;
+    }
+
+    /**
+     * Moves to following block keeping overlap with the current block.
+     *
+     * @return true if next block was loaded
+     */
+    public boolean nextBlock() {
+        if (isLastBlock()) {
+            return false;
+        }
+
+        return loadForward(blockPosition + blockLength - overlap);
+    }
+
+    /**
+     * Moves to preceding block keeping overlap with the current block.
+     *
+     * @return true if previous block was loaded
+     */
+    public boolean previousBlock() {
+        if (isFirstBlock()) {
+            return false;
+        }
+
+        return loadBackward(blockPosition + overlap);
+    }
+
+    public boolean isFirstBlock() {
+        return blockPosition <= rangeStart;
+    }
+
+    public boolean isLastBlock() {
+        return blockPosition + blockLength >= rangeEnd;
+    }
+
+    /**
+     * Returns buffer with data of the current block.
+     * <p>
+     * Buffer is reused for following blocks.
+     *
+     * @return data buffer
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    public long getBlockPosition() {
+        return blockPosition;
+    }
+
+    public int getBlockLength() {
+        return blockLength;
+    }
+
+    /**
+     * Returns byte preceding the current block.
+     * <p>
+     * Byte is read even if it lies before the start of the range, so that it
+     * can be used as context of matching.
+     *
+     * @return byte value or -1 if block starts at the beginning of the data
+     */
+    public int getPrecedingByte() {
+        return blockPosition == 0 ? -1 : data.getByte(blockPosition - 1) & 0xff;
+    }
+
+    public int getOverlap() {
+        return overlap;
+    }
+
+    public long getRangeStart() {
+        return rangeStart;
+    }
+
+    public long getRangeEnd() {
+        return rangeEnd;
+    }
+}
@@ -20,25 +20,31 @@ import android.app.Dialog;
 import android.content.Context;
 import android.os.Bundle;
 import android.text.Editable;
+import android.text.InputType;
 import android.text.Selection;
 import android.text.method.KeyListener;
 import android.text.method.TextKeyListener;
+import android.view.Gravity;
 import android.view.KeyEvent;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.WindowManager;
 import android.view.inputmethod.InputMethodManager;
+import android.widget.Button;
 import android.widget.EditText;
 import android.widget.FrameLayout;
+import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatDialogFragment;
 import androidx.appcompat.widget.SwitchCompat;
 
 import com.google.android.material.tabs.TabLayout;
 
+import org.exbin.auxiliary.binary_data.BinaryData;
 import org.exbin.auxiliary.binary_data.EditableBinaryData;
 import org.exbin.auxiliary.binary_data.android_jna.JnaBufferEditableData;
 import org.exbin.bined.CodeAreaCaretListener;
+import org.exbin.bined.CodeAreaUtils;
 import org.exbin.bined.EditOperation;
 import org.exbin.bined.RowWrappingMode;
 import org.exbin.bined.android.basic.CodeArea;
@@ -46,18 +52,40 @@ import org.exbin.bined.android.basic.color.BasicCodeAreaColorsProfile;
 import org.exbin.bined.editor.android.CompatUtils;
 import org.exbin.bined.editor.android.MainActivity;
 import org.exbin.bined.editor.android.R;
+import org.exbin.bined.editor.android.inspector.BasicValuesInspector;
 
 import org.jspecify.annotations.NullMarked;
 import org.jspecify.annotations.Nullable;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
 /**
  * Search text or data dialog.
  */
 @NullMarked
 public class SearchDialog extends AppCompatDialogFragment {
 
-    private int lastTab = 0;
+    private static final int TEXT_TAB = 0;
+    private static final int BINARY_TAB = 1;
+    private static final int PATTERNS_TAB = 2;
+    private static final int MASK_TAB = 3;
+    private static final int REGEX_TAB = 4;
+    private static final int NUMBER_TAB = 5;
+    private static final String HEX_PATTERN_PREFIX = "0x";
+    private static final String RANGE_SEPARATOR = "..";
+
+    private int lastTab = TEXT_TAB;
     private EditText editText;
+    private EditText patternsText;
+    private EditText maskText;
+    private EditText regexText;
+    private View numberView;
+    private NumericCondition.NumericType numericType = NumericCondition.NumericType.INT32;
     private CodeArea codeArea;
     private CodeArea templateCodeArea = null;
     private boolean keyboardShown = false;
@@ -101,6 +129,17 @@ public class SearchDialog extends AppCompatDialogFragment {
         searchStatusListener = activity.getSearchStatusListener();
 
         editText = new EditText(activity);
+        patternsText = new EditText(activity);
+        patternsText.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_FLAG_MULTI_LINE);
+        patternsText.setGravity(Gravity.TOP | Gravity.START);
+        patternsText.setMinLines(3);
+        patternsText.setHint(R.string.search_patterns_hint);
+        maskText = new EditText(activity);
+        maskText.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_FLAG_NO_SUGGESTIONS);
+        maskText.setHint(R.string.search_mask_hint);
+        regexText = new EditText(activity);
+        regexText.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_FLAG_NO_SUGGESTIONS);
+        regexText.setHint(R.string.search_regex_hint);
         codeArea = new CodeArea(activity, null);
         codeArea.setContentData(new JnaBufferEditableData());
         codeArea.setEditOperation(EditOperation.INSERT);
@@ -133,6 +172,12 @@ public class SearchDialog extends AppCompatDialogFragment {
 
         LayoutInflater inflater = activity.getLayoutInflater();
         searchView = inflater.inflate(R.layout.search_view, null);
+        numberView = inflater.inflate(R.layout.search_number_view, null);
+        numberView.findViewById(R.id.number_type).setOnClickListener(view -> selectNumericType());
+        BasicValuesInspector basicValuesInspector = activity.getBasicValuesInspector();
+        SwitchCompat bigEndianSwitch = numberView.findViewById(R.id.number_big_endian);
+        bigEndianSwitch.setChecked(basicValuesInspector != null && basicValuesInspector.getByteOrder() == ByteOrder.BIG_ENDIAN);
+        updateNumericTypeButton();
 
         FrameLayout frameLayout = searchView.findViewById(R.id.frameLayout);
         frameLayout.addView(editText);
@@ -141,6 +186,15 @@ public class SearchDialog extends AppCompatDialogFragment {
         if (searchParameters != null) {
             loadSearchParameters();
         }
+        updateMismatchesEnabled();
+        SwitchCompat matchCaseSwitch = searchView.findViewById(R.id.match_case);
+        matchCaseSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            updateMismatchesEnabled();
+            EditText maxMismatchesText = searchView.findViewById(R.id.max_mismatches);
+            if (lastTab == TEXT_TAB && !isChecked && parseMaxMismatches(maxMismatchesText.getText().toString()) > 0) {
+                Toast.makeText(activity, R.string.search_mismatches_match_case, Toast.LENGTH_SHORT).show();
+            }
+        });
 
         TabLayout tabLayout = searchView.findViewById(R.id.tabLayout);
         tabLayout.addOnTabSelectedListener(new TabLayout.OnTabSelectedListener() {
@@ -162,6 +216,22 @@ public class SearchDialog extends AppCompatDialogFragment {
         builder.setTitle(getResources().getString(R.string.search_title));
         builder.setView(searchView);
         builder.setPositiveButton(R.string.button_search, (dialog, which) -> {
+            if (lastTab == MASK_TAB && parseMaskedPattern(maskText.getText().toString()) == null) {
+                Toast.makeText(activity, R.string.search_mask_invalid, Toast.LENGTH_SHORT).show();
+                return;
+            }
+            if (lastTab == REGEX_TAB && !isValidRegex(regexText.getText().toString())) {
+                Toast.makeText(activity, R.string.search_regex_invalid, Toast.LENGTH_SHORT).show();
+                return;
+            }
+            if (lastTab == NUMBER_TAB && !isValidNumericCondition(createNumericCondition())) {
+                Toast.makeText(activity, R.string.search_number_invalid, Toast.LENGTH_SHORT).show();
+                return;
+            }
+            if (lastTab == TEXT_TAB && !isTextMismatchesValid()) {
+                Toast.makeText(activity, R.string.search_mismatches_unsupported_charset, Toast.LENGTH_SHORT).show();
+                return;
+            }
             saveSearchParameters();
             binarySearch.performFind(searchParameters, searchStatusListener);
         });
@@ -176,13 +246,61 @@ public class SearchDialog extends AppCompatDialogFragment {
         FrameLayout frameLayout = searchView.findViewById(R.id.frameLayout);
         int tabPos = tab.getPosition();
         if (tabPos != lastTab) {
-            frameLayout.removeView(lastTab == 0 ? editText : codeArea);
-            frameLayout.addView(tabPos == 0 ? editText : codeArea);
-            frameLayout.setNextFocusDownId(tabPos == 0 ? editText.getId() : codeArea.getId());
+            frameLayout.removeView(getTabView(lastTab));
+            View tabView = getTabView(tabPos);
+            frameLayout.addView(tabView);
+            frameLayout.setNextFocusDownId(tabView.getId());
             SwitchCompat matchCaseSwitch = searchView.findViewById(R.id.match_case);
-            matchCaseSwitch.setEnabled(tabPos == 0);
+            matchCaseSwitch.setEnabled(tabPos == TEXT_TAB || tabPos == PATTERNS_TAB || tabPos == REGEX_TAB);
             lastTab = tabPos;
+            updateMismatchesEnabled();
+        }
+    }
+
+    /**
+     * Enables allowed differences for binary search and for case sensitive
+     * text search, other matchers don't support them.
+     */
+    private void updateMismatchesEnabled() {
+        SwitchCompat matchCaseSwitch = searchView.findViewById(R.id.match_case);
+        boolean mismatchesEnabled = lastTab == BINARY_TAB || (lastTab == TEXT_TAB && matchCaseSwitch.isChecked());
+        searchView.findViewById(R.id.max_mismatches).setEnabled(mismatchesEnabled);
+        searchView.findViewById(R.id.mismatch_bits).setEnabled(mismatchesEnabled);
+    }
+
+    private boolean isTextMismatchesValid() {
+        EditText maxMismatchesText = searchView.findViewById(R.id.max_mismatches);
+        if (!maxMismatchesText.isEnabled() || parseMaxMismatches(maxMismatchesText.getText().toString()) == 0) {
+            return true;
         }
+
+        return BinarySearchServiceImpl.isTextMismatchesSupported(editText.getText().toString(), true, templateCodeArea.getCharset());
+    }
+
+    private View getTabView(int tabPos) {
+        switch (tabPos) {
+            case TEXT_TAB:
+                return editText;
+            case BINARY_TAB:
+                return codeArea;
+            case PATTERNS_TAB:
+                return patternsText;
+            case MASK_TAB:
+                return maskText;
+            case REGEX_TAB:
+                return regexText;
+            case NUMBER_TAB:
+                return numberView;
+            default:
+                throw new IllegalStateException("Unexpected tab " + tabPos);
+        }
+    }
+
+    private void selectTab(int tabPos) {
+        TabLayout tabLayout = searchView.findViewById(R.id.tabLayout);
+        TabLayout.Tab tab = tabLayout.getTabAt(tabPos);
+        tabLayout.selectTab(tab);
+        tabSwitched(tab);
     }
 
     private void loadSearchParameters() {
@@ -193,14 +311,45 @@ public class SearchDialog extends AppCompatDialogFragment {
         data.insert(0, condition.getBinaryData());
         codeAreaCodeAreaCaretListener.caretMoved(codeArea.getActiveCaretPosition());
 
-        if (condition.getSearchMode() == SearchCondition.SearchMode.TEXT) {
-            // Should work automatically, but force for now
-            keyboardShown = false;
-        } else {
-            TabLayout tabLayout = searchView.findViewById(R.id.tabLayout);
-            TabLayout.Tab binaryTab = tabLayout.getTabAt(1);
-            tabLayout.selectTab(binaryTab);
-            tabSwitched(binaryTab);
+        patternsText.setText(formatPatterns(condition.getPatterns()));
+        if (condition.getSearchMode() == SearchCondition.SearchMode.MASKED) {
+            maskText.setText(formatMaskedPattern(condition.getBinaryData(), condition.getBinaryMask()));
+        }
+        if (condition.getSearchMode() == SearchCondition.SearchMode.REGEX) {
+            regexText.setText(condition.getSearchText());
+        }
+        if (condition.getSearchMode() == SearchCondition.SearchMode.NUMERIC) {
+            loadNumericCondition(condition.getNumericCondition());
+        }
+
+        switch (condition.getSearchMode()) {
+            case TEXT: {
+                // Should work automatically, but force for now
+                keyboardShown = false;
+                break;
+            }
+            case BINARY: {
+                selectTab(BINARY_TAB);
+                break;
+            }
+            case MULTIPLE_PATTERNS: {
+                selectTab(PATTERNS_TAB);
+                break;
+            }
+            case MASKED: {
+                selectTab(MASK_TAB);
+                break;
+            }
+            case REGEX: {
+                selectTab(REGEX_TAB);
+                break;
+            }
+            case NUMERIC: {
+                selectTab(NUMBER_TAB);
+                break;
+            }
+            default:
+                throw CodeAreaUtils.getInvalidTypeException(condition.getSearchMode());
         }
         SwitchCompat matchCaseSwitch = searchView.findViewById(R.id.match_case);
         matchCaseSwitch.setChecked(searchParameters.isMatchCase());
@@ -210,15 +359,55 @@ public class SearchDialog extends AppCompatDialogFragment {
         multipleMatchesSwitch.setChecked(searchParameters.getMatchMode() == SearchParameters.MatchMode.MULTIPLE);
         SwitchCompat fromCursorSwitch = searchView.findViewById(R.id.from_cursor);
         fromCursorSwitch.setChecked(searchParameters.isSearchFromCursor());
+        EditText maxMismatchesText = searchView.findViewById(R.id.max_mismatches);
+        maxMismatchesText.setText(String.valueOf(searchParameters.getMaxMismatches()));
+        SwitchCompat mismatchBitsSwitch = searchView.findViewById(R.id.mismatch_bits);
+        mismatchBitsSwitch.setChecked(searchParameters.getMismatchUnit() == SearchParameters.MismatchUnit.BIT);
     }
 
     private void saveSearchParameters() {
         SearchCondition searchCondition = new SearchCondition();
-        searchCondition.setSearchMode(lastTab == 0 ? SearchCondition.SearchMode.TEXT : SearchCondition.SearchMode.BINARY);
-        searchCondition.setSearchText(editText.getText().toString());
+        switch (lastTab) {
+            case TEXT_TAB: {
+                searchCondition.setSearchMode(SearchCondition.SearchMode.TEXT);
+                break;
+            }
+            case BINARY_TAB: {
+                searchCondition.setSearchMode(SearchCondition.SearchMode.BINARY);
+                break;
+            }
+            case PATTERNS_TAB: {
+                searchCondition.setSearchMode(SearchCondition.SearchMode.MULTIPLE_PATTERNS);
+                break;
+            }
+            case MASK_TAB: {
+                searchCondition.setSearchMode(SearchCondition.SearchMode.MASKED);
+                break;
+            }
+            case REGEX_TAB: {
+                searchCondition.setSearchMode(SearchCondition.SearchMode.REGEX);
+                break;
+            }
+            case NUMBER_TAB: {
+                searchCondition.setSearchMode(SearchCondition.SearchMode.NUMERIC);
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unexpected tab " + lastTab);
+        }
+        searchCondition.setSearchText(lastTab == REGEX_TAB ? regexText.getText().toString() : editText.getText().toString());
         JnaBufferEditableData data = new JnaBufferEditableData();
         data.insert(0, codeArea.getContentData());
         searchCondition.setBinaryData(data);
+        searchCondition.setPatterns(parsePatterns(patternsText.getText().toString()));
+        if (lastTab == MASK_TAB) {
+            MaskedPattern maskedPattern = parseMaskedPattern(maskText.getText().toString());
+            searchCondition.setBinaryData(new JnaBufferEditableData(maskedPattern == null ? null : maskedPattern.values));
+            searchCondition.setBinaryMask(new JnaBufferEditableData(maskedPattern == null ? null : maskedPattern.masks));
+        }
+        if (lastTab == NUMBER_TAB) {
+            searchCondition.setNumericCondition(createNumericCondition());
+        }
         searchParameters = new SearchParameters();
         searchParameters.setCondition(searchCondition);
         SwitchCompat matchCaseSwitch = searchView.findViewById(R.id.match_case);
@@ -229,16 +418,295 @@ public class SearchDialog extends AppCompatDialogFragment {
         searchParameters.setMatchMode(multipleMatchesSwitch.isChecked() ? SearchParameters.MatchMode.MULTIPLE : SearchParameters.MatchMode.SINGLE);
         SwitchCompat fromCursorSwitch = searchView.findViewById(R.id.from_cursor);
         searchParameters.setSearchFromCursor(fromCursorSwitch.isChecked());
+        EditText maxMismatchesText = searchView.findViewById(R.id.max_mismatches);
+        if (maxMismatchesText.isEnabled()) {
+            searchParameters.setMaxMismatches(parseMaxMismatches(maxMismatchesText.getText().toString()));
+        }
+        SwitchCompat mismatchBitsSwitch = searchView.findViewById(R.id.mismatch_bits);
+        searchParameters.setMismatchUnit(mismatchBitsSwitch.isChecked() ? SearchParameters.MismatchUnit.BIT : SearchParameters.MismatchUnit.BYTE);
         MainActivity activity = (MainActivity) requireActivity();
         activity.setSearchParameters(searchParameters);
     }
 
+    private void loadNumericCondition(NumericCondition numericCondition) {
+        numericType = numericCondition.getNumericType();
+        updateNumericTypeButton();
+        EditText valueText = numberView.findViewById(R.id.number_value);
+        valueText.setText(numericCondition.isRange() ? numericCondition.getMinimum() + RANGE_SEPARATOR + numericCondition.getMaximum() : numericCondition.getMinimum());
+        SwitchCompat bigEndianSwitch = numberView.findViewById(R.id.number_big_endian);
+        bigEndianSwitch.setChecked(numericCondition.getByteOrder() == ByteOrder.BIG_ENDIAN);
+        SwitchCompat alignedSwitch = numberView.findViewById(R.id.number_aligned);
+        alignedSwitch.setChecked(numericCondition.isAligned());
+    }
+
+    /**
+     * Creates numeric condition from number tab, value is either single
+     * number or range written as min..max.
+     *
+     * @return numeric condition
+     */
+    private NumericCondition createNumericCondition() {
+        NumericCondition numericCondition = new NumericCondition();
+        numericCondition.setNumericType(numericType);
+        EditText valueText = numberView.findViewById(R.id.number_value);
+        String text = valueText.getText().toString().trim();
+        int separatorPosition = text.indexOf(RANGE_SEPARATOR);
+        if (separatorPosition >= 0) {
+            numericCondition.setMinimum(text.substring(0, separatorPosition).trim());
+            numericCondition.setMaximum(text.substring(separatorPosition + RANGE_SEPARATOR.length()).trim());
+        } else {
+            numericCondition.setMinimum(text);
+        }
+        SwitchCompat bigEndianSwitch = numberView.findViewById(R.id.number_big_endian);
+        numericCondition.setByteOrder(bigEndianSwitch.isChecked() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        SwitchCompat alignedSwitch = numberView.findViewById(R.id.number_aligned);
+        numericCondition.setAligned(alignedSwitch.isChecked());
+        return numericCondition;
+    }
+
+    private void selectNumericType() {
+        androidx.appcompat.app.AlertDialog.Builder builder = new androidx.appcompat.app.AlertDialog.Builder(requireContext());
+        builder.setTitle(R.string.search_number_type);
+
+        builder.setSingleChoiceItems(R.array.numeric_type_entries, numericType.ordinal(), (dialog, which) -> {
+            numericType = NumericCondition.NumericType.values()[which];
+            updateNumericTypeButton();
+            dialog.dismiss();
+        });
+        builder.setNegativeButton(R.string.button_cancel, null);
+        androidx.appcompat.app.AlertDialog alertDialog = builder.create();
+        alertDialog.show();
+    }
+
+    private void updateNumericTypeButton() {
+        Button typeButton = numberView.findViewById(R.id.number_type);
+        typeButton.setText(getResources().getTextArray(R.array.numeric_type_entries)[numericType.ordinal()]);
+    }
+
+    private static boolean isValidNumericCondition(NumericCondition numericCondition) {
+        if (numericCondition.getMinimum().isEmpty()) {
+            return false;
+        }
+
+        try {
+            new NumericValueMatcher(numericCondition);
+            return true;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    private static int parseMaxMismatches(String text) {
+        try {
+            return Math.max(0, Integer.parseInt(text.trim()));
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     * Parses patterns, one pattern per line.
+     * <p>
+     * Lines prefixed with 0x and followed by hexadecimal digits are binary
+     * patterns, other lines are text patterns.
+     *
+     * @param text patterns text
+     * @return list of patterns
+     */
+    private static List<SearchCondition> parsePatterns(String text) {
+        List<SearchCondition> patterns = new ArrayList<>();
+        for (String line : text.split("\\r?\\n")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            SearchCondition pattern = new SearchCondition();
+            byte[] binaryPattern = parseHexPattern(line);
+            if (binaryPattern != null) {
+                pattern.setSearchMode(SearchCondition.SearchMode.BINARY);
+                pattern.setBinaryData(new JnaBufferEditableData(binaryPattern));
+            } else {
+                pattern.setSearchMode(SearchCondition.SearchMode.TEXT);
+                pattern.setSearchText(line);
+            }
+            patterns.add(pattern);
+        }
+        return patterns;
+    }
+
+    private static byte @Nullable [] parseHexPattern(String line) {
+        if (!line.startsWith(HEX_PATTERN_PREFIX)) {
+            return null;
+        }
+
+        String digits = line.substring(HEX_PATTERN_PREFIX.length()).replace(" ", "");
+        if (digits.isEmpty() || digits.length() % 2 != 0) {
+            return null;
+        }
+
+        byte[] data = new byte[digits.length() / 2];
+        for (int i = 0; i < data.length; i++) {
+            int high = Character.digit(digits.charAt(i * 2), 16);
+            int low = Character.digit(digits.charAt(i * 2 + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            data[i] = (byte) ((high << 4) | low);
+        }
+        return data;
+    }
+
+    private static String formatPatterns(List<SearchCondition> patterns) {
+        StringBuilder builder = new StringBuilder();
+        for (SearchCondition pattern : patterns) {
+            if (builder.length() > 0) {
+                builder.append('\n');
+            }
+            if (pattern.getSearchMode() == SearchCondition.SearchMode.BINARY) {
+                EditableBinaryData data = pattern.getBinaryData();
+                builder.append(HEX_PATTERN_PREFIX);
+                long dataSize = data == null ? 0 : data.getDataSize();
+                for (long i = 0; i < dataSize; i++) {
+                    int value = data.getByte(i) & 0xff;
+                    builder.append(Character.forDigit(value >> 4, 16)).append(Character.forDigit(value & 0xf, 16));
+                }
+            } else {
+                builder.append(pattern.getSearchText());
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Parses masked pattern.
+     * <p>
+     * Pattern is sequence of bytes written as two hexadecimal digits with
+     * optional 0x prefix, where any digit can be replaced by ? wildcard.
+     * Byte can be followed by &amp; and explicit bit mask, for example
+     * "4D 5A ?? ?? 50 45" or "0x1? &amp; 0xF0".
+     *
+     * @param text pattern text
+     * @return masked pattern or null if text is not valid pattern
+     */
+    private static @Nullable MaskedPattern parseMaskedPattern(String text) {
+        ByteArrayOutputStream values = new ByteArrayOutputStream();
+        ByteArrayOutputStream masks = new ByteArrayOutputStream();
+        int length = text.length();
+        int position = skipSpaces(text, 0);
+        while (position < length) {
+            position = skipHexPrefix(text, position);
+            if (position + 2 > length) {
+                return null;
+            }
+
+            int value = 0;
+            int mask = 0;
+            for (int i = 0; i < 2; i++) {
+                char character = text.charAt(position + i);
+                value <<= 4;
+                mask <<= 4;
+                if (character != '?') {
+                    int digit = Character.digit(character, 16);
+                    if (digit < 0) {
+                        return null;
+                    }
+                    value |= digit;
+                    mask |= 0xf;
+                }
+            }
+            position = skipSpaces(text, position + 2);
+
+            if (position < length && text.charAt(position) == '&') {
+                position = skipHexPrefix(text, skipSpaces(text, position + 1));
+                if (position + 2 > length) {
+                    return null;
+                }
+                int high = Character.digit(text.charAt(position), 16);
+                int low = Character.digit(text.charAt(position + 1), 16);
+                if (high < 0 || low < 0) {
+                    return null;
+                }
+                mask &= (high << 4) | low;
+                position = skipSpaces(text, position + 2);
+            }
+
+            values.write(value & mask);
+            masks.write(mask);
+        }
+
+        return values.size() == 0 ? null : new MaskedPattern(values.toByteArray(), masks.toByteArray());
+    }
+
+    private static boolean isValidRegex(String regex) {
+        try {
+            Pattern.compile(regex);
+            return true;
+        } catch (PatternSyntaxException ex) {
+            return false;
+        }
+    }
+
+    private static int skipSpaces(String text, int position) {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private static int skipHexPrefix(String text, int position) {
+        if (text.startsWith(HEX_PATTERN_PREFIX, position) || text.startsWith("0X", position)) {
+            return position + HEX_PATTERN_PREFIX.length();
+        }
+        return position;
+    }
+
+    private static String formatMaskedPattern(@Nullable BinaryData data, @Nullable BinaryData mask) {
+        StringBuilder builder = new StringBuilder();
+        long dataSize = data == null ? 0 : data.getDataSize();
+        long maskSize = mask == null ? 0 : mask.getDataSize();
+        for (long i = 0; i < dataSize; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            int value = data.getByte(i) & 0xff;
+            int valueMask = i < maskSize ? mask.getByte(i) & 0xff : 0xff;
+            appendMaskedDigit(builder, value >> 4, valueMask >> 4);
+            appendMaskedDigit(builder, value & 0xf, valueMask & 0xf);
+            if (!isNibbleMask(valueMask >> 4) || !isNibbleMask(valueMask & 0xf)) {
+                builder.append('&');
+                appendMaskedDigit(builder, valueMask >> 4, 0xf);
+                appendMaskedDigit(builder, valueMask & 0xf, 0xf);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean isNibbleMask(int digitMask) {
+        return digitMask == 0 || digitMask == 0xf;
+    }
+
+    private static void appendMaskedDigit(StringBuilder builder, int digit, int digitMask) {
+        builder.append(digitMask == 0 ? '?' : Character.toUpperCase(Character.forDigit(digit, 16)));
+    }
+
     @Override
     public void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState);
         saveSearchParameters();
     }
 
+    @NullMarked
+    private static class MaskedPattern {
+
+        private final byte[] values;
+        private final byte[] masks;
+
+        public MaskedPattern(byte[] values, byte[] masks) {
+            this.values = values;
+            this.masks = masks;
+        }
+    }
+
     @NullMarked
     private class CodeAreaKeyListener implements View.OnKeyListener {
 
@@ -29,6 +29,8 @@ public class SearchParameters {
     private boolean matchCase = true;
     private MatchMode matchMode = MatchMode.MULTIPLE;
     private SearchDirection searchDirection = SearchDirection.FORWARD;
+    private int maxMismatches = 0;
+    private MismatchUnit mismatchUnit = MismatchUnit.BYTE;
 
     public SearchParameters() {
     }
@@ -81,19 +83,51 @@ public class SearchParameters {
         this.searchDirection = searchDirection;
     }
 
+    /**
+     * Returns maximum count of differences allowed in match of byte pattern.
+     *
+     * @return count of differing bytes or bits
+     */
+    public int getMaxMismatches() {
+        return maxMismatches;
+    }
+
+    public void setMaxMismatches(int maxMismatches) {
+        this.maxMismatches = maxMismatches;
+    }
+
+    public MismatchUnit getMismatchUnit() {
+        return mismatchUnit;
+    }
+
+    public void setMismatchUnit(MismatchUnit mismatchUnit) {
+        this.mismatchUnit = mismatchUnit;
+    }
+
+    /**
+     * Copies values of given parameters, condition is copied as well.
+     *
+     * @param searchParameters source parameters
+     */
     public void setFromParameters(SearchParameters searchParameters) {
-        condition = searchParameters.getCondition();
+        condition = new SearchCondition(searchParameters.getCondition());
         startPosition = searchParameters.getStartPosition();
         searchFromCursor = searchParameters.isSearchFromCursor();
         matchCase = searchParameters.isMatchCase();
         matchMode = searchParameters.getMatchMode();
         searchDirection = searchParameters.getSearchDirection();
+        maxMismatches = searchParameters.getMaxMismatches();
+        mismatchUnit = searchParameters.getMismatchUnit();
     }
 
     public enum SearchDirection {
         FORWARD, BACKWARD
     }
 
+    public enum MismatchUnit {
+        BYTE, BIT
+    }
+
     public enum MatchMode {
         SINGLE, MULTIPLE;
 
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Matcher of single byte pattern.
+ * <p>
+ * Skip tables give no benefit for patterns this short, so plain scan is used.
+ */
+@NullMarked
+public class SingleBytePatternMatcher implements BytePatternMatcher {
+
+    private final byte value;
+
+    public SingleBytePatternMatcher(byte value) {
+        this.value = value;
+    }
+
+    @Override
+    public int getPatternLength() {
+        return 1;
+    }
+
+    @Override
+    public int findFirst(byte[] block, int from, int to) {
+        for (int position = from; position < to; position++) {
+            if (block[position] == value) {
+                return position;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int findLast(byte[] block, int from, int to) {
+        for (int position = to - 1; position >= from; position--) {
+            if (block[position] == value) {
+                return position;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Matcher of text over block of data.
+ * <p>
+ * Implementations are immutable after construction and can be shared between
+ * threads.
+ */
+@NullMarked
+public interface TextMatcher {
+
+    /**
+     * Returns maximum length of the match in bytes.
+     *
+     * @return maximum match length
+     */
+    int getMaxMatchLength();
+
+    /**
+     * Attempts to match text at given position of the block.
+     *
+     * @param block data block
+     * @param position candidate position
+     * @param blockLength length of valid data in block
+     * @return length of the match in bytes or -1 if text doesn't match
+     */
+    int matchAt(byte[] block, int position, int blockLength);
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.statistics;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Byte value statistics of data range.
+ * <p>
+ * Entropy of each block is stored quantized to single byte, so that map of
+ * large data stays compact.
+ */
+@NullMarked
+public class DataStatistics {
+
+    public static final double MAX_ENTROPY = 8.0;
+    public static final int VALUES_COUNT = 256;
+
+    private final long rangeStart;
+    private final long rangeLength;
+    private final int blockSize;
+    private final long[] histogram;
+    private final byte[] blocksEntropy;
+
+    public DataStatistics(long rangeStart, long rangeLength, int blockSize, long[] histogram, byte[] blocksEntropy) {
+        this.rangeStart = rangeStart;
+        this.rangeLength = rangeLength;
+        this.blockSize = blockSize;
+        this.histogram = histogram;
+        this.blocksEntropy = blocksEntropy;
+    }
+
+    public long getRangeStart() {
+        return rangeStart;
+    }
+
+    public long getRangeLength() {
+        return rangeLength;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public int getBlocksCount() {
+        return blocksEntropy.length;
+    }
+
+    /**
+     * Returns count of occurrences of given byte value.
+     *
+     * @param value byte value
+     * @return count
+     */
+    public long getValueCount(int value) {
+        return histogram[value & 0xFF];
+    }
+
+    public int getDistinctValuesCount() {
+        int count = 0;
+        for (long valueCount : histogram) {
+            if (valueCount > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns Shannon entropy of whole range in bits per byte.
+     *
+     * @return entropy
+     */
+    public double getEntropy() {
+        return DataStatisticsCalculator.computeEntropy(histogram, rangeLength);
+    }
+
+    /**
+     * Returns quantized entropy of given block in range 0 to 255.
+     *
+     * @param block block index
+     * @return quantized entropy
+     */
+    public int getBlockEntropyLevel(int block) {
+        return blocksEntropy[block] & 0xFF;
+    }
+
+    /**
+     * Returns entropy of given block in bits per byte.
+     *
+     * @param block block index
+     * @return entropy
+     */
+    public double getBlockEntropy(int block) {
+        return getBlockEntropyLevel(block) * MAX_ENTROPY / 255;
+    }
+
+    public long getBlockPosition(int block) {
+        return rangeStart + (long) block * blockSize;
+    }
+
+    /**
+     * Returns count of blocks with entropy of at least given level.
+     *
+     * @param level quantized entropy level
+     * @return count of blocks
+     */
+    public int getBlocksCountAbove(int level) {
+        int count = 0;
+        for (byte blockEntropy : blocksEntropy) {
+            if ((blockEntropy & 0xFF) >= level) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns byte values sorted by descending count of occurrences.
+     *
+     * @param limit maximum count of values
+     * @return byte values
+     */
+    public int[] getMostFrequentValues(int limit) {
+        int count = Math.min(limit, VALUES_COUNT);
+        int[] values = new int[count];
+        boolean[] used = new boolean[VALUES_COUNT];
+        for (int i = 0; i < count; i++) {
+            int best = -1;
+            for (int value = 0; value < VALUES_COUNT; value++) {
+                if (!used[value] && (best < 0 || histogram[value] > histogram[best])) {
+                    best = value;
+                }
+            }
+            used[best] = true;
+            values[i] = best;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.statistics;
+
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.auxiliary.binary_data.delta.DeltaDocument;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Parallel calculator of byte value histogram and per block entropy.
+ * <p>
+ * Data range is split into chunks of blocks, which are read using bulk copy
+ * and processed on all available processors. Each worker fills its own part
+ * of blocks entropy array and partial histogram, which are merged at the end.
+ * <p>
+ * Delta document is read using snapshot with the document locked. Other data
+ * don't support access from multiple threads, so chunks are copied using data
+ * read executor, which should run on thread modifying the data.
+ */
+@NullMarked
+public class DataStatisticsCalculator {
+
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+    /**
+     * Block size is increased for very large data to keep entropy map compact.
+     */
+    public static final int MAX_BLOCKS_COUNT = 16 * 1024 * 1024;
+    private static final int CHUNK_BLOCKS = 256;
+    private static final long PROGRESS_REPORT_INTERVAL = 100;
+
+    @Nullable
+    private static ExecutorService statisticsExecutor = null;
+
+    private final BinaryData data;
+    private final long rangeStart;
+    private final long rangeLength;
+    private final int blockSize;
+    private final AtomicLong processedLength = new AtomicLong();
+    private final AtomicLong lastReportTime = new AtomicLong();
+    @Nullable
+    private ProgressListener progressListener = null;
+    @Nullable
+    private Executor dataReadExecutor = null;
+    private volatile boolean cancelled = false;
+
+    public DataStatisticsCalculator(BinaryData data, long rangeStart, long rangeLength) {
+        this(data, rangeStart, rangeLength, DEFAULT_BLOCK_SIZE);
+    }
+
+    public DataStatisticsCalculator(BinaryData data, long rangeStart, long rangeLength, int blockSize) {
+        if (rangeStart < 0 || rangeLength < 0 || rangeStart + rangeLength > data.getDataSize()) {
+            throw new IllegalArgumentException("Invalid statistics range");
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+
+        while ((rangeLength + blockSize - 1) / blockSize > MAX_BLOCKS_COUNT) {
+            blockSize *= 2;
+        }
+        this.data = data;
+        this.rangeStart = rangeStart;
+        this.rangeLength = rangeLength;
+        this.blockSize = blockSize;
+    }
+
+    public void setProgressListener(@Nullable ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Sets executor used for copying chunks of data other than delta
+     * document.
+     * <p>
+     * Data are read directly on worker threads if executor is not set.
+     *
+     * @param dataReadExecutor data read executor
+     */
+    public void setDataReadExecutor(@Nullable Executor dataReadExecutor) {
+        this.dataReadExecutor = dataReadExecutor;
+    }
+
+    public long getRangeLength() {
+        return rangeLength;
+    }
+
+    /**
+     * Requests cancellation of running computation.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Computes statistics blocking current thread.
+     *
+     * @return statistics or null if computation was cancelled or data were
+     * modified
+     */
+    @Nullable
+    public DataStatistics compute() {
+        int blocksCount = (int) ((rangeLength + blockSize - 1) / blockSize);
+        byte[] blocksEntropy = new byte[blocksCount];
+        long[] histogram = new long[DataStatistics.VALUES_COUNT];
+        double[] valueLogTable = createValueLogTable(blockSize);
+        BinaryData source = data instanceof DeltaDocument ? ((DeltaDocument) data).createSnapshot() : data;
+        processedLength.set(0);
+
+        int chunksCount = (blocksCount + CHUNK_BLOCKS - 1) / CHUNK_BLOCKS;
+        if (chunksCount <= 1) {
+            try {
+                if (!processChunk(source, 0, blocksCount, valueLogTable, histogram, blocksEntropy)) {
+                    return null;
+                }
+            } catch (ConcurrentModificationException ex) {
+                return null;
+            }
+        } else {
+            ExecutorService executor = getStatisticsExecutor();
+            List<Future<long[]>> futures = new ArrayList<>(chunksCount);
+            for (int chunk = 0; chunk < chunksCount; chunk++) {
+                int firstBlock = chunk * CHUNK_BLOCKS;
+                int chunkBlocks = Math.min(CHUNK_BLOCKS, blocksCount - firstBlock);
+                futures.add(executor.submit(() -> {
+                    long[] chunkHistogram = new long[DataStatistics.VALUES_COUNT];
+                    return processChunk(source, firstBlock, chunkBlocks, valueLogTable, chunkHistogram, blocksEntropy) ? chunkHistogram : null;
+                }));
+            }
+
+            try {
+                for (Future<long[]> future : futures) {
+                    long[] chunkHistogram = future.get();
+                    if (chunkHistogram == null || cancelled) {
+                        cancelFutures(futures);
+                        return null;
+                    }
+                    for (int value = 0; value < DataStatistics.VALUES_COUNT; value++) {
+                        histogram[value] += chunkHistogram[value];
+                    }
+                }
+            } catch (InterruptedException ex) {
+                cancelFutures(futures);
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (CancellationException ex) {
+                return null;
+            } catch (ExecutionException ex) {
+                cancelFutures(futures);
+                if (ex.getCause() instanceof ConcurrentModificationException) {
+                    return null;
+                }
+                throw new IllegalStateException("Statistics computation failed", ex.getCause());
+            }
+        }
+
+        if (cancelled) {
+            return null;
+        }
+        reportProgress(true);
+        return new DataStatistics(rangeStart, rangeLength, blockSize, histogram, blocksEntropy);
+    }
+
+    /**
+     * Computes Shannon entropy of values with given counts in bits per value.
+     *
+     * @param counts counts of values
+     * @param total total count
+     * @return entropy
+     */
+    public static double computeEntropy(long[] counts, long total) {
+        if (total == 0) {
+            return 0;
+        }
+
+        double sum = 0;
+        for (long count : counts) {
+            if (count > 0) {
+                sum += count * log2(count);
+            }
+        }
+        return Math.max(0, log2(total) - sum / total);
+    }
+
+    private boolean processChunk(BinaryData source, int firstBlock, int chunkBlocks, double[] valueLogTable, long[] histogram, byte[] blocksEntropy) {
+        long chunkStart = (long) firstBlock * blockSize;
+        int chunkLength = (int) Math.min((long) chunkBlocks * blockSize, rangeLength - chunkStart);
+        byte[] buffer = new byte[chunkLength];
+        if (!readChunk(source, rangeStart + chunkStart, buffer)) {
+            return false;
+        }
+
+        int[] counts = new int[DataStatistics.VALUES_COUNT];
+        for (int block = 0; block < chunkBlocks; block++) {
+            if (cancelled) {
+                return false;
+            }
+
+            int offset = block * blockSize;
+            int length = Math.min(blockSize, chunkLength - offset);
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                counts[buffer[i] & 0xFF]++;
+            }
+
+            double sum = 0;
+            for (int value = 0; value < DataStatistics.VALUES_COUNT; value++) {
+                int count = counts[value];
+                if (count > 0) {
+                    sum += valueLogTable[count];
+                    histogram[value] += count;
+                    counts[value] = 0;
+                }
+            }
+            double entropy = Math.max(0, valueLogTable[length] / length - sum / length);
+            blocksEntropy[firstBlock + block] = (byte) Math.round(entropy * 255 / DataStatistics.MAX_ENTROPY);
+        }
+
+        processedLength.addAndGet(chunkLength);
+        reportProgress(false);
+        return true;
+    }
+
+    /**
+     * Copies chunk of data to buffer.
+     *
+     * @return false if computation was cancelled
+     */
+    private boolean readChunk(BinaryData source, long position, byte[] buffer) {
+        Executor executor = dataReadExecutor;
+        if (executor == null || data instanceof DeltaDocument) {
+            source.copyToArray(position, buffer, 0, buffer.length);
+            return true;
+        }
+
+        FutureTask<Boolean> readTask = new FutureTask<>(() -> {
+            // Data can be modified after cancellation
+            if (cancelled) {
+                return false;
+            }
+            source.copyToArray(position, buffer, 0, buffer.length);
+            return true;
+        });
+        executor.execute(readTask);
+        try {
+            return readTask.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Reading of data failed", ex.getCause());
+        }
+    }
+
+    private void reportProgress(boolean force) {
+        ProgressListener listener = progressListener;
+        if (listener == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long lastTime = lastReportTime.get();
+        if (force || (now - lastTime >= PROGRESS_REPORT_INTERVAL && lastReportTime.compareAndSet(lastTime, now))) {
+            listener.progress(processedLength.get(), rangeLength);
+        }
+    }
+
+    /**
+     * Creates table of n * log2(n) values for counts up to given maximum.
+     */
+    private static double[] createValueLogTable(int maxCount) {
+        double[] table = new double[maxCount + 1];
+        for (int count = 1; count <= maxCount; count++) {
+            table[count] = count * log2(count);
+        }
+        return table;
+    }
+
+    private static double log2(double value) {
+        return Math.log(value) / Math.log(2);
+    }
+
+    private static void cancelFutures(List<Future<long[]>> futures) {
+        for (Future<long[]> future : futures) {
+            future.cancel(false);
+        }
+    }
+
+    private static synchronized ExecutorService getStatisticsExecutor() {
+        if (statisticsExecutor == null) {
+            statisticsExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "StatisticsWorkerThread");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return statisticsExecutor;
+    }
+
+    /**
+     * Listener for computation progress.
+     */
+    public interface ProgressListener {
+
+        /**
+         * Reports progress of computation.
+         * <p>
+         * Called from worker threads.
+         *
+         * @param processed processed length
+         * @param total total length
+         */
+        void progress(long processed, long total);
+    }
+}
@@ -28,6 +28,7 @@ import org.exbin.bined.highlight.android.color.CodeAreaColorizationColorType;
 import org.exbin.bined.android.CodeAreaPaintState;
 import org.exbin.bined.android.basic.color.CodeAreaColorsProfile;
 import org.exbin.bined.android.CodeAreaColorAssessor;
+import org.exbin.bined.android.CodeAreaRowColors;
 
 /**
  * Support for highlighting of non-ascii characters.
@@ -51,6 +52,7 @@ public class NonAsciiCodeAreaColorAssessor implements CodeAreaColorAssessor {
 
     protected long dataSize;
     protected BinaryData contentData;
+    protected byte[] rowData;
 
     public NonAsciiCodeAreaColorAssessor(@Nullable CodeAreaColorAssessor parentAssessor) {
         this.parentAssessor = parentAssessor;
@@ -62,6 +64,7 @@ public class NonAsciiCodeAreaColorAssessor implements CodeAreaColorAssessor {
 
         dataSize = codeAreaPaintState.getDataSize();
         contentData = codeAreaPaintState.getContentData();
+        rowData = codeAreaPaintState.getRowData();
 
         textColor = colorsProfile.getColor(CodeAreaBasicColors.TEXT_COLOR);
         if (textColor == null) {
@@ -178,6 +181,61 @@ public class NonAsciiCodeAreaColorAssessor implements CodeAreaColorAssessor {
         return color;
     }
 
+    @Override
+    public void fillRowColors(CodeAreaRowColors rowColors) {
+        if (parentAssessor != null) {
+            parentAssessor.fillRowColors(rowColors);
+        } else {
+            rowColors.clearColors();
+        }
+
+        if (!nonAsciiHighlightingEnabled) {
+            return;
+        }
+
+        boolean fillBackground = upperCodesBackground != null || controlCodesBackground != null;
+        int defaultTextColor = textColor;
+        int upperCodesColorValue = CodeAreaRowColors.toRowColor(upperCodesColor);
+        int controlCodesColorValue = CodeAreaRowColors.toRowColor(controlCodesColor);
+        long rowDataPosition = rowColors.getRowDataPosition();
+        int[] bytesOnRow = rowColors.getBytesOnRow();
+        int[] textColors = rowColors.getTextColors();
+        int[] backgroundColors = rowColors.getBackgroundColors();
+        int toChar = rowColors.getToChar();
+        for (int charOnRow = rowColors.getFromChar(); charOnRow < toChar; charOnRow++) {
+            if (rowColors.getSection(charOnRow) != BasicCodeAreaSection.CODE_MATRIX) {
+                continue;
+            }
+
+            int byteOnRow = bytesOnRow[charOnRow];
+            if (byteOnRow >= rowData.length || rowDataPosition + byteOnRow >= dataSize) {
+                continue;
+            }
+
+            // Row data of the painted row are loaded by painter
+            byte value = rowData[byteOnRow];
+            int color = textColors[charOnRow];
+            if (color == CodeAreaRowColors.NO_COLOR || color == defaultTextColor) {
+                if (value < 0) {
+                    textColors[charOnRow] = upperCodesColorValue;
+                } else if (value < 0x20) {
+                    textColors[charOnRow] = controlCodesColorValue;
+                }
+            }
+
+            if (fillBackground) {
+                color = backgroundColors[charOnRow];
+                if (color == CodeAreaRowColors.NO_COLOR || color == defaultTextColor) {
+                    if (upperCodesBackground != null && value < 0) {
+                        backgroundColors[charOnRow] = upperCodesBackground;
+                    } else if (controlCodesBackground != null && value < 0x20) {
+                        backgroundColors[charOnRow] = controlCodesBackground;
+                    }
+                }
+            }
+        }
+    }
+
     @Override
     public Optional<CodeAreaColorAssessor> getParentColorAssessor() {
         return Optional.ofNullable(parentAssessor);
@@ -29,6 +29,7 @@ import org.exbin.bined.highlight.android.color.CodeAreaNonprintablesColorType;
 import org.exbin.bined.android.CodeAreaCharAssessor;
 import org.exbin.bined.android.CodeAreaPaintState;
 import org.exbin.bined.android.CodeAreaColorAssessor;
+import org.exbin.bined.android.CodeAreaRowColors;
 import org.exbin.bined.android.basic.color.CodeAreaColorsProfile;
 
 /**
@@ -118,6 +119,39 @@ public class NonprintablesCodeAreaAssessor implements CodeAreaColorAssessor, Cod
         return null;
     }
 
+    @Override
+    public void fillRowColors(CodeAreaRowColors rowColors) {
+        if (parentColorAssessor != null) {
+            parentColorAssessor.fillRowColors(rowColors);
+        } else {
+            rowColors.clearColors();
+        }
+
+        if (!showNonprintables || parentCharAssessor == null) {
+            return;
+        }
+
+        long rowDataPosition = rowColors.getRowDataPosition();
+        int[] bytesOnRow = rowColors.getBytesOnRow();
+        int[] textColors = rowColors.getTextColors();
+        int[] backgroundColors = rowColors.getBackgroundColors();
+        int toChar = rowColors.getToChar();
+        for (int charOnRow = rowColors.getFromChar(); charOnRow < toChar; charOnRow++) {
+            CodeAreaSection section = rowColors.getSection(charOnRow);
+            if (section != BasicCodeAreaSection.TEXT_PREVIEW) {
+                continue;
+            }
+
+            char character = parentCharAssessor.getPreviewCharacter(rowDataPosition, bytesOnRow[charOnRow], charOnRow, section);
+            if (nonprintableCharactersMapping.containsKey(character)) {
+                textColors[charOnRow] = CodeAreaRowColors.toRowColor(nonprintablesColor);
+                if (nonprintablesBackground != null) {
+                    backgroundColors[charOnRow] = nonprintablesBackground;
+                }
+            }
+        }
+    }
+
     @Override
     public char getPreviewCharacter(long rowDataPosition, int byteOnRow, int charOnRow, CodeAreaSection section) {
         Character character = parentCharAssessor != null ? parentCharAssessor.getPreviewCharacter(rowDataPosition, byteOnRow, charOnRow, section) : null;
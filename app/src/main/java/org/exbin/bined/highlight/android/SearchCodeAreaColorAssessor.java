@@ -17,8 +17,7 @@ package org.exbin.bined.highlight.android;
 
 import android.graphics.Color;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Optional;
 import org.jspecify.annotations.Nullable;
 import org.jspecify.annotations.NullMarked;
@@ -27,6 +26,7 @@ import org.exbin.bined.CodeAreaSection;
 import org.exbin.bined.highlight.android.color.CodeAreaMatchColorType;
 import org.exbin.bined.android.CodeAreaPaintState;
 import org.exbin.bined.android.CodeAreaColorAssessor;
+import org.exbin.bined.android.CodeAreaRowColors;
 import org.exbin.bined.android.basic.color.CodeAreaColorsProfile;
 
 /**
@@ -35,15 +35,36 @@ import org.exbin.bined.android.basic.color.CodeAreaColorsProfile;
 @NullMarked
 public class SearchCodeAreaColorAssessor implements CodeAreaColorAssessor {
 
+    /**
+     * Background colors for matches of additional patterns.
+     */
+    private static final int[] PATTERN_BACKGROUNDS = {
+        Color.rgb(180, 220, 255),
+        Color.rgb(255, 250, 150),
+        Color.rgb(255, 190, 230),
+        Color.rgb(190, 255, 250),
+        Color.rgb(225, 200, 255),
+        Color.rgb(255, 225, 160)
+    };
+
     private final @Nullable CodeAreaColorAssessor parentAssessor;
 
     /**
      * Matches must be ordered by position.
      */
-    private final List<SearchMatch> matches = new ArrayList<>();
+    private SearchMatches matches = new SearchMatches();
     private int currentMatchIndex = -1;
-    private int matchIndex = 0;
-    private long matchPosition = -1;
+    private long rowPosition = -1;
+    private int bytesPerRow = 0;
+    /**
+     * First match covering byte on current row or -1.
+     */
+    private int[] rowMatches = new int[0];
+    /**
+     * First match covering byte on current row with different end than
+     * match in rowMatches or -1.
+     */
+    private int[] rowAlternativeMatches = new int[0];
 
     private @Nullable Integer foundMatchesColor;
     private @Nullable Integer foundMatchesBackground;
@@ -57,8 +78,13 @@ public class SearchCodeAreaColorAssessor implements CodeAreaColorAssessor {
 
     @Override
     public void startPaint(CodeAreaPaintState codeAreaPaintState) {
-        matchIndex = 0;
+        rowPosition = -1;
         charactersPerRow = codeAreaPaintState.getCharactersPerRow();
+        bytesPerRow = codeAreaPaintState.getBytesPerRow();
+        if (rowMatches.length < bytesPerRow) {
+            rowMatches = new int[bytesPerRow];
+            rowAlternativeMatches = new int[bytesPerRow];
+        }
         CodeAreaColorsProfile colorsProfile = codeAreaPaintState.getColorsProfile();
 
         foundMatchesColor = colorsProfile.getColor(CodeAreaMatchColorType.MATCH_COLOR);
@@ -83,41 +109,12 @@ public class SearchCodeAreaColorAssessor implements CodeAreaColorAssessor {
     public Integer getPositionTextColor(long rowDataPosition, int byteOnRow, int charOnRow, CodeAreaSection section, boolean inSelection) {
         if ((currentMatchColor != null || foundMatchesColor != null) && !matches.isEmpty() && charOnRow < charactersPerRow - 1) {
             long dataPosition = rowDataPosition + byteOnRow;
-            if (currentMatchIndex >= 0) {
-                SearchMatch currentMatch = matches.get(currentMatchIndex);
-                if (currentMatchColor != null && dataPosition >= currentMatch.position && dataPosition < currentMatch.position + currentMatch.length
-                        && (section == BasicCodeAreaSection.TEXT_PREVIEW || charOnRow != ((currentMatch.position + currentMatch.length) - rowDataPosition) * charactersPerRow - 1)) {
-                    return currentMatchColor;
-                }
+            if (currentMatchIndex >= 0 && currentMatchColor != null && isInMatch(currentMatchIndex, rowDataPosition, dataPosition, charOnRow, section)) {
+                return currentMatchColor;
             }
 
-            if (matchPosition < rowDataPosition) {
-                matchIndex = 0;
-            }
-            int lineMatchIndex = matchIndex;
-            while (lineMatchIndex < matches.size()) {
-                SearchMatch match = matches.get(lineMatchIndex);
-                if (dataPosition >= match.position && dataPosition < match.position + match.length
-                        && (section == BasicCodeAreaSection.TEXT_PREVIEW || charOnRow != ((match.position + match.length) - rowDataPosition) * charactersPerRow - 1)) {
-                    if (byteOnRow == 0) {
-                        matchIndex = lineMatchIndex;
-                        matchPosition = match.position;
-                    }
-                    if (foundMatchesColor != null) {
-                        return foundMatchesColor;
-                    }
-                    break;
-                }
-
-                if (match.position > dataPosition) {
-                    break;
-                }
-
-                if (byteOnRow == 0) {
-                    matchIndex = lineMatchIndex;
-                    matchPosition = match.position;
-                }
-                lineMatchIndex++;
+            if (foundMatchesColor != null && findMatchIndex(rowDataPosition, byteOnRow, charOnRow, section) >= 0) {
+                return foundMatchesColor;
             }
         }
 
@@ -133,46 +130,140 @@ public class SearchCodeAreaColorAssessor implements CodeAreaColorAssessor {
     public Integer getPositionBackgroundColor(long rowDataPosition, int byteOnRow, int charOnRow, CodeAreaSection section, boolean inSelection) {
         if (!matches.isEmpty() && charOnRow < charactersPerRow) {
             long dataPosition = rowDataPosition + byteOnRow;
-            if (currentMatchIndex >= 0) {
-                SearchMatch currentMatch = matches.get(currentMatchIndex);
-                if (dataPosition >= currentMatch.position && dataPosition < currentMatch.position + currentMatch.length
-                        && (section == BasicCodeAreaSection.TEXT_PREVIEW || charOnRow != ((currentMatch.position + currentMatch.length) - rowDataPosition) * charactersPerRow - 1)) {
-                    return currentMatchBackground;
-                }
+            if (currentMatchIndex >= 0 && isInMatch(currentMatchIndex, rowDataPosition, dataPosition, charOnRow, section)) {
+                return currentMatchBackground;
             }
 
-            if (matchPosition < rowDataPosition) {
-                matchIndex = 0;
+            int matchIndex = findMatchIndex(rowDataPosition, byteOnRow, charOnRow, section);
+            if (matchIndex >= 0) {
+                return getMatchBackground(matches.getPatternIndex(matchIndex));
             }
-            int lineMatchIndex = matchIndex;
-            while (lineMatchIndex < matches.size()) {
-                SearchMatch match = matches.get(lineMatchIndex);
-                if (dataPosition >= match.position && dataPosition < match.position + match.length
-                        && (section == BasicCodeAreaSection.TEXT_PREVIEW || charOnRow != ((match.position + match.length) - rowDataPosition) * charactersPerRow - 1)) {
-                    if (byteOnRow == 0) {
-                        matchIndex = lineMatchIndex;
-                        matchPosition = match.position;
+        }
+
+        if (parentAssessor != null) {
+            return parentAssessor.getPositionBackgroundColor(rowDataPosition, byteOnRow, charOnRow, section, inSelection);
+        }
+
+        return null;
+    }
+
+    @Override
+    public void fillRowColors(CodeAreaRowColors rowColors) {
+        if (parentAssessor != null) {
+            parentAssessor.fillRowColors(rowColors);
+        } else {
+            rowColors.clearColors();
+        }
+
+        if (matches.isEmpty()) {
+            return;
+        }
+
+        long rowDataPosition = rowColors.getRowDataPosition();
+        int[] bytesOnRow = rowColors.getBytesOnRow();
+        int[] textColors = rowColors.getTextColors();
+        int[] backgroundColors = rowColors.getBackgroundColors();
+        int toChar = Math.min(rowColors.getToChar(), charactersPerRow);
+        for (int charOnRow = rowColors.getFromChar(); charOnRow < toChar; charOnRow++) {
+            int byteOnRow = bytesOnRow[charOnRow];
+            CodeAreaSection section = rowColors.getSection(charOnRow);
+            if (currentMatchIndex >= 0 && isInMatch(currentMatchIndex, rowDataPosition, rowDataPosition + byteOnRow, charOnRow, section)) {
+                if (charOnRow < charactersPerRow - 1) {
+                    if (currentMatchColor != null) {
+                        textColors[charOnRow] = currentMatchColor;
+                    } else if (foundMatchesColor != null && findMatchIndex(rowDataPosition, byteOnRow, charOnRow, section) >= 0) {
+                        textColors[charOnRow] = foundMatchesColor;
                     }
-                    return foundMatchesBackground;
                 }
+                backgroundColors[charOnRow] = CodeAreaRowColors.toRowColor(currentMatchBackground);
+                continue;
+            }
 
-                if (match.position > dataPosition) {
-                    break;
+            int matchIndex = findMatchIndex(rowDataPosition, byteOnRow, charOnRow, section);
+            if (matchIndex >= 0) {
+                if (foundMatchesColor != null && charOnRow < charactersPerRow - 1) {
+                    textColors[charOnRow] = foundMatchesColor;
                 }
+                backgroundColors[charOnRow] = CodeAreaRowColors.toRowColor(getMatchBackground(matches.getPatternIndex(matchIndex)));
+            }
+        }
+    }
+
+    /**
+     * Returns index of the match covering given position.
+     * <p>
+     * Matches covering bytes of the row are computed once per row.
+     *
+     * @return match index or -1 if position is not in any match
+     */
+    private int findMatchIndex(long rowDataPosition, int byteOnRow, int charOnRow, CodeAreaSection section) {
+        if (rowDataPosition != rowPosition) {
+            rowPosition = rowDataPosition;
+            fillRowMatches(rowDataPosition);
+        }
+        if (byteOnRow >= bytesPerRow) {
+            return -1;
+        }
+
+        int matchIndex = rowMatches[byteOnRow];
+        if (matchIndex < 0 || isInMatch(matchIndex, rowDataPosition, rowDataPosition + byteOnRow, charOnRow, section)) {
+            return matchIndex;
+        }
+
+        // Only last character of the match is excluded, other match with different end covers it
+        return rowAlternativeMatches[byteOnRow];
+    }
 
-                if (byteOnRow == 0) {
-                    matchIndex = lineMatchIndex;
-                    matchPosition = match.position;
+    /**
+     * Fills matches covering bytes of the row starting at given position.
+     * <p>
+     * First match which can reach the row is found by binary search.
+     */
+    private void fillRowMatches(long rowDataPosition) {
+        Arrays.fill(rowMatches, 0, bytesPerRow, -1);
+        Arrays.fill(rowAlternativeMatches, 0, bytesPerRow, -1);
+        long rowEnd = rowDataPosition + bytesPerRow;
+        int matchesCount = matches.size();
+        for (int index = matches.findFirstCovering(rowDataPosition); index < matchesCount; index++) {
+            long position = matches.getPosition(index);
+            if (position >= rowEnd) {
+                break;
+            }
+
+            long end = position + matches.getLength(index);
+            int fromByte = (int) (Math.max(position, rowDataPosition) - rowDataPosition);
+            int toByte = (int) (Math.min(end, rowEnd) - rowDataPosition);
+            for (int byteOnRow = fromByte; byteOnRow < toByte; byteOnRow++) {
+                int rowMatch = rowMatches[byteOnRow];
+                if (rowMatch < 0) {
+                    rowMatches[byteOnRow] = index;
+                } else if (rowAlternativeMatches[byteOnRow] < 0 && end != matches.getPosition(rowMatch) + matches.getLength(rowMatch)) {
+                    rowAlternativeMatches[byteOnRow] = index;
                 }
-                lineMatchIndex++;
             }
         }
+    }
 
-        if (parentAssessor != null) {
-            return parentAssessor.getPositionBackgroundColor(rowDataPosition, byteOnRow, charOnRow, section, inSelection);
+    private boolean isInMatch(int matchIndex, long rowDataPosition, long dataPosition, int charOnRow, CodeAreaSection section) {
+        long position = matches.getPosition(matchIndex);
+        long end = position + matches.getLength(matchIndex);
+        return dataPosition >= position && dataPosition < end
+                && (section == BasicCodeAreaSection.TEXT_PREVIEW || charOnRow != (end - rowDataPosition) * charactersPerRow - 1);
+    }
+
+    /**
+     * Returns background color for match depending on its pattern.
+     *
+     * @param patternIndex pattern index
+     * @return background color
+     */
+    @Nullable
+    private Integer getMatchBackground(int patternIndex) {
+        if (patternIndex == 0) {
+            return foundMatchesBackground;
         }
 
-        return null;
+        return PATTERN_BACKGROUNDS[(patternIndex - 1) % PATTERN_BACKGROUNDS.length];
     }
 
     @Override
@@ -180,25 +271,31 @@ public class SearchCodeAreaColorAssessor implements CodeAreaColorAssessor {
         return Optional.ofNullable(parentAssessor);
     }
 
-    public List<SearchMatch> getMatches() {
+    public SearchMatches getMatches() {
         return matches;
     }
 
-    public void setMatches(List<SearchMatch> matches) {
-        this.matches.clear();
-        this.matches.addAll(matches);
+    /**
+     * Sets matches, store is used directly without copying.
+     *
+     * @param matches matches ordered by position
+     */
+    public void setMatches(SearchMatches matches) {
+        this.matches = matches;
         currentMatchIndex = -1;
+        rowPosition = -1;
     }
 
     public void clearMatches() {
-        this.matches.clear();
+        matches = new SearchMatches();
         currentMatchIndex = -1;
+        rowPosition = -1;
     }
 
     @Nullable
     public SearchMatch getCurrentMatch() {
-        if (currentMatchIndex >= 0) {
-            return matches.get(currentMatchIndex);
+        if (currentMatchIndex >= 0 && currentMatchIndex < matches.size()) {
+            return matches.getMatch(currentMatchIndex);
         }
 
         return null;
@@ -22,6 +22,7 @@ public class SearchMatch {
 
     long position;
     long length;
+    int patternIndex;
 
     public SearchMatch() {
     }
@@ -31,6 +32,12 @@ public class SearchMatch {
         this.length = length;
     }
 
+    public SearchMatch(long position, long length, int patternIndex) {
+        this.position = position;
+        this.length = length;
+        this.patternIndex = patternIndex;
+    }
+
     public long getPosition() {
         return position;
     }
@@ -46,4 +53,17 @@ public class SearchMatch {
     public void setLength(long length) {
         this.length = length;
     }
+
+    /**
+     * Returns index of the matched pattern for multiple patterns search.
+     *
+     * @return pattern index
+     */
+    public int getPatternIndex() {
+        return patternIndex;
+    }
+
+    public void setPatternIndex(int patternIndex) {
+        this.patternIndex = patternIndex;
+    }
 }
@@ -0,0 +1,368 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.highlight.android;
+
+import java.util.Arrays;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Growable store of search matches in primitive arrays.
+ * <p>
+ * Lengths and pattern indexes are allocated only when they differ between
+ * matches, so that large number of matches of single pattern takes only
+ * position per match. Matches are expected to be ordered by position for
+ * lookup methods.
+ */
+@NullMarked
+public class SearchMatches {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] positions = new long[INITIAL_CAPACITY];
+    private long @Nullable [] lengths;
+    private int @Nullable [] patternIndexes;
+    private long uniformLength = -1;
+    private long maxLength = 0;
+    private int size = 0;
+
+    public SearchMatches() {
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getPosition(int index) {
+        checkIndex(index);
+        return positions[index];
+    }
+
+    public long getLength(int index) {
+        checkIndex(index);
+        return lengths != null ? lengths[index] : uniformLength;
+    }
+
+    public int getPatternIndex(int index) {
+        checkIndex(index);
+        return patternIndexes != null ? patternIndexes[index] : 0;
+    }
+
+    /**
+     * Returns maximum length of the stored matches.
+     *
+     * @return maximum length
+     */
+    public long getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Returns match at given index as new match instance.
+     *
+     * @param index match index
+     * @return search match
+     */
+    public SearchMatch getMatch(int index) {
+        return new SearchMatch(getPosition(index), getLength(index), getPatternIndex(index));
+    }
+
+    public void add(long position, long length) {
+        add(position, length, 0);
+    }
+
+    public void add(long position, long length, int patternIndex) {
+        if (size == positions.length) {
+            grow(size + 1);
+        }
+
+        positions[size] = position;
+        if (lengths == null && size > 0 && length != uniformLength) {
+            lengths = new long[positions.length];
+            Arrays.fill(lengths, 0, size, uniformLength);
+        }
+        if (lengths != null) {
+            lengths[size] = length;
+        } else {
+            uniformLength = length;
+        }
+        if (patternIndexes == null && patternIndex != 0) {
+            patternIndexes = new int[positions.length];
+        }
+        if (patternIndexes != null) {
+            patternIndexes[size] = patternIndex;
+        }
+        maxLength = Math.max(maxLength, length);
+        size++;
+    }
+
+    public void add(SearchMatch match) {
+        add(match.getPosition(), match.getLength(), match.getPatternIndex());
+    }
+
+    /**
+     * Appends matches from other store.
+     *
+     * @param matches matches
+     */
+    public void addAll(SearchMatches matches) {
+        ensureCapacity(size + matches.size);
+        for (int i = 0; i < matches.size; i++) {
+            add(matches.positions[i], matches.getLength(i), matches.getPatternIndex(i));
+        }
+    }
+
+    /**
+     * Removes matches in given range of indexes.
+     *
+     * @param fromIndex first index
+     * @param toIndex end index (exclusive)
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Invalid range " + fromIndex + " - " + toIndex);
+        }
+
+        int tailLength = size - toIndex;
+        System.arraycopy(positions, toIndex, positions, fromIndex, tailLength);
+        if (lengths != null) {
+            System.arraycopy(lengths, toIndex, lengths, fromIndex, tailLength);
+        }
+        if (patternIndexes != null) {
+            System.arraycopy(patternIndexes, toIndex, patternIndexes, fromIndex, tailLength);
+        }
+        size -= toIndex - fromIndex;
+    }
+
+    public void remove(int index) {
+        removeRange(index, index + 1);
+    }
+
+    /**
+     * Replaces matches in given range of indexes with matches from other
+     * store.
+     *
+     * @param fromIndex first index
+     * @param toIndex end index (exclusive)
+     * @param matches inserted matches
+     */
+    public void replaceRange(int fromIndex, int toIndex, SearchMatches matches) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Invalid range " + fromIndex + " - " + toIndex);
+        }
+
+        int tailLength = size - toIndex;
+        int tailTarget = fromIndex + matches.size;
+        ensureCapacity(tailTarget + tailLength);
+        if (!matches.isEmpty()) {
+            if (lengths == null && (matches.lengths != null || (size > toIndex - fromIndex && matches.uniformLength != uniformLength))) {
+                lengths = new long[positions.length];
+                Arrays.fill(lengths, 0, size, uniformLength);
+            }
+            if (patternIndexes == null && matches.patternIndexes != null) {
+                patternIndexes = new int[positions.length];
+            }
+        }
+        System.arraycopy(positions, toIndex, positions, tailTarget, tailLength);
+        if (lengths != null) {
+            System.arraycopy(lengths, toIndex, lengths, tailTarget, tailLength);
+        }
+        if (patternIndexes != null) {
+            System.arraycopy(patternIndexes, toIndex, patternIndexes, tailTarget, tailLength);
+        }
+        for (int i = 0; i < matches.size; i++) {
+            positions[fromIndex + i] = matches.positions[i];
+            long length = matches.getLength(i);
+            if (lengths != null) {
+                lengths[fromIndex + i] = length;
+            } else {
+                uniformLength = length;
+            }
+            if (patternIndexes != null) {
+                patternIndexes[fromIndex + i] = matches.getPatternIndex(i);
+            }
+        }
+        maxLength = Math.max(maxLength, matches.maxLength);
+        size = tailTarget + tailLength;
+    }
+
+    /**
+     * Shifts positions of matches starting from given index.
+     *
+     * @param fromIndex first index
+     * @param shift position difference
+     */
+    public void shiftPositions(int fromIndex, long shift) {
+        for (int i = fromIndex; i < size; i++) {
+            positions[i] += shift;
+        }
+    }
+
+    public void clear() {
+        size = 0;
+        lengths = null;
+        patternIndexes = null;
+        uniformLength = -1;
+        maxLength = 0;
+    }
+
+    /**
+     * Reverses order of the matches.
+     */
+    public void reverse() {
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            swap(i, j);
+        }
+    }
+
+    /**
+     * Sorts matches by position and pattern index.
+     */
+    public void sort() {
+        if (isSorted()) {
+            return;
+        }
+
+        // Bottom-up merge sort over all arrays
+
+        long[] sortedPositions = new long[positions.length];
+        long[] sortedLengths = lengths == null ? null : new long[positions.length];
+        int[] sortedPatternIndexes = patternIndexes == null ? null : new int[positions.length];
+        for (int width = 1; width < size; width *= 2) {
+            for (int start = 0; start < size; start += width * 2) {
+                int middle = Math.min(start + width, size);
+                int end = Math.min(start + width * 2, size);
+                int left = start;
+                int right = middle;
+                for (int target = start; target < end; target++) {
+                    int source = right >= end || (left < middle && compare(left, right) <= 0) ? left++ : right++;
+                    sortedPositions[target] = positions[source];
+                    if (sortedLengths != null) {
+                        sortedLengths[target] = lengths[source];
+                    }
+                    if (sortedPatternIndexes != null) {
+                        sortedPatternIndexes[target] = patternIndexes[source];
+                    }
+                }
+            }
+            long[] swapPositions = positions;
+            positions = sortedPositions;
+            sortedPositions = swapPositions;
+            if (sortedLengths != null) {
+                long[] swapLengths = lengths;
+                lengths = sortedLengths;
+                sortedLengths = swapLengths;
+            }
+            if (sortedPatternIndexes != null) {
+                int[] swapPatternIndexes = patternIndexes;
+                patternIndexes = sortedPatternIndexes;
+                sortedPatternIndexes = swapPatternIndexes;
+            }
+        }
+    }
+
+    private boolean isSorted() {
+        for (int i = 1; i < size; i++) {
+            if (compare(i - 1, i) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns index of the first match starting at or after given position.
+     *
+     * @param position data position
+     * @return match index or size if there is no such match
+     */
+    public int findFirstStartingFrom(long position) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (positions[middle] < position) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns index of the first match which can cover given position or any
+     * following position.
+     *
+     * @param position data position
+     * @return match index or size if there is no such match
+     */
+    public int findFirstCovering(long position) {
+        return findFirstStartingFrom(position - maxLength + 1);
+    }
+
+    private int compare(int index, int otherIndex) {
+        int result = Long.compare(positions[index], positions[otherIndex]);
+        if (result != 0 || patternIndexes == null) {
+            return result;
+        }
+        return Integer.compare(patternIndexes[index], patternIndexes[otherIndex]);
+    }
+
+    private void swap(int index, int otherIndex) {
+        long position = positions[index];
+        positions[index] = positions[otherIndex];
+        positions[otherIndex] = position;
+        if (lengths != null) {
+            long length = lengths[index];
+            lengths[index] = lengths[otherIndex];
+            lengths[otherIndex] = length;
+        }
+        if (patternIndexes != null) {
+            int patternIndex = patternIndexes[index];
+            patternIndexes[index] = patternIndexes[otherIndex];
+            patternIndexes[otherIndex] = patternIndex;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > positions.length) {
+            grow(capacity);
+        }
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, positions.length + (positions.length >> 1));
+        positions = Arrays.copyOf(positions, capacity);
+        if (lengths != null) {
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        if (patternIndexes != null) {
+            patternIndexes = Arrays.copyOf(patternIndexes, capacity);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range");
+        }
+    }
+}
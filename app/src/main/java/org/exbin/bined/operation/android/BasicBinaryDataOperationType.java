@@ -34,6 +34,10 @@ public enum BasicBinaryDataOperationType implements BinaryDataOperationType {
      * Modify data operation.
      */
     MODIFY_DATA,
+    /**
+     * Replace data operation.
+     */
+    REPLACE_DATA,
     /**
      * Move data operation.
      */
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.operation.android;
+
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.auxiliary.binary_data.EditableBinaryData;
+import org.exbin.auxiliary.binary_data.android_jna.paged.JnaBufferPagedData;
+import org.exbin.auxiliary.binary_data.delta.DeltaDocument;
+import org.exbin.bined.CodeAreaUtils;
+import org.exbin.bined.operation.BinaryDataUndoableOperation;
+
+import org.jspecify.annotations.Nullable;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Operation for replacing multiple areas of data.
+ * <p>
+ * Areas are sorted, non-overlapping and replaced in single pass over data.
+ */
+@NullMarked
+public class ReplaceDataOperation implements BinaryDataUndoableOperation {
+
+    protected final long[] positions;
+    protected final long[] removedLengths;
+    protected final BinaryData data;
+    protected final long[] insertedLengths;
+
+    /**
+     * Creates operation.
+     *
+     * @param positions start positions of areas
+     * @param removedLengths lengths of areas to remove
+     * @param data concatenated data to insert
+     * @param insertedLengths lengths of data to insert for each area
+     */
+    public ReplaceDataOperation(long[] positions, long[] removedLengths, BinaryData data, long[] insertedLengths) {
+        this.positions = positions;
+        this.removedLengths = removedLengths;
+        this.data = data;
+        this.insertedLengths = insertedLengths;
+    }
+
+    @Override
+    public BasicBinaryDataOperationType getType() {
+        return BasicBinaryDataOperationType.REPLACE_DATA;
+    }
+
+    @Override
+    public void execute(EditableBinaryData contentData) {
+        execute(contentData, false);
+    }
+
+    @Override
+    public BinaryDataUndoableOperation executeWithUndo(EditableBinaryData contentData) {
+        return CodeAreaUtils.requireNonNull(execute(contentData, true));
+    }
+
+    @Nullable
+    private BinaryDataUndoableOperation execute(EditableBinaryData contentData, boolean withUndo) {
+        BinaryData removedData;
+        if (contentData instanceof DeltaDocument) {
+            removedData = ((DeltaDocument) contentData).replaceAreas(positions, removedLengths, data, insertedLengths);
+        } else {
+            removedData = rewriteData(contentData);
+        }
+
+        if (!withUndo) {
+            removedData.dispose();
+            return null;
+        }
+
+        long[] undoPositions = new long[positions.length];
+        long shift = 0;
+        for (int i = 0; i < positions.length; i++) {
+            undoPositions[i] = positions[i] + shift;
+            shift += insertedLengths[i] - removedLengths[i];
+        }
+        return new ReplaceDataOperation(undoPositions, insertedLengths, removedData, removedLengths);
+    }
+
+    /**
+     * Replaces areas of data without support for direct manipulation of
+     * segments.
+     * <p>
+     * Areas of the same length are overwritten in place, otherwise result is
+     * written sequentially into paged data which replaces original content.
+     *
+     * @param contentData content data
+     * @return concatenated removed data
+     */
+    private BinaryData rewriteData(EditableBinaryData contentData) {
+        EditableBinaryData removedData = new JnaBufferPagedData();
+        boolean sameLengths = true;
+        for (int i = 0; i < positions.length; i++) {
+            removedData.insert(removedData.getDataSize(), contentData, positions[i], removedLengths[i]);
+            sameLengths &= removedLengths[i] == insertedLengths[i];
+        }
+
+        long dataOffset = 0;
+        if (sameLengths) {
+            for (int i = 0; i < positions.length; i++) {
+                contentData.replace(positions[i], data, dataOffset, insertedLengths[i]);
+                dataOffset += insertedLengths[i];
+            }
+            return removedData;
+        }
+
+        EditableBinaryData resultData = new JnaBufferPagedData();
+        long position = 0;
+        for (int i = 0; i < positions.length; i++) {
+            resultData.insert(resultData.getDataSize(), contentData, position, positions[i] - position);
+            resultData.insert(resultData.getDataSize(), data, dataOffset, insertedLengths[i]);
+            dataOffset += insertedLengths[i];
+            position = positions[i] + removedLengths[i];
+        }
+        resultData.insert(resultData.getDataSize(), contentData, position, contentData.getDataSize() - position);
+        contentData.clear();
+        contentData.insert(0, resultData);
+        resultData.dispose();
+        return removedData;
+    }
+
+    @Override
+    public void dispose() {
+        data.dispose();
+    }
+}
@@ -34,6 +34,10 @@ public enum CodeAreaCommandType implements BinaryDataCommandType {
      * Modify data command.
      */
     DATA_MODIFIED,
+    /**
+     * Replace data command.
+     */
+    DATA_REPLACED,
     /**
      * Move data command.
      */
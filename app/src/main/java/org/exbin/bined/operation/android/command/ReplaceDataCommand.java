@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.operation.android.command;
+
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.jspecify.annotations.NullMarked;
+import org.exbin.bined.operation.android.ReplaceDataOperation;
+import org.exbin.bined.android.CodeAreaCore;
+
+/**
+ * Command for replacing multiple areas of data.
+ */
+@NullMarked
+public class ReplaceDataCommand extends OpCodeAreaCommand {
+
+    public ReplaceDataCommand(CodeAreaCore codeArea, long[] positions, long[] removedLengths, BinaryData data, long[] insertedLengths) {
+        super(codeArea);
+        super.setOperation(new ReplaceDataOperation(positions, removedLengths, data, insertedLengths));
+    }
+
+    @Override
+    public CodeAreaCommandType getType() {
+        return CodeAreaCommandType.DATA_REPLACED;
+    }
+}
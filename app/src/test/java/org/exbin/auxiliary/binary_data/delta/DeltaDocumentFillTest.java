@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.auxiliary.binary_data.delta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.exbin.auxiliary.binary_data.buffer.BufferEditableData;
+import org.jspecify.annotations.NullMarked;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test fill segments of DeltaDocument class.
+ */
+@NullMarked
+public class DeltaDocumentFillTest {
+
+    @Test
+    public void testInsertedAreasMerge() {
+        DeltaDocument document = createRepository().createDocument();
+        document.insert(0, 1000);
+        checkSegments(document, "F1000");
+        document.insert(500, 1000);
+        checkSegments(document, "F2000");
+        checkData(document, new byte[2000]);
+    }
+
+    @Test
+    public void testFillSplitAndMerge() {
+        DeltaDocument document = createRepository().createDocument();
+        document.insert(0, 2000);
+        document.setByte(700, (byte) 1);
+        checkSegments(document, "F700 M1 F1299");
+        byte[] expected = new byte[2000];
+        expected[700] = 1;
+        checkData(document, expected);
+
+        document.remove(700, 1);
+        checkSegments(document, "F1999");
+        checkData(document, new byte[1999]);
+    }
+
+    @Test
+    public void testFillAdjacentAreas() {
+        DeltaDocument document = createRepository().createDocument();
+        document.insert(0, 2000);
+        document.fillData(100, 300, (byte) 5);
+        checkSegments(document, "F100 F300 F1600");
+        document.fillData(400, 100, (byte) 5);
+        checkSegments(document, "F100 F400 F1500");
+        document.fillData(0, document.getDataSize(), (byte) 2);
+        checkSegments(document, "F2000");
+        byte[] expected = new byte[2000];
+        Arrays.fill(expected, (byte) 2);
+        checkData(document, expected);
+    }
+
+    @Test
+    public void testFillMemoryData() {
+        DeltaDocument document = createRepository().createDocument();
+        byte[] expected = new byte[1000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = (byte) i;
+        }
+        document.insert(0, expected);
+        document.fillData(200, 600, (byte) 3);
+        checkSegments(document, "M200 F600 M200");
+        Arrays.fill(expected, 200, 800, (byte) 3);
+        checkData(document, expected);
+
+        document.insert(500, new byte[]{1, 2});
+        checkSegments(document, "M200 F300 M2 F300 M200");
+    }
+
+    @Test
+    public void testFillNotifiedOnce() {
+        DeltaDocument document = createRepository().createDocument();
+        document.insert(0, new byte[1000]);
+        List<long[]> edits = new ArrayList<>();
+        document.addEditListener((position, removedLength, insertedLength) -> edits.add(new long[]{position, removedLength, insertedLength}));
+        long revision = document.getRevision();
+        document.fillData(100, 500, (byte) 1);
+        Assert.assertEquals(1, edits.size());
+        Assert.assertArrayEquals(new long[]{100, 500, 500}, edits.get(0));
+        Assert.assertEquals(revision + 1, document.getRevision());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testFillOutOfBounds() {
+        DeltaDocument document = createRepository().createDocument();
+        document.insert(0, 100);
+        document.fillData(50, 51, (byte) 1);
+    }
+
+    @Test
+    public void testRandomEdits() {
+        Random random = new Random(7);
+        DeltaDocument document = createRepository().createDocument();
+        byte[] expected = new byte[0];
+        for (int i = 0; i < 2000; i++) {
+            int size = expected.length;
+            int operation = size < 16 ? random.nextInt(2) : random.nextInt(6);
+            int position = random.nextInt(size + 1);
+            switch (operation) {
+                case 0: {
+                    int length = 1 + random.nextInt(300);
+                    document.insert(position, length);
+                    expected = insert(expected, position, new byte[length]);
+                    break;
+                }
+                case 1: {
+                    byte[] data = new byte[1 + random.nextInt(20)];
+                    random.nextBytes(data);
+                    document.insert(position, data);
+                    expected = insert(expected, position, data);
+                    break;
+                }
+                case 2: {
+                    int length = Math.min(size - position, random.nextInt(200));
+                    byte fill = (byte) random.nextInt(3);
+                    document.fillData(position, length, fill);
+                    Arrays.fill(expected, position, position + length, fill);
+                    break;
+                }
+                case 3: {
+                    int length = Math.min(size - position, random.nextInt(100));
+                    document.remove(position, length);
+                    byte[] result = new byte[size - length];
+                    System.arraycopy(expected, 0, result, 0, position);
+                    System.arraycopy(expected, position + length, result, position, size - position - length);
+                    expected = result;
+                    break;
+                }
+                default: {
+                    if (position == size) {
+                        position--;
+                    }
+                    byte value = (byte) random.nextInt(3);
+                    document.setByte(position, value);
+                    expected[position] = value;
+                    break;
+                }
+            }
+            document.validate();
+            Assert.assertEquals(expected.length, document.getDataSize());
+        }
+        checkData(document, expected);
+        for (int i = 0; i < 1000; i++) {
+            int position = random.nextInt(expected.length);
+            Assert.assertEquals(expected[position], document.getByte(position));
+        }
+    }
+
+    private static SegmentsRepository createRepository() {
+        return new SegmentsRepository(BufferEditableData::new);
+    }
+
+    private static byte[] insert(byte[] data, int position, byte[] insertedData) {
+        byte[] result = new byte[data.length + insertedData.length];
+        System.arraycopy(data, 0, result, 0, position);
+        System.arraycopy(insertedData, 0, result, position, insertedData.length);
+        System.arraycopy(data, position, result, position + insertedData.length, data.length - position);
+        return result;
+    }
+
+    private static void checkSegments(DeltaDocument document, String expectedSegments) {
+        StringBuilder segments = new StringBuilder();
+        DataSegment segment = document.getSegments().first();
+        while (segment != null) {
+            if (segments.length() > 0) {
+                segments.append(' ');
+            }
+            segments.append(segment instanceof FillSegment ? 'F' : segment instanceof MemorySegment ? 'M' : 'S').append(segment.getLength());
+            segment = segment.getNext();
+        }
+        Assert.assertEquals(expectedSegments, segments.toString());
+    }
+
+    private static void checkData(DeltaDocument document, byte[] expectedData) {
+        document.validate();
+        Assert.assertEquals(expectedData.length, document.getDataSize());
+        byte[] data = new byte[expectedData.length];
+        document.copyToArray(0, data, 0, data.length);
+        Assert.assertArrayEquals(expectedData, data);
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.auxiliary.binary_data.delta;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.auxiliary.binary_data.buffer.BufferEditableData;
+import org.exbin.auxiliary.binary_data.delta.file.FileDataSource;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test DeltaDocumentJournal class.
+ */
+@NullMarked
+public class DeltaDocumentJournalTest {
+
+    @Test
+    public void testRoundTripWithoutSource() throws IOException {
+        File journalFile = createJournalFile();
+        try {
+            Random random = new Random(1);
+            SegmentsRepository repository = createRepository();
+            DeltaDocument document = repository.createDocument();
+            DeltaDocumentJournal journal = new DeltaDocumentJournal(journalFile);
+            for (int round = 0; round < 20; round++) {
+                applyRandomEdits(document, random, 10);
+                journal.flush(document, "");
+                checkRestoredDocument(document, journalFile, null);
+            }
+        } finally {
+            deleteJournal(journalFile);
+        }
+    }
+
+    @Test
+    public void testRoundTripWithSource() throws IOException {
+        File journalFile = createJournalFile();
+        File sourceFile = File.createTempFile("source", ".bin");
+        try {
+            byte[] content = new byte[100000];
+            new Random(2).nextBytes(content);
+            try (FileOutputStream outputStream = new FileOutputStream(sourceFile)) {
+                outputStream.write(content);
+            }
+            FileDataSource dataSource = new FileDataSource(sourceFile);
+            SegmentsRepository repository = createRepository();
+            repository.addDataSource(dataSource);
+            DeltaDocument document = repository.createDocument(dataSource);
+            DeltaDocumentJournal journal = new DeltaDocumentJournal(journalFile);
+            document.insert(10, new byte[]{1, 2, 3});
+            document.remove(500, 1000);
+            document.fillData(2000, 300, (byte) 0x55);
+            journal.flush(document, "source");
+            document.setByte(20000, (byte) 77);
+            document.insert(50, new byte[]{9, 9});
+            journal.flush(document, "source");
+
+            DeltaDocumentJournal restoredJournal = new DeltaDocumentJournal(journalFile);
+            DeltaDocumentJournal.JournalState state = restoredJournal.readState();
+            Assert.assertNotNull(state);
+            Assert.assertEquals("source", state.getSourceKey());
+            Assert.assertEquals(content.length, state.getSourceLength());
+            SegmentsRepository restoredRepository = createRepository();
+            restoredRepository.addDataSource(dataSource);
+            DeltaDocument restoredDocument = restoredJournal.restore(state, restoredRepository, dataSource);
+            checkSameData(document, restoredDocument);
+        } finally {
+            deleteJournal(journalFile);
+            sourceFile.delete();
+        }
+    }
+
+    @Test
+    public void testModifiedSourceRefused() throws IOException {
+        for (long modifiedPosition : new long[]{100, 99990}) {
+            File journalFile = createJournalFile();
+            File sourceFile = File.createTempFile("source", ".bin");
+            try {
+                byte[] content = new byte[100000];
+                new Random(4).nextBytes(content);
+                try (FileOutputStream outputStream = new FileOutputStream(sourceFile)) {
+                    outputStream.write(content);
+                }
+                FileDataSource dataSource = new FileDataSource(sourceFile);
+                SegmentsRepository repository = createRepository();
+                repository.addDataSource(dataSource);
+                DeltaDocument document = repository.createDocument(dataSource);
+                document.insert(10, new byte[]{1, 2, 3});
+                DeltaDocumentJournal journal = new DeltaDocumentJournal(journalFile);
+                journal.flush(document, "source");
+
+                // Source was modified keeping its length
+                dataSource.setByte(modifiedPosition, (byte) (content[(int) modifiedPosition] + 1));
+                DeltaDocumentJournal restoredJournal = new DeltaDocumentJournal(journalFile);
+                DeltaDocumentJournal.JournalState state = restoredJournal.readState();
+                Assert.assertNotNull(state);
+                Assert.assertEquals(content.length, state.getSourceLength());
+                try {
+                    restoredJournal.restore(state, createRepository(), dataSource);
+                    Assert.fail("Journal was restored on modified source");
+                } catch (IOException ex) {
+                    // expected
+                }
+                dataSource.close();
+            } finally {
+                deleteJournal(journalFile);
+                sourceFile.delete();
+            }
+        }
+    }
+
+    @Test
+    public void testModifiedRangeAppended() throws IOException {
+        File journalFile = createJournalFile();
+        try {
+            SegmentsRepository repository = createRepository();
+            DeltaDocument document = repository.createDocument();
+            document.insert(0, new byte[1000000]);
+            DeltaDocumentJournal journal = new DeltaDocumentJournal(journalFile);
+            journal.flush(document, "");
+            long initialLength = journalFile.length();
+
+            document.setByte(1000, (byte) 5);
+            journal.flush(document, "");
+            Assert.assertTrue(journalFile.length() - initialLength < 4096);
+            checkRestoredDocument(document, journalFile, null);
+
+            document.insert(999000, new byte[]{1, 2, 3});
+            document.remove(998000, 10);
+            journal.flush(document, "");
+            checkRestoredDocument(document, journalFile, null);
+        } finally {
+            deleteJournal(journalFile);
+        }
+    }
+
+    @Test
+    public void testIncompleteRecordIgnored() throws IOException {
+        File journalFile = createJournalFile();
+        try {
+            SegmentsRepository repository = createRepository();
+            DeltaDocument document = repository.createDocument();
+            document.insert(0, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+            DeltaDocumentJournal journal = new DeltaDocumentJournal(journalFile);
+            journal.flush(document, "");
+            long committedLength = journalFile.length();
+            byte[] expectedData = readData(document);
+
+            document.insert(4, new byte[]{10, 11, 12});
+            journal.flush(document, "");
+            try (RandomAccessFile accessFile = new RandomAccessFile(journalFile, "rw")) {
+                accessFile.setLength(accessFile.length() - 1);
+            }
+            Assert.assertTrue(journalFile.length() > committedLength);
+
+            DeltaDocumentJournal restoredJournal = new DeltaDocumentJournal(journalFile);
+            DeltaDocument restoredDocument = restoredJournal.restore(restoredJournal.readState(), createRepository(), null);
+            Assert.assertArrayEquals(expectedData, readData(restoredDocument));
+        } finally {
+            deleteJournal(journalFile);
+        }
+    }
+
+    @Test
+    public void testCompactKeepsState() throws IOException {
+        File journalFile = createJournalFile();
+        try {
+            Random random = new Random(3);
+            SegmentsRepository repository = createRepository();
+            DeltaDocument document = repository.createDocument();
+            DeltaDocumentJournal journal = new DeltaDocumentJournal(journalFile);
+            for (int round = 0; round < 10; round++) {
+                applyRandomEdits(document, random, 20);
+                journal.flush(document, "");
+            }
+            long journalLength = journalFile.length();
+
+            journal.compact(document, "");
+            Assert.assertTrue(journalFile.length() <= journalLength);
+            Assert.assertFalse(new File(journalFile.getPath() + ".compact").exists());
+            checkRestoredDocument(document, journalFile, null);
+
+            applyRandomEdits(document, random, 20);
+            journal.flush(document, "");
+            checkRestoredDocument(document, journalFile, null);
+        } finally {
+            deleteJournal(journalFile);
+        }
+    }
+
+    @Test
+    public void testClear() throws IOException {
+        File journalFile = createJournalFile();
+        try {
+            SegmentsRepository repository = createRepository();
+            DeltaDocument document = repository.createDocument();
+            document.insert(0, new byte[]{1, 2, 3});
+            DeltaDocumentJournal journal = new DeltaDocumentJournal(journalFile);
+            journal.flush(document, "");
+            Assert.assertTrue(journal.exists());
+
+            journal.clear();
+            Assert.assertFalse(journal.exists());
+            Assert.assertNull(journal.readState());
+
+            journal.flush(document, "");
+            checkRestoredDocument(document, journalFile, null);
+        } finally {
+            deleteJournal(journalFile);
+        }
+    }
+
+    private static SegmentsRepository createRepository() {
+        return new SegmentsRepository(BufferEditableData::new);
+    }
+
+    private static File createJournalFile() throws IOException {
+        File journalFile = File.createTempFile("journal", ".jnl");
+        journalFile.delete();
+        return journalFile;
+    }
+
+    private static void deleteJournal(File journalFile) {
+        journalFile.delete();
+        new File(journalFile.getPath() + ".compact").delete();
+    }
+
+    private static void applyRandomEdits(DeltaDocument document, Random random, int count) {
+        for (int i = 0; i < count; i++) {
+            int size = (int) document.getDataSize();
+            int operation = size < 16 ? 0 : random.nextInt(4);
+            switch (operation) {
+                case 0: {
+                    byte[] data = new byte[1 + random.nextInt(2000)];
+                    random.nextBytes(data);
+                    document.insert(size == 0 ? 0 : random.nextInt(size + 1), data);
+                    break;
+                }
+                case 1: {
+                    int position = random.nextInt(size);
+                    document.remove(position, Math.min(size - position, random.nextInt(1000)));
+                    break;
+                }
+                case 2: {
+                    document.setByte(random.nextInt(size), (byte) random.nextInt());
+                    break;
+                }
+                default: {
+                    int position = random.nextInt(size);
+                    document.fillData(position, Math.min(size - position, random.nextInt(500)), (byte) random.nextInt(3));
+                    break;
+                }
+            }
+        }
+    }
+
+    private static void checkRestoredDocument(DeltaDocument document, File journalFile, @Nullable DataSource dataSource) throws IOException {
+        DeltaDocumentJournal restoredJournal = new DeltaDocumentJournal(journalFile);
+        DeltaDocumentJournal.JournalState state = restoredJournal.readState();
+        Assert.assertNotNull(state);
+        DeltaDocument restoredDocument = restoredJournal.restore(state, createRepository(), dataSource);
+        checkSameData(document, restoredDocument);
+    }
+
+    private static void checkSameData(BinaryData expectedData, DeltaDocument document) {
+        document.validate();
+        Assert.assertArrayEquals(readData(expectedData), readData(document));
+    }
+
+    private static byte[] readData(BinaryData data) {
+        byte[] result = new byte[(int) data.getDataSize()];
+        data.copyToArray(0, result, 0, result.length);
+        return result;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.auxiliary.binary_data.delta;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import org.exbin.auxiliary.binary_data.BinaryData;
+import org.exbin.auxiliary.binary_data.OutOfBoundsException;
+import org.exbin.auxiliary.binary_data.buffer.BufferData;
+import org.exbin.auxiliary.binary_data.buffer.BufferEditableData;
+import org.jspecify.annotations.NullMarked;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test replacing of multiple areas of DeltaDocument class.
+ */
+@NullMarked
+public class DeltaDocumentReplaceAreasTest {
+
+    @Test
+    public void testReplaceAreas() {
+        SegmentsRepository repository = createRepository();
+        DeltaDocument document = repository.createDocument();
+        document.insert(0, new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+        DeltaDocument removedDocument = document.replaceAreas(new long[]{1, 5, 9}, new long[]{2, 0, 1}, new BufferData(new byte[]{20, 21, 22}), new long[]{1, 2, 0});
+        checkData(new byte[]{0, 20, 3, 4, 21, 22, 5, 6, 7, 8}, document);
+        checkData(new byte[]{1, 2, 9}, removedDocument);
+    }
+
+    @Test
+    public void testNoAreas() {
+        SegmentsRepository repository = createRepository();
+        DeltaDocument document = repository.createDocument();
+        document.insert(0, new byte[]{1, 2, 3});
+        DeltaDocument removedDocument = document.replaceAreas(new long[0], new long[0], new BufferData(new byte[0]), new long[0]);
+        checkData(new byte[]{1, 2, 3}, document);
+        Assert.assertEquals(0, removedDocument.getDataSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOverlappingAreas() {
+        SegmentsRepository repository = createRepository();
+        DeltaDocument document = repository.createDocument();
+        document.insert(0, new byte[10]);
+        document.replaceAreas(new long[]{2, 3}, new long[]{2, 1}, new BufferData(new byte[0]), new long[]{0, 0});
+    }
+
+    @Test(expected = OutOfBoundsException.class)
+    public void testAreaOutOfBounds() {
+        SegmentsRepository repository = createRepository();
+        DeltaDocument document = repository.createDocument();
+        document.insert(0, new byte[10]);
+        document.replaceAreas(new long[]{8}, new long[]{3}, new BufferData(new byte[0]), new long[]{0});
+    }
+
+    @Test
+    public void testRandomAreas() {
+        Random random = new Random(39);
+        for (int round = 0; round < 200; round++) {
+            SegmentsRepository repository = createRepository();
+            DeltaDocument document = repository.createDocument();
+            byte[] data = createSegmentedData(document, random);
+
+            int count = random.nextInt(20);
+            long[] positions = new long[count];
+            long[] removedLengths = new long[count];
+            long[] insertedLengths = new long[count];
+            ByteArrayOutputStream insertedStream = new ByteArrayOutputStream();
+            ByteArrayOutputStream expectedStream = new ByteArrayOutputStream();
+            ByteArrayOutputStream removedStream = new ByteArrayOutputStream();
+            int position = 0;
+            for (int i = 0; i < count; i++) {
+                int areaStart = position + random.nextInt((data.length - position) / (count - i) + 1);
+                int removedLength = random.nextInt(Math.min(data.length - areaStart, 40) + 1);
+                byte[] insertedArea = new byte[random.nextInt(4) == 0 ? 0 : random.nextInt(30)];
+                random.nextBytes(insertedArea);
+                positions[i] = areaStart;
+                removedLengths[i] = removedLength;
+                insertedLengths[i] = insertedArea.length;
+                insertedStream.write(insertedArea, 0, insertedArea.length);
+                expectedStream.write(data, position, areaStart - position);
+                expectedStream.write(insertedArea, 0, insertedArea.length);
+                removedStream.write(data, areaStart, removedLength);
+                position = areaStart + removedLength;
+            }
+            expectedStream.write(data, position, data.length - position);
+
+            byte[] insertedData = insertedStream.toByteArray();
+            BinaryData inserted;
+            DeltaDocument insertedDocument = null;
+            if (random.nextBoolean()) {
+                insertedDocument = repository.createDocument();
+                insertedDocument.insert(0, insertedData);
+                inserted = insertedDocument;
+            } else {
+                inserted = new BufferData(insertedData);
+            }
+            DeltaDocument removedDocument = document.replaceAreas(positions, removedLengths, inserted, insertedLengths);
+            byte[] expectedData = expectedStream.toByteArray();
+            checkData(expectedData, document);
+            checkData(removedStream.toByteArray(), removedDocument);
+
+            // Documents must stay independent after replace
+            if (insertedDocument != null && insertedDocument.getDataSize() > 0) {
+                insertedDocument.fillData(0, insertedDocument.getDataSize(), (byte) 0x55);
+            }
+            if (removedDocument.getDataSize() > 0) {
+                removedDocument.setByte(0, (byte) 0x66);
+            }
+            checkData(expectedData, document);
+            if (expectedData.length > 0) {
+                document.setByte(expectedData.length - 1, (byte) 0x77);
+                expectedData[expectedData.length - 1] = 0x77;
+                checkData(expectedData, document);
+            }
+        }
+    }
+
+    private static SegmentsRepository createRepository() {
+        return new SegmentsRepository(BufferEditableData::new);
+    }
+
+    /**
+     * Creates data composed of memory and fill segments.
+     */
+    private static byte[] createSegmentedData(DeltaDocument document, Random random) {
+        int partsCount = random.nextInt(10);
+        for (int i = 0; i < partsCount; i++) {
+            if (random.nextBoolean()) {
+                byte[] part = new byte[1 + random.nextInt(100)];
+                random.nextBytes(part);
+                document.insert(document.getDataSize(), part);
+            } else {
+                long length = 1 + random.nextInt(100);
+                document.insert(document.getDataSize(), length);
+                document.fillData(document.getDataSize() - length, length, (byte) random.nextInt(3));
+            }
+        }
+        byte[] data = new byte[(int) document.getDataSize()];
+        document.copyToArray(0, data, 0, data.length);
+        return data;
+    }
+
+    private static void checkData(byte[] expectedData, DeltaDocument document) {
+        document.validate();
+        Assert.assertEquals(expectedData.length, document.getDataSize());
+        byte[] data = new byte[expectedData.length];
+        document.copyToArray(0, data, 0, data.length);
+        Assert.assertArrayEquals(expectedData, data);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.auxiliary.binary_data.delta;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.exbin.auxiliary.binary_data.buffer.BufferEditableData;
+import org.exbin.auxiliary.binary_data.delta.file.FileDataSource;
+import org.jspecify.annotations.NullMarked;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test DeltaDocumentSnapshot class.
+ */
+@NullMarked
+public class DeltaDocumentSnapshotTest {
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        File sourceFile = File.createTempFile("source", ".bin");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            byte[] content = new byte[300000];
+            new Random(30).nextBytes(content);
+            try (FileOutputStream outputStream = new FileOutputStream(sourceFile)) {
+                outputStream.write(content);
+            }
+            FileDataSource dataSource = new FileDataSource(sourceFile);
+            SegmentsRepository repository = new SegmentsRepository(BufferEditableData::new);
+            repository.addDataSource(dataSource);
+            DeltaDocument document = repository.createDocument(dataSource);
+            document.insert(1000, new byte[]{1, 2, 3});
+            document.remove(70000, 5000);
+            document.fillData(100000, 80000, (byte) 0x55);
+            document.setByte(200000, (byte) 77);
+            byte[] expectedData = new byte[(int) document.getDataSize()];
+            document.copyToArray(0, expectedData, 0, expectedData.length);
+
+            DeltaDocumentSnapshot snapshot;
+            synchronized (document) {
+                snapshot = new DeltaDocumentSnapshot(document);
+            }
+            List<Future<?>> futures = new ArrayList<>();
+            for (int worker = 0; worker < 4; worker++) {
+                Random random = new Random(worker);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        int position = random.nextInt(expectedData.length);
+                        int length = random.nextInt(Math.min(expectedData.length - position, 150000) + 1);
+                        byte[] data = new byte[length];
+                        snapshot.copyToArray(position, data, 0, length);
+                        for (int j = 0; j < length; j++) {
+                            if (data[j] != expectedData[position + j]) {
+                                throw new AssertionError("Data differs at position " + (position + j));
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            document.setByte(0, (byte) 1);
+            Assert.assertFalse(snapshot.isValid());
+            try {
+                snapshot.copyToArray(0, new byte[10], 0, 10);
+                Assert.fail("Modification of document was not detected");
+            } catch (ConcurrentModificationException ex) {
+                // expected
+            }
+            dataSource.close();
+        } finally {
+            executor.shutdown();
+            sourceFile.delete();
+        }
+    }
+}
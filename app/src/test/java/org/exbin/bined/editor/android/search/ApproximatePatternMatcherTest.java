@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.util.Random;
+
+import org.jspecify.annotations.NullMarked;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test ApproximatePatternMatcher class.
+ */
+@NullMarked
+public class ApproximatePatternMatcherTest {
+
+    private static final byte[] ALPHABET = {0, 1, 3, (byte) 0x80};
+
+    @Test
+    public void testDifferingBytes() {
+        ApproximatePatternMatcher matcher = new ApproximatePatternMatcher(new byte[]{1, 2, 3, 4}, 1, false);
+        byte[] data = {0, 1, 2, 9, 4, 1, 9, 9, 4};
+        Assert.assertEquals(1, matcher.findFirst(data, 0, data.length));
+        Assert.assertEquals(1, matcher.findLast(data, 0, data.length));
+        Assert.assertEquals(-1, matcher.findFirst(data, 2, data.length));
+    }
+
+    @Test
+    public void testDifferingBits() {
+        ApproximatePatternMatcher matcher = new ApproximatePatternMatcher(new byte[]{0x0f, 0x0f}, 2, true);
+        byte[] data = {0x00, 0x0e, 0x0d, 0x0f, 0x0f};
+        Assert.assertEquals(1, matcher.findFirst(data, 0, data.length));
+        Assert.assertEquals(3, matcher.findLast(data, 0, data.length));
+        Assert.assertEquals(-1, matcher.findFirst(data, 0, 2));
+    }
+
+    @Test
+    public void testRandomBytePatterns() {
+        checkRandomPatterns(new Random(44), false, 12);
+    }
+
+    @Test
+    public void testRandomBitPatterns() {
+        checkRandomPatterns(new Random(144), true, 12);
+    }
+
+    @Test
+    public void testLongPatterns() {
+        // Patterns over 64 bytes use multiple words per state vector
+        checkRandomPatterns(new Random(244), false, 150);
+        checkRandomPatterns(new Random(344), true, 150);
+    }
+
+    private static void checkRandomPatterns(Random random, boolean countBits, int maxPatternLength) {
+        for (int i = 0; i < 100; i++) {
+            int patternLength = 1 + random.nextInt(maxPatternLength);
+            int maxMismatches = random.nextInt(Math.min(patternLength, 8) + 2);
+            byte[] pattern = PatternMatcherChecker.createData(random, patternLength, ALPHABET);
+            byte[] data = PatternMatcherChecker.createData(random, random.nextInt(patternLength * 20 + 10), ALPHABET);
+            for (int j = 0; j < 10 && patternLength <= data.length; j++) {
+                int position = random.nextInt(data.length - patternLength + 1);
+                System.arraycopy(pattern, 0, data, position, patternLength);
+                data[position + random.nextInt(patternLength)] ^= 1;
+            }
+            PatternMatcherChecker checker = new PatternMatcherChecker(new ApproximatePatternMatcher(pattern, maxMismatches, countBits), (block, position) -> {
+                int differences = 0;
+                for (int j = 0; j < patternLength; j++) {
+                    int difference = (block[position + j] ^ pattern[j]) & 0xff;
+                    differences += countBits ? Integer.bitCount(difference) : (difference == 0 ? 0 : 1);
+                }
+                return differences <= maxMismatches;
+            });
+            checker.checkRanges(data, random, 10);
+            checker.checkBlocks(data, patternLength * 2 + random.nextInt(100));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.jspecify.annotations.NullMarked;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test FoldingPatternMatcher class.
+ */
+@NullMarked
+public class FoldingPatternMatcherTest {
+
+    private static final int CLASSES_COUNT = 5;
+
+    @Test
+    public void testRandomPatterns() {
+        Random random = new Random(32);
+        byte[] folding = createFolding();
+        byte[] canonicalValues = {0, 1, 2, 3, 4};
+        for (int i = 0; i < 200; i++) {
+            byte[] pattern = PatternMatcherChecker.createData(random, 1 + random.nextInt(10), canonicalValues);
+            byte[] data = new byte[random.nextInt(500)];
+            random.nextBytes(data);
+            PatternMatcherChecker checker = createChecker(pattern, folding);
+            checker.checkRanges(data, random, 20);
+            checker.checkBlocks(data, pattern.length * 2 + random.nextInt(50));
+        }
+    }
+
+    @Test
+    public void testCaseInsensitiveText() {
+        Random random = new Random(132);
+        String text = "abcäz";
+        EncodedTextMatcher textMatcher = EncodedTextMatcher.create(text, false, StandardCharsets.ISO_8859_1);
+        Assert.assertNotNull(textMatcher);
+        FoldingPatternMatcher matcher = textMatcher.createFoldingMatcher();
+        Assert.assertNotNull(matcher);
+
+        byte[] alphabet = "aAbBcCäÄzZx".getBytes(StandardCharsets.ISO_8859_1);
+        byte[] data = PatternMatcherChecker.createData(random, 5000, alphabet);
+        PatternMatcherChecker.plantPattern(random, data, "AbCÄz".getBytes(StandardCharsets.ISO_8859_1), 20);
+        PatternMatcherChecker checker = new PatternMatcherChecker(matcher, (block, position) -> {
+            for (int i = 0; i < text.length(); i++) {
+                char textChar = text.charAt(i);
+                char dataChar = (char) (block[position + i] & 0xff);
+                if (dataChar != textChar && dataChar != Character.toUpperCase(textChar)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+        checker.checkRanges(data, random, 100);
+        checker.checkBlocks(data, 64);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFolding() {
+        new FoldingPatternMatcher(new byte[]{1}, new byte[255]);
+    }
+
+    private static byte[] createFolding() {
+        byte[] folding = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            folding[i] = (byte) (i % CLASSES_COUNT);
+        }
+        return folding;
+    }
+
+    private static PatternMatcherChecker createChecker(byte[] pattern, byte[] folding) {
+        return new PatternMatcherChecker(new FoldingPatternMatcher(pattern, folding), (data, position) -> {
+            for (int i = 0; i < pattern.length; i++) {
+                if ((data[position + i] & 0xff) % CLASSES_COUNT != pattern[i]) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+}
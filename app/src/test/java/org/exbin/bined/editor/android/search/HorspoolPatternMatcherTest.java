@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.util.Random;
+
+import org.jspecify.annotations.NullMarked;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test HorspoolPatternMatcher and SingleBytePatternMatcher classes.
+ */
+@NullMarked
+public class HorspoolPatternMatcherTest {
+
+    private static final byte[] ALPHABET = {0, 1, 2, (byte) 0xff};
+
+    @Test
+    public void testSimpleMatch() {
+        HorspoolPatternMatcher matcher = new HorspoolPatternMatcher(new byte[]{1, 2, 1});
+        byte[] data = {0, 1, 2, 1, 2, 1, 0};
+        Assert.assertEquals(1, matcher.findFirst(data, 0, data.length));
+        Assert.assertEquals(3, matcher.findFirst(data, 2, data.length));
+        Assert.assertEquals(-1, matcher.findFirst(data, 2, 5));
+        Assert.assertEquals(3, matcher.findLast(data, 0, data.length));
+        Assert.assertEquals(1, matcher.findLast(data, 0, 5));
+        Assert.assertEquals(-1, matcher.findLast(data, 2, 5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortPattern() {
+        new HorspoolPatternMatcher(new byte[]{1});
+    }
+
+    @Test
+    public void testRandomPatterns() {
+        Random random = new Random(28);
+        for (int i = 0; i < 200; i++) {
+            byte[] pattern = PatternMatcherChecker.createData(random, 2 + random.nextInt(12), ALPHABET);
+            byte[] data = PatternMatcherChecker.createData(random, random.nextInt(500), ALPHABET);
+            PatternMatcherChecker.plantPattern(random, data, pattern, 5);
+            createChecker(pattern).checkRanges(data, random, 20);
+        }
+    }
+
+    @Test
+    public void testSingleByte() {
+        Random random = new Random(128);
+        for (int i = 0; i < 50; i++) {
+            byte value = ALPHABET[random.nextInt(ALPHABET.length)];
+            byte[] data = PatternMatcherChecker.createData(random, random.nextInt(100), new byte[]{0, 1, 2, 3, 4, 5, 6, 7});
+            PatternMatcherChecker checker = new PatternMatcherChecker(new SingleBytePatternMatcher(value), (block, position) -> block[position] == value);
+            checker.checkRanges(data, random, 20);
+            checker.checkBlocks(data, 7);
+        }
+    }
+
+    @Test
+    public void testBlockBoundaries() {
+        Random random = new Random(228);
+        for (int i = 0; i < 50; i++) {
+            byte[] pattern = PatternMatcherChecker.createData(random, 2 + random.nextInt(8), ALPHABET);
+            byte[] data = PatternMatcherChecker.createData(random, 1000 + random.nextInt(1000), ALPHABET);
+            PatternMatcherChecker.plantPattern(random, data, pattern, 20);
+            createChecker(pattern).checkBlocks(data, pattern.length * 2 + random.nextInt(50));
+        }
+    }
+
+    private static PatternMatcherChecker createChecker(byte[] pattern) {
+        return new PatternMatcherChecker(new HorspoolPatternMatcher(pattern), (data, position) -> {
+            for (int i = 0; i < pattern.length; i++) {
+                if (data[position + i] != pattern[i]) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+}
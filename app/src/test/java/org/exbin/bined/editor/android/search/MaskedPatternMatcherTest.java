@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.util.Random;
+
+import org.jspecify.annotations.NullMarked;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test MaskedPatternMatcher class.
+ */
+@NullMarked
+public class MaskedPatternMatcherTest {
+
+    private static final byte[] MASKS = {0, (byte) 0xff, (byte) 0xff, (byte) 0xf0, 0x0f, 0x01};
+
+    @Test
+    public void testWildcards() {
+        MaskedPatternMatcher matcher = new MaskedPatternMatcher(new byte[]{0x12, 0, 0x30}, new byte[]{(byte) 0xff, 0, (byte) 0xf0});
+        byte[] data = {0x12, 0x12, 0x55, 0x3f, 0x12, 0x00, 0x40};
+        Assert.assertEquals(1, matcher.findFirst(data, 0, data.length));
+        Assert.assertEquals(-1, matcher.findFirst(data, 2, data.length));
+        Assert.assertEquals(1, matcher.findLast(data, 0, data.length));
+    }
+
+    @Test
+    public void testFullyMasked() {
+        MaskedPatternMatcher matcher = new MaskedPatternMatcher(new byte[]{1, 2, 3}, new byte[3]);
+        byte[] data = new byte[5];
+        Assert.assertEquals(0, matcher.findFirst(data, 0, data.length));
+        Assert.assertEquals(2, matcher.findLast(data, 0, data.length));
+        Assert.assertEquals(-1, matcher.findLast(data, 3, data.length));
+    }
+
+    @Test
+    public void testRandomPatterns() {
+        Random random = new Random(34);
+        byte[] alphabet = {0, 1, 0x10, 0x11, (byte) 0xf1};
+        for (int i = 0; i < 300; i++) {
+            // Lengths over 8 bytes are verified by long words
+            int patternLength = 1 + random.nextInt(i % 2 == 0 ? 6 : 24);
+            byte[] pattern = PatternMatcherChecker.createData(random, patternLength, alphabet);
+            byte[] mask = PatternMatcherChecker.createData(random, patternLength, MASKS);
+            byte[] data = PatternMatcherChecker.createData(random, random.nextInt(600), alphabet);
+            PatternMatcherChecker.plantPattern(random, data, pattern, 10);
+            PatternMatcherChecker checker = new PatternMatcherChecker(new MaskedPatternMatcher(pattern, mask), (block, position) -> {
+                for (int j = 0; j < patternLength; j++) {
+                    if (((block[position + j] ^ pattern[j]) & mask[j]) != 0) {
+                        return false;
+                    }
+                }
+                return true;
+            });
+            checker.checkRanges(data, random, 20);
+            checker.checkBlocks(data, patternLength * 2 + random.nextInt(50));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaskLength() {
+        new MaskedPatternMatcher(new byte[]{1, 2}, new byte[]{1});
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.exbin.auxiliary.binary_data.buffer.BufferData;
+import org.exbin.auxiliary.binary_data.buffer.BufferEditableData;
+import org.jspecify.annotations.NullMarked;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test MultiPatternMatcher and AhoCorasickAutomaton classes.
+ */
+@NullMarked
+public class MultiPatternMatcherTest {
+
+    private static final String[] TOKENS = {"a", "A", "b", "B", "s", "S", "ſ", "ı", "I", "i", "k", "K", "\u0000"};
+    private static final String[] TEXTS = {"ab", "sab", "ſa", "ıa", "Ka", "ſſſſſſſſſ"};
+
+    @Test
+    public void testAutomaton() {
+        Random random = new Random(33);
+        byte[] alphabet = {0, 1, 2};
+        for (int i = 0; i < 100; i++) {
+            List<byte[]> patterns = new ArrayList<>();
+            int patternsCount = 1 + random.nextInt(8);
+            int[] tags = new int[patternsCount];
+            for (int j = 0; j < patternsCount; j++) {
+                patterns.add(PatternMatcherChecker.createData(random, 1 + random.nextInt(5), alphabet));
+                tags[j] = j;
+            }
+            AhoCorasickAutomaton automaton = new AhoCorasickAutomaton(patterns, tags);
+            byte[] data = PatternMatcherChecker.createData(random, random.nextInt(300), alphabet);
+
+            List<long[]> expectedMatches = new ArrayList<>();
+            for (int position = 0; position < data.length; position++) {
+                for (int j = 0; j < patternsCount; j++) {
+                    byte[] pattern = patterns.get(j);
+                    if (position + pattern.length <= data.length && Arrays.equals(pattern, Arrays.copyOfRange(data, position, position + pattern.length))) {
+                        expectedMatches.add(new long[]{position, pattern.length, j});
+                    }
+                }
+            }
+
+            List<long[]> matches = new ArrayList<>();
+            int state = 0;
+            for (int position = 0; position < data.length; position++) {
+                state = automaton.nextState(state, data[position]);
+                for (int patternIndex : automaton.getOutputs(state)) {
+                    int length = automaton.getPatternLength(patternIndex);
+                    matches.add(new long[]{position - length + 1, length, automaton.getPatternTag(patternIndex)});
+                }
+            }
+            checkMatches(expectedMatches, matches);
+        }
+    }
+
+    @Test
+    public void testMatchCase() {
+        checkPatterns(new Random(133), true);
+    }
+
+    @Test
+    public void testIgnoreCase() {
+        checkPatterns(new Random(233), false);
+    }
+
+    @Test
+    public void testVariantsOverLimit() {
+        Charset charset = StandardCharsets.UTF_8;
+        MultiPatternMatcher matcher = MultiPatternMatcher.create(Arrays.asList(createTextPattern("ſſſſſſſſſ")), false, charset);
+        byte[] data = "xSſSſSſSſSx".getBytes(charset);
+        List<long[]> matches = new ArrayList<>();
+        matcher.findMatches(data, 0, data.length, data.length, (position, length, patternTag) -> {
+            matches.add(new long[]{position, length, patternTag});
+            return true;
+        });
+        Assert.assertEquals(1, matches.size());
+        Assert.assertEquals(1, matches.get(0)[0]);
+        Assert.assertEquals(data.length - 2, matches.get(0)[1]);
+    }
+
+    private static void checkPatterns(Random random, boolean matchCase) {
+        Charset charset = StandardCharsets.UTF_8;
+        List<SearchCondition> patterns = new ArrayList<>();
+        for (String text : TEXTS) {
+            patterns.add(createTextPattern(text));
+        }
+        SearchCondition binaryPattern = new SearchCondition();
+        binaryPattern.setSearchMode(SearchCondition.SearchMode.BINARY);
+        binaryPattern.setBinaryData(new BufferEditableData(new byte[]{0, 'a'}));
+        patterns.add(binaryPattern);
+        MultiPatternMatcher matcher = MultiPatternMatcher.create(patterns, matchCase, charset);
+
+        for (int i = 0; i < 20; i++) {
+            ByteArrayOutputStream dataStream = new ByteArrayOutputStream();
+            for (int j = 0; j < 2000; j++) {
+                String token = random.nextInt(50) == 0 ? TEXTS[random.nextInt(TEXTS.length)].toUpperCase() : TOKENS[random.nextInt(TOKENS.length)];
+                byte[] tokenData = token.getBytes(charset);
+                dataStream.write(tokenData, 0, tokenData.length);
+            }
+            byte[] data = dataStream.toByteArray();
+
+            List<long[]> expectedMatches = new ArrayList<>();
+            for (int patternIndex = 0; patternIndex < TEXTS.length; patternIndex++) {
+                String text = matchCase ? TEXTS[patternIndex] : TEXTS[patternIndex].toLowerCase();
+                for (int position = 0; position < data.length; position++) {
+                    addTextMatches(data, position, position, text, 0, matchCase, charset, patternIndex, expectedMatches);
+                }
+            }
+            for (int position = 0; position + 1 < data.length; position++) {
+                if (data[position] == 0 && data[position + 1] == 'a') {
+                    expectedMatches.add(new long[]{position, 2, TEXTS.length});
+                }
+            }
+
+            List<long[]> matches = new ArrayList<>();
+            matcher.findMatches(data, 0, data.length, data.length, (position, length, patternTag) -> {
+                matches.add(new long[]{position, length, patternTag});
+                return true;
+            });
+            checkMatches(expectedMatches, matches);
+
+            // Matches crossing block boundaries
+            int overlap = matcher.getMaxPatternLength() - 1;
+            SearchDataScanner scanner = new SearchDataScanner(new BufferData(data), 0, data.length, overlap * 2 + 1 + random.nextInt(100), overlap);
+            List<long[]> blockMatches = new ArrayList<>();
+            scanner.loadForward(0);
+            do {
+                long blockPosition = scanner.getBlockPosition();
+                int blockLength = scanner.getBlockLength();
+                int startsEnd = scanner.isLastBlock() ? blockLength : blockLength - overlap;
+                matcher.findMatches(scanner.getBuffer(), 0, blockLength, startsEnd, (position, length, patternTag) -> {
+                    blockMatches.add(new long[]{blockPosition + position, length, patternTag});
+                    return true;
+                });
+            } while (scanner.nextBlock());
+            checkMatches(expectedMatches, blockMatches);
+        }
+    }
+
+    /**
+     * Adds matches of text starting at given position using all case
+     * variants of the characters.
+     */
+    private static void addTextMatches(byte[] data, int start, int position, String text, int charIndex, boolean matchCase, Charset charset, int patternTag, List<long[]> matches) {
+        if (charIndex == text.length()) {
+            matches.add(new long[]{start, position - start, patternTag});
+            return;
+        }
+
+        char textChar = text.charAt(charIndex);
+        List<byte[]> variants = new ArrayList<>();
+        variants.add(String.valueOf(textChar).getBytes(charset));
+        if (!matchCase) {
+            for (char variant : new char[]{Character.toUpperCase(textChar), Character.toTitleCase(textChar)}) {
+                byte[] variantData = String.valueOf(variant).getBytes(charset);
+                boolean present = false;
+                for (byte[] existing : variants) {
+                    present |= Arrays.equals(existing, variantData);
+                }
+                if (!present) {
+                    variants.add(variantData);
+                }
+            }
+        }
+        for (byte[] variant : variants) {
+            if (position + variant.length <= data.length && Arrays.equals(variant, Arrays.copyOfRange(data, position, position + variant.length))) {
+                addTextMatches(data, start, position + variant.length, text, charIndex + 1, matchCase, charset, patternTag, matches);
+            }
+        }
+    }
+
+    private static SearchCondition createTextPattern(String text) {
+        SearchCondition pattern = new SearchCondition();
+        pattern.setSearchMode(SearchCondition.SearchMode.TEXT);
+        pattern.setSearchText(text);
+        return pattern;
+    }
+
+    private static void checkMatches(List<long[]> expectedMatches, List<long[]> matches) {
+        expectedMatches.sort(MultiPatternMatcherTest::compareMatches);
+        matches.sort(MultiPatternMatcherTest::compareMatches);
+        Assert.assertEquals(expectedMatches.size(), matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            Assert.assertArrayEquals(expectedMatches.get(i), matches.get(i));
+        }
+    }
+
+    private static int compareMatches(long[] first, long[] second) {
+        for (int i = 0; i < first.length; i++) {
+            int result = Long.compare(first[i], second[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+}
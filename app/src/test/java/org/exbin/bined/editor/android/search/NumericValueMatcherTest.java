@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.exbin.auxiliary.binary_data.buffer.BufferData;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test NumericValueMatcher class.
+ */
+@NullMarked
+public class NumericValueMatcherTest {
+
+    private static final byte[] ALPHABET = {0, 1, 0x7f, (byte) 0x80, (byte) 0xff};
+    private static final BigDecimal INFINITY = BigDecimal.TEN.pow(400);
+
+    @Test
+    public void testExactValue() {
+        NumericCondition condition = createCondition(NumericCondition.NumericType.INT16, ByteOrder.BIG_ENDIAN, false, "-2", "");
+        NumericValueMatcher matcher = new NumericValueMatcher(condition);
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{0, (byte) 0xff, (byte) 0xfe, (byte) 0xff, (byte) 0xfe}).order(ByteOrder.BIG_ENDIAN);
+        Assert.assertEquals(1, matcher.findFirst(buffer, 0, 0, 5));
+        Assert.assertEquals(3, matcher.findLast(buffer, 0, 0, 5));
+        Assert.assertEquals(-1, matcher.findFirst(buffer, 0, 0, 2));
+
+        condition.setAligned(true);
+        matcher = new NumericValueMatcher(condition);
+        Assert.assertEquals(-1, matcher.findFirst(buffer, 0, 0, 5));
+        Assert.assertEquals(1, matcher.findFirst(buffer, 1, 0, 5));
+        Assert.assertEquals(3, matcher.findLast(buffer, 1, 0, 5));
+    }
+
+    @Test
+    public void testUnsignedRange() {
+        NumericCondition condition = createCondition(NumericCondition.NumericType.UINT64, ByteOrder.LITTLE_ENDIAN, false, "0x7fffffffffffffff", "18446744073709551615");
+        NumericValueMatcher matcher = new NumericValueMatcher(condition);
+        byte[] data = new byte[16];
+        data[15] = (byte) 0x80;
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(8, matcher.findFirst(buffer, 0, 0, data.length));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testValueOutOfRange() {
+        new NumericValueMatcher(createCondition(NumericCondition.NumericType.UINT8, ByteOrder.LITTLE_ENDIAN, false, "256", ""));
+    }
+
+    @Test
+    public void testRandomValues() {
+        Random random = new Random(45);
+        for (NumericCondition.NumericType numericType : NumericCondition.NumericType.values()) {
+            for (ByteOrder byteOrder : new ByteOrder[]{ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+                for (boolean aligned : new boolean[]{false, true}) {
+                    for (int i = 0; i < 20; i++) {
+                        checkRandomCondition(random, numericType, byteOrder, aligned);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void checkRandomCondition(Random random, NumericCondition.NumericType numericType, ByteOrder byteOrder, boolean aligned) {
+        int valueLength = numericType.getLength();
+        byte[] data = PatternMatcherChecker.createData(random, valueLength + random.nextInt(300), ALPHABET);
+        int firstPosition = random.nextInt(data.length - valueLength + 1);
+        int secondPosition = random.nextInt(data.length - valueLength + 1);
+        BigDecimal first = readValue(data, firstPosition, numericType, byteOrder);
+        BigDecimal second = readValue(data, secondPosition, numericType, byteOrder);
+        if (first == null || second == null) {
+            return;
+        }
+        boolean range = random.nextBoolean();
+        if (range && first.compareTo(second) > 0) {
+            BigDecimal value = first;
+            first = second;
+            second = value;
+            int position = firstPosition;
+            firstPosition = secondPosition;
+            secondPosition = position;
+        }
+        BigDecimal minimum = first;
+        BigDecimal maximum = range ? second : first;
+        String minimumText = toText(data, firstPosition, numericType, byteOrder);
+        NumericCondition condition = createCondition(numericType, byteOrder, aligned, minimumText, range ? toText(data, secondPosition, numericType, byteOrder) : "");
+        NumericValueMatcher matcher = new NumericValueMatcher(condition);
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(byteOrder);
+        String message = numericType + " " + byteOrder + " " + aligned;
+
+        for (int i = 0; i < 20; i++) {
+            long blockPosition = random.nextInt(16);
+            int from = random.nextInt(data.length + 1);
+            int to = from + random.nextInt(data.length - from + 1);
+            int expectedFirst = -1;
+            int expectedLast = -1;
+            for (int position = from; position + valueLength <= to; position++) {
+                if (matches(data, blockPosition, position, numericType, byteOrder, aligned, minimum, maximum)) {
+                    if (expectedFirst < 0) {
+                        expectedFirst = position;
+                    }
+                    expectedLast = position;
+                }
+            }
+            Assert.assertEquals(message, expectedFirst, matcher.findFirst(buffer, blockPosition, from, to));
+            Assert.assertEquals(message, expectedLast, matcher.findLast(buffer, blockPosition, from, to));
+        }
+
+        // Scanning in blocks the same way as search service does
+        List<Integer> expectedMatches = new ArrayList<>();
+        for (int position = 0; position + valueLength <= data.length; position++) {
+            if (matches(data, 0, position, numericType, byteOrder, aligned, minimum, maximum)) {
+                expectedMatches.add(position);
+            }
+        }
+        SearchDataScanner scanner = new SearchDataScanner(new BufferData(data), 0, data.length, valueLength * 2 + random.nextInt(30), valueLength - 1);
+        List<Integer> matches = new ArrayList<>();
+        scanner.loadForward(0);
+        do {
+            ByteBuffer blockBuffer = ByteBuffer.wrap(scanner.getBuffer()).order(byteOrder);
+            long blockPosition = scanner.getBlockPosition();
+            int blockLength = scanner.getBlockLength();
+            int matchPosition = matcher.findFirst(blockBuffer, blockPosition, 0, blockLength);
+            while (matchPosition >= 0) {
+                matches.add((int) blockPosition + matchPosition);
+                matchPosition = matcher.findFirst(blockBuffer, blockPosition, matchPosition + 1, blockLength);
+            }
+        } while (scanner.nextBlock());
+        Assert.assertEquals(message, expectedMatches, matches);
+
+        matches.clear();
+        scanner.loadBackward(data.length);
+        do {
+            ByteBuffer blockBuffer = ByteBuffer.wrap(scanner.getBuffer()).order(byteOrder);
+            long blockPosition = scanner.getBlockPosition();
+            int matchPosition = matcher.findLast(blockBuffer, blockPosition, 0, scanner.getBlockLength());
+            while (matchPosition >= 0) {
+                matches.add((int) blockPosition + matchPosition);
+                matchPosition = matcher.findLast(blockBuffer, blockPosition, 0, matchPosition + valueLength - 1);
+            }
+        } while (scanner.previousBlock());
+        Collections.reverse(matches);
+        Assert.assertEquals(message, expectedMatches, matches);
+    }
+
+    private static boolean matches(byte[] data, long blockPosition, int position, NumericCondition.NumericType numericType, ByteOrder byteOrder, boolean aligned, BigDecimal minimum, BigDecimal maximum) {
+        if (aligned && (blockPosition + position) % numericType.getLength() != 0) {
+            return false;
+        }
+
+        BigDecimal value = readValue(data, position, numericType, byteOrder);
+        return value != null && value.compareTo(minimum) >= 0 && value.compareTo(maximum) <= 0;
+    }
+
+    /**
+     * Reads exact value assembling bytes manually.
+     *
+     * @return value, infinity is replaced by value out of range of all types
+     * and null is returned for not a number
+     */
+    @Nullable
+    private static BigDecimal readValue(byte[] data, int position, NumericCondition.NumericType numericType, ByteOrder byteOrder) {
+        long bits = readBits(data, position, numericType, byteOrder);
+        if (numericType.isFloatingPoint()) {
+            double value = numericType == NumericCondition.NumericType.FLOAT32 ? Float.intBitsToFloat((int) bits) : Double.longBitsToDouble(bits);
+            if (Double.isNaN(value)) {
+                return null;
+            }
+            if (Double.isInfinite(value)) {
+                return value > 0 ? INFINITY : INFINITY.negate();
+            }
+            return new BigDecimal(value);
+        }
+
+        int valueBits = numericType.getLength() * 8;
+        BigInteger value = BigInteger.valueOf(bits).and(BigInteger.ONE.shiftLeft(valueBits).subtract(BigInteger.ONE));
+        if (numericType.isSigned() && value.testBit(valueBits - 1)) {
+            value = value.subtract(BigInteger.ONE.shiftLeft(valueBits));
+        }
+        return new BigDecimal(value);
+    }
+
+    private static String toText(byte[] data, int position, NumericCondition.NumericType numericType, ByteOrder byteOrder) {
+        long bits = readBits(data, position, numericType, byteOrder);
+        switch (numericType) {
+            case FLOAT32:
+                return Float.toString(Float.intBitsToFloat((int) bits));
+            case FLOAT64:
+                return Double.toString(Double.longBitsToDouble(bits));
+            default:
+                return readValue(data, position, numericType, byteOrder).toBigInteger().toString();
+        }
+    }
+
+    private static long readBits(byte[] data, int position, NumericCondition.NumericType numericType, ByteOrder byteOrder) {
+        int valueLength = numericType.getLength();
+        long bits = 0;
+        for (int i = 0; i < valueLength; i++) {
+            int offset = byteOrder == ByteOrder.BIG_ENDIAN ? i : valueLength - 1 - i;
+            bits = (bits << 8) | (data[position + offset] & 0xff);
+        }
+        return bits;
+    }
+
+    private static NumericCondition createCondition(NumericCondition.NumericType numericType, ByteOrder byteOrder, boolean aligned, String minimum, String maximum) {
+        NumericCondition condition = new NumericCondition();
+        condition.setNumericType(numericType);
+        condition.setByteOrder(byteOrder);
+        condition.setAligned(aligned);
+        condition.setMinimum(minimum);
+        condition.setMaximum(maximum);
+        return condition;
+    }
+}
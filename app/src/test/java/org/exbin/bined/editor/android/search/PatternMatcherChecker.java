@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.editor.android.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.exbin.auxiliary.binary_data.buffer.BufferData;
+import org.jspecify.annotations.NullMarked;
+import org.junit.Assert;
+
+/**
+ * Comparison of byte pattern matcher with brute force matching.
+ */
+@NullMarked
+class PatternMatcherChecker {
+
+    private final BytePatternMatcher matcher;
+    private final MatchPredicate predicate;
+
+    PatternMatcherChecker(BytePatternMatcher matcher, MatchPredicate predicate) {
+        this.matcher = matcher;
+        this.predicate = predicate;
+    }
+
+    /**
+     * Checks findFirst and findLast for random ranges of the data.
+     *
+     * @param data data
+     * @param random random generator
+     * @param rangesCount number of checked ranges
+     */
+    void checkRanges(byte[] data, Random random, int rangesCount) {
+        for (int i = 0; i < rangesCount; i++) {
+            int from = random.nextInt(data.length + 1);
+            int to = from + random.nextInt(data.length - from + 1);
+            Assert.assertEquals("findFirst " + from + "-" + to, findFirst(data, from, to), matcher.findFirst(data, from, to));
+            Assert.assertEquals("findLast " + from + "-" + to, findLast(data, from, to), matcher.findLast(data, from, to));
+        }
+    }
+
+    /**
+     * Checks all matches found by scanning the data in blocks of given size
+     * the same way as search service does.
+     *
+     * @param data data
+     * @param blockSize block size
+     */
+    void checkBlocks(byte[] data, int blockSize) {
+        List<Integer> expectedMatches = new ArrayList<>();
+        int patternLength = matcher.getPatternLength();
+        for (int position = 0; position + patternLength <= data.length; position++) {
+            if (predicate.matchesAt(data, position)) {
+                expectedMatches.add(position);
+            }
+        }
+
+        BufferData binaryData = new BufferData(data);
+        SearchDataScanner scanner = new SearchDataScanner(binaryData, 0, data.length, blockSize, patternLength - 1);
+        List<Integer> matches = new ArrayList<>();
+        if (scanner.loadForward(0)) {
+            do {
+                byte[] block = scanner.getBuffer();
+                int blockLength = scanner.getBlockLength();
+                int matchPosition = matcher.findFirst(block, 0, blockLength);
+                while (matchPosition >= 0) {
+                    matches.add((int) scanner.getBlockPosition() + matchPosition);
+                    matchPosition = matcher.findFirst(block, matchPosition + 1, blockLength);
+                }
+            } while (scanner.nextBlock());
+        }
+        Assert.assertEquals(expectedMatches, matches);
+
+        matches.clear();
+        if (scanner.loadBackward(data.length)) {
+            do {
+                byte[] block = scanner.getBuffer();
+                int matchPosition = matcher.findLast(block, 0, scanner.getBlockLength());
+                while (matchPosition >= 0) {
+                    matches.add((int) scanner.getBlockPosition() + matchPosition);
+                    matchPosition = matcher.findLast(block, 0, matchPosition + patternLength - 1);
+                }
+            } while (scanner.previousBlock());
+        }
+        Collections.reverse(matches);
+        Assert.assertEquals(expectedMatches, matches);
+    }
+
+    private int findFirst(byte[] data, int from, int to) {
+        for (int position = from; position + matcher.getPatternLength() <= to; position++) {
+            if (predicate.matchesAt(data, position)) {
+                return position;
+            }
+        }
+
+        return -1;
+    }
+
+    private int findLast(byte[] data, int from, int to) {
+        for (int position = to - matcher.getPatternLength(); position >= from; position--) {
+            if (predicate.matchesAt(data, position)) {
+                return position;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Creates random data from small alphabet so that matches are frequent.
+     *
+     * @param random random generator
+     * @param length data length
+     * @param alphabet alphabet of values
+     * @return data
+     */
+    static byte[] createData(Random random, int length, byte[] alphabet) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = alphabet[random.nextInt(alphabet.length)];
+        }
+        return data;
+    }
+
+    /**
+     * Copies pattern into data at random positions.
+     *
+     * @param random random generator
+     * @param data data
+     * @param pattern pattern
+     * @param count number of copies
+     */
+    static void plantPattern(Random random, byte[] data, byte[] pattern, int count) {
+        for (int i = 0; i < count && pattern.length <= data.length; i++) {
+            System.arraycopy(pattern, 0, data, random.nextInt(data.length - pattern.length + 1), pattern.length);
+        }
+    }
+
+    /**
+     * Reference matching of pattern at position.
+     */
+    interface MatchPredicate {
+
+        boolean matchesAt(byte[] data, int position);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) ExBin Project, https://exbin.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.exbin.bined.highlight.android;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.jspecify.annotations.NullMarked;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test SearchMatches class.
+ */
+@NullMarked
+public class SearchMatchesTest {
+
+    @Test
+    public void testUniformLength() {
+        SearchMatches matches = new SearchMatches();
+        matches.add(10, 3);
+        matches.add(20, 3);
+        Assert.assertEquals(3, matches.getLength(1));
+        Assert.assertEquals(0, matches.getPatternIndex(1));
+        matches.add(30, 5, 2);
+        Assert.assertEquals(3, matches.getLength(0));
+        Assert.assertEquals(5, matches.getLength(2));
+        Assert.assertEquals(0, matches.getPatternIndex(0));
+        Assert.assertEquals(2, matches.getPatternIndex(2));
+        Assert.assertEquals(5, matches.getMaxLength());
+    }
+
+    @Test
+    public void testReplaceRange() {
+        SearchMatches matches = createMatches(new long[]{0, 10, 20, 30}, 2);
+        SearchMatches replacement = createMatches(new long[]{11, 15, 19}, 4);
+        matches.replaceRange(1, 3, replacement);
+        checkMatches(new long[][]{{0, 2, 0}, {11, 4, 0}, {15, 4, 0}, {19, 4, 0}, {30, 2, 0}}, matches);
+
+        matches.replaceRange(1, 4, new SearchMatches());
+        checkMatches(new long[][]{{0, 2, 0}, {30, 2, 0}}, matches);
+
+        matches.replaceRange(0, 2, createMatches(new long[]{5}, 7));
+        checkMatches(new long[][]{{5, 7, 0}}, matches);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testReplaceInvalidRange() {
+        SearchMatches matches = createMatches(new long[]{0, 10}, 1);
+        matches.replaceRange(1, 3, new SearchMatches());
+    }
+
+    @Test
+    public void testShiftPositions() {
+        SearchMatches matches = createMatches(new long[]{0, 10, 20, 30}, 2);
+        matches.shiftPositions(2, -5);
+        checkMatches(new long[][]{{0, 2, 0}, {10, 2, 0}, {15, 2, 0}, {25, 2, 0}}, matches);
+        Assert.assertEquals(2, matches.findFirstStartingFrom(11));
+        Assert.assertEquals(2, matches.findFirstStartingFrom(15));
+        Assert.assertEquals(4, matches.findFirstStartingFrom(26));
+        Assert.assertEquals(1, matches.findFirstCovering(11));
+    }
+
+    @Test
+    public void testSort() {
+        SearchMatches matches = new SearchMatches();
+        matches.add(30, 1, 1);
+        matches.add(10, 2, 0);
+        matches.add(30, 3, 0);
+        matches.add(20, 4, 2);
+        matches.add(10, 5, 0);
+        matches.sort();
+        checkMatches(new long[][]{{10, 2, 0}, {10, 5, 0}, {20, 4, 2}, {30, 3, 0}, {30, 1, 1}}, matches);
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(36);
+        SearchMatches matches = new SearchMatches();
+        List<long[]> model = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            switch (random.nextInt(8)) {
+                case 0:
+                case 1: {
+                    long[] match = createRandomMatch(random);
+                    matches.add(match[0], match[1], (int) match[2]);
+                    model.add(match);
+                    break;
+                }
+                case 2: {
+                    int fromIndex = random.nextInt(model.size() + 1);
+                    int toIndex = fromIndex + random.nextInt(Math.min(model.size() - fromIndex, 5) + 1);
+                    matches.removeRange(fromIndex, toIndex);
+                    model.subList(fromIndex, toIndex).clear();
+                    break;
+                }
+                case 3:
+                case 4: {
+                    int fromIndex = random.nextInt(model.size() + 1);
+                    int toIndex = fromIndex + random.nextInt(Math.min(model.size() - fromIndex, 5) + 1);
+                    SearchMatches replacement = new SearchMatches();
+                    List<long[]> replacementModel = new ArrayList<>();
+                    int count = random.nextInt(6);
+                    for (int j = 0; j < count; j++) {
+                        long[] match = createRandomMatch(random);
+                        replacement.add(match[0], match[1], (int) match[2]);
+                        replacementModel.add(match);
+                    }
+                    matches.replaceRange(fromIndex, toIndex, replacement);
+                    model.subList(fromIndex, toIndex).clear();
+                    model.addAll(fromIndex, replacementModel);
+                    break;
+                }
+                case 5: {
+                    int fromIndex = random.nextInt(model.size() + 1);
+                    long shift = random.nextInt(21) - 10;
+                    matches.shiftPositions(fromIndex, shift);
+                    for (int j = fromIndex; j < model.size(); j++) {
+                        model.get(j)[0] += shift;
+                    }
+                    break;
+                }
+                case 6: {
+                    matches.reverse();
+                    Collections.reverse(model);
+                    break;
+                }
+                default: {
+                    matches.sort();
+                    model.sort(Comparator.<long[]>comparingLong(match -> match[0]).thenComparingLong(match -> match[2]));
+                    checkLookup(matches, model, random);
+                    break;
+                }
+            }
+            checkMatches(model.toArray(new long[0][]), matches);
+            if (random.nextInt(500) == 0) {
+                matches.clear();
+                model.clear();
+            }
+        }
+    }
+
+    private static long[] createRandomMatch(Random random) {
+        return new long[]{random.nextInt(1000), random.nextInt(10) < 8 ? 4 : 1 + random.nextInt(10), random.nextInt(10) < 8 ? 0 : random.nextInt(3)};
+    }
+
+    private static void checkLookup(SearchMatches matches, List<long[]> model, Random random) {
+        long maxLength = 0;
+        for (long[] match : model) {
+            maxLength = Math.max(maxLength, match[1]);
+        }
+        Assert.assertTrue(matches.getMaxLength() >= maxLength);
+        for (int i = 0; i < 20; i++) {
+            long position = random.nextInt(1100) - 50;
+            int expectedIndex = 0;
+            while (expectedIndex < model.size() && model.get(expectedIndex)[0] < position) {
+                expectedIndex++;
+            }
+            Assert.assertEquals(expectedIndex, matches.findFirstStartingFrom(position));
+
+            int coveringIndex = matches.findFirstCovering(position);
+            for (int j = 0; j < coveringIndex; j++) {
+                Assert.assertTrue(model.get(j)[0] + model.get(j)[1] <= position);
+            }
+        }
+    }
+
+    private static SearchMatches createMatches(long[] positions, long length) {
+        SearchMatches matches = new SearchMatches();
+        for (long position : positions) {
+            matches.add(position, length);
+        }
+        return matches;
+    }
+
+    private static void checkMatches(long[][] expectedMatches, SearchMatches matches) {
+        Assert.assertEquals(expectedMatches.length, matches.size());
+        for (int i = 0; i < expectedMatches.length; i++) {
+            Assert.assertArrayEquals(expectedMatches[i], new long[]{matches.getPosition(i), matches.getLength(i), matches.getPatternIndex(i)});
+        }
+    }
+}